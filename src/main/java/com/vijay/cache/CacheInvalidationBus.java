@@ -0,0 +1,24 @@
+package com.vijay.cache;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Broadcasts L1 invalidations between nodes sharing the same L2 cache
+ */
+public interface CacheInvalidationBus {
+    
+    /**
+     * Key passed to listeners when a whole cache was cleared
+     */
+    Object ALL_KEYS = new Object();
+    
+    /**
+     * Notify other nodes that an entry changed; a null key means the whole cache
+     */
+    void publish(String cacheName, Object key);
+    
+    /**
+     * Register the local handler for invalidations published by other nodes
+     */
+    void subscribe(BiConsumer<String, Object> handler);
+}
@@ -0,0 +1,58 @@
+package com.vijay.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache invalidation bus over Redis pub/sub.
+ * Messages are "nodeId|E|cacheName|key" for a single entry or "nodeId|C|cacheName|" for a clear;
+ * messages published by this node are ignored on receipt.
+ */
+public class RedisCacheInvalidationBus implements CacheInvalidationBus {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic topic;
+    
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     String channel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.topic = new ChannelTopic(channel);
+    }
+    
+    @Override
+    public void publish(String cacheName, Object key) {
+        String message = key == null
+                ? String.join("|", nodeId, "C", cacheName, "")
+                : String.join("|", nodeId, "E", cacheName, key.toString());
+        try {
+            redisTemplate.convertAndSend(topic.getTopic(), message);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to their L1 TTL
+            logger.warn("Failed to publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+    
+    @Override
+    public void subscribe(BiConsumer<String, Object> handler) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length < 4 || nodeId.equals(parts[0])) {
+                return;
+            }
+            handler.accept(parts[2], "C".equals(parts[1]) ? ALL_KEYS : parts[3]);
+        }, topic);
+    }
+}
@@ -0,0 +1,236 @@
+package com.vijay.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache with a bounded in-heap L1 (Caffeine) in front of a shared L2 cache (Redis).
+ * Writes go to L2 first, then L1, and are broadcast so other nodes drop their L1 copy.
+ *
+ * Concurrent loads of one key through {@link #get(Object, Callable)} share a single L2 read and
+ * loader call. Every remote invalidation bumps a generation; an L1 fill that started before the
+ * bump is dropped again, so a value read from L2 just before another node changed it does not
+ * outlive the invalidation.
+ */
+public class TwoTierCache implements Cache {
+    
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> l1;
+    private final Cache l2;
+    private final CacheInvalidationBus invalidationBus;
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+    private final Timer l2LoadTimer;
+    private final Timer valueLoadTimer;
+    
+    public TwoTierCache(String name,
+                        com.github.benmanes.caffeine.cache.Cache<String, Object> l1,
+                        Cache l2,
+                        CacheInvalidationBus invalidationBus,
+                        MeterRegistry meterRegistry) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.invalidationBus = invalidationBus;
+        
+        this.l1Hits = meterRegistry.counter("cache.tier.requests", "cache_name", name, "result", "l1_hit");
+        this.l2Hits = meterRegistry.counter("cache.tier.requests", "cache_name", name, "result", "l2_hit");
+        this.misses = meterRegistry.counter("cache.tier.requests", "cache_name", name, "result", "miss");
+        this.l2LoadTimer = Timer.builder("cache.tier.load.time")
+                .description("Time to load a cache entry from L2 or from the value loader")
+                .tag("cache_name", name)
+                .tag("source", "l2")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.valueLoadTimer = Timer.builder("cache.tier.load.time")
+                .description("Time to load a cache entry from L2 or from the value loader")
+                .tag("cache_name", name)
+                .tag("source", "loader")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        String l1Key = l1Key(key);
+        Object local = l1.getIfPresent(l1Key);
+        if (local != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(local);
+        }
+        
+        long generation = invalidations.get();
+        ValueWrapper remote = readL2(key);
+        if (remote == null || remote.get() == null) {
+            misses.increment();
+            return remote;
+        }
+        l2Hits.increment();
+        l1.put(l1Key, remote.get());
+        dropIfInvalidatedSince(generation, l1Key);
+        return remote;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String l1Key = l1Key(key);
+        Object local = l1.getIfPresent(l1Key);
+        if (local != null) {
+            l1Hits.increment();
+            return (T) local;
+        }
+        
+        long generation = invalidations.get();
+        boolean[] loadedHere = new boolean[1];
+        // Caffeine runs the mapping function once per key; concurrent callers wait for its result
+        Object value = l1.get(l1Key, k -> {
+            loadedHere[0] = true;
+            return loadThrough(key, valueLoader);
+        });
+        if (!loadedHere[0] && value != null) {
+            l1Hits.increment();
+        }
+        dropIfInvalidatedSince(generation, l1Key);
+        return (T) value;
+    }
+    
+    /**
+     * L2, else the value loader; a loaded value is written to L2 and announced to other nodes
+     */
+    private Object loadThrough(Object key, Callable<?> valueLoader) {
+        ValueWrapper remote = readL2(key);
+        if (remote != null && remote.get() != null) {
+            l2Hits.increment();
+            return remote.get();
+        }
+        misses.increment();
+        
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            valueLoadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        l2.put(key, value);
+        invalidationBus.publish(name, l1Key(key));
+        return value;
+    }
+    
+    private ValueWrapper readL2(Object key) {
+        long start = System.nanoTime();
+        try {
+            return l2.get(key);
+        } finally {
+            l2LoadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * The invalidation may have run between the L2 read and the L1 put; its generation bump
+     * happens before its L1 removal, so either it removes our entry or we see the bump here
+     */
+    private void dropIfInvalidatedSince(long generation, String l1Key) {
+        if (invalidations.get() != generation) {
+            l1.invalidate(l1Key);
+        }
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        if (value != null) {
+            l1.put(l1Key(key), value);
+        }
+        invalidationBus.publish(name, l1Key(key));
+    }
+    
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        l1.invalidate(l1Key(key));
+        invalidationBus.publish(name, l1Key(key));
+    }
+    
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        invalidationBus.publish(name, null);
+    }
+    
+    /**
+     * Drop a local entry after another node changed it
+     */
+    void invalidateLocal(Object key) {
+        invalidations.incrementAndGet();
+        if (key == CacheInvalidationBus.ALL_KEYS) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(l1Key(key));
+        }
+    }
+    
+    /**
+     * Snapshot of tier hit rates and load latency for the performance endpoint
+     */
+    public Map<String, Object> getStats() {
+        double l1Count = l1Hits.count();
+        double l2Count = l2Hits.count();
+        double missCount = misses.count();
+        double total = l1Count + l2Count + missCount;
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("l1Size", l1.estimatedSize());
+        stats.put("l1Hits", (long) l1Count);
+        stats.put("l2Hits", (long) l2Count);
+        stats.put("misses", (long) missCount);
+        stats.put("l1HitRate", total > 0 ? l1Count / total : 0);
+        stats.put("l2HitRate", total > 0 ? l2Count / total : 0);
+        stats.put("l1Evictions", l1.stats().evictionCount());
+        stats.put("l2LoadMeanMs", l2LoadTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("l2LoadMaxMs", l2LoadTimer.max(TimeUnit.MILLISECONDS));
+        stats.put("loaderMeanMs", valueLoadTimer.mean(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+    
+    private static String l1Key(Object key) {
+        return String.valueOf(key);
+    }
+}
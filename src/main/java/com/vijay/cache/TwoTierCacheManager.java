@@ -0,0 +1,73 @@
+package com.vijay.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vijay.config.NearCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * CacheManager that puts a bounded in-heap L1 in front of every cache of a shared L2 manager.
+ * L1 size and TTL are configured per cache; L1 TTL should stay well below the L2 TTL.
+ */
+public class TwoTierCacheManager implements CacheManager {
+    
+    private final CacheManager l2CacheManager;
+    private final NearCacheProperties properties;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    
+    public TwoTierCacheManager(CacheManager l2CacheManager,
+                               NearCacheProperties properties,
+                               CacheInvalidationBus invalidationBus,
+                               MeterRegistry meterRegistry) {
+        this.l2CacheManager = l2CacheManager;
+        this.properties = properties;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        
+        invalidationBus.subscribe((cacheName, key) -> {
+            TwoTierCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.invalidateLocal(key);
+            }
+        });
+    }
+    
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache existing = caches.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        Cache l2 = l2CacheManager.getCache(name);
+        if (l2 == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> createCache(cacheName, l2));
+    }
+    
+    @Override
+    public Collection<String> getCacheNames() {
+        return l2CacheManager.getCacheNames();
+    }
+    
+    public CacheManager getL2CacheManager() {
+        return l2CacheManager;
+    }
+    
+    private TwoTierCache createCache(String name, Cache l2) {
+        NearCacheProperties.Tier tier = properties.tierFor(name);
+        com.github.benmanes.caffeine.cache.Cache<String, Object> l1 = Caffeine.newBuilder()
+                .maximumSize(tier.getMaxSize())
+                .expireAfterWrite(tier.getTtl())
+                .recordStats()
+                .build();
+        return new TwoTierCache(name, l1, l2, invalidationBus, meterRegistry);
+    }
+}
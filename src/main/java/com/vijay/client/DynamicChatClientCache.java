@@ -0,0 +1,220 @@
+package com.vijay.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.vijay.config.DynamicClientProperties;
+import com.vijay.exception.ValidationException;
+import com.vijay.service.interceptor.ChatRequestKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.model.SimpleApiKey;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatClients for requests that bring their own apiKey / baseUrl.
+ *
+ * Clients are keyed by provider, base URL and a SHA-256 of the API key, so the raw key is never
+ * held as a cache key. Each client owns one HTTP connection pool that is reused by every request
+ * with the same key, and the pool is shut down when the client is evicted for size or idleness.
+ * Concurrent first requests for a key wait for a single build.
+ *
+ * The configured API key is never used here: a request that overrides the base URL must carry its
+ * own key, and the base URL must be on the allow-list.
+ */
+public class DynamicChatClientCache implements DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DynamicChatClientCache.class);
+    
+    private final ClientBuilder builder;
+    private final DynamicClientProperties properties;
+    private final Cache<Key, CachedClient> clients;
+    private final Timer buildTimer;
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<RemovalCause, Counter> evictions = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * @param baseModel configured OpenAI-compatible model; dynamic clients copy its options and tool wiring
+     * @param defaultBaseUrl used when a request only overrides the API key
+     * @param completionsPath chat completions path of the OpenAI-compatible endpoint
+     */
+    public DynamicChatClientCache(OpenAiChatModel baseModel, String defaultBaseUrl,
+                                  String completionsPath, ChatMemory chatMemory, ProviderHttpTransport transport,
+                                  DynamicClientProperties properties, MeterRegistry meterRegistry) {
+        this((key, apiKey) -> openAiClient(key, apiKey, baseModel, defaultBaseUrl,
+                        completionsPath, chatMemory, transport),
+                properties, Runnable::run, Ticker.systemTicker(), meterRegistry);
+    }
+    
+    DynamicChatClientCache(ClientBuilder builder, DynamicClientProperties properties,
+                           Executor executor, Ticker ticker, MeterRegistry meterRegistry) {
+        this.builder = builder;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .executor(executor)
+                .ticker(ticker)
+                .removalListener((Key key, CachedClient client, RemovalCause cause) -> onRemoval(key, client, cause))
+                .build();
+        
+        this.buildTimer = Timer.builder("chat.clients.dynamic.build.time")
+                .description("Time to build a ChatClient for a request-supplied apiKey / baseUrl")
+                .register(meterRegistry);
+        this.hits = Counter.builder("chat.clients.dynamic.requests")
+                .description("Lookups of request-specific ChatClients")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("chat.clients.dynamic.requests")
+                .description("Lookups of request-specific ChatClients")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("chat.clients.dynamic.size", clients, Cache::estimatedSize)
+                .description("Request-specific ChatClients currently cached")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Client for this provider, base URL and API key, built at most once while it stays cached
+     *
+     * @throws ValidationException when the overrides are not allowed, see {@link #checkOverrides}
+     */
+    public ChatClient getClient(String provider, String baseUrl, String apiKey) {
+        checkOverrides(baseUrl, apiKey);
+        String normalizedBaseUrl = baseUrl == null || baseUrl.isBlank() ? null : baseUrl.strip();
+        String normalizedApiKey = apiKey == null || apiKey.isBlank() ? null : apiKey.strip();
+        Key key = Key.of(provider, normalizedBaseUrl, normalizedApiKey);
+        CachedClient cached = clients.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached.chatClient();
+        }
+        return clients.get(key, k -> build(k, normalizedApiKey)).chatClient();
+    }
+    
+    /**
+     * Reject a base URL override without the caller's own apiKey, or to a host not on the allow-list
+     */
+    public void checkOverrides(String baseUrl, String apiKey) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            return;
+        }
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new ValidationException("apiKey", "An apiKey is required when baseUrl is set");
+        }
+        if (!properties.isAllowedBaseUrl(baseUrl)) {
+            throw new ValidationException("baseUrl", "Base URL is not allowed: " + baseUrl);
+        }
+    }
+    
+    public long size() {
+        return clients.estimatedSize();
+    }
+    
+    /**
+     * Run pending expirations now; Caffeine otherwise does this on later reads and writes
+     */
+    public void cleanUp() {
+        clients.cleanUp();
+    }
+    
+    @Override
+    public void destroy() {
+        clients.invalidateAll();
+        clients.cleanUp();
+    }
+    
+    private CachedClient build(Key key, String apiKey) {
+        misses.increment();
+        long start = System.nanoTime();
+        CachedClient client = builder.build(key, apiKey);
+        long elapsed = System.nanoTime() - start;
+        buildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Built {} client for base URL {} in {} ms", key.provider(), key.baseUrl(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return client;
+    }
+    
+    private void onRemoval(Key key, CachedClient client, RemovalCause cause) {
+        if (client == null) {
+            return;
+        }
+        evictions.computeIfAbsent(cause, c -> Counter.builder("chat.clients.dynamic.evictions")
+                        .description("Request-specific ChatClients closed by the cache")
+                        .tag("cause", c.name().toLowerCase())
+                        .register(meterRegistry))
+                .increment();
+        if (client.httpClient() != null) {
+            // Orderly: requests already sent on this pool run to completion
+            client.httpClient().shutdown();
+        }
+        logger.debug("Closed {} client for base URL {} ({})", key.provider(), key.baseUrl(), cause);
+    }
+    
+    private static CachedClient openAiClient(Key key, String apiKey, OpenAiChatModel baseModel, String defaultBaseUrl,
+                                             String completionsPath, ChatMemory chatMemory,
+                                             ProviderHttpTransport transport) {
+        // Own connection pool per key, with the openai transport settings, slots and meters
+        HttpClient httpClient = transport.newHttpClient("openai");
+        OpenAiApi api = OpenAiApi.builder()
+                .baseUrl(key.baseUrl() != null ? key.baseUrl() : defaultBaseUrl)
+                .apiKey(new SimpleApiKey(apiKey))
+                .completionsPath(completionsPath)
+                .restClientBuilder(RestClient.builder().requestFactory(transport.requestFactory("openai", httpClient)))
+                .webClientBuilder(WebClient.builder().clientConnector(transport.connector("openai", httpClient)))
+                .build();
+        // Keeps the configured options, tool calling manager and retry template
+        OpenAiChatModel model = baseModel.mutate().openAiApi(api).build();
+        ChatClient chatClient = ChatClient.builder(model)
+                .defaultOptions(OpenAiChatOptions.builder().toolChoice("auto").build())
+                .defaultAdvisors(MessageChatMemoryAdvisor.builder(chatMemory).build())
+                .build();
+        return new CachedClient(chatClient, httpClient);
+    }
+    
+    /**
+     * Cache key; holds a hash of the API key, never the key itself
+     */
+    record Key(String provider, String baseUrl, String apiKeyHash) {
+        
+        static Key of(String provider, String baseUrl, String apiKey) {
+            return new Key(provider, baseUrl, apiKey == null ? "" : ChatRequestKeys.sha256Hex(apiKey));
+        }
+    }
+    
+    /**
+     * Builds the client for a key; the raw API key is passed alongside so it never becomes part of the key
+     */
+    @FunctionalInterface
+    interface ClientBuilder {
+        CachedClient build(Key key, String apiKey);
+    }
+    
+    /**
+     * @param httpClient connection pool owned by this client, may be null
+     */
+    record CachedClient(ChatClient chatClient, HttpClient httpClient) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.vijay.client;
+
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classifies failed provider calls by what they say about the provider.
+ *
+ * Spring AI reports HTTP errors as {@link NonTransientAiException} (4xx) or
+ * {@link TransientAiException} (5xx) with a "status - body" message; the raw RestClient and
+ * WebClient exceptions carry the status directly.
+ */
+public final class ProviderErrors {
+    
+    private static final int MAX_CAUSES = 10;
+    
+    private ProviderErrors() {
+    }
+    
+    /**
+     * Whether the failure suggests the provider is overloaded: 408, 429 or 5xx, a timeout or an I/O error.
+     * Cancellation (interrupts) and rejected requests are not overload.
+     */
+    public static boolean isOverload(Throwable error) {
+        int status = statusOf(error);
+        if (status > 0) {
+            return status == 408 || status == 429 || status >= 500;
+        }
+        Throwable cause = error;
+        for (int depth = 0; cause != null && depth < MAX_CAUSES; depth++, cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof TimeoutException
+                    || cause instanceof TransientAiException) {
+                return true;
+            }
+            if (cause instanceof InterruptedIOException || cause instanceof ClosedByInterruptException) {
+                return false;
+            }
+            if (cause instanceof IOException || cause instanceof ResourceAccessException
+                    || cause instanceof WebClientRequestException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Whether the provider rejected the request itself (4xx other than 408 and 429), e.g. a bad API key
+     */
+    public static boolean isClientError(Throwable error) {
+        int status = statusOf(error);
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+    
+    /**
+     * HTTP status of the first provider response in the cause chain, or -1
+     */
+    static int statusOf(Throwable error) {
+        Throwable cause = error;
+        for (int depth = 0; cause != null && depth < MAX_CAUSES; depth++, cause = cause.getCause()) {
+            if (cause instanceof RestClientResponseException response) {
+                return response.getStatusCode().value();
+            }
+            if (cause instanceof WebClientResponseException response) {
+                return response.getStatusCode().value();
+            }
+            if (cause instanceof NonTransientAiException || cause instanceof TransientAiException) {
+                int status = leadingStatus(cause.getMessage());
+                if (status > 0) {
+                    return status;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    private static int leadingStatus(String message) {
+        if (message == null || message.length() < 3) {
+            return -1;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (!Character.isDigit(message.charAt(i))) {
+                return -1;
+            }
+        }
+        if (message.length() > 3 && Character.isDigit(message.charAt(3))) {
+            return -1;
+        }
+        return Integer.parseInt(message, 0, 3, 10);
+    }
+}
@@ -0,0 +1,415 @@
+package com.vijay.client;
+
+import com.vijay.config.HttpTransportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpResponseDecorator;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Shared HTTP transport for the LLM provider clients.
+ *
+ * Each provider gets one long-lived java.net.http.HttpClient, which keeps HTTP/1.1 connections
+ * alive per host and multiplexes HTTP/2 where the server negotiates it. Requests to a provider
+ * are bounded by maxConnections slots: a request holds its slot until the response body is
+ * closed, and waits up to acquireTimeout for one when all are taken. The blocking and reactive
+ * adapters route each call by the host of its URI, so the auto-configured OpenAI and Ollama
+ * models share one RestClient / WebClient builder and still get their own settings.
+ */
+public class ProviderHttpTransport implements DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProviderHttpTransport.class);
+    
+    public static final String DEFAULT_PROVIDER = "default";
+    
+    private final HttpTransportProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, String> providerByAuthority = new ConcurrentHashMap<>();
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    
+    /**
+     * @param providerBaseUrls base URL per provider name, used to recognise each provider's host
+     */
+    public ProviderHttpTransport(HttpTransportProperties properties, Map<String, String> providerBaseUrls,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        providerBaseUrls.forEach((provider, baseUrl) -> {
+            if (baseUrl != null && !baseUrl.isBlank()) {
+                providerByAuthority.put(authority(URI.create(baseUrl.strip())), provider);
+            }
+            // Eager, so each provider's meters exist before its first call
+            pool(provider);
+        });
+    }
+    
+    /**
+     * Blocking request factory that picks the provider from each request's host
+     */
+    public ClientHttpRequestFactory requestFactory() {
+        return (uri, method) -> pool(providerOf(uri)).requestFactory.createRequest(uri, method);
+    }
+    
+    /**
+     * Reactive connector that picks the provider from each request's host
+     */
+    public ClientHttpConnector connector() {
+        return new ClientHttpConnector() {
+            @Override
+            public Mono<org.springframework.http.client.reactive.ClientHttpResponse> connect(
+                    HttpMethod method, URI uri, Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+                return pool(providerOf(uri)).connector.connect(method, uri, requestCallback);
+            }
+        };
+    }
+    
+    /**
+     * A separately pooled client with the provider's settings; the caller owns and shuts it down
+     */
+    public HttpClient newHttpClient(String provider) {
+        return pool(provider).newHttpClient();
+    }
+    
+    /**
+     * Blocking request factory over the given client, sharing the provider's slots and meters
+     */
+    public ClientHttpRequestFactory requestFactory(String provider, HttpClient httpClient) {
+        return pool(provider).requestFactory(httpClient);
+    }
+    
+    /**
+     * Reactive connector over the given client, sharing the provider's slots and meters
+     */
+    public ClientHttpConnector connector(String provider, HttpClient httpClient) {
+        return pool(provider).connector(httpClient);
+    }
+    
+    /**
+     * Requests currently holding a connection slot, over all providers
+     */
+    public int activeRequests() {
+        return pools.values().stream().mapToInt(pool -> pool.active.get()).sum();
+    }
+    
+    String providerOf(URI uri) {
+        return providerByAuthority.getOrDefault(authority(uri), DEFAULT_PROVIDER);
+    }
+    
+    @Override
+    public void destroy() {
+        pools.values().forEach(pool -> pool.httpClient.shutdown());
+    }
+    
+    private Pool pool(String provider) {
+        return pools.computeIfAbsent(provider, name -> new Pool(name, properties.forProvider(name)));
+    }
+    
+    private static String authority(URI uri) {
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return String.valueOf(uri.getHost()).toLowerCase() + ":" + port;
+    }
+    
+    /**
+     * Slots, meters and the shared client of one provider
+     */
+    private final class Pool {
+        
+        private final String provider;
+        private final HttpTransportProperties.Provider settings;
+        private final Semaphore slots;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Timer acquireTimer;
+        private final Counter handshakes;
+        private final HttpClient httpClient;
+        private final ClientHttpRequestFactory requestFactory;
+        private final ClientHttpConnector connector;
+        
+        Pool(String provider, HttpTransportProperties.Provider settings) {
+            this.provider = provider;
+            this.settings = settings;
+            this.slots = new Semaphore(settings.getMaxConnections(), true);
+            this.acquireTimer = Timer.builder("http.client.pool.acquire")
+                    .description("Time spent waiting for a free provider connection slot")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            this.handshakes = Counter.builder("http.client.tls.handshakes")
+                    .description("TLS connections opened to the provider; low relative to requests means connections are reused")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            Gauge.builder("http.client.pool.active", active, AtomicInteger::get)
+                    .description("Provider requests currently holding a connection slot")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            Gauge.builder("http.client.pool.pending", pending, AtomicInteger::get)
+                    .description("Provider requests waiting for a connection slot")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            Gauge.builder("http.client.pool.max", settings, HttpTransportProperties.Provider::getMaxConnections)
+                    .description("Connection slots per provider")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            
+            this.httpClient = newHttpClient();
+            this.requestFactory = requestFactory(httpClient);
+            this.connector = connector(httpClient);
+            logger.info("HTTP transport for provider '{}': {}, {} slots, connect timeout {}, read timeout {}",
+                    provider, settings.isHttp2() ? "HTTP/2" : "HTTP/1.1", settings.getMaxConnections(),
+                    settings.getConnectTimeout(), settings.getReadTimeout());
+        }
+        
+        HttpClient newHttpClient() {
+            return HttpClient.newBuilder()
+                    .version(settings.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(settings.getConnectTimeout())
+                    .sslContext(countingSslContext(handshakes))
+                    .build();
+        }
+        
+        ClientHttpRequestFactory requestFactory(HttpClient client) {
+            JdkClientHttpRequestFactory jdk = new JdkClientHttpRequestFactory(client);
+            jdk.setReadTimeout(settings.getReadTimeout());
+            ClientHttpRequestInterceptor slotInterceptor = (request, body, execution) -> {
+                Runnable release = acquire();
+                try {
+                    return new ReleasingResponse(execution.execute(request, body), release);
+                } catch (IOException | RuntimeException e) {
+                    release.run();
+                    throw e;
+                }
+            };
+            return new InterceptingClientHttpRequestFactory(jdk, List.of(slotInterceptor));
+        }
+        
+        ClientHttpConnector connector(HttpClient client) {
+            JdkClientHttpConnector jdk = new JdkClientHttpConnector(client);
+            jdk.setReadTimeout(settings.getReadTimeout());
+            return new ClientHttpConnector() {
+                @Override
+                public Mono<org.springframework.http.client.reactive.ClientHttpResponse> connect(
+                        HttpMethod method, URI uri, Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+                    return acquireReactive().flatMap(release -> jdk.connect(method, uri, requestCallback)
+                            .<org.springframework.http.client.reactive.ClientHttpResponse>map(
+                                    response -> new ReleasingReactiveResponse(response, release))
+                            .doOnError(e -> release.run())
+                            .doOnCancel(release));
+                }
+            };
+        }
+        
+        /**
+         * Take a slot, waiting up to acquireTimeout; the returned action gives it back once
+         */
+        Runnable acquire() throws IOException {
+            long start = System.nanoTime();
+            pending.incrementAndGet();
+            try {
+                if (!slots.tryAcquire(settings.getAcquireTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw new IOException("No free connection to provider '" + provider + "' within "
+                            + settings.getAcquireTimeout());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a connection to provider '" + provider + "'");
+            } finally {
+                pending.decrementAndGet();
+                acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            return granted();
+        }
+        
+        Mono<Runnable> acquireReactive() {
+            return Mono.defer(() -> {
+                if (slots.tryAcquire()) {
+                    acquireTimer.record(0, TimeUnit.NANOSECONDS);
+                    return Mono.just(granted());
+                }
+                // Saturated: wait for a slot off the event loop
+                return Mono.fromCallable(this::acquire).subscribeOn(Schedulers.boundedElastic());
+            });
+        }
+        
+        private Runnable granted() {
+            active.incrementAndGet();
+            AtomicBoolean released = new AtomicBoolean();
+            return () -> {
+                if (released.compareAndSet(false, true)) {
+                    active.decrementAndGet();
+                    slots.release();
+                }
+            };
+        }
+    }
+    
+    /**
+     * Gives the slot back when the blocking response is closed
+     */
+    private record ReleasingResponse(ClientHttpResponse delegate, Runnable release) implements ClientHttpResponse {
+        
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+        
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+        
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+        
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                release.run();
+            }
+        }
+    }
+    
+    /**
+     * Gives the slot back when the streamed body completes, fails or is cancelled
+     */
+    private static final class ReleasingReactiveResponse extends ClientHttpResponseDecorator {
+        
+        private final Runnable release;
+        
+        ReleasingReactiveResponse(org.springframework.http.client.reactive.ClientHttpResponse delegate, Runnable release) {
+            super(delegate);
+            this.release = release;
+        }
+        
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return super.getBody().doFinally(signal -> release.run());
+        }
+    }
+    
+    /**
+     * The JDK client creates one SSLEngine per TLS connection, so counting them counts handshakes
+     */
+    static SSLContext countingSslContext(Counter handshakes) {
+        try {
+            SSLContext delegate = SSLContext.getDefault();
+            return new SSLContext(new CountingSslContextSpi(delegate, handshakes),
+                    delegate.getProvider(), delegate.getProtocol()) {
+            };
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Default SSLContext not available", e);
+        }
+    }
+    
+    private static final class CountingSslContextSpi extends SSLContextSpi {
+        
+        private final SSLContext delegate;
+        private final Counter handshakes;
+        
+        CountingSslContextSpi(SSLContext delegate, Counter handshakes) {
+            this.delegate = delegate;
+            this.handshakes = handshakes;
+        }
+        
+        @Override
+        protected void engineInit(KeyManager[] keyManagers, TrustManager[] trustManagers, SecureRandom random) {
+            throw new UnsupportedOperationException("Delegate SSLContext is already initialized");
+        }
+        
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory() {
+            return delegate.getSocketFactory();
+        }
+        
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory() {
+            return delegate.getServerSocketFactory();
+        }
+        
+        @Override
+        protected SSLEngine engineCreateSSLEngine() {
+            handshakes.increment();
+            return delegate.createSSLEngine();
+        }
+        
+        @Override
+        protected SSLEngine engineCreateSSLEngine(String host, int port) {
+            handshakes.increment();
+            return delegate.createSSLEngine(host, port);
+        }
+        
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext() {
+            return delegate.getServerSessionContext();
+        }
+        
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext() {
+            return delegate.getClientSessionContext();
+        }
+        
+        @Override
+        protected SSLParameters engineGetDefaultSSLParameters() {
+            return delegate.getDefaultSSLParameters();
+        }
+        
+        @Override
+        protected SSLParameters engineGetSupportedSSLParameters() {
+            return delegate.getSupportedSSLParameters();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.vijay.cluster;
+
+import com.vijay.config.ClusterProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live node list and the hash ring built from it.
+ *
+ * With static membership the ring never changes. With Redis membership every node writes its URL
+ * with the current time into a sorted set on each heartbeat, and the ring is rebuilt from the
+ * members seen within memberTtl whenever that set changes; the static list only seeds the ring
+ * until the first heartbeat.
+ */
+public class ClusterMembership implements DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembership.class);
+    
+    private final ClusterProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final String self;
+    private final ScheduledExecutorService heartbeat;
+    
+    private volatile ConsistentHashRing ring;
+    
+    /**
+     * @param redisTemplate used for Redis membership, may be null for static membership
+     */
+    public ClusterMembership(ClusterProperties properties, StringRedisTemplate redisTemplate,
+                             MeterRegistry meterRegistry) {
+        if (properties.getNodeUrl() == null || properties.getNodeUrl().isBlank()) {
+            throw new IllegalStateException("mcp-host.cluster.node-url must be set when the cluster is enabled");
+        }
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.self = normalize(properties.getNodeUrl());
+        this.ring = new ConsistentHashRing(staticNodes(), properties.getVirtualNodes());
+        
+        Gauge.builder("cluster.members", this, membership -> membership.ring.getNodes().size())
+                .description("Nodes currently on the conversation hash ring")
+                .register(meterRegistry);
+        
+        if (properties.getMembership() == ClusterProperties.Membership.REDIS && redisTemplate != null) {
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("cluster-heartbeat").daemon(true).factory());
+            long interval = properties.getHeartbeatInterval().toMillis();
+            heartbeat.scheduleWithFixedDelay(this::beat, 0, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.heartbeat = null;
+        }
+        logger.info("Cluster node {} joined with members {}", self, ring.getNodes());
+    }
+    
+    /**
+     * Node that owns this conversation
+     */
+    public String ownerOf(String conversationId) {
+        String owner = ring.ownerOf(conversationId);
+        return owner != null ? owner : self;
+    }
+    
+    public boolean isSelf(String node) {
+        return self.equals(node);
+    }
+    
+    public String getSelf() {
+        return self;
+    }
+    
+    public List<String> getMembers() {
+        return ring.getNodes();
+    }
+    
+    @Override
+    public void destroy() {
+        if (heartbeat == null) {
+            return;
+        }
+        heartbeat.shutdownNow();
+        try {
+            redisTemplate.opsForZSet().remove(properties.getRedisKey(), self);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to leave cluster membership: {}", e.getMessage());
+        }
+    }
+    
+    void beat() {
+        try {
+            long now = System.currentTimeMillis();
+            String key = properties.getRedisKey();
+            long oldest = now - properties.getMemberTtl().toMillis();
+            redisTemplate.opsForZSet().add(key, self, now);
+            redisTemplate.opsForZSet().removeRangeByScore(key, 0, oldest - 1);
+            Set<String> live = redisTemplate.opsForZSet().rangeByScore(key, oldest, Double.MAX_VALUE);
+            
+            Set<String> members = new LinkedHashSet<>();
+            members.add(self);
+            if (live != null) {
+                members.addAll(live);
+            }
+            List<String> sorted = members.stream().sorted().toList();
+            if (!sorted.equals(ring.getNodes())) {
+                ring = new ConsistentHashRing(new ArrayList<>(sorted), properties.getVirtualNodes());
+                logger.info("Cluster membership changed: {}", sorted);
+            }
+        } catch (RuntimeException e) {
+            // Keep routing with the last known ring
+            logger.warn("Cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+    
+    private List<String> staticNodes() {
+        Set<String> nodes = new LinkedHashSet<>();
+        properties.getNodes().forEach(node -> nodes.add(normalize(node)));
+        nodes.add(self);
+        return new ArrayList<>(nodes);
+    }
+    
+    static String normalize(String url) {
+        String trimmed = url.strip();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,69 @@
+package com.vijay.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring over node URLs (ketama style: MD5 points, several per node).
+ * Adding or removing a node moves only the keys of the ring segments it gains or loses.
+ */
+public final class ConsistentHashRing {
+    
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+    
+    public ConsistentHashRing(List<String> nodes, int virtualNodes) {
+        this.nodes = nodes.stream().distinct().sorted().toList();
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(node + "#" + i), node);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int index = 0;
+        for (Map.Entry<Long, String> entry : ring.entrySet()) {
+            points[index] = entry.getKey();
+            owners[index] = entry.getValue();
+            index++;
+        }
+    }
+    
+    /**
+     * Node owning this key, or null when the ring is empty
+     */
+    public String ownerOf(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+    
+    public List<String> getNodes() {
+        return nodes;
+    }
+    
+    static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.vijay.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.config.ClusterProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.model.ChatStreamEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Sends a chat request to the node that owns its conversation.
+ *
+ * In FORWARD mode the request is proxied over one shared HttpClient, which keeps connections to
+ * peers alive between requests. Only when the owner cannot be connected to is the request served
+ * locally; once it was sent, the owner may be processing it, so a timeout answers 504 and any other
+ * failure 502 rather than running the turn twice. In REDIRECT mode the caller gets a 307 pointing
+ * at the owner, with the conversation id in the Location's conversationId parameter and in
+ * {@link #CONVERSATION_HEADER}, so an id taken from this node's session survives the re-POST. A
+ * forwarded request carries
+ * {@link #FORWARDED_HEADER} and is always served by the node that receives it, so a membership
+ * change can never make requests bounce between nodes.
+ */
+public class ConversationForwarder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConversationForwarder.class);
+    
+    public static final String FORWARDED_HEADER = "X-Mcp-Host-Forwarded-By";
+    public static final String OWNER_HEADER = "X-Mcp-Host-Owner";
+    public static final String CONVERSATION_HEADER = "X-Conversation-Id";
+    public static final String CONVERSATION_PARAM = "conversationId";
+    
+    private final ClusterProperties properties;
+    private final ClusterMembership membership;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    
+    private final Counter local;
+    private final Counter forwarded;
+    private final Counter redirected;
+    private final Counter fallbacks;
+    private final Counter failures;
+    private final Timer forwardTimer;
+    
+    public ConversationForwarder(ClusterProperties properties, ClusterMembership membership,
+                                 ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.membership = membership;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        
+        this.local = routeCounter(meterRegistry, "local");
+        this.forwarded = routeCounter(meterRegistry, "forwarded");
+        this.redirected = routeCounter(meterRegistry, "redirected");
+        this.fallbacks = routeCounter(meterRegistry, "fallback");
+        this.failures = routeCounter(meterRegistry, "failed");
+        this.forwardTimer = Timer.builder("cluster.forward.time")
+                .description("Round trip of chat requests forwarded to the owning node")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("cluster.locality.ratio", this, ConversationForwarder::localityRatio)
+                .description("Fraction of chat requests that arrived at the node owning the conversation")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Whether the request was forwarded by another member of the cluster, so fields that node
+     * resolved from its own headers (the tenant) can be taken from the body
+     */
+    public boolean isForwardedByPeer(HttpServletRequest http) {
+        String forwardedBy = http.getHeader(FORWARDED_HEADER);
+        return forwardedBy != null && !membership.isSelf(forwardedBy) && membership.getMembers().contains(forwardedBy);
+    }
+    
+    /**
+     * Route a chat request to its owner
+     *
+     * @param path endpoint path on the owner, e.g. /api/ai/chat
+     * @return empty when this node should serve the request
+     */
+    public Optional<CompletableFuture<ResponseEntity<ChatResponse>>> route(ChatRequest request, String conversationId,
+                                                                           String path, HttpServletRequest http) {
+        String owner = remoteOwner(request, conversationId, http);
+        if (owner == null) {
+            return Optional.empty();
+        }
+        if (properties.getMode() == ClusterProperties.Mode.REDIRECT) {
+            return Optional.of(CompletableFuture.completedFuture(redirect(owner, path, conversationId)));
+        }
+        return Optional.of(forward(request, owner, path));
+    }
+    
+    /**
+     * Route a streaming chat request to its owner. In FORWARD mode the owner's event stream is
+     * relayed; if the owner cannot be connected to, the events come from {@code local} instead.
+     *
+     * @param path streaming endpoint path on the owner, e.g. /api/ai/chat/stream
+     * @return empty when this node should serve the request; a 307 without body in REDIRECT mode
+     */
+    public Optional<ResponseEntity<Flux<ChatStreamEvent>>> routeStream(ChatRequest request, String conversationId,
+                                                                       String path, HttpServletRequest http,
+                                                                       Supplier<Flux<ChatStreamEvent>> local) {
+        String owner = remoteOwner(request, conversationId, http);
+        if (owner == null) {
+            return Optional.empty();
+        }
+        if (properties.getMode() == ClusterProperties.Mode.REDIRECT) {
+            return Optional.of(redirect(owner, path, conversationId));
+        }
+        return Optional.of(ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(forwardStream(request, owner, path, local)));
+    }
+    
+    /**
+     * Owner of the conversation when it is another node and the request was not forwarded already, else null
+     */
+    private String remoteOwner(ChatRequest request, String conversationId, HttpServletRequest http) {
+        if (http.getHeader(FORWARDED_HEADER) != null) {
+            return null;
+        }
+        String owner = membership.ownerOf(conversationId);
+        if (membership.isSelf(owner)) {
+            local.increment();
+            return null;
+        }
+        // The owner must use the same id even when it came from this node's HTTP session
+        request.setConversationId(conversationId);
+        return owner;
+    }
+    
+    private <T> ResponseEntity<T> redirect(String owner, String path, String conversationId) {
+        redirected.increment();
+        return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                .header(HttpHeaders.LOCATION, owner + path + "?" + CONVERSATION_PARAM + "="
+                        + URLEncoder.encode(conversationId, StandardCharsets.UTF_8))
+                .header(OWNER_HEADER, owner)
+                .header(CONVERSATION_HEADER, conversationId)
+                .build();
+    }
+    
+    private HttpRequest forwardRequest(ChatRequest request, String owner, String path, String accept) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize chat request", e);
+        }
+        return HttpRequest.newBuilder(URI.create(owner + path))
+                .timeout(properties.getForwardTimeout())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, accept)
+                .header(FORWARDED_HEADER, membership.getSelf())
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+    
+    private CompletableFuture<ResponseEntity<ChatResponse>> forward(ChatRequest request, String owner, String path) {
+        HttpRequest httpRequest = forwardRequest(request, owner, path, MediaType.APPLICATION_JSON_VALUE);
+        long start = System.nanoTime();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    forwardTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (error != null) {
+                        return onForwardFailure(request, owner,
+                                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    }
+                    forwarded.increment();
+                    return toResponseEntity(response);
+                });
+    }
+    
+    /**
+     * Relay the owner's server-sent events. The forward timeout covers the wait for the response
+     * headers, not the stream; cancelling the relay closes the connection, which cancels the owner's stream.
+     */
+    private Flux<ChatStreamEvent> forwardStream(ChatRequest request, String owner, String path,
+                                                Supplier<Flux<ChatStreamEvent>> local) {
+        HttpRequest httpRequest = forwardRequest(request, owner, path, MediaType.TEXT_EVENT_STREAM_VALUE);
+        return Mono.fromFuture(() -> {
+                    long start = System.nanoTime();
+                    return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofLines())
+                            .whenComplete((response, error) ->
+                                    forwardTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                })
+                .flatMapMany(response -> {
+                    forwarded.increment();
+                    if (response.statusCode() != HttpStatus.OK.value()) {
+                        response.body().close();
+                        return Flux.just(ChatStreamEvent.error(
+                                "The node owning this conversation answered " + response.statusCode()));
+                    }
+                    return Flux.using(response::body, this::parseEvents, Stream::close)
+                            .subscribeOn(Schedulers.boundedElastic());
+                })
+                .onErrorResume(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    ResponseEntity<ChatResponse> failure = onForwardFailure(request, owner, cause);
+                    return failure == null
+                            ? local.get()
+                            : Flux.just(ChatStreamEvent.error(failure.getBody().getAnswer()));
+                });
+    }
+    
+    /**
+     * Events from SSE lines: data lines up to a blank line form one event; event names and comments are
+     * ignored because the data carries the event type
+     */
+    private Flux<ChatStreamEvent> parseEvents(Stream<String> lines) {
+        return Flux.fromStream(lines)
+                .bufferUntil(String::isEmpty)
+                .mapNotNull(eventLines -> {
+                    String data = eventLines.stream()
+                            .filter(line -> line.startsWith("data:"))
+                            .map(line -> line.substring("data:".length()).strip())
+                            .collect(Collectors.joining("\n"));
+                    if (data.isEmpty()) {
+                        return null;
+                    }
+                    try {
+                        return objectMapper.readValue(data, ChatStreamEvent.class);
+                    } catch (JsonProcessingException e) {
+                        return ChatStreamEvent.error("Invalid event from owning node");
+                    }
+                });
+    }
+    
+    /**
+     * Null (serve locally) only if the owner was never reached; otherwise the owner may have run the turn
+     */
+    private ResponseEntity<ChatResponse> onForwardFailure(ChatRequest request, String owner, Throwable error) {
+        if (error instanceof ConnectException || error instanceof HttpConnectTimeoutException) {
+            fallbacks.increment();
+            logger.warn("Could not connect to {} for conversation {}, serving locally: {}",
+                    owner, request.getConversationId(), error.getMessage());
+            return null;
+        }
+        failures.increment();
+        if (error instanceof HttpTimeoutException) {
+            logger.warn("Owner {} did not answer in time for conversation {}", owner, request.getConversationId());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body(new ChatResponse("error", "", "The node owning this conversation did not answer in time"));
+        }
+        logger.warn("Forwarding conversation {} to {} failed: {}", request.getConversationId(), owner, error.toString());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body(new ChatResponse("error", "", "The node owning this conversation failed to answer"));
+    }
+    
+    private ResponseEntity<ChatResponse> toResponseEntity(HttpResponse<String> response) {
+        ChatResponse chatResponse;
+        try {
+            chatResponse = response.body() == null || response.body().isBlank()
+                    ? null
+                    : objectMapper.readValue(response.body(), ChatResponse.class);
+        } catch (JsonProcessingException e) {
+            chatResponse = new ChatResponse("error", "", "Invalid response from owning node");
+        }
+        return ResponseEntity.status(response.statusCode()).body(chatResponse);
+    }
+    
+    private double localityRatio() {
+        double routed = forwarded.count() + redirected.count() + fallbacks.count() + failures.count();
+        double total = local.count() + routed;
+        return total > 0 ? local.count() / total : 1.0;
+    }
+    
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("cluster.requests")
+                .description("Chat requests by where they were served")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
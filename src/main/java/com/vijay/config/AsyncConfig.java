@@ -6,6 +6,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
@@ -41,6 +42,15 @@ public class AsyncConfig {
         return Executors.newVirtualThreadPerTaskExecutor();
     }
 
+    /**
+     * One named virtual thread per resilient chat call, so a timed-out call can be interrupted
+     * without touching the common ForkJoinPool
+     */
+    @Bean(name = "resilientChatExecutor", destroyMethod = "close")
+    public ExecutorService resilientChatExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("resilient-chat-", 0).factory());
+    }
+
     /**
      * Default async executor - uses Virtual Threads for better performance
      * This will be used by @Async annotations without specifying executor
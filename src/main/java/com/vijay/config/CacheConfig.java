@@ -1,5 +1,10 @@
 package com.vijay.config;
 
+import com.vijay.cache.CacheInvalidationBus;
+import com.vijay.cache.RedisCacheInvalidationBus;
+import com.vijay.cache.TwoTierCacheManager;
+import com.vijay.service.interceptor.ChatResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +13,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -24,10 +31,44 @@ import java.util.Map;
 public class CacheConfig {
     
     /**
-     * Configure Redis cache manager with different TTL for different cache types
+     * Configure the two-tier cache manager: in-heap L1 per cache in front of Redis (L2)
+     */
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     ResponseCacheProperties responseCacheProperties,
+                                     NearCacheProperties nearCacheProperties,
+                                     CacheInvalidationBus cacheInvalidationBus,
+                                     MeterRegistry meterRegistry) {
+        RedisCacheManager redisCacheManager = redisCacheManager(redisConnectionFactory, responseCacheProperties);
+        if (!nearCacheProperties.isEnabled()) {
+            return redisCacheManager;
+        }
+        return new TwoTierCacheManager(redisCacheManager, nearCacheProperties, cacheInvalidationBus, meterRegistry);
+    }
+    
+    /**
+     * Redis pub/sub bus used to drop L1 entries on other nodes when an entry changes
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+                                                     RedisMessageListenerContainer redisMessageListenerContainer,
+                                                     NearCacheProperties nearCacheProperties) {
+        return new RedisCacheInvalidationBus(stringRedisTemplate, redisMessageListenerContainer,
+                nearCacheProperties.getInvalidationChannel());
+    }
+    
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+    
+    /**
+     * Configure Redis cache manager with different TTL for different cache types
+     */
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory,
+                                                ResponseCacheProperties responseCacheProperties) {
         // Default cache configuration
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
@@ -47,16 +88,24 @@ public class CacheConfig {
         // Provider info cache - medium TTL
         RedisCacheConfiguration providerInfoConfig = defaultConfig.entryTtl(Duration.ofMinutes(15));
         
+        // Chat responses cache - TTL depends on the provider encoded as the key prefix
+        RedisCacheConfiguration chatResponsesConfig = defaultConfig.entryTtl((key, value) ->
+                responseCacheProperties.ttlFor(ChatResponseCache.providerOf(key.toString())));
+        
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
         cacheConfigurations.put("toolDefinitions", toolDefinitionsConfig);
         cacheConfigurations.put("systemPrompts", systemPromptsConfig);
         cacheConfigurations.put("chatMemory", chatMemoryConfig);
         cacheConfigurations.put("providerInfo", providerInfoConfig);
+        cacheConfigurations.put(ChatResponseCache.CACHE_NAME, chatResponsesConfig);
         
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
+        // Not a bean of its own, so initialize the configured caches here
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
     }
     
     /**
@@ -1,23 +1,60 @@
 package com.vijay.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.client.DynamicChatClientCache;
+import com.vijay.client.ProviderHttpTransport;
+import com.vijay.mcp.McpAsyncClients;
+import com.vijay.memory.AppendableChatMemoryRepository;
+import com.vijay.memory.CompactChatMemoryRepository;
+import com.vijay.memory.EvictingChatMemoryRepository;
+import com.vijay.memory.CompactingChatMemory;
+import com.vijay.memory.OllamaConversationSummarizer;
+import com.vijay.memory.RedisChatMemoryRepository;
+import com.vijay.memory.WindowedChatMemory;
+import com.vijay.memory.WriteBehindChatMemoryRepository;
+import com.vijay.service.hedging.HedgingChatExecutor;
+import com.vijay.service.limit.AdaptiveConcurrencyLimiter;
+import com.vijay.service.resilience.ResilienceRegistry;
+import com.vijay.mcp.McpClientPools;
+import com.vijay.mcp.McpToolRegistry;
+import com.vijay.mcp.McpToolsChangedEvent;
+import com.vijay.mcp.ToolResultCache;
+import com.vijay.tool.ParallelToolCallingManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import io.modelcontextprotocol.client.McpSyncClient;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
 import org.springframework.ai.chat.memory.MessageWindowChatMemory;
-import org.springframework.ai.mcp.SyncMcpToolCallbackProvider;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpClientCommonProperties;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpSseClientProperties;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.mcp.customizer.McpSyncClientCustomizer;
 import org.springframework.ai.ollama.OllamaChatModel;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Configuration
 class ChatConfig {
@@ -25,29 +62,159 @@ class ChatConfig {
     private static final Logger logger = LoggerFactory.getLogger(ChatConfig.class);
 
 
+    // Versioned snapshot of all MCP server tools, refreshed on tools/list_changed
+    @Bean
+    public McpToolRegistry mcpToolRegistry(List<McpSyncClient> mcpSyncClients, MeterRegistry meterRegistry,
+                                           ApplicationEventPublisher eventPublisher, ToolResultCache toolResultCache,
+                                           McpClientPools mcpClientPools, McpAsyncClients mcpAsyncClients,
+                                           ResilienceRegistry resilienceRegistry) {
+        return new McpToolRegistry(mcpSyncClients, meterRegistry, eventPublisher, toolResultCache,
+                mcpClientPools, mcpAsyncClients, resilienceRegistry);
+    }
+
+    // Non-blocking MCP sessions for tool execution (mcp-host.mcp.async.enabled)
+    @Bean
+    public McpAsyncClients mcpAsyncClients(McpAsyncProperties mcpAsyncProperties,
+                                           McpClientCommonProperties mcpClientCommonProperties,
+                                           McpSseClientProperties mcpSseClientProperties,
+                                           ObjectMapper objectMapper) {
+        return new McpAsyncClients(mcpAsyncProperties, mcpClientCommonProperties, mcpSseClientProperties, objectMapper);
+    }
+
+    // Extra sessions per MCP connection so concurrent tool calls don't queue behind one SSE session
+    @Bean
+    public McpClientPools mcpClientPools(McpPoolProperties mcpPoolProperties,
+                                         McpClientCommonProperties mcpClientCommonProperties,
+                                         McpSseClientProperties mcpSseClientProperties,
+                                         ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new McpClientPools(mcpPoolProperties, mcpClientCommonProperties, mcpSseClientProperties,
+                objectMapper, meterRegistry);
+    }
+
+    // Forward MCP tools/list_changed notifications to the registry
+    @Bean
+    McpSyncClientCustomizer toolsChangedNotifier(ApplicationEventPublisher eventPublisher) {
+        return (connectionName, spec) -> spec.toolsChangeConsumer(
+                tools -> eventPublisher.publishEvent(new McpToolsChangedEvent(connectionName)));
+    }
+
+    // Tool execution for every chat model; "parallel" overlaps the tool calls of one turn
+    @Bean
+    ToolCallingManager toolCallingManager(ObjectProvider<ObservationRegistry> observationRegistry,
+                                          ToolCallbackResolver toolCallbackResolver,
+                                          ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
+                                          ToolExecutionProperties toolExecutionProperties,
+                                          MeterRegistry meterRegistry) {
+        ToolCallingManager sequential = DefaultToolCallingManager.builder()
+                .observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
+                .toolCallbackResolver(toolCallbackResolver)
+                .toolExecutionExceptionProcessor(toolExecutionExceptionProcessor)
+                .build();
+        if (toolExecutionProperties.getMode() != ToolExecutionProperties.Mode.PARALLEL) {
+            return sequential;
+        }
+        logger.info("Executing tool calls in parallel (max {} per turn)", toolExecutionProperties.getMaxParallelism());
+        return new ParallelToolCallingManager(sequential, toolCallbackResolver, toolExecutionExceptionProcessor,
+                toolExecutionProperties, meterRegistry);
+    }
+
     // Merge all MCP servers
     @Bean
     @Primary
-    public ToolCallbackProvider mcpToolCallbackProvider(List<McpSyncClient> mcpSyncClients) {
-        return new LoggingMcpToolCallbackProvider(mcpSyncClients);
+    public ToolCallbackProvider mcpToolCallbackProvider(McpToolRegistry mcpToolRegistry) {
+        return new LoggingMcpToolCallbackProvider(mcpToolRegistry);
     }
 
 
 
 
-    // Gemini client (cloud)
+    // Redis lists holding conversation windows; used by the chat memory when store=redis
     @Bean
-    ChatMemory chatMemory() {
-        // Keeps the last N messages per conversationId (in-memory only)
-        return MessageWindowChatMemory.builder()
-                .maxMessages(20) // tune as needed
-                .build();
+    RedisChatMemoryRepository redisChatMemoryRepository(StringRedisTemplate stringRedisTemplate,
+                                                        ChatMemoryProperties chatMemoryProperties,
+                                                        MeterRegistry meterRegistry) {
+        return new RedisChatMemoryRepository(stringRedisTemplate, chatMemoryProperties, meterRegistry);
     }
 
+    // Buffers Redis appends and persists them in batches; flushed on shutdown
+    @Bean
+    @ConditionalOnProperty(prefix = "mcp-host.chat.memory.write-behind", name = "enabled", havingValue = "true")
+    WriteBehindChatMemoryRepository writeBehindChatMemoryRepository(RedisChatMemoryRepository redisChatMemoryRepository,
+                                                                    ChatMemoryProperties chatMemoryProperties,
+                                                                    MeterRegistry meterRegistry) {
+        return new WriteBehindChatMemoryRepository(redisChatMemoryRepository, chatMemoryProperties, meterRegistry);
+    }
+
+    // Idle/LRU eviction for the in-process stores; not used when store=redis
+    @Bean
+    @ConditionalOnProperty(prefix = "mcp-host.chat.memory.eviction", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    EvictingChatMemoryRepository evictingChatMemoryRepository(ChatMemoryProperties chatMemoryProperties,
+                                                              RedisChatMemoryRepository redisChatMemoryRepository,
+                                                              @Qualifier("virtualThreadExecutor") Executor virtualThreadExecutor,
+                                                              MeterRegistry meterRegistry) {
+        ChatMemoryProperties.Eviction eviction = chatMemoryProperties.getEviction();
+        return new EvictingChatMemoryRepository(inProcessRepository(chatMemoryProperties), eviction,
+                eviction.isSpill() ? redisChatMemoryRepository : null, virtualThreadExecutor, meterRegistry);
+    }
+
+    // Shared by the Gemini and Ollama clients
+    @Bean
+    ChatMemory chatMemory(ChatMemoryProperties chatMemoryProperties,
+                          RedisChatMemoryRepository redisChatMemoryRepository,
+                          ObjectProvider<WriteBehindChatMemoryRepository> writeBehindChatMemoryRepository,
+                          ObjectProvider<EvictingChatMemoryRepository> evictingChatMemoryRepository,
+                          OllamaChatModel ollamaChatModel,
+                          @Qualifier("virtualThreadExecutor") Executor virtualThreadExecutor,
+                          MeterRegistry meterRegistry) {
+        ChatMemory chatMemory;
+        if (chatMemoryProperties.getStore() == ChatMemoryProperties.Store.REDIS) {
+            WriteBehindChatMemoryRepository writeBehind = writeBehindChatMemoryRepository.getIfAvailable();
+            logger.info("Storing chat memory in Redis (last {} messages, write-behind {})",
+                    chatMemoryProperties.getMaxMessages(), writeBehind != null ? "on" : "off");
+            chatMemory = new WindowedChatMemory(writeBehind != null ? writeBehind : redisChatMemoryRepository,
+                    chatMemoryProperties.getMaxMessages());
+        } else {
+            ChatMemoryRepository repository = evictingChatMemoryRepository.getIfAvailable();
+            logger.info("Storing chat memory in process ({}, last {} messages, eviction {})",
+                    chatMemoryProperties.getStore(), chatMemoryProperties.getMaxMessages(), repository != null ? "on" : "off");
+            if (repository == null) {
+                repository = inProcessRepository(chatMemoryProperties);
+            }
+            if (repository instanceof AppendableChatMemoryRepository appendable
+                    && chatMemoryProperties.getStore() == ChatMemoryProperties.Store.COMPACT) {
+                chatMemory = new WindowedChatMemory(appendable, chatMemoryProperties.getMaxMessages());
+            } else {
+                // Keeps the last N messages per conversationId
+                chatMemory = MessageWindowChatMemory.builder()
+                        .chatMemoryRepository(repository)
+                        .maxMessages(chatMemoryProperties.getMaxMessages())
+                        .build();
+            }
+        }
+
+        ChatMemoryProperties.Compaction compaction = chatMemoryProperties.getCompaction();
+        if (!compaction.isEnabled()) {
+            return chatMemory;
+        }
+        // Older turns are summarized by the local Ollama model off the request path
+        logger.info("Compacting conversations above ~{} tokens", compaction.getTokenThreshold());
+        return new CompactingChatMemory(chatMemory,
+                new OllamaConversationSummarizer(ollamaChatModel, compaction.getModel()),
+                compaction, virtualThreadExecutor, meterRegistry);
+    }
+
+    private static ChatMemoryRepository inProcessRepository(ChatMemoryProperties chatMemoryProperties) {
+        return chatMemoryProperties.getStore() == ChatMemoryProperties.Store.COMPACT
+                ? new CompactChatMemoryRepository(chatMemoryProperties.getMaxMessages())
+                : new InMemoryChatMemoryRepository();
+    }
+
+    // MCP tools are attached per request from the registry snapshot (see ChatServiceImpl),
+    // so a registry refresh is picked up without rebuilding the clients
     @Primary
     @Bean(name = "geminiClient")
-    ChatClient geminiClient(OpenAiChatModel openAiChatModel,
-                            ToolCallbackProvider mcp, ChatMemory chatMemory) {
+    ChatClient geminiClient(OpenAiChatModel openAiChatModel, ChatMemory chatMemory) {
 
         var opts = OpenAiChatOptions.builder()
                 .toolChoice("auto")
@@ -58,19 +225,44 @@ class ChatConfig {
         return ChatClient.builder(openAiChatModel)
                 .defaultOptions(opts)
                 .defaultAdvisors(MessageChatMemoryAdvisor.builder(chatMemory).build())
-                .defaultToolCallbacks(mcp.getToolCallbacks())
                 .build();
     }
 
+    // Clients for requests that bring their own apiKey / baseUrl, reused per key and closed when evicted
+    @Bean
+    DynamicChatClientCache dynamicChatClientCache(OpenAiChatModel openAiChatModel, ChatMemory chatMemory,
+                                                  DynamicClientProperties dynamicClientProperties,
+                                                  @Value("${spring.ai.openai.base-url:https://api.openai.com}") String baseUrl,
+                                                  @Value("${spring.ai.openai.chat.completions-path:/v1/chat/completions}") String completionsPath,
+                                                  ProviderHttpTransport providerHttpTransport,
+                                                  MeterRegistry meterRegistry) {
+        return new DynamicChatClientCache(openAiChatModel, baseUrl, completionsPath, chatMemory,
+                providerHttpTransport, dynamicClientProperties, meterRegistry);
+    }
+
+    // Hedged calls run on clients without the memory advisor so only the winning turn is stored
+    @Bean
+    HedgingChatExecutor hedgingChatExecutor(HedgingProperties hedgingProperties, OpenAiChatModel openAiChatModel,
+                                            OllamaChatModel ollamaChatModel, ChatMemory chatMemory,
+                                            @Qualifier("virtualThreadExecutor") Executor virtualThreadExecutor,
+                                            AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                            MeterRegistry meterRegistry) {
+        Map<String, ChatClient> statelessClients = Map.of(
+                "gemini", ChatClient.builder(openAiChatModel)
+                        .defaultOptions(OpenAiChatOptions.builder().toolChoice("auto").build())
+                        .build(),
+                "ollama", ChatClient.builder(ollamaChatModel).build());
+        return new HedgingChatExecutor(hedgingProperties, statelessClients, chatMemory, virtualThreadExecutor,
+                concurrencyLimiter, meterRegistry);
+    }
+
     @Bean(name = "ollamaClient")
-    ChatClient ollamaClient(OllamaChatModel ollamaChatModel,
-                            ToolCallbackProvider mcp, ChatMemory chatMemory) {
+    ChatClient ollamaClient(OllamaChatModel ollamaChatModel, ChatMemory chatMemory) {
 
         logger.info("Creating Ollama Chat Client");
 
         return ChatClient.builder(ollamaChatModel)
                 .defaultAdvisors(MessageChatMemoryAdvisor.builder(chatMemory).build())
-                .defaultToolCallbacks(mcp.getToolCallbacks())
                 .build();
     }
 }
@@ -0,0 +1,124 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for conversation memory storage
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.chat.memory")
+public class ChatMemoryProperties {
+    
+    /**
+     * IN_MEMORY keeps Spring AI messages, COMPACT keeps encoded rings in-process, REDIS uses Redis lists
+     */
+    public enum Store { IN_MEMORY, COMPACT, REDIS }
+    
+    private Store store = Store.IN_MEMORY;
+    
+    /**
+     * Messages kept per conversation
+     */
+    private int maxMessages = 20;
+    
+    private Redis redis = new Redis();
+    
+    private WriteBehind writeBehind = new WriteBehind();
+    
+    private Compaction compaction = new Compaction();
+    
+    private Eviction eviction = new Eviction();
+    
+    @Getter
+    @Setter
+    public static class Redis {
+        
+        private String keyPrefix = "chat:memory:";
+        
+        /**
+         * Conversations expire after this long without a new message
+         */
+        private Duration ttl = Duration.ofHours(24);
+    }
+    
+    @Getter
+    @Setter
+    public static class WriteBehind {
+        
+        /**
+         * Buffer appends in-process and persist them in batches (store=redis only)
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Most messages buffered; beyond it the oldest buffered messages are dropped unpersisted
+         */
+        private int capacity = 10000;
+        
+        /**
+         * Buffered messages that trigger a flush before the interval elapses
+         */
+        private int batchSize = 256;
+        
+        private Duration flushInterval = Duration.ofMillis(50);
+    }
+    
+    @Getter
+    @Setter
+    public static class Compaction {
+        
+        /**
+         * Summarize older turns in the background once a conversation grows past the threshold
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Estimated prompt tokens of a conversation's memory that trigger compaction
+         */
+        private int tokenThreshold = 2000;
+        
+        /**
+         * Most recent messages always sent verbatim
+         */
+        private int keepRecentMessages = 6;
+        
+        /**
+         * Ollama model used for summaries; the configured chat model when unset
+         */
+        private String model;
+        
+        /**
+         * Summaries running at once; further compactions wait for a later turn
+         */
+        private int maxConcurrent = 2;
+    }
+    
+    @Getter
+    @Setter
+    public static class Eviction {
+        
+        /**
+         * Evict idle and least recently used conversations from in-process stores (in-memory, compact)
+         */
+        private boolean enabled = true;
+        
+        private Duration idleTimeout = Duration.ofMinutes(30);
+        
+        /**
+         * Estimated heap budget for all in-process conversations
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+        
+        /**
+         * Write evicted conversations to Redis and restore them on their next turn
+         */
+        private boolean spill = false;
+    }
+}
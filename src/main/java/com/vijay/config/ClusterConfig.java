@@ -0,0 +1,35 @@
+package com.vijay.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.cluster.ClusterMembership;
+import com.vijay.cluster.ConversationForwarder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Conversation affinity across nodes; absent unless mcp-host.cluster.enabled is true
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mcp-host.cluster", name = "enabled", havingValue = "true")
+class ClusterConfig {
+
+    @Bean
+    public ClusterMembership clusterMembership(ClusterProperties properties,
+                                               ObjectProvider<StringRedisTemplate> redisTemplate,
+                                               MeterRegistry meterRegistry) {
+        StringRedisTemplate template = properties.getMembership() == ClusterProperties.Membership.REDIS
+                ? redisTemplate.getIfAvailable()
+                : null;
+        return new ClusterMembership(properties, template, meterRegistry);
+    }
+
+    @Bean
+    public ConversationForwarder conversationForwarder(ClusterProperties properties, ClusterMembership membership,
+                                                       ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new ConversationForwarder(properties, membership, objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,62 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for conversation affinity across several mcp-host instances
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.cluster")
+public class ClusterProperties {
+    
+    /**
+     * FORWARD proxies a request to the owning node, REDIRECT answers 307 with the owner's URL
+     */
+    public enum Mode { FORWARD, REDIRECT }
+    
+    /**
+     * STATIC uses {@link #nodes}; REDIS adds nodes that heartbeat into a shared sorted set
+     */
+    public enum Membership { STATIC, REDIS }
+    
+    private boolean enabled = false;
+    
+    /**
+     * Base URL other nodes use to reach this one, e.g. http://10.0.0.5:8080
+     */
+    private String nodeUrl;
+    
+    private Mode mode = Mode.FORWARD;
+    
+    private Membership membership = Membership.STATIC;
+    
+    /**
+     * Base URLs of all nodes (this one included) for static membership
+     */
+    private List<String> nodes = new ArrayList<>();
+    
+    /**
+     * Points per node on the hash ring; more points spread conversations more evenly
+     */
+    private int virtualNodes = 160;
+    
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    
+    private Duration forwardTimeout = Duration.ofSeconds(120);
+    
+    private Duration heartbeatInterval = Duration.ofSeconds(5);
+    
+    /**
+     * A node that has not sent a heartbeat for this long leaves the ring
+     */
+    private Duration memberTtl = Duration.ofSeconds(15);
+    
+    private String redisKey = "mcp-host:cluster:nodes";
+}
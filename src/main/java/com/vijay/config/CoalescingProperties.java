@@ -0,0 +1,19 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for single-flight coalescing of identical in-flight chat requests
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.chat.coalescing")
+public class CoalescingProperties {
+    
+    /**
+     * Share one upstream call between concurrent identical requests (opt-in)
+     */
+    private boolean enabled = false;
+}
@@ -0,0 +1,82 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for the adaptive (AIMD) limit on in-flight calls per provider/model
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.chat.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    
+    private boolean enabled = true;
+    
+    /**
+     * Distinct provider/model limits kept; further models share one limit per provider
+     */
+    private int maxModels = 64;
+    
+    /**
+     * Settings per provider (gemini, ollama)
+     */
+    private Map<String, Limits> providers = new LinkedHashMap<>(Map.of(
+            "gemini", new Limits(),
+            "ollama", Limits.local()));
+    
+    /**
+     * Settings for any other provider, including requests with their own baseUrl
+     */
+    private Limits defaults = new Limits();
+    
+    public Limits forProvider(String provider) {
+        return providers.getOrDefault(provider, defaults);
+    }
+    
+    @Getter
+    @Setter
+    public static class Limits {
+        
+        private int initialLimit = 20;
+        
+        private int minLimit = 1;
+        
+        private int maxLimit = 200;
+        
+        /**
+         * Multiplier applied to the limit on an error or a slow response
+         */
+        private double backoffRatio = 0.9;
+        
+        /**
+         * Responses slower than this count as overload, like errors
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(60);
+        
+        /**
+         * Requests allowed to wait for a free slot; beyond that they are rejected with 503
+         */
+        private int maxQueue = 50;
+        
+        /**
+         * Longest a queued request waits for a slot
+         */
+        private Duration maxWait = Duration.ofSeconds(10);
+        
+        static Limits local() {
+            Limits limits = new Limits();
+            // A local model saturates the CPU/GPU long before any remote rate limit
+            limits.setInitialLimit(4);
+            limits.setMaxLimit(32);
+            limits.setLatencyThreshold(Duration.ofMinutes(2));
+            limits.setMaxQueue(20);
+            return limits;
+        }
+    }
+}
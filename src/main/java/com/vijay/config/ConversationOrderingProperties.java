@@ -0,0 +1,31 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for serializing concurrent requests on the same conversation
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.chat.ordering")
+public class ConversationOrderingProperties {
+    
+    /**
+     * QUEUE waits for the earlier request, REJECT answers 409, COALESCE shares the result of an
+     * identical in-flight request and queues anything else
+     */
+    public enum Policy { QUEUE, REJECT, COALESCE }
+    
+    private boolean enabled = true;
+    
+    private Policy policy = Policy.QUEUE;
+    
+    /**
+     * Longest a queued request waits for its turn before being rejected with 409
+     */
+    private Duration maxWait = Duration.ofSeconds(60);
+}
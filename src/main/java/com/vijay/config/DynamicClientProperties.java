@@ -0,0 +1,91 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for ChatClients built from a request's own apiKey / baseUrl.
+ *
+ * Off by default. A request that overrides the base URL must bring its own apiKey, and the URL
+ * must be on the allow-list: the configured key is never sent to a caller-chosen host.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.chat.dynamic-clients")
+public class DynamicClientProperties {
+    
+    /**
+     * Honour apiKey / baseUrl on requests; when off they are ignored and the configured client is used
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Base URLs a request may send its own apiKey to, e.g. https://api.openai.com; a request base
+     * URL matches when scheme, host and port are equal and its path starts with the allowed path.
+     * Empty means requests may override the API key but not the base URL.
+     */
+    private List<String> allowedBaseUrls = new ArrayList<>();
+    
+    /**
+     * Most distinct (provider, baseUrl, apiKey) clients kept at once
+     */
+    private int maxSize = 100;
+    
+    /**
+     * Close clients that have not been used for this long
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+    
+    public boolean isAllowedBaseUrl(String baseUrl) {
+        URI requested = parse(baseUrl);
+        if (requested == null) {
+            return false;
+        }
+        return allowedBaseUrls.stream()
+                .map(DynamicClientProperties::parse)
+                .anyMatch(allowed -> allowed != null && sameOrigin(allowed, requested)
+                        && isPathPrefix(allowed.getPath(), requested.getPath()));
+    }
+    
+    private static URI parse(String url) {
+        try {
+            URI uri = URI.create(url.strip()).normalize();
+            return uri.getScheme() != null && uri.getHost() != null && uri.getUserInfo() == null ? uri : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private static boolean sameOrigin(URI allowed, URI requested) {
+        return allowed.getScheme().equalsIgnoreCase(requested.getScheme())
+                && allowed.getHost().equalsIgnoreCase(requested.getHost())
+                && effectivePort(allowed) == effectivePort(requested);
+    }
+    
+    private static int effectivePort(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+    
+    // Whole path segments only: /v1 allows /v1/chat but not /v1evil
+    private static boolean isPathPrefix(String allowedPath, String requestedPath) {
+        String allowed = stripTrailingSlash(allowedPath);
+        String requested = stripTrailingSlash(requestedPath);
+        return allowed.isEmpty() || requested.equals(allowed) || requested.startsWith(allowed + "/");
+    }
+    
+    private static String stripTrailingSlash(String path) {
+        if (path == null) {
+            return "";
+        }
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
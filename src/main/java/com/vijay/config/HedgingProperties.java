@@ -0,0 +1,70 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for hedged chat requests: a backup call to a secondary provider/model when the
+ * primary is slower than its usual tail latency
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.chat.hedging")
+public class HedgingProperties {
+    
+    private boolean enabled = false;
+    
+    /**
+     * Latency quantile of the primary provider/model after which the backup is sent
+     */
+    private double quantile = 0.95;
+    
+    /**
+     * Recent latencies kept per provider/model to estimate the quantile
+     */
+    private int window = 200;
+    
+    /**
+     * Observations needed before a provider/model is hedged at all
+     */
+    private int minSamples = 20;
+    
+    /**
+     * Bounds on the hedge delay, whatever the observed quantile
+     */
+    private Duration minDelay = Duration.ofMillis(500);
+    
+    private Duration maxDelay = Duration.ofSeconds(30);
+    
+    /**
+     * Hedges allowed per primary request, e.g. 0.05 for at most 5% extra load
+     */
+    private double budgetRatio = 0.05;
+    
+    /**
+     * Unused budget that can accumulate for bursts of slow requests
+     */
+    private double budgetBurst = 10;
+    
+    /**
+     * Backup target per primary provider, e.g. gemini -> {provider: ollama}
+     */
+    private Map<String, Target> targets = new LinkedHashMap<>();
+    
+    @Getter
+    @Setter
+    public static class Target {
+        
+        private String provider;
+        
+        /**
+         * Model of the backup; the provider default when empty
+         */
+        private String model;
+    }
+}
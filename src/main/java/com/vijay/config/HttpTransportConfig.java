@@ -0,0 +1,43 @@
+package com.vijay.config;
+
+import com.vijay.client.ProviderHttpTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Pooled HTTP transport for the OpenAI-compatible and Ollama models.
+ *
+ * Spring AI builds both models from the shared RestClient / WebClient builders, so the
+ * customizers below route every provider call through {@link ProviderHttpTransport}.
+ */
+@Configuration
+class HttpTransportConfig {
+
+    @Bean
+    ProviderHttpTransport providerHttpTransport(HttpTransportProperties properties,
+                                                @Value("${spring.ai.openai.base-url:https://api.openai.com}") String openAiBaseUrl,
+                                                @Value("${spring.ai.ollama.base-url:http://localhost:11434}") String ollamaBaseUrl,
+                                                MeterRegistry meterRegistry) {
+        return new ProviderHttpTransport(properties, Map.of("openai", openAiBaseUrl, "ollama", ollamaBaseUrl),
+                meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "mcp-host.http", name = "enabled", havingValue = "true", matchIfMissing = true)
+    RestClientCustomizer providerRestClientCustomizer(ProviderHttpTransport providerHttpTransport) {
+        return builder -> builder.requestFactory(providerHttpTransport.requestFactory());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "mcp-host.http", name = "enabled", havingValue = "true", matchIfMissing = true)
+    WebClientCustomizer providerWebClientCustomizer(ProviderHttpTransport providerHttpTransport) {
+        return builder -> builder.clientConnector(providerHttpTransport.connector());
+    }
+}
@@ -0,0 +1,76 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for the pooled HTTP transport used by the LLM provider clients
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.http")
+public class HttpTransportProperties {
+    
+    /**
+     * Route provider calls through the shared transport; when off Spring Boot's default client is used
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Settings per provider (openai, ollama), matched by the host of spring.ai.{provider}.base-url
+     */
+    private Map<String, Provider> providers = new LinkedHashMap<>(Map.of(
+            "openai", new Provider(),
+            "ollama", Provider.local()));
+    
+    /**
+     * Settings for calls to any other host, e.g. a request-supplied baseUrl
+     */
+    private Provider defaults = new Provider();
+    
+    public Provider forProvider(String provider) {
+        return providers.getOrDefault(provider, defaults);
+    }
+    
+    @Getter
+    @Setter
+    public static class Provider {
+        
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        
+        /**
+         * Longest wait for response data; generous because completions can take minutes
+         */
+        private Duration readTimeout = Duration.ofMinutes(2);
+        
+        /**
+         * Most requests in flight to this provider at once; further requests wait for a slot
+         */
+        private int maxConnections = 64;
+        
+        /**
+         * Longest wait for a free slot before the call fails
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+        
+        /**
+         * Negotiate HTTP/2 (ALPN over TLS); otherwise HTTP/1.1 keep-alive
+         */
+        private boolean http2 = true;
+        
+        static Provider local() {
+            Provider provider = new Provider();
+            provider.setConnectTimeout(Duration.ofSeconds(2));
+            provider.setReadTimeout(Duration.ofMinutes(5));
+            provider.setMaxConnections(8);
+            // Plain HTTP; avoids the h2c upgrade round trip
+            provider.setHttp2(false);
+            return provider;
+        }
+    }
+}
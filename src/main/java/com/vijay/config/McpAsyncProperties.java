@@ -0,0 +1,26 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for executing MCP tools on McpAsyncClient sessions
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.mcp.async")
+public class McpAsyncProperties {
+    
+    /**
+     * Execute tools on non-blocking McpAsyncClient sessions instead of the synchronous clients
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Upper bound for one tool call; the MCP request is disposed when it expires
+     */
+    private Duration requestTimeout = Duration.ofSeconds(30);
+}
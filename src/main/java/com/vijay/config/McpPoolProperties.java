@@ -0,0 +1,37 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for pooling several MCP sessions per configured SSE connection
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.mcp.pool")
+public class McpPoolProperties {
+    
+    private boolean enabled = false;
+    
+    private int minSessions = 1;
+    
+    private int maxSessions = 4;
+    
+    /**
+     * Outstanding calls on the least loaded session at which another session is opened
+     */
+    private int growThreshold = 4;
+    
+    /**
+     * Sessions idle for longer than this are closed, down to minSessions
+     */
+    private Duration idleTimeout = Duration.ofMinutes(2);
+    
+    /**
+     * How often idle sessions are pinged and failed sessions replaced
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(30);
+}
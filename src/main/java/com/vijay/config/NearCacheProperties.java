@@ -0,0 +1,49 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the in-process L1 near-cache in front of Redis
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.cache.near")
+public class NearCacheProperties {
+    
+    /**
+     * Keep a bounded in-heap copy of Redis cache entries
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Default L1 limits for caches without an entry in {@link #caches}
+     */
+    private Tier defaults = new Tier();
+    
+    /**
+     * Per-cache L1 overrides keyed by cache name
+     */
+    private Map<String, Tier> caches = new HashMap<>();
+    
+    /**
+     * Redis pub/sub channel used to invalidate L1 entries on other nodes
+     */
+    private String invalidationChannel = "mcp-host:cache:invalidate";
+    
+    public Tier tierFor(String cacheName) {
+        return caches.getOrDefault(cacheName, defaults);
+    }
+    
+    @Getter
+    @Setter
+    public static class Tier {
+        private long maxSize = 1000;
+        private Duration ttl = Duration.ofSeconds(60);
+    }
+}
@@ -0,0 +1,49 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the per provider/model and per MCP server resilience policies. The policies
+ * themselves are configured as named resilience4j configs (resilience4j.*.configs).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.resilience")
+public class ResilienceProperties {
+    
+    /**
+     * Distinct provider/model policy sets kept; further models share one set per provider
+     */
+    private int maxModels = 64;
+    
+    private RetryBudget retryBudget = new RetryBudget();
+    
+    /**
+     * Caps retries per provider to a fraction of its recent successful calls
+     */
+    @Getter
+    @Setter
+    public static class RetryBudget {
+        
+        private boolean enabled = true;
+        
+        /**
+         * Retries allowed per successful call in the window, e.g. 0.1 for at most 10% extra load
+         */
+        private double ratio = 0.1;
+        
+        /**
+         * Retries always allowed per second, so low-traffic providers can still retry
+         */
+        private double minRetriesPerSecond = 1;
+        
+        /**
+         * Length of the sliding window over which successes and retries are counted
+         */
+        private Duration window = Duration.ofSeconds(10);
+    }
+}
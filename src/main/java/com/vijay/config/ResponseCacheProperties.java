@@ -0,0 +1,42 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the exact-match response cache of stateless chat completions
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.chat.response-cache")
+public class ResponseCacheProperties {
+    
+    /**
+     * Serve repeated stateless requests from the chatResponses cache
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Maximum number of cached responses tracked by this node before the oldest are evicted
+     */
+    private int maxEntries = 1000;
+    
+    /**
+     * TTL used for providers without an explicit entry in {@link #ttl}
+     */
+    private Duration defaultTtl = Duration.ofMinutes(5);
+    
+    /**
+     * Per-provider TTL, e.g. gemini: 10m, ollama: 2m
+     */
+    private Map<String, Duration> ttl = new HashMap<>();
+    
+    public Duration ttlFor(String provider) {
+        return ttl.getOrDefault(provider, defaultTtl);
+    }
+}
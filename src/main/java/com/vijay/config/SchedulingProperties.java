@@ -0,0 +1,112 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings for the chat scheduler: priority lanes with a concurrency cap each, and weighted fair
+ * queuing between tenants within a lane
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.chat.scheduling")
+public class SchedulingProperties {
+    
+    /**
+     * Lanes in priority order; a freed slot goes to the highest lane with a waiting request
+     */
+    public enum Lane {
+        INTERACTIVE, BATCH, BACKGROUND;
+        
+        /**
+         * Lane requested by a client, but never above the highest lane its endpoint allows
+         */
+        public static Lane of(String requested, Lane highest) {
+            if (requested != null) {
+                for (Lane lane : values()) {
+                    if (lane.name().equalsIgnoreCase(requested.strip())) {
+                        return lane.ordinal() > highest.ordinal() ? lane : highest;
+                    }
+                }
+            }
+            return highest;
+        }
+        
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    private boolean enabled = true;
+    
+    /**
+     * Header naming the tenant; requests without it are keyed by their API key, else "anonymous"
+     */
+    private String tenantHeader = "X-Tenant-Id";
+    
+    /**
+     * Chat requests running at once across all lanes
+     */
+    private int maxConcurrency = 64;
+    
+    /**
+     * Share of a lane's slots for tenants without an entry in tenantWeights
+     */
+    private int defaultWeight = 1;
+    
+    /**
+     * Weight per tenant; a tenant with weight 4 gets four times the slots of a weight-1 tenant
+     * while both have requests waiting
+     */
+    private Map<String, Integer> tenantWeights = new LinkedHashMap<>();
+    
+    private Map<Lane, LaneLimits> lanes = new EnumMap<>(Map.of(
+            Lane.INTERACTIVE, new LaneLimits(64, 200, Duration.ofSeconds(10)),
+            Lane.BATCH, new LaneLimits(32, 1000, Duration.ofMinutes(2)),
+            Lane.BACKGROUND, new LaneLimits(8, 1000, Duration.ofMinutes(5))));
+    
+    public LaneLimits forLane(Lane lane) {
+        return lanes.computeIfAbsent(lane, key -> new LaneLimits());
+    }
+    
+    public int weightOf(String tenant) {
+        return Math.max(1, tenantWeights.getOrDefault(tenant, defaultWeight));
+    }
+    
+    @Getter
+    @Setter
+    public static class LaneLimits {
+        
+        /**
+         * Requests of this lane running at once; keep batch and background below maxConcurrency
+         * so interactive requests always find a free slot
+         */
+        private int maxConcurrency = 16;
+        
+        /**
+         * Requests allowed to wait in this lane; beyond that they are rejected with 503
+         */
+        private int maxQueue = 100;
+        
+        /**
+         * Longest a queued request waits for a slot
+         */
+        private Duration maxWait = Duration.ofSeconds(30);
+        
+        public LaneLimits() {
+        }
+        
+        LaneLimits(int maxConcurrency, int maxQueue, Duration maxWait) {
+            this.maxConcurrency = maxConcurrency;
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.vijay.config;
 
-import com.vijay.service.CachedToolService;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,10 +7,12 @@ import org.springframework.core.io.ClassPathResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-
 /**
- * Configuration for system prompt generation
+ * Configuration for system prompt generation.
+ *
+ * The prompt does not list the tools: their definitions are attached to each request from the
+ * current registry snapshot, so the prompt stays valid across registry refreshes and the catalog
+ * is not sent twice.
  */
 @Configuration
 public class SystemPromptConfig {
@@ -19,16 +20,13 @@ public class SystemPromptConfig {
     private static final Logger logger = LoggerFactory.getLogger(SystemPromptConfig.class);
     
     @Bean
-    public String systemPrompt(CachedToolService cachedToolService) {
+    public String systemPrompt() {
         try {
             // Load system prompt template
             PromptTemplate template = new PromptTemplate(new ClassPathResource("prompts/tool-only.st"));
             
-            // Get tool list from cached service
-            String toolList = cachedToolService.getToolListForPrompt();
-            
-            String prompt = template.render(Map.of("toolList", toolList));
-            logger.info("Generated system prompt with {} tools", cachedToolService.getToolCount());
+            String prompt = template.render();
+            logger.info("Generated system prompt ({} characters)", prompt.length());
             
             return prompt;
             
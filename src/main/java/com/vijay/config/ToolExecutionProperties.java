@@ -0,0 +1,40 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for executing the tool calls of one LLM turn
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.tools.execution")
+public class ToolExecutionProperties {
+    
+    public enum Mode { SEQUENTIAL, PARALLEL }
+    
+    private Mode mode = Mode.SEQUENTIAL;
+    
+    /**
+     * Maximum tool calls of a single turn running at the same time
+     */
+    private int maxParallelism = 4;
+    
+    /**
+     * Default maximum concurrent calls per MCP server, across all requests
+     */
+    private int serverConcurrency = 16;
+    
+    /**
+     * Per-server overrides of serverConcurrency, keyed by MCP server name
+     */
+    private Map<String, Integer> servers = new HashMap<>();
+    
+    public int concurrencyFor(String serverName) {
+        return servers.getOrDefault(serverName, serverConcurrency);
+    }
+}
@@ -0,0 +1,30 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for caching results of idempotent MCP tools
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.tools.result-cache")
+public class ToolResultCacheProperties {
+    
+    private boolean enabled = false;
+    
+    /**
+     * Maximum number of cached tool results across all tools
+     */
+    private long maxEntries = 5000;
+    
+    /**
+     * Allow-list of cacheable tools (clean tool name) and the TTL of their results
+     */
+    private Map<String, Duration> tools = new HashMap<>();
+}
@@ -0,0 +1,31 @@
+package com.vijay.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for attaching only the tools relevant to each request
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mcp-host.tools.selection")
+public class ToolSelectionProperties {
+    
+    private boolean enabled = false;
+    
+    /**
+     * Maximum number of tools attached to one request
+     */
+    private int topK = 5;
+    
+    /**
+     * BM25 score the best tool must reach; below it the full tool set is attached
+     */
+    private double minScore = 1.0;
+    
+    /**
+     * Tools scoring below this fraction of the best score are dropped
+     */
+    private double relativeCutoff = 0.25;
+}
@@ -1,17 +1,32 @@
 package com.vijay.controller;
 
+import com.vijay.cluster.ConversationForwarder;
+import com.vijay.config.SchedulingProperties;
+import com.vijay.exception.ConversationBusyException;
+import com.vijay.exception.LaneSaturatedException;
+import com.vijay.exception.ProviderOverloadedException;
 import com.vijay.model.ChatRequest;
 import com.vijay.model.ChatResponse;
+import com.vijay.model.ChatStreamEvent;
+import com.vijay.service.ChatService;
 import com.vijay.service.ResilientChatService;
 import com.vijay.service.VirtualThreadChatService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -22,10 +37,19 @@ class ChatBoatController {
 
     private final ResilientChatService resilientChatService;
     private final VirtualThreadChatService virtualThreadChatService;
+    private final ChatService chatService;
+    private final SchedulingProperties schedulingProperties;
+    // Present only when mcp-host.cluster.enabled is true
+    private final ConversationForwarder conversationForwarder;
 
-    ChatBoatController(ResilientChatService resilientChatService, VirtualThreadChatService virtualThreadChatService) {
+    ChatBoatController(ResilientChatService resilientChatService, VirtualThreadChatService virtualThreadChatService,
+                       ChatService chatService, SchedulingProperties schedulingProperties,
+                       ObjectProvider<ConversationForwarder> conversationForwarder) {
         this.resilientChatService = resilientChatService;
         this.virtualThreadChatService = virtualThreadChatService;
+        this.chatService = chatService;
+        this.schedulingProperties = schedulingProperties;
+        this.conversationForwarder = conversationForwarder.getIfAvailable();
     }
 
 
@@ -44,10 +68,18 @@ class ChatBoatController {
                 req.getBaseUrl() != null && !req.getBaseUrl().isBlank());
 
         try {
-            // Generate conversation ID
-            String conversationId = (req.getConversationId() != null && !req.getConversationId().isBlank())
-                    ? req.getConversationId()
-                    : http.getSession(true).getId();
+            String conversationId = conversationIdOf(req, http);
+
+            applyCacheControl(req, http);
+            applyTenant(req, http);
+
+            // Serve from the node that owns the conversation's memory
+            ResponseEntity<ChatResponse> routed = routeToOwner(req, conversationId, "/api/ai/chat", http)
+                    .map(CompletableFuture::join)
+                    .orElse(null);
+            if (routed != null) {
+                return routed;
+            }
 
             // Process the chat request through the resilient service layer
             ChatResponse response = resilientChatService.processChatRequest(req, conversationId);
@@ -55,6 +87,18 @@ class ChatBoatController {
             logger.info("Successfully processed chat request for conversation: {}", conversationId);
             return ResponseEntity.ok(response);
             
+        } catch (ConversationBusyException e) {
+            logger.info("Rejected chat request for busy conversation: {}", e.getConversationId());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ChatResponse("error", "", e.getMessage()));
+        } catch (ProviderOverloadedException e) {
+            logger.warn("Rejected chat request, provider {} at its concurrency limit", e.getProvider());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ChatResponse("error", "", e.getMessage()));
+        } catch (LaneSaturatedException e) {
+            logger.warn("Rejected chat request, {} lane saturated", e.getLane());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ChatResponse("error", "", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error processing chat request: {}", e.getMessage(), e);
             return ResponseEntity.status(500)
@@ -74,22 +118,20 @@ class ChatBoatController {
                 req.getProvider(), req.getModel());
 
         try {
-            // Generate conversation ID
-            String conversationId = (req.getConversationId() != null && !req.getConversationId().isBlank())
-                    ? req.getConversationId()
-                    : http.getSession(true).getId();
-
-            // Process the chat request using Virtual Threads
-            return virtualThreadChatService.processChatAsync(req, conversationId)
-                    .thenApply(response -> {
-                        logger.info("Successfully processed async chat request for conversation: {}", conversationId);
-                        return ResponseEntity.ok(response);
-                    })
-                    .exceptionally(throwable -> {
-                        logger.error("Error processing async chat request: {}", throwable.getMessage(), throwable);
-                        return ResponseEntity.status(500)
-                                .body(new ChatResponse("error", "", "Internal Server Error: " + throwable.getMessage()));
-                    });
+            String conversationId = conversationIdOf(req, http);
+
+            applyCacheControl(req, http);
+            applyTenant(req, http);
+
+            Optional<CompletableFuture<ResponseEntity<ChatResponse>>> routed =
+                    routeToOwner(req, conversationId, "/api/ai/chat/async", http);
+            if (routed.isPresent()) {
+                // A null result means the owner was unreachable and this node serves the request
+                return routed.get().thenCompose(response -> response != null
+                        ? CompletableFuture.completedFuture(response)
+                        : processAsync(req, conversationId));
+            }
+            return processAsync(req, conversationId);
             
         } catch (Exception e) {
             logger.error("Error setting up async chat request: {}", e.getMessage(), e);
@@ -98,6 +140,109 @@ class ChatBoatController {
         }
     }
     
+    private CompletableFuture<ResponseEntity<ChatResponse>> processAsync(ChatRequest req, String conversationId) {
+        // Process the chat request using Virtual Threads
+        return virtualThreadChatService.processChatAsync(req, conversationId)
+                .thenApply(response -> {
+                    logger.info("Successfully processed async chat request for conversation: {}", conversationId);
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if (cause instanceof ConversationBusyException busy) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT)
+                                .body(new ChatResponse("error", "", busy.getMessage()));
+                    }
+                    if (cause instanceof ProviderOverloadedException || cause instanceof LaneSaturatedException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(new ChatResponse("error", "", cause.getMessage()));
+                    }
+                    logger.error("Error processing async chat request: {}", throwable.getMessage(), throwable);
+                    return ResponseEntity.status(500)
+                            .body(new ChatResponse("error", "", "Internal Server Error: " + throwable.getMessage()));
+                });
+    }
+    
+    /**
+     * Streaming chat endpoint using Server-Sent Events
+     * Same request contract as /chat; emits token, tool_call, tool_result and a final done/error event.
+     * Demand from the servlet response drives the upstream stream, and a client disconnect cancels it.
+     * In a cluster the stream comes from the node owning the conversation, relayed or by redirect.
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<ChatStreamEvent>>> chatStream(@Valid @RequestBody ChatRequest req,
+                                                                             HttpServletRequest http) {
+
+        logger.info("Received streaming chat request - provider: {}, model: {}",
+                req.getProvider(), req.getModel());
+
+        String conversationId = conversationIdOf(req, http);
+
+        applyTenant(req, http);
+
+        Optional<ResponseEntity<Flux<ChatStreamEvent>>> routed = conversationForwarder == null
+                ? Optional.empty()
+                : conversationForwarder.routeStream(req, conversationId, "/api/ai/chat/stream", http,
+                        () -> chatService.streamChatRequest(req, conversationId));
+        if (routed.isPresent() && routed.get().getBody() == null) {
+            // Redirect to the owner
+            return ResponseEntity.status(routed.get().getStatusCode()).headers(routed.get().getHeaders()).build();
+        }
+        
+        Flux<ChatStreamEvent> events = routed.isPresent()
+                ? routed.get().getBody()
+                : chatService.streamChatRequest(req, conversationId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(events.map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType())
+                        .build()));
+    }
+    
+    // Body, then the X-Conversation-Id header or conversationId parameter (set by a cluster redirect),
+    // then the HTTP session
+    private static String conversationIdOf(ChatRequest req, HttpServletRequest http) {
+        if (req.getConversationId() != null && !req.getConversationId().isBlank()) {
+            return req.getConversationId();
+        }
+        String fromHeader = http.getHeader(ConversationForwarder.CONVERSATION_HEADER);
+        if (fromHeader != null && !fromHeader.isBlank()) {
+            return fromHeader;
+        }
+        String fromParameter = http.getParameter(ConversationForwarder.CONVERSATION_PARAM);
+        if (fromParameter != null && !fromParameter.isBlank()) {
+            return fromParameter;
+        }
+        return http.getSession(true).getId();
+    }
+    
+    // "Cache-Control: no-cache" bypasses the response cache, same as "noCache": true in the body
+    private static void applyCacheControl(ChatRequest req, HttpServletRequest http) {
+        String cacheControl = http.getHeader(HttpHeaders.CACHE_CONTROL);
+        if (cacheControl != null && cacheControl.toLowerCase().contains("no-cache")) {
+            req.setNoCache(true);
+        }
+    }
+    
+    // The tenant comes from the tenant header; a tenant in the body is self-asserted and only kept
+    // when a cluster peer forwarded the request after resolving it from its own header
+    private void applyTenant(ChatRequest req, HttpServletRequest http) {
+        String tenant = http.getHeader(schedulingProperties.getTenantHeader());
+        if (tenant != null && !tenant.isBlank()) {
+            req.setTenant(tenant);
+        } else if (conversationForwarder == null || !conversationForwarder.isForwardedByPeer(http)) {
+            req.setTenant(null);
+        }
+    }
+    
+    // Empty when clustering is off or this node owns the conversation
+    private Optional<CompletableFuture<ResponseEntity<ChatResponse>>> routeToOwner(ChatRequest req, String conversationId,
+                                                                                   String path, HttpServletRequest http) {
+        return conversationForwarder == null
+                ? Optional.empty()
+                : conversationForwarder.route(req, conversationId, path, http);
+    }
+    
     @GetMapping("/providers")
     public ResponseEntity<String[]> getAvailableProviders() {
         try {
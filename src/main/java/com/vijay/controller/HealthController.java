@@ -1,5 +1,6 @@
 package com.vijay.controller;
 
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Health check controller for monitoring application and circuit breaker states
@@ -18,9 +20,11 @@ import java.util.Map;
 public class HealthController {
     
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
     
-    public HealthController(CircuitBreakerRegistry circuitBreakerRegistry) {
+    public HealthController(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
     }
     
     @GetMapping
@@ -46,17 +50,27 @@ public class HealthController {
         return ResponseEntity.ok(health);
     }
     
+    /**
+     * Circuit breakers per provider/model ("gemini/gemini-2.0-flash") and per MCP server ("mcp/weather"),
+     * with the bulkhead of the same name where there is one
+     */
     @GetMapping("/circuit-breakers")
     public ResponseEntity<Map<String, Object>> circuitBreakerStates() {
-        Map<String, Object> states = new HashMap<>();
+        Map<String, Object> states = new TreeMap<>();
         
         circuitBreakerRegistry.getAllCircuitBreakers().forEach(cb -> {
             Map<String, Object> cbInfo = new HashMap<>();
             cbInfo.put("state", cb.getState().toString());
             cbInfo.put("failureRate", cb.getMetrics().getFailureRate());
+            cbInfo.put("slowCallRate", cb.getMetrics().getSlowCallRate());
             cbInfo.put("numberOfBufferedCalls", cb.getMetrics().getNumberOfBufferedCalls());
             cbInfo.put("numberOfFailedCalls", cb.getMetrics().getNumberOfFailedCalls());
             cbInfo.put("numberOfSuccessfulCalls", cb.getMetrics().getNumberOfSuccessfulCalls());
+            cbInfo.put("numberOfNotPermittedCalls", cb.getMetrics().getNumberOfNotPermittedCalls());
+            bulkheadRegistry.find(cb.getName()).ifPresent(bulkhead -> {
+                cbInfo.put("bulkheadAvailableCalls", bulkhead.getMetrics().getAvailableConcurrentCalls());
+                cbInfo.put("bulkheadMaxCalls", bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+            });
             states.put(cb.getName(), cbInfo);
         });
         
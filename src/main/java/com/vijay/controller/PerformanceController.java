@@ -1,13 +1,17 @@
 package com.vijay.controller;
 
+import com.vijay.cache.TwoTierCache;
+import com.vijay.memory.CompactingChatMemory;
 import com.vijay.service.CachedToolService;
 import com.vijay.service.RedisChatMemoryService;
 import com.vijay.service.PerformanceMonitoringService;
 import com.vijay.service.MetricsService;
+import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -27,17 +31,20 @@ public class PerformanceController {
     private final RedisChatMemoryService redisChatMemoryService;
     private final PerformanceMonitoringService performanceMonitoringService;
     private final MetricsService metricsService;
+    private final ChatMemory chatMemory;
     
     public PerformanceController(CacheManager cacheManager, 
                                CachedToolService cachedToolService,
                                RedisChatMemoryService redisChatMemoryService,
                                PerformanceMonitoringService performanceMonitoringService,
-                               MetricsService metricsService) {
+                               MetricsService metricsService,
+                               ChatMemory chatMemory) {
         this.cacheManager = cacheManager;
         this.cachedToolService = cachedToolService;
         this.redisChatMemoryService = redisChatMemoryService;
         this.performanceMonitoringService = performanceMonitoringService;
         this.metricsService = metricsService;
+        this.chatMemory = chatMemory;
     }
     
     @GetMapping("/cache-stats")
@@ -50,6 +57,9 @@ public class PerformanceController {
                 Map<String, Object> cacheStats = new HashMap<>();
                 cacheStats.put("name", cacheName);
                 cacheStats.put("nativeCache", cache.getNativeCache().getClass().getSimpleName());
+                if (cache instanceof TwoTierCache twoTierCache) {
+                    cacheStats.putAll(twoTierCache.getStats());
+                }
                 stats.put(cacheName, cacheStats);
             }
         });
@@ -87,6 +97,27 @@ public class PerformanceController {
         return ResponseEntity.ok(stats);
     }
     
+    /**
+     * Memory compaction results for one conversation
+     */
+    @GetMapping("/memory-compaction/{conversationId}")
+    public ResponseEntity<Map<String, Object>> getMemoryCompaction(@PathVariable String conversationId) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("conversationId", conversationId);
+        
+        if (!(chatMemory instanceof CompactingChatMemory compactingChatMemory)) {
+            stats.put("enabled", false);
+            return ResponseEntity.ok(stats);
+        }
+        stats.put("enabled", true);
+        compactingChatMemory.getSummary(conversationId).ifPresentOrElse(summary -> {
+            stats.put("compacted", true);
+            stats.put("summaryTokens", summary.tokens());
+        }, () -> stats.put("compacted", false));
+        
+        return ResponseEntity.ok(stats);
+    }
+    
     /**
      * Get detailed performance statistics
      */
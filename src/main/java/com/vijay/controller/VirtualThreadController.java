@@ -1,8 +1,11 @@
 package com.vijay.controller;
 
+import com.vijay.config.SchedulingProperties;
+import com.vijay.config.SchedulingProperties.Lane;
 import com.vijay.model.ChatRequest;
 import com.vijay.model.ChatResponse;
 import com.vijay.service.VirtualThreadChatService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -25,9 +28,12 @@ public class VirtualThreadController {
     private static final Logger logger = LoggerFactory.getLogger(VirtualThreadController.class);
 
     private final VirtualThreadChatService virtualThreadChatService;
+    private final SchedulingProperties schedulingProperties;
 
-    public VirtualThreadController(VirtualThreadChatService virtualThreadChatService) {
+    public VirtualThreadController(VirtualThreadChatService virtualThreadChatService,
+                                   SchedulingProperties schedulingProperties) {
         this.virtualThreadChatService = virtualThreadChatService;
+        this.schedulingProperties = schedulingProperties;
     }
 
     /**
@@ -53,13 +59,21 @@ public class VirtualThreadController {
     /**
      * Process multiple chat requests concurrently using Virtual Threads
      * Demonstrates the power of Virtual Threads for concurrent processing
+     * Runs in the batch lane (or background, if requested) so it cannot crowd out interactive chats
      */
     @PostMapping("/chat/batch")
     public CompletableFuture<ResponseEntity<Map<String, Object>>> processMultipleChatsAsync(
-            @RequestBody ChatRequest[] requests) {
+            @RequestBody ChatRequest[] requests, HttpServletRequest http) {
         
         logger.info("Processing {} chat requests concurrently with Virtual Threads", requests.length);
         
+        String tenant = http.getHeader(schedulingProperties.getTenantHeader());
+        for (ChatRequest request : requests) {
+            request.setLane(Lane.of(request.getLane(), Lane.BATCH).tag());
+            // A tenant in the body is self-asserted and never trusted here
+            request.setTenant(tenant != null && !tenant.isBlank() ? tenant : null);
+        }
+        
         // Generate conversation IDs
         String[] conversationIds = new String[requests.length];
         for (int i = 0; i < requests.length; i++) {
@@ -120,6 +134,7 @@ public class VirtualThreadController {
             testRequests[i].setMessage("Test message " + (i + 1));
             testRequests[i].setProvider("gemini");
             testRequests[i].setModel("gemini-1.5-flash");
+            testRequests[i].setLane(Lane.BATCH.tag());
             
             conversationIds[i] = "test-" + UUID.randomUUID().toString();
         }
@@ -0,0 +1,18 @@
+package com.vijay.exception;
+
+/**
+ * Thrown when a conversation already has a request in progress and the new one is not queued
+ */
+public class ConversationBusyException extends ChatServiceException {
+    
+    private final String conversationId;
+    
+    public ConversationBusyException(String conversationId, String message) {
+        super("CONVERSATION_BUSY", message, 409);
+        this.conversationId = conversationId;
+    }
+    
+    public String getConversationId() {
+        return conversationId;
+    }
+}
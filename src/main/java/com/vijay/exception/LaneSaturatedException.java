@@ -0,0 +1,18 @@
+package com.vijay.exception;
+
+/**
+ * Thrown when a scheduling lane's queue is full or a request waited too long for a slot in it
+ */
+public class LaneSaturatedException extends ChatServiceException {
+    
+    private final String lane;
+    
+    public LaneSaturatedException(String lane, String message) {
+        super("LANE_SATURATED", message, 503);
+        this.lane = lane;
+    }
+    
+    public String getLane() {
+        return lane;
+    }
+}
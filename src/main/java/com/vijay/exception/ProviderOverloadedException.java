@@ -0,0 +1,18 @@
+package com.vijay.exception;
+
+/**
+ * Thrown when a provider/model is at its concurrency limit and the request cannot be queued
+ */
+public class ProviderOverloadedException extends ChatServiceException {
+    
+    private final String provider;
+    
+    public ProviderOverloadedException(String provider, String message) {
+        super("PROVIDER_OVERLOADED", message, 503);
+        this.provider = provider;
+    }
+    
+    public String getProvider() {
+        return provider;
+    }
+}
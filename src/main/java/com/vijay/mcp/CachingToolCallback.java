@@ -0,0 +1,70 @@
+package com.vijay.mcp;
+
+import com.vijay.tool.ReactiveToolCallback;
+import com.vijay.tool.ToolUtils;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves results of an idempotent MCP tool from the {@link ToolResultCache}, skipping the server round trip
+ */
+public class CachingToolCallback implements ToolCallback {
+    
+    private final ToolCallback delegate;
+    protected final ToolResultCache cache;
+    protected final String toolName;
+    
+    /**
+     * Wrap a callback, keeping its non-blocking path if it has one
+     */
+    public static CachingToolCallback wrap(ToolCallback delegate, ToolResultCache cache) {
+        return delegate instanceof ReactiveToolCallback reactive
+                ? new Reactive(reactive, cache)
+                : new CachingToolCallback(delegate, cache);
+    }
+    
+    public CachingToolCallback(ToolCallback delegate, ToolResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.toolName = ToolUtils.cleanToolName(delegate.getToolDefinition().name());
+    }
+    
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+    
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+    
+    @Override
+    public String call(String toolInput) {
+        return cache.getOrCall(toolName, toolInput, () -> delegate.call(toolInput));
+    }
+    
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return cache.getOrCall(toolName, toolInput, () -> delegate.call(toolInput, toolContext));
+    }
+    
+    static final class Reactive extends CachingToolCallback implements ReactiveToolCallback {
+        
+        private final ReactiveToolCallback reactiveDelegate;
+        
+        private Reactive(ReactiveToolCallback delegate, ToolResultCache cache) {
+            super(delegate, cache);
+            this.reactiveDelegate = delegate;
+        }
+        
+        @Override
+        public Mono<String> callReactive(String toolInput, ToolContext toolContext) {
+            return cache.getOrCallReactive(toolName, toolInput,
+                    () -> reactiveDelegate.callReactive(toolInput, toolContext));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.vijay.mcp;
+
+import com.vijay.tool.ReactiveToolCallback;
+import com.vijay.tool.ToolProgressListener;
+import com.vijay.tool.ToolUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import reactor.core.publisher.Mono;
+
+/**
+ * Wraps an MCP tool callback with invocation logging and tool progress notifications
+ */
+public class LoggingToolCallback implements ToolCallback {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoggingToolCallback.class);
+    
+    private final ToolCallback delegate;
+    private final String serverName;
+    
+    /**
+     * Wrap a callback, keeping its non-blocking path if it has one
+     */
+    public static LoggingToolCallback wrap(ToolCallback delegate, String serverName) {
+        return delegate instanceof ReactiveToolCallback reactive
+                ? new Reactive(reactive, serverName)
+                : new LoggingToolCallback(delegate, serverName);
+    }
+    
+    public LoggingToolCallback(ToolCallback delegate, String serverName) {
+        this.delegate = delegate;
+        this.serverName = serverName;
+    }
+    
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+    
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+    
+    @Override
+    public String call(String toolInput) {
+        logger.info("🔧 Tool '{}' from server '{}' invoked with input: {}",
+                getToolDefinition().name(), serverName, toolInput);
+        String result = delegate.call(toolInput);
+        logger.info("✅ Tool '{}' from server '{}' returned: {}",
+                getToolDefinition().name(), serverName, result);
+        return result;
+    }
+    
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        logger.info("🔧 Tool '{}' from server '{}' invoked with input: {} (context={})",
+                getToolDefinition().name(), serverName, toolInput, toolContext);
+        ToolProgressListener listener = progressListener(toolContext);
+        String toolName = ToolUtils.cleanToolName(getToolDefinition().name());
+        if (listener != null) {
+            listener.onToolCall(toolName, toolInput);
+        }
+        String result = delegate.call(toolInput, toolContext);
+        logger.info("✅ Tool '{}' from server '{}' returned: {}",
+                getToolDefinition().name(), serverName, result);
+        if (listener != null) {
+            listener.onToolResult(toolName, result);
+        }
+        return result;
+    }
+    
+    public String getServerName() {
+        return serverName;
+    }
+    
+    private static ToolProgressListener progressListener(ToolContext toolContext) {
+        if (toolContext == null || toolContext.getContext() == null) {
+            return null;
+        }
+        return toolContext.getContext().get(ToolProgressListener.CONTEXT_KEY) instanceof ToolProgressListener listener
+                ? listener
+                : null;
+    }
+    
+    static final class Reactive extends LoggingToolCallback implements ReactiveToolCallback {
+        
+        private final ReactiveToolCallback reactiveDelegate;
+        
+        private Reactive(ReactiveToolCallback delegate, String serverName) {
+            super(delegate, serverName);
+            this.reactiveDelegate = delegate;
+        }
+        
+        @Override
+        public Mono<String> callReactive(String toolInput, ToolContext toolContext) {
+            String toolName = ToolUtils.cleanToolName(getToolDefinition().name());
+            ToolProgressListener listener = progressListener(toolContext);
+            return reactiveDelegate.callReactive(toolInput, toolContext)
+                    .doOnSubscribe(subscription -> {
+                        logger.info("🔧 Tool '{}' from server '{}' invoked with input: {}",
+                                getToolDefinition().name(), getServerName(), toolInput);
+                        if (listener != null) {
+                            listener.onToolCall(toolName, toolInput);
+                        }
+                    })
+                    .doOnNext(result -> {
+                        logger.info("✅ Tool '{}' from server '{}' returned: {}",
+                                getToolDefinition().name(), getServerName(), result);
+                        if (listener != null) {
+                            listener.onToolResult(toolName, result);
+                        }
+                    });
+        }
+    }
+}
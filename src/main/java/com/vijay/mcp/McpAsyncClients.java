@@ -0,0 +1,80 @@
+package com.vijay.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.config.McpAsyncProperties;
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpClientCommonProperties;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpSseClientProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-blocking MCP sessions for the configured SSE connections, keyed by MCP client name.
+ *
+ * Tool discovery and change notifications stay on the auto-configured synchronous clients; these
+ * sessions only execute tool calls. They reuse the synchronous client's name so tool names match.
+ */
+public class McpAsyncClients implements DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(McpAsyncClients.class);
+    
+    private final McpAsyncProperties properties;
+    private final Map<String, McpAsyncClient> clients = new ConcurrentHashMap<>();
+    
+    public McpAsyncClients(McpAsyncProperties properties,
+                           McpClientCommonProperties commonProperties,
+                           McpSseClientProperties sseProperties,
+                           ObjectMapper objectMapper) {
+        this.properties = properties;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        
+        sseProperties.getConnections().forEach((connection, parameters) -> {
+            String clientName = commonProperties.getName() + " - " + connection;
+            HttpClientSseClientTransport.Builder transport = HttpClientSseClientTransport.builder(parameters.url())
+                    .objectMapper(objectMapper);
+            if (StringUtils.hasText(parameters.sseEndpoint())) {
+                transport.sseEndpoint(parameters.sseEndpoint());
+            }
+            McpAsyncClient client = McpClient.async(transport.build())
+                    .clientInfo(new McpSchema.Implementation(clientName, commonProperties.getVersion()))
+                    .requestTimeout(commonProperties.getRequestTimeout())
+                    .build();
+            try {
+                client.initialize().block(commonProperties.getRequestTimeout());
+                clients.put(clientName, client);
+                logger.info("Executing tools of MCP connection '{}' on an async session", connection);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to open async MCP session for '{}', using the sync client: {}",
+                        connection, e.getMessage());
+                client.close();
+            }
+        });
+    }
+    
+    /**
+     * Async session for an auto-configured client, or null when tools run on the sync client
+     */
+    public McpAsyncClient clientFor(String clientName) {
+        return clients.get(clientName);
+    }
+    
+    public Duration getRequestTimeout() {
+        return properties.getRequestTimeout();
+    }
+    
+    @Override
+    public void destroy() {
+        clients.values().forEach(client -> client.closeGracefully().block(Duration.ofSeconds(5)));
+    }
+}
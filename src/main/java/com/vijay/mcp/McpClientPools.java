@@ -0,0 +1,128 @@
+package com.vijay.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.config.McpPoolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpClientCommonProperties;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpSseClientProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session pools for the configured MCP SSE connections, keyed by MCP client name.
+ *
+ * Pooled sessions use the same client name as the auto-configured client of their connection
+ * ("{spring.ai.mcp.client.name} - {connection}"), so tool names stay the same with or without pooling.
+ */
+public class McpClientPools implements DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(McpClientPools.class);
+    
+    private final Map<String, McpSessionPool<McpSyncClient>> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService maintenance;
+    
+    public McpClientPools(McpPoolProperties properties,
+                          McpClientCommonProperties commonProperties,
+                          McpSseClientProperties sseProperties,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            this.maintenance = null;
+            return;
+        }
+        
+        sseProperties.getConnections().forEach((connection, parameters) -> {
+            String clientName = commonProperties.getName() + " - " + connection;
+            SyncSessionFactory factory = new SyncSessionFactory(clientName, parameters, commonProperties, objectMapper);
+            pools.put(clientName, new McpSessionPool<>(connection, factory, properties, meterRegistry));
+            logger.info("Pooling {}-{} MCP sessions for connection '{}'",
+                    properties.getMinSessions(), properties.getMaxSessions(), connection);
+        });
+        
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("mcp-pool-maintenance")
+                .daemon(true)
+                .factory());
+        long interval = properties.getHealthCheckInterval().toMillis();
+        maintenance.scheduleWithFixedDelay(this::maintainAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Pool for an auto-configured client, or null when that connection is not pooled
+     */
+    public McpSessionPool<McpSyncClient> poolFor(String clientName) {
+        return pools.get(clientName);
+    }
+    
+    public Map<String, Integer> sessionCounts() {
+        Map<String, Integer> counts = new ConcurrentHashMap<>();
+        pools.forEach((clientName, pool) -> counts.put(clientName, pool.size()));
+        return counts;
+    }
+    
+    @Override
+    public void destroy() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        pools.values().forEach(McpSessionPool::close);
+    }
+    
+    private void maintainAll() {
+        pools.values().forEach(pool -> {
+            try {
+                pool.maintain();
+            } catch (RuntimeException e) {
+                logger.warn("MCP pool maintenance failed: {}", e.getMessage());
+            }
+        });
+    }
+    
+    private record SyncSessionFactory(String clientName,
+                                      McpSseClientProperties.SseParameters parameters,
+                                      McpClientCommonProperties commonProperties,
+                                      ObjectMapper objectMapper) implements McpSessionPool.SessionFactory<McpSyncClient> {
+        
+        @Override
+        public McpSyncClient open() {
+            HttpClientSseClientTransport.Builder transport = HttpClientSseClientTransport.builder(parameters.url())
+                    .objectMapper(objectMapper);
+            if (StringUtils.hasText(parameters.sseEndpoint())) {
+                transport.sseEndpoint(parameters.sseEndpoint());
+            }
+            McpSyncClient client = McpClient.sync(transport.build())
+                    .clientInfo(new McpSchema.Implementation(clientName, commonProperties.getVersion()))
+                    .requestTimeout(commonProperties.getRequestTimeout())
+                    .build();
+            client.initialize();
+            return client;
+        }
+        
+        @Override
+        public boolean ping(McpSyncClient session) {
+            try {
+                session.ping();
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+        
+        @Override
+        public void close(McpSyncClient session) {
+            session.closeGracefully();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.vijay.mcp;
+
+import com.vijay.config.McpPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Pool of sessions to one MCP server.
+ *
+ * Each call goes to the healthy session with the fewest outstanding requests. The pool opens another
+ * session (up to maxSessions) when even the least loaded one has growThreshold calls in flight, and
+ * {@link #maintain()} pings idle sessions, replaces failed ones and closes sessions idle for longer
+ * than idleTimeout down to minSessions.
+ *
+ * @param <S> session type, an McpSyncClient in production
+ */
+public class McpSessionPool<S> implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(McpSessionPool.class);
+    
+    /**
+     * Opens, checks and closes sessions of one server
+     */
+    public interface SessionFactory<S> {
+        
+        S open();
+        
+        boolean ping(S session);
+        
+        void close(S session);
+        
+        /**
+         * Whether a failed call means the session itself may be broken; only a tool that answered
+         * with an error result proves the session works
+         */
+        default boolean isSessionFailure(RuntimeException e) {
+            return !PooledMcpToolCallback.isToolError(e);
+        }
+    }
+    
+    private final String name;
+    private final SessionFactory<S> factory;
+    private final McpPoolProperties properties;
+    private final List<Slot<S>> slots = new CopyOnWriteArrayList<>();
+    private final ReentrantLock resizeLock = new ReentrantLock();
+    private final AtomicBoolean growing = new AtomicBoolean();
+    private final Counter reconnects;
+    
+    public McpSessionPool(String name, SessionFactory<S> factory, McpPoolProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.factory = factory;
+        this.properties = properties;
+        this.reconnects = Counter.builder("mcp.pool.reconnects")
+                .description("MCP sessions replaced after a failed health check")
+                .tag("server_name", name)
+                .register(meterRegistry);
+        Gauge.builder("mcp.pool.sessions", slots, List::size)
+                .description("Open MCP sessions in the pool")
+                .tag("server_name", name)
+                .register(meterRegistry);
+        Gauge.builder("mcp.pool.outstanding", this, McpSessionPool::outstanding)
+                .description("MCP calls in flight across all pooled sessions")
+                .tag("server_name", name)
+                .register(meterRegistry);
+        
+        for (int i = 0; i < properties.getMinSessions(); i++) {
+            openSession();
+        }
+    }
+    
+    /**
+     * Run one call on the least loaded session
+     */
+    public <T> T execute(Function<S, T> call) {
+        Slot<S> slot = acquire();
+        try {
+            return call.apply(slot.session);
+        } catch (RuntimeException e) {
+            if (factory.isSessionFailure(e)) {
+                // Keep new calls away until the next health check decides
+                slot.suspect = true;
+            }
+            throw e;
+        } finally {
+            slot.release();
+        }
+    }
+    
+    /**
+     * Health check, reconnect and shrink; called periodically
+     */
+    public void maintain() {
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        for (Slot<S> slot : slots) {
+            boolean idle = slot.outstanding.get() == 0;
+            if (!slot.suspect && !idle) {
+                continue;
+            }
+            if (!factory.ping(slot.session)) {
+                if (retire(slot)) {
+                    reconnects.increment();
+                    logger.warn("MCP session to '{}' failed its health check, reconnecting", name);
+                }
+                continue;
+            }
+            slot.suspect = false;
+            if (idle && System.nanoTime() - slot.lastUsedNanos > idleNanos
+                    && slots.size() > properties.getMinSessions() && retire(slot)) {
+                logger.debug("Closed idle MCP session to '{}' ({} left)", name, slots.size());
+            }
+        }
+        while (slots.size() < properties.getMinSessions() && openSession()) {
+            // Replace retired sessions up to the minimum
+        }
+    }
+    
+    public int size() {
+        return slots.size();
+    }
+    
+    public int outstanding() {
+        return slots.stream().mapToInt(slot -> Math.max(0, slot.outstanding.get())).sum();
+    }
+    
+    @Override
+    public void close() {
+        slots.forEach(this::retire);
+    }
+    
+    private Slot<S> acquire() {
+        while (true) {
+            Slot<S> best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (Slot<S> slot : slots) {
+                int load = slot.outstanding.get();
+                if (load < 0) {
+                    continue;
+                }
+                // Suspect sessions are used only when nothing else is left
+                if (slot.suspect) {
+                    load += properties.getGrowThreshold() * 1000;
+                }
+                if (load < bestLoad) {
+                    best = slot;
+                    bestLoad = load;
+                }
+            }
+            
+            if (best == null) {
+                if (!openSession()) {
+                    throw new IllegalStateException("No MCP session available for server '" + name + "'");
+                }
+                continue;
+            }
+            if (bestLoad >= properties.getGrowThreshold()) {
+                growAsync();
+            }
+            if (best.tryAcquire()) {
+                return best;
+            }
+            // Retired concurrently, pick again
+        }
+    }
+    
+    private void growAsync() {
+        if (slots.size() >= properties.getMaxSessions() || !growing.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.startVirtualThread(() -> {
+            try {
+                openSession();
+            } finally {
+                growing.set(false);
+            }
+        });
+    }
+    
+    private boolean openSession() {
+        resizeLock.lock();
+        try {
+            if (slots.size() >= properties.getMaxSessions()) {
+                return false;
+            }
+            slots.add(new Slot<>(factory.open()));
+            logger.debug("Opened MCP session to '{}' ({} open)", name, slots.size());
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to open MCP session to '{}': {}", name, e.getMessage());
+            return false;
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+    
+    /**
+     * Remove and close a session if nothing is running on it
+     */
+    private boolean retire(Slot<S> slot) {
+        if (!slot.tryRetire()) {
+            return false;
+        }
+        slots.remove(slot);
+        try {
+            factory.close(slot.session);
+        } catch (RuntimeException e) {
+            logger.debug("Error closing MCP session to '{}': {}", name, e.getMessage());
+        }
+        return true;
+    }
+    
+    private static final class Slot<S> {
+        
+        private final S session;
+        // Calls in flight; -1 once the slot is retired
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean suspect;
+        private volatile long lastUsedNanos = System.nanoTime();
+        
+        private Slot(S session) {
+            this.session = session;
+        }
+        
+        private boolean tryAcquire() {
+            while (true) {
+                int current = outstanding.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (outstanding.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+        
+        private void release() {
+            lastUsedNanos = System.nanoTime();
+            outstanding.decrementAndGet();
+        }
+        
+        private boolean tryRetire() {
+            return outstanding.compareAndSet(0, -1);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.vijay.mcp;
+
+import com.vijay.service.resilience.ResilienceRegistry;
+import com.vijay.tool.ToolUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.mcp.SyncMcpToolCallbackProvider;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Immutable, versioned snapshot of the tools exposed by all MCP servers.
+ *
+ * The snapshot is rebuilt only when a server reports notifications/tools/list_changed or when
+ * {@link #refresh()} is called explicitly; every other read is a volatile load. A server that
+ * fails to list its tools during a refresh keeps the tools from the previous snapshot.
+ */
+public class McpToolRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpToolRegistry.class);
+
+    private final List<McpSyncClient> clients;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ToolResultCache toolResultCache;
+    private final McpClientPools clientPools;
+    private final McpAsyncClients asyncClients;
+    private final ResilienceRegistry resilienceRegistry;
+    private final Timer refreshTimer;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public McpToolRegistry(List<McpSyncClient> clients, MeterRegistry meterRegistry,
+                           ApplicationEventPublisher eventPublisher, ToolResultCache toolResultCache,
+                           McpClientPools clientPools, McpAsyncClients asyncClients,
+                           ResilienceRegistry resilienceRegistry) {
+        this.clients = clients;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.toolResultCache = toolResultCache;
+        this.clientPools = clientPools;
+        this.asyncClients = asyncClients;
+        this.resilienceRegistry = resilienceRegistry;
+        this.refreshTimer = Timer.builder("mcp.tools.registry.refresh.time")
+                .description("Time to rebuild the MCP tool registry snapshot")
+                .register(meterRegistry);
+        Gauge.builder("mcp.tools.registry.version", this, registry -> registry.snapshot.version())
+                .description("Current MCP tool registry snapshot version")
+                .register(meterRegistry);
+        refresh();
+    }
+
+    /**
+     * Current snapshot; callers should hold on to it for the duration of one request
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Rebuild the snapshot from all MCP servers and publish it with the next version
+     */
+    public Snapshot refresh() {
+        refreshLock.lock();
+        try {
+            long start = System.nanoTime();
+            Snapshot previous = snapshot;
+            Map<String, List<ToolCallback>> toolsByServer = new LinkedHashMap<>();
+
+            for (McpSyncClient client : clients) {
+                String serverName = client.getServerInfo().name();
+                try {
+                    ResilienceRegistry.Policies policies = resilienceRegistry.forMcpServer(serverName);
+                    List<ToolCallback> callbacks = listTools(client).stream()
+                            // Cache hits bypass the server's circuit breaker and bulkhead
+                            .<ToolCallback>map(cb -> ResilientToolCallback.wrap(cb, policies))
+                            .map(this::withResultCache)
+                            .<ToolCallback>map(cb -> LoggingToolCallback.wrap(cb, serverName))
+                            .toList();
+                    toolsByServer.put(serverName, callbacks);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to list tools from MCP server '{}', keeping previous tools: {}",
+                            serverName, e.getMessage());
+                    toolsByServer.put(serverName, previous.toolsByServer().getOrDefault(serverName, List.of()));
+                }
+            }
+
+            Snapshot next = Snapshot.of(previous.version() + 1, toolsByServer);
+            snapshot = next;
+            // Tool behaviour may have changed along with the list
+            toolResultCache.invalidateAll();
+            toolsByServer.keySet().forEach(this::registerServerGauge);
+
+            long elapsed = System.nanoTime() - start;
+            refreshTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("MCP tool registry refreshed to version {} with {} tools in {} ms",
+                    next.version(), next.callbacks().length, TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+            eventPublisher.publishEvent(new McpToolRegistryRefreshedEvent(next.version()));
+            return next;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onToolsChanged(McpToolsChangedEvent event) {
+        logger.info("MCP connection '{}' reported a tool list change", event.connectionName());
+        // Notifications arrive on the MCP transport thread; listing tools from it would block the session
+        Thread.startVirtualThread(this::refresh);
+    }
+
+    private List<ToolCallback> listTools(McpSyncClient client) {
+        McpAsyncClient asyncClient = asyncClients.clientFor(client.getClientInfo().name());
+        if (asyncClient != null) {
+            // Listing stays on the sync client; calls run on the non-blocking session
+            return client.listTools().tools().stream()
+                    .<ToolCallback>map(tool -> new ReactiveMcpToolCallback(asyncClient, tool, asyncClients.getRequestTimeout()))
+                    .toList();
+        }
+        McpSessionPool<McpSyncClient> pool = clientPools.poolFor(client.getClientInfo().name());
+        if (pool == null) {
+            return Arrays.asList(new SyncMcpToolCallbackProvider(client).getToolCallbacks());
+        }
+        // Listing stays on the primary session; calls are spread over the pool
+        return client.listTools().tools().stream()
+                .<ToolCallback>map(tool -> new PooledMcpToolCallback(client, tool, pool))
+                .toList();
+    }
+
+    private ToolCallback withResultCache(ToolCallback callback) {
+        String toolName = ToolUtils.cleanToolName(callback.getToolDefinition().name());
+        return toolResultCache.isCacheable(toolName) ? CachingToolCallback.wrap(callback, toolResultCache) : callback;
+    }
+
+    private void registerServerGauge(String serverName) {
+        Gauge.builder("mcp.tools.registry.tools", this,
+                        registry -> registry.snapshot.toolsByServer().getOrDefault(serverName, List.of()).size())
+                .description("Tools exposed per MCP server in the current registry snapshot")
+                .tag("server_name", serverName)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Immutable registry state
+     *
+     * @param version monotonically increasing snapshot version
+     * @param callbacks all tool callbacks, in server order
+     * @param toolsByServer tool callbacks grouped by MCP server name
+     * @param byName lookup by full (prefixed) and clean tool name
+     * @param refreshedAt when this snapshot was built
+     */
+    public record Snapshot(long version,
+                           ToolCallback[] callbacks,
+                           Map<String, List<ToolCallback>> toolsByServer,
+                           Map<String, ToolCallback> byName,
+                           Instant refreshedAt) {
+
+        static final Snapshot EMPTY = new Snapshot(0, new ToolCallback[0], Map.of(), Map.of(), Instant.EPOCH);
+
+        static Snapshot of(long version, Map<String, List<ToolCallback>> toolsByServer) {
+            ToolCallback[] callbacks = toolsByServer.values().stream()
+                    .flatMap(List::stream)
+                    .toArray(ToolCallback[]::new);
+            Map<String, ToolCallback> byName = new HashMap<>();
+            for (ToolCallback callback : callbacks) {
+                String fullName = callback.getToolDefinition().name();
+                byName.put(fullName, callback);
+                byName.putIfAbsent(ToolUtils.cleanToolName(fullName), callback);
+            }
+            return new Snapshot(version, callbacks, Collections.unmodifiableMap(toolsByServer),
+                    Map.copyOf(byName), Instant.now());
+        }
+
+        /**
+         * Find a tool by its full or clean name
+         */
+        public ToolCallback find(String toolName) {
+            return byName.get(toolName);
+        }
+
+        public Map<String, Integer> toolCounts() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            toolsByServer.forEach((server, tools) -> counts.put(server, tools.size()));
+            return counts;
+        }
+    }
+}
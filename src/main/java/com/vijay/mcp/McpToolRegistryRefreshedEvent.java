@@ -0,0 +1,9 @@
+package com.vijay.mcp;
+
+/**
+ * Published after the MCP tool registry swapped in a new snapshot
+ *
+ * @param version the new snapshot version
+ */
+public record McpToolRegistryRefreshedEvent(long version) {
+}
@@ -0,0 +1,9 @@
+package com.vijay.mcp;
+
+/**
+ * Published when an MCP server sends notifications/tools/list_changed
+ *
+ * @param connectionName the configured MCP connection that reported the change
+ */
+public record McpToolsChangedEvent(String connectionName) {
+}
@@ -0,0 +1,56 @@
+package com.vijay.mcp;
+
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.SyncMcpToolCallback;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+
+/**
+ * MCP tool whose calls are spread over a {@link McpSessionPool} instead of a single session.
+ * The tool definition comes from the connection's primary client, so names and prefixes are unchanged.
+ */
+public class PooledMcpToolCallback implements ToolCallback {
+    
+    // SyncMcpToolCallback's cause for a result with isError set
+    private static final String TOOL_ERROR_PREFIX = "Error calling tool:";
+    
+    private final ToolCallback primary;
+    private final McpSchema.Tool tool;
+    private final McpSessionPool<McpSyncClient> pool;
+    
+    public PooledMcpToolCallback(McpSyncClient primaryClient, McpSchema.Tool tool, McpSessionPool<McpSyncClient> pool) {
+        this.primary = new SyncMcpToolCallback(primaryClient, tool);
+        this.tool = tool;
+        this.pool = pool;
+    }
+    
+    /**
+     * Whether a failed call is an error result from the tool itself. SyncMcpToolCallback wraps every
+     * failure in a ToolExecutionException, transport errors and timeouts included; only an isError
+     * result is wrapped around an IllegalStateException("Error calling tool: ...").
+     */
+    static boolean isToolError(RuntimeException e) {
+        return e instanceof ToolExecutionException
+                && e.getCause() instanceof IllegalStateException cause
+                && cause.getMessage() != null
+                && cause.getMessage().startsWith(TOOL_ERROR_PREFIX);
+    }
+    
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return primary.getToolDefinition();
+    }
+    
+    @Override
+    public String call(String toolInput) {
+        return pool.execute(session -> new SyncMcpToolCallback(session, tool).call(toolInput));
+    }
+    
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return pool.execute(session -> new SyncMcpToolCallback(session, tool).call(toolInput, toolContext));
+    }
+}
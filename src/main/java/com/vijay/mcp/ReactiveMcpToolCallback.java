@@ -0,0 +1,53 @@
+package com.vijay.mcp;
+
+import com.vijay.tool.ReactiveToolCallback;
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.AsyncMcpToolCallback;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * MCP tool executed on an {@link McpAsyncClient}.
+ *
+ * The call is a Mono over the MCP request: a timeout or a cancelled subscriber disposes the pending
+ * request in the client session instead of leaving a thread parked on it.
+ */
+public class ReactiveMcpToolCallback implements ReactiveToolCallback {
+    
+    private final McpAsyncClient client;
+    private final McpSchema.Tool tool;
+    private final ToolDefinition toolDefinition;
+    private final Duration timeout;
+    
+    public ReactiveMcpToolCallback(McpAsyncClient client, McpSchema.Tool tool, Duration timeout) {
+        this.client = client;
+        this.tool = tool;
+        // Same prefixed name and schema as Spring AI's own MCP callbacks
+        this.toolDefinition = new AsyncMcpToolCallback(client, tool).getToolDefinition();
+        this.timeout = timeout;
+    }
+    
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return toolDefinition;
+    }
+    
+    @Override
+    public Mono<String> callReactive(String toolInput, ToolContext toolContext) {
+        return Mono.defer(() -> client.callTool(new McpSchema.CallToolRequest(tool.name(), ModelOptionsUtils.jsonToMap(toolInput))))
+                .timeout(timeout)
+                .map(result -> {
+                    if (Boolean.TRUE.equals(result.isError())) {
+                        throw new ToolExecutionException(toolDefinition,
+                                new IllegalStateException("Error calling tool: " + result.content()));
+                    }
+                    return ModelOptionsUtils.toJsonString(result.content());
+                });
+    }
+}
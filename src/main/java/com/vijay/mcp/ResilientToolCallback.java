@@ -0,0 +1,125 @@
+package com.vijay.mcp;
+
+import com.vijay.service.resilience.ResilienceRegistry;
+import com.vijay.tool.ReactiveToolCallback;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls of one MCP server's tools with that server's circuit breaker and bulkhead.
+ *
+ * Rejections are reported to the model as tool errors, so an unavailable tool server fails only
+ * the tools it hosts instead of the whole chat request. Retries are left out on purpose: a tool
+ * may have side effects. Timeouts come from the MCP request timeout.
+ */
+public class ResilientToolCallback implements ToolCallback {
+    
+    private final ToolCallback delegate;
+    protected final ResilienceRegistry.Policies policies;
+    
+    /**
+     * Wrap a callback, keeping its non-blocking path if it has one
+     */
+    public static ResilientToolCallback wrap(ToolCallback delegate, ResilienceRegistry.Policies policies) {
+        return delegate instanceof ReactiveToolCallback reactive
+                ? new Reactive(reactive, policies)
+                : new ResilientToolCallback(delegate, policies);
+    }
+    
+    public ResilientToolCallback(ToolCallback delegate, ResilienceRegistry.Policies policies) {
+        this.delegate = delegate;
+        this.policies = policies;
+    }
+    
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+    
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+    
+    @Override
+    public String call(String toolInput) {
+        return guarded(() -> delegate.call(toolInput));
+    }
+    
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return guarded(() -> delegate.call(toolInput, toolContext));
+    }
+    
+    private String guarded(Supplier<String> call) {
+        acquire();
+        CircuitBreaker circuitBreaker = policies.circuitBreaker();
+        long start = System.nanoTime();
+        try {
+            String result = call.get();
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        } finally {
+            policies.bulkhead().onComplete();
+        }
+    }
+    
+    /**
+     * Take a circuit breaker and a bulkhead permission, failing fast on the calling thread
+     */
+    void acquire() {
+        CircuitBreaker circuitBreaker = policies.circuitBreaker();
+        Bulkhead bulkhead = policies.bulkhead();
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            throw new ToolExecutionException(getToolDefinition(), new IllegalStateException(
+                    "MCP server '" + policies.name() + "' is unavailable (circuit breaker open)", e));
+        }
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException e) {
+            circuitBreaker.releasePermission();
+            throw new ToolExecutionException(getToolDefinition(), new IllegalStateException(
+                    "MCP server '" + policies.name() + "' has too many calls in progress", e));
+        }
+    }
+    
+    static final class Reactive extends ResilientToolCallback implements ReactiveToolCallback {
+        
+        private final ReactiveToolCallback reactiveDelegate;
+        
+        private Reactive(ReactiveToolCallback delegate, ResilienceRegistry.Policies policies) {
+            super(delegate, policies);
+            this.reactiveDelegate = delegate;
+        }
+        
+        @Override
+        public Mono<String> callReactive(String toolInput, ToolContext toolContext) {
+            return Mono.defer(() -> {
+                acquire();
+                CircuitBreaker circuitBreaker = policies.circuitBreaker();
+                long start = System.nanoTime();
+                return reactiveDelegate.callReactive(toolInput, toolContext)
+                        .doOnSuccess(result -> circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                        .doOnError(e -> circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e))
+                        .doOnCancel(circuitBreaker::releasePermission)
+                        .doFinally(signal -> policies.bulkhead().onComplete());
+            });
+        }
+    }
+}
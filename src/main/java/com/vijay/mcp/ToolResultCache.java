@@ -0,0 +1,190 @@
+package com.vijay.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.vijay.config.ToolResultCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded result cache for allow-listed, idempotent MCP tools.
+ * Entries are keyed by tool name and canonicalized JSON input, and expire after the tool's TTL.
+ */
+@Component
+public class ToolResultCache {
+    
+    private final ToolResultCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Cache<Key, Entry> results;
+    private final Map<String, ToolMeters> metersByTool = new ConcurrentHashMap<>();
+    
+    public ToolResultCache(ToolResultCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.ttl().toNanos();
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttl().toNanos();
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
+    public boolean isCacheable(String toolName) {
+        return properties.isEnabled() && properties.getTools().containsKey(toolName);
+    }
+    
+    /**
+     * Return the cached result for this input or invoke the tool and cache its result
+     */
+    public String getOrCall(String toolName, String toolInput, Supplier<String> toolCall) {
+        Duration ttl = properties.getTools().get(toolName);
+        if (!properties.isEnabled() || ttl == null) {
+            return toolCall.get();
+        }
+        
+        ToolMeters meters = metersByTool.computeIfAbsent(toolName, this::createMeters);
+        Key key = new Key(toolName, canonicalJson(toolInput));
+        String cached = lookup(key, meters);
+        if (cached != null) {
+            return cached;
+        }
+        
+        long start = System.nanoTime();
+        String result = toolCall.get();
+        store(key, ttl, result, start, meters);
+        return result;
+    }
+    
+    /**
+     * Non-blocking variant of {@link #getOrCall}
+     */
+    public Mono<String> getOrCallReactive(String toolName, String toolInput, Supplier<Mono<String>> toolCall) {
+        Duration ttl = properties.getTools().get(toolName);
+        if (!properties.isEnabled() || ttl == null) {
+            return Mono.defer(toolCall);
+        }
+        
+        return Mono.defer(() -> {
+            ToolMeters meters = metersByTool.computeIfAbsent(toolName, this::createMeters);
+            Key key = new Key(toolName, canonicalJson(toolInput));
+            String cached = lookup(key, meters);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long start = System.nanoTime();
+            return toolCall.get().doOnNext(result -> store(key, ttl, result, start, meters));
+        });
+    }
+    
+    /**
+     * Drop all cached results, e.g. after the tool set changed
+     */
+    public void invalidateAll() {
+        results.invalidateAll();
+    }
+    
+    private String lookup(Key key, ToolMeters meters) {
+        Entry cached = results.getIfPresent(key);
+        if (cached == null) {
+            meters.misses().increment();
+            return null;
+        }
+        meters.hits().increment();
+        // Credit the mean latency of real calls as time saved
+        meters.latencySaved().increment(meters.callTime().mean(TimeUnit.MILLISECONDS));
+        return cached.result();
+    }
+    
+    private void store(Key key, Duration ttl, String result, long startNanos, ToolMeters meters) {
+        meters.callTime().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (result != null) {
+            results.put(key, new Entry(result, ttl));
+        }
+    }
+    
+    /**
+     * JSON with object fields sorted recursively, so semantically equal inputs share a key
+     */
+    String canonicalJson(String toolInput) {
+        if (toolInput == null || toolInput.isBlank()) {
+            return "{}";
+        }
+        try {
+            return objectMapper.writeValueAsString(sortFields(objectMapper.readTree(toolInput)));
+        } catch (JsonProcessingException e) {
+            return toolInput.strip();
+        }
+    }
+    
+    private JsonNode sortFields(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            ObjectNode sorted = objectMapper.createObjectNode();
+            List<String> names = new ArrayList<>();
+            object.fieldNames().forEachRemaining(names::add);
+            names.sort(null);
+            names.forEach(name -> sorted.set(name, sortFields(object.get(name))));
+            return sorted;
+        }
+        if (node instanceof ArrayNode array) {
+            ArrayNode copy = objectMapper.createArrayNode();
+            array.forEach(element -> copy.add(sortFields(element)));
+            return copy;
+        }
+        return node;
+    }
+    
+    private ToolMeters createMeters(String toolName) {
+        return new ToolMeters(
+                meterRegistry.counter("mcp.tool.cache.requests", "tool_name", toolName, "result", "hit"),
+                meterRegistry.counter("mcp.tool.cache.requests", "tool_name", toolName, "result", "miss"),
+                Counter.builder("mcp.tool.cache.latency.saved")
+                        .description("Estimated MCP call time saved by cached tool results")
+                        .baseUnit("milliseconds")
+                        .tag("tool_name", toolName)
+                        .register(meterRegistry),
+                Timer.builder("mcp.tool.cache.call.time")
+                        .description("Latency of uncached calls to cacheable tools")
+                        .tag("tool_name", toolName)
+                        .register(meterRegistry));
+    }
+    
+    private record Key(String toolName, String canonicalInput) {
+    }
+    
+    private record Entry(String result, Duration ttl) {
+    }
+    
+    private record ToolMeters(Counter hits, Counter misses, Counter latencySaved, Timer callTime) {
+    }
+}
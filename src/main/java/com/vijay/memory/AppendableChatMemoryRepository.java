@@ -0,0 +1,17 @@
+package com.vijay.memory;
+
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * Chat memory repository that can append to a conversation without rewriting it
+ */
+public interface AppendableChatMemoryRepository extends ChatMemoryRepository {
+    
+    /**
+     * Append messages to the end of a conversation, keeping at most the configured window
+     */
+    void append(String conversationId, List<Message> messages);
+}
@@ -0,0 +1,162 @@
+package com.vijay.memory;
+
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process chat memory repository that keeps each conversation as a ring of encoded entries.
+ *
+ * An entry is one byte array (role byte, epoch millis, UTF-8 text; see {@link MessageCodec}), so a
+ * stored message costs its text plus a few dozen bytes instead of a full Message with its metadata
+ * map. Rings grow up to the window size and then overwrite the oldest entry; messages are decoded
+ * only when a conversation is read for a prompt.
+ */
+public class CompactChatMemoryRepository implements AppendableChatMemoryRepository {
+    
+    private static final int INITIAL_CAPACITY = 4;
+    
+    private final ConcurrentHashMap<String, Ring> conversations = new ConcurrentHashMap<>();
+    private final int maxMessages;
+    
+    public CompactChatMemoryRepository(int maxMessages) {
+        this.maxMessages = maxMessages;
+    }
+    
+    @Override
+    public void append(String conversationId, List<Message> messages) {
+        long now = System.currentTimeMillis();
+        List<byte[]> encoded = encode(messages, now);
+        if (encoded.isEmpty()) {
+            return;
+        }
+        // Rings are only touched under the map's bin lock, so they need no lock of their own
+        conversations.compute(conversationId, (id, ring) -> {
+            Ring target = ring != null ? ring : new Ring(Math.min(INITIAL_CAPACITY, maxMessages));
+            encoded.forEach(entry -> target.add(entry, maxMessages));
+            return target;
+        });
+    }
+    
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        byte[][] entries = snapshot(conversationId);
+        if (entries == null) {
+            return List.of();
+        }
+        List<Message> messages = new ArrayList<>(entries.length);
+        for (byte[] entry : entries) {
+            messages.add(MessageCodec.decode(entry));
+        }
+        return messages;
+    }
+    
+    @Override
+    public List<String> findConversationIds() {
+        return List.copyOf(conversations.keySet());
+    }
+    
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        List<byte[]> encoded = encode(messages, System.currentTimeMillis());
+        if (encoded.isEmpty()) {
+            conversations.remove(conversationId);
+            return;
+        }
+        Ring ring = new Ring(Math.min(encoded.size(), maxMessages));
+        encoded.forEach(entry -> ring.add(entry, maxMessages));
+        conversations.put(conversationId, ring);
+    }
+    
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        conversations.remove(conversationId);
+    }
+    
+    public int size() {
+        return conversations.size();
+    }
+    
+    /**
+     * Approximate heap retained by one conversation's entries
+     */
+    public long estimatedBytes(String conversationId) {
+        long[] bytes = new long[1];
+        conversations.computeIfPresent(conversationId, (id, ring) -> {
+            bytes[0] = ring.bytes();
+            return ring;
+        });
+        return bytes[0];
+    }
+    
+    private byte[][] snapshot(String conversationId) {
+        byte[][][] copy = new byte[1][][];
+        conversations.computeIfPresent(conversationId, (id, ring) -> {
+            copy[0] = ring.toArray();
+            return ring;
+        });
+        return copy[0];
+    }
+    
+    private static List<byte[]> encode(List<Message> messages, long timestamp) {
+        List<byte[]> encoded = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            if (MessageCodec.isStorable(message)) {
+                encoded.add(MessageCodec.encodeBytes(message, timestamp));
+            }
+        }
+        return encoded;
+    }
+    
+    /**
+     * Fixed-capacity ring of encoded entries, oldest at head
+     */
+    static final class Ring {
+        
+        // Array header plus reference per entry, on top of the entry bytes
+        private static final int ENTRY_OVERHEAD = 24;
+        
+        private byte[][] entries;
+        private int head;
+        private int size;
+        private long entryBytes;
+        
+        Ring(int initialCapacity) {
+            this.entries = new byte[Math.max(1, initialCapacity)][];
+        }
+        
+        void add(byte[] entry, int maxMessages) {
+            if (size == entries.length && entries.length < maxMessages) {
+                byte[][] grown = new byte[Math.min(entries.length * 2, maxMessages)][];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = entries[(head + i) % entries.length];
+                }
+                entries = grown;
+                head = 0;
+            }
+            if (size < entries.length) {
+                entries[(head + size) % entries.length] = entry;
+                size++;
+            } else {
+                entryBytes -= entries[head].length + ENTRY_OVERHEAD;
+                entries[head] = entry;
+                head = (head + 1) % entries.length;
+            }
+            entryBytes += entry.length + ENTRY_OVERHEAD;
+        }
+        
+        long bytes() {
+            return 32 + 16 + 8L * entries.length + entryBytes;
+        }
+        
+        byte[][] toArray() {
+            byte[][] copy = new byte[size][];
+            for (int i = 0; i < size; i++) {
+                copy[i] = entries[(head + i) % entries.length];
+            }
+            return copy;
+        }
+    }
+}
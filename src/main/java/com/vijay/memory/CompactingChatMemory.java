@@ -0,0 +1,272 @@
+package com.vijay.memory;
+
+import com.vijay.config.ChatMemoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chat memory that folds older turns into a summary in the background.
+ *
+ * When a conversation's memory grows past the token threshold, a worker summarizes everything but
+ * the most recent messages and replaces them with the summary, which is sent ahead of the recent
+ * turns from then on. The summary call never runs on the request thread; only the brief swap of the
+ * stored messages takes the conversation's lock, and it is abandoned if the conversation moved on
+ * in the meantime. The summary is stored as the conversation's leading system message, so it is
+ * shared across nodes, survives restarts and expires or is evicted together with the conversation.
+ */
+public class CompactingChatMemory implements ChatMemory {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CompactingChatMemory.class);
+    
+    static final String SUMMARY_PREFIX = "Summary of the earlier conversation: ";
+    private static final int LOCK_STRIPES = 64;
+    
+    private final ChatMemory delegate;
+    private final ConversationSummarizer summarizer;
+    private final ChatMemoryProperties.Compaction settings;
+    private final Executor executor;
+    
+    private final Set<String> compacting = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    // Swaps started/finished; a read that overlaps a swap is repeated under the lock
+    private final AtomicLong swapsStarted = new AtomicLong();
+    private final AtomicLong swapsFinished = new AtomicLong();
+    
+    private final Counter compacted;
+    private final Counter stale;
+    private final Counter failed;
+    private final DistributionSummary tokensSaved;
+    private final Timer compactionTimer;
+    
+    public CompactingChatMemory(ChatMemory delegate, ConversationSummarizer summarizer,
+                                ChatMemoryProperties.Compaction settings, Executor executor,
+                                MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.summarizer = summarizer;
+        this.settings = settings;
+        this.executor = executor;
+        this.permits = new Semaphore(settings.getMaxConcurrent());
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        
+        this.compacted = outcomeCounter(meterRegistry, "compacted");
+        this.stale = outcomeCounter(meterRegistry, "stale");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        this.tokensSaved = DistributionSummary.builder("chat.memory.compaction.tokens.saved")
+                .description("Estimated prompt tokens removed per turn by one compaction")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.compactionTimer = Timer.builder("chat.memory.compaction.time")
+                .description("Time to summarize and swap older conversation turns")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        ReentrantLock lock = lockFor(conversationId);
+        lock.lock();
+        try {
+            delegate.add(conversationId, messages);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public List<Message> get(String conversationId) {
+        long finished = swapsFinished.get();
+        long started = swapsStarted.get();
+        List<Message> messages = delegate.get(conversationId);
+        if (started != finished || swapsStarted.get() != started) {
+            ReentrantLock lock = lockFor(conversationId);
+            lock.lock();
+            try {
+                messages = delegate.get(conversationId);
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        maybeCompact(conversationId, messages);
+        return messages;
+    }
+    
+    @Override
+    public void clear(String conversationId) {
+        ReentrantLock lock = lockFor(conversationId);
+        lock.lock();
+        try {
+            delegate.clear(conversationId);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Compaction results for a conversation, if it was compacted
+     */
+    public Optional<Summary> getSummary(String conversationId) {
+        return Optional.ofNullable(summaryOf(delegate.get(conversationId)))
+                .map(text -> new Summary(text, summaryTokens(text)));
+    }
+    
+    static long estimateTokens(List<Message> messages) {
+        long characters = 0;
+        for (Message message : messages) {
+            characters += message.getText() != null ? message.getText().length() : 0;
+        }
+        return characters / 4;
+    }
+    
+    /**
+     * Text of the stored summary, if the conversation starts with one
+     */
+    static String summaryOf(List<Message> messages) {
+        if (messages.isEmpty() || !(messages.get(0) instanceof SystemMessage first)
+                || first.getText() == null || !first.getText().startsWith(SUMMARY_PREFIX)) {
+            return null;
+        }
+        return first.getText().substring(SUMMARY_PREFIX.length());
+    }
+    
+    private static long summaryTokens(String text) {
+        return (SUMMARY_PREFIX.length() + text.length()) / 4;
+    }
+    
+    private void maybeCompact(String conversationId, List<Message> messages) {
+        String summary = summaryOf(messages);
+        int turns = summary != null ? messages.size() - 1 : messages.size();
+        if (turns <= settings.getKeepRecentMessages()) {
+            return;
+        }
+        if (estimateTokens(messages) < settings.getTokenThreshold() || !compacting.add(conversationId)) {
+            return;
+        }
+        if (!permits.tryAcquire()) {
+            // Enough summaries in flight; a later turn tries again
+            compacting.remove(conversationId);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    compact(conversationId, messages, summary);
+                } finally {
+                    permits.release();
+                    compacting.remove(conversationId);
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            compacting.remove(conversationId);
+            logger.warn("Could not schedule compaction for conversation {}: {}", conversationId, e.getMessage());
+        }
+    }
+    
+    private void compact(String conversationId, List<Message> seen, String previous) {
+        long start = System.nanoTime();
+        List<Message> turns = previous != null ? seen.subList(1, seen.size()) : seen;
+        List<Message> older = List.copyOf(turns.subList(0, turns.size() - settings.getKeepRecentMessages()));
+        
+        String text;
+        try {
+            text = summarizer.summarize(previous, older);
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.warn("Compaction of conversation {} failed: {}", conversationId, e.getMessage());
+            return;
+        }
+        if (text == null || text.isBlank()) {
+            failed.increment();
+            return;
+        }
+        
+        long saved = estimateTokens(older) + (previous != null ? summaryTokens(previous) : 0) - summaryTokens(text);
+        if (saved <= 0) {
+            // Summary is not shorter than what it replaces
+            stale.increment();
+            return;
+        }
+        
+        ReentrantLock lock = lockFor(conversationId);
+        lock.lock();
+        swapsStarted.incrementAndGet();
+        try {
+            List<Message> current = delegate.get(conversationId);
+            String currentSummary = summaryOf(current);
+            List<Message> currentTurns = currentSummary != null ? current.subList(1, current.size()) : current;
+            if (!Objects.equals(currentSummary, previous) || !startsWith(currentTurns, older)) {
+                // Cleared, trimmed or compacted meanwhile
+                stale.increment();
+                return;
+            }
+            List<Message> replacement = new ArrayList<>(currentTurns.size() - older.size() + 1);
+            replacement.add(new SystemMessage(SUMMARY_PREFIX + text));
+            replacement.addAll(currentTurns.subList(older.size(), currentTurns.size()));
+            delegate.clear(conversationId);
+            delegate.add(conversationId, replacement);
+        } finally {
+            swapsFinished.incrementAndGet();
+            lock.unlock();
+        }
+        
+        compacted.increment();
+        tokensSaved.record(saved);
+        compactionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.info("Compacted {} messages of conversation {}, ~{} tokens saved per turn",
+                older.size(), conversationId, saved);
+    }
+    
+    private static boolean startsWith(List<Message> messages, List<Message> prefix) {
+        if (messages.size() < prefix.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.size(); i++) {
+            Message a = messages.get(i);
+            Message b = prefix.get(i);
+            if (a.getMessageType() != b.getMessageType() || !Objects.equals(a.getText(), b.getText())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private ReentrantLock lockFor(String conversationId) {
+        return locks[Math.floorMod(conversationId.hashCode(), LOCK_STRIPES)];
+    }
+    
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("chat.memory.compaction.runs")
+                .description("Background compactions of conversation memory")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * @param text summary sent ahead of the recent turns
+     * @param tokens estimated tokens of the summary message
+     */
+    public record Summary(String text, long tokens) {
+    }
+}
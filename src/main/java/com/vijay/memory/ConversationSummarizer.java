@@ -0,0 +1,18 @@
+package com.vijay.memory;
+
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * Condenses older conversation turns into a short summary
+ */
+@FunctionalInterface
+public interface ConversationSummarizer {
+    
+    /**
+     * @param previousSummary summary of turns compacted earlier, or null
+     * @param messages turns to fold into the summary, oldest first
+     */
+    String summarize(String previousSummary, List<Message> messages);
+}
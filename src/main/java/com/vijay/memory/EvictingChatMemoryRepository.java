@@ -0,0 +1,229 @@
+package com.vijay.memory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.vijay.config.ChatMemoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Bounds an in-process chat memory repository by idle time and a global byte budget.
+ *
+ * Every write goes through the tracking cache's per-key compute, and the eviction listener runs
+ * inside Caffeine's atomic removal, so a conversation is never deleted underneath a concurrent
+ * append. Conversations idle longer than idleTimeout are evicted, and the least recently used ones
+ * go first once the estimated bytes exceed the budget. With a spill store, evicted conversations are
+ * written there in the background and restored on their next read.
+ */
+public class EvictingChatMemoryRepository implements AppendableChatMemoryRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EvictingChatMemoryRepository.class);
+    
+    // Rough retained size of a Spring AI message besides its text (object, metadata map, String)
+    private static final int MESSAGE_OVERHEAD = 240;
+    // Conversation id, map entries and tracking node
+    private static final int CONVERSATION_OVERHEAD = 160;
+    
+    private final ChatMemoryRepository delegate;
+    private final ChatMemoryRepository spillStore;
+    private final Executor spillExecutor;
+    private final Cache<String, Long> live;
+    // Evicted conversations whose spill write has not finished yet
+    private final ConcurrentHashMap<String, List<Message>> spilling = new ConcurrentHashMap<>();
+    
+    private final Counter idleEvictions;
+    private final Counter sizeEvictions;
+    private final Counter restores;
+    
+    /**
+     * @param spillStore where evicted conversations are kept, or null to drop them
+     */
+    public EvictingChatMemoryRepository(ChatMemoryRepository delegate, ChatMemoryProperties.Eviction settings,
+                                        ChatMemoryRepository spillStore, Executor spillExecutor,
+                                        MeterRegistry meterRegistry) {
+        this(delegate, settings, spillStore, spillExecutor, meterRegistry, Ticker.systemTicker());
+    }
+    
+    EvictingChatMemoryRepository(ChatMemoryRepository delegate, ChatMemoryProperties.Eviction settings,
+                                 ChatMemoryRepository spillStore, Executor spillExecutor,
+                                 MeterRegistry meterRegistry, Ticker ticker) {
+        this.delegate = delegate;
+        this.spillStore = spillStore;
+        this.spillExecutor = spillExecutor;
+        this.live = Caffeine.newBuilder()
+                .maximumWeight(settings.getMaxSize().toBytes())
+                .weigher((String id, Long bytes) -> (int) Math.min(Integer.MAX_VALUE, bytes))
+                .expireAfterAccess(settings.getIdleTimeout())
+                .ticker(ticker)
+                .scheduler(Scheduler.systemScheduler())
+                .evictionListener(this::onEvicted)
+                .build();
+        
+        this.idleEvictions = evictionCounter(meterRegistry, "idle");
+        this.sizeEvictions = evictionCounter(meterRegistry, "size");
+        this.restores = meterRegistry.counter("chat.memory.restores");
+        Gauge.builder("chat.memory.live.conversations", live, Cache::estimatedSize)
+                .description("Conversations held in process memory")
+                .register(meterRegistry);
+        Gauge.builder("chat.memory.live.bytes", this, EvictingChatMemoryRepository::estimatedBytes)
+                .description("Estimated heap held by in-process conversations")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void append(String conversationId, List<Message> messages) {
+        if (spillStore != null && live.getIfPresent(conversationId) == null) {
+            // Bring back spilled history before adding to it
+            restore(conversationId);
+        }
+        live.asMap().compute(conversationId, (id, bytes) -> {
+            if (delegate instanceof AppendableChatMemoryRepository appendable) {
+                appendable.append(id, messages);
+                return bytesOf(id, null);
+            }
+            List<Message> all = new ArrayList<>(delegate.findByConversationId(id));
+            all.addAll(messages);
+            delegate.saveAll(id, all);
+            return bytesOf(id, all);
+        });
+    }
+    
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        if (live.getIfPresent(conversationId) != null) {
+            List<Message> messages = delegate.findByConversationId(conversationId);
+            if (!messages.isEmpty() || spillStore == null) {
+                return messages;
+            }
+            // Evicted since the lookup above
+        }
+        return spillStore != null ? restore(conversationId) : List.of();
+    }
+    
+    @Override
+    public List<String> findConversationIds() {
+        return delegate.findConversationIds();
+    }
+    
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        live.asMap().compute(conversationId, (id, bytes) -> {
+            delegate.saveAll(id, messages);
+            return bytesOf(id, messages);
+        });
+    }
+    
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        live.asMap().compute(conversationId, (id, bytes) -> {
+            delegate.deleteByConversationId(id);
+            return null;
+        });
+        spilling.remove(conversationId);
+        if (spillStore != null) {
+            spillStore.deleteByConversationId(conversationId);
+        }
+    }
+    
+    /**
+     * Run pending idle and size evictions now
+     */
+    public void evictExpired() {
+        live.cleanUp();
+    }
+    
+    public long liveConversations() {
+        return live.estimatedSize();
+    }
+    
+    public long estimatedBytes() {
+        return live.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+    
+    private void onEvicted(String conversationId, Long bytes, RemovalCause cause) {
+        // Runs inside the cache's atomic removal of this conversation
+        List<Message> messages = spillStore != null ? delegate.findByConversationId(conversationId) : List.of();
+        delegate.deleteByConversationId(conversationId);
+        (cause == RemovalCause.EXPIRED ? idleEvictions : sizeEvictions).increment();
+        
+        if (!messages.isEmpty()) {
+            spilling.put(conversationId, messages);
+            spillExecutor.execute(() -> spill(conversationId, messages));
+        }
+    }
+    
+    private void spill(String conversationId, List<Message> messages) {
+        try {
+            spillStore.saveAll(conversationId, messages);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to spill evicted conversation {}: {}", conversationId, e.getMessage());
+        } finally {
+            spilling.remove(conversationId, messages);
+        }
+    }
+    
+    private List<Message> restore(String conversationId) {
+        List<Message> messages = spilling.get(conversationId);
+        if (messages == null) {
+            try {
+                messages = spillStore.findByConversationId(conversationId);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to restore conversation {}: {}", conversationId, e.getMessage());
+                return List.of();
+            }
+        }
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        
+        List<Message> restored = messages;
+        boolean[] loaded = new boolean[1];
+        live.asMap().compute(conversationId, (id, bytes) -> {
+            if (bytes != null) {
+                // Written meanwhile; keep what is live
+                return bytes;
+            }
+            delegate.saveAll(id, restored);
+            loaded[0] = true;
+            return bytesOf(id, restored);
+        });
+        if (!loaded[0]) {
+            return delegate.findByConversationId(conversationId);
+        }
+        restores.increment();
+        return restored;
+    }
+    
+    private long bytesOf(String conversationId, List<Message> messages) {
+        long bytes = CONVERSATION_OVERHEAD + 2L * conversationId.length();
+        if (delegate instanceof CompactChatMemoryRepository compact) {
+            return bytes + compact.estimatedBytes(conversationId);
+        }
+        List<Message> stored = messages != null ? messages : delegate.findByConversationId(conversationId);
+        for (Message message : stored) {
+            bytes += MESSAGE_OVERHEAD + (message.getText() != null ? message.getText().length() : 0);
+        }
+        return bytes;
+    }
+    
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("chat.memory.evictions")
+                .description("Conversations evicted from process memory")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,83 @@
+package com.vijay.memory;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact encodings of chat messages.
+ * Text form: role character, epoch millis, '|', text. Binary form: role byte, 8-byte epoch millis, UTF-8 text.
+ * Tool messages are not stored; the memory advisor only records user and assistant turns.
+ */
+public final class MessageCodec {
+    
+    private static final int BINARY_HEADER = 1 + Long.BYTES;
+    
+    private MessageCodec() {
+    }
+    
+    public static boolean isStorable(Message message) {
+        return message.getMessageType() != MessageType.TOOL;
+    }
+    
+    public static String encode(Message message, long timestamp) {
+        String text = message.getText() != null ? message.getText() : "";
+        return roleCode(message.getMessageType()) + Long.toString(timestamp) + "|" + text;
+    }
+    
+    public static Message decode(String encoded) {
+        int separator = encoded.indexOf('|');
+        String text = encoded.substring(separator + 1);
+        return toMessage(encoded.charAt(0), text);
+    }
+    
+    public static long timestampOf(String encoded) {
+        return Long.parseLong(encoded, 1, encoded.indexOf('|'), 10);
+    }
+    
+    public static byte[] encodeBytes(Message message, long timestamp) {
+        byte[] text = (message.getText() != null ? message.getText() : "").getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = new byte[BINARY_HEADER + text.length];
+        encoded[0] = (byte) roleCode(message.getMessageType());
+        for (int i = 0; i < Long.BYTES; i++) {
+            encoded[1 + i] = (byte) (timestamp >>> (56 - 8 * i));
+        }
+        System.arraycopy(text, 0, encoded, BINARY_HEADER, text.length);
+        return encoded;
+    }
+    
+    public static Message decode(byte[] encoded) {
+        String text = new String(encoded, BINARY_HEADER, encoded.length - BINARY_HEADER, StandardCharsets.UTF_8);
+        return toMessage((char) encoded[0], text);
+    }
+    
+    public static long timestampOf(byte[] encoded) {
+        long timestamp = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            timestamp = (timestamp << 8) | (encoded[1 + i] & 0xFF);
+        }
+        return timestamp;
+    }
+    
+    public static char roleCode(MessageType type) {
+        return switch (type) {
+            case USER -> 'U';
+            case ASSISTANT -> 'A';
+            case SYSTEM -> 'S';
+            case TOOL -> 'T';
+        };
+    }
+    
+    public static Message toMessage(char roleCode, String text) {
+        return switch (roleCode) {
+            case 'U' -> new UserMessage(text);
+            case 'A' -> new AssistantMessage(text);
+            case 'S' -> new SystemMessage(text);
+            default -> throw new IllegalArgumentException("Unknown message role code: " + roleCode);
+        };
+    }
+}
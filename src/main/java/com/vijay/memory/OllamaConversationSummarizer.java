@@ -0,0 +1,69 @@
+package com.vijay.memory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.ollama.api.OllamaOptions;
+
+import java.util.List;
+
+/**
+ * Summarizes conversation turns with a local Ollama model
+ */
+public class OllamaConversationSummarizer implements ConversationSummarizer {
+    
+    private static final String INSTRUCTIONS = """
+            You compress chat history. Write a concise summary of the conversation below that keeps
+            facts, names, decisions, open questions and anything the user asked to remember.
+            Do not add information. Reply as JSON: {"summary": "..."}""";
+    
+    private final ChatModel chatModel;
+    private final OllamaOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    public OllamaConversationSummarizer(ChatModel chatModel, String model) {
+        this.chatModel = chatModel;
+        this.options = model != null && !model.isBlank()
+                ? OllamaOptions.builder().model(model).temperature(0.0).format("json").build()
+                : OllamaOptions.builder().temperature(0.0).format("json").build();
+    }
+    
+    @Override
+    public String summarize(String previousSummary, List<Message> messages) {
+        StringBuilder transcript = new StringBuilder();
+        if (previousSummary != null) {
+            transcript.append("Earlier summary: ").append(previousSummary).append("\n\n");
+        }
+        for (Message message : messages) {
+            transcript.append(message.getMessageType().getValue()).append(": ").append(message.getText()).append('\n');
+        }
+        
+        String reply = chatModel.call(new Prompt(
+                List.of(new SystemMessage(INSTRUCTIONS), new UserMessage(transcript.toString())), options))
+                .getResult().getOutput().getText();
+        return unwrap(reply);
+    }
+    
+    /**
+     * The options request JSON output; accept plain text from models that ignore the format
+     */
+    private String unwrap(String reply) {
+        if (reply == null) {
+            return "";
+        }
+        try {
+            JsonNode summary = objectMapper.readTree(reply).get("summary");
+            if (summary != null && summary.isTextual()) {
+                return summary.asText().strip();
+            }
+        } catch (JsonProcessingException e) {
+            // not JSON
+        }
+        return reply.strip();
+    }
+}
@@ -0,0 +1,192 @@
+package com.vijay.memory;
+
+import com.vijay.config.ChatMemoryProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chat memory repository on Redis lists.
+ *
+ * Each conversation is one list of {@link MessageCodec}-encoded messages, trimmed with LTRIM to the
+ * configured window and expiring after the configured TTL of inactivity. Loading a conversation is a
+ * single LRANGE; appends and rewrites are one pipelined round trip. Conversation ids are tracked in
+ * a sorted set scored by last write; every write trims the entries older than the TTL, and lookups
+ * skip them, so the index does not grow with conversations that already expired.
+ */
+public class RedisChatMemoryRepository implements AppendableChatMemoryRepository {
+    
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final String idsKey;
+    private final int maxMessages;
+    private final long ttlSeconds;
+    private final long ttlMillis;
+    private final Timer loadTimer;
+    private final Timer saveTimer;
+    
+    public RedisChatMemoryRepository(StringRedisTemplate redisTemplate, ChatMemoryProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = properties.getRedis().getKeyPrefix();
+        this.idsKey = keyPrefix + "index";
+        this.maxMessages = properties.getMaxMessages();
+        this.ttlSeconds = properties.getRedis().getTtl().toSeconds();
+        this.ttlMillis = properties.getRedis().getTtl().toMillis();
+        this.loadTimer = Timer.builder("chat.memory.load.time")
+                .description("Time to load a conversation window")
+                .tag("store", "redis")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.saveTimer = Timer.builder("chat.memory.save.time")
+                .description("Time to persist conversation messages")
+                .tag("store", "redis")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public List<String> findConversationIds() {
+        Set<String> ids = redisTemplate.opsForZSet().rangeByScore(idsKey,
+                System.currentTimeMillis() - ttlMillis, Double.POSITIVE_INFINITY);
+        return ids != null ? List.copyOf(ids) : List.of();
+    }
+    
+    /**
+     * Stored window of a conversation with the time each message was written
+     */
+    public List<StoredMessage> findWithTimestamps(String conversationId) {
+        List<String> encoded = redisTemplate.opsForList().range(key(conversationId), -maxMessages, -1);
+        if (encoded == null || encoded.isEmpty()) {
+            return List.of();
+        }
+        List<StoredMessage> messages = new ArrayList<>(encoded.size());
+        encoded.forEach(value -> messages.add(new StoredMessage(MessageCodec.decode(value), MessageCodec.timestampOf(value))));
+        return messages;
+    }
+    
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        return loadTimer.record(() -> {
+            List<String> encoded = redisTemplate.opsForList().range(key(conversationId), -maxMessages, -1);
+            if (encoded == null || encoded.isEmpty()) {
+                return List.of();
+            }
+            List<Message> messages = new ArrayList<>(encoded.size());
+            encoded.forEach(value -> messages.add(MessageCodec.decode(value)));
+            return messages;
+        });
+    }
+    
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        long now = System.currentTimeMillis();
+        String[] values = encode(messages, now);
+        saveTimer.record(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            String key = key(conversationId);
+            redis.del(key);
+            if (values.length > 0) {
+                pushTrimAndTouch(redis, key, values);
+                index(redis, conversationId, now);
+            } else {
+                redis.zRem(idsKey, conversationId);
+            }
+            return null;
+        }));
+    }
+    
+    @Override
+    public void append(String conversationId, List<Message> messages) {
+        long now = System.currentTimeMillis();
+        String[] values = encode(messages, now);
+        if (values.length == 0) {
+            return;
+        }
+        saveTimer.record(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            pushTrimAndTouch(redis, key(conversationId), values);
+            index(redis, conversationId, now);
+            return null;
+        }));
+    }
+    
+    /**
+     * Append messages of several conversations in one pipeline
+     */
+    public void appendAll(Map<String, List<Message>> messagesByConversation) {
+        if (messagesByConversation.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        saveTimer.record(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            messagesByConversation.forEach((conversationId, messages) -> {
+                String[] values = encode(messages, now);
+                if (values.length > 0) {
+                    pushTrimAndTouch(redis, key(conversationId), values);
+                    redis.zAdd(idsKey, now, conversationId);
+                }
+            });
+            redis.zRemRangeByScore(idsKey, Double.NEGATIVE_INFINITY, now - ttlMillis);
+            return null;
+        }));
+    }
+    
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.del(key(conversationId));
+            redis.zRem(idsKey, conversationId);
+            return null;
+        });
+    }
+    
+    /**
+     * Number of stored messages in a conversation
+     */
+    public long size(String conversationId) {
+        Long size = redisTemplate.opsForList().size(key(conversationId));
+        return size != null ? size : 0;
+    }
+    
+    private void pushTrimAndTouch(StringRedisConnection redis, String key, String[] values) {
+        redis.rPush(key, values);
+        redis.lTrim(key, -maxMessages, -1);
+        redis.expire(key, ttlSeconds);
+    }
+    
+    /**
+     * Mark the conversation as written now and drop index entries that outlived the TTL
+     */
+    private void index(StringRedisConnection redis, String conversationId, long now) {
+        redis.zAdd(idsKey, now, conversationId);
+        redis.zRemRangeByScore(idsKey, Double.NEGATIVE_INFINITY, now - ttlMillis);
+    }
+    
+    private String key(String conversationId) {
+        return keyPrefix + conversationId;
+    }
+    
+    private static String[] encode(List<Message> messages, long now) {
+        return messages.stream()
+                .filter(MessageCodec::isStorable)
+                .map(message -> MessageCodec.encode(message, now))
+                .toArray(String[]::new);
+    }
+    
+    /**
+     * @param timestamp epoch millis when the message was written
+     */
+    public record StoredMessage(Message message, long timestamp) {
+    }
+}
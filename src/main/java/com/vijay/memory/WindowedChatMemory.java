@@ -0,0 +1,43 @@
+package com.vijay.memory;
+
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * Message window chat memory over an {@link AppendableChatMemoryRepository}.
+ *
+ * Unlike MessageWindowChatMemory, adding a turn is a single append instead of a load followed by
+ * a rewrite of the whole conversation; the repository keeps the window bounded.
+ */
+public class WindowedChatMemory implements ChatMemory {
+    
+    private final AppendableChatMemoryRepository repository;
+    private final int maxMessages;
+    
+    public WindowedChatMemory(AppendableChatMemoryRepository repository, int maxMessages) {
+        this.repository = repository;
+        this.maxMessages = maxMessages;
+    }
+    
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        if (!messages.isEmpty()) {
+            repository.append(conversationId, messages);
+        }
+    }
+    
+    @Override
+    public List<Message> get(String conversationId) {
+        List<Message> messages = repository.findByConversationId(conversationId);
+        return messages.size() > maxMessages
+                ? List.copyOf(messages.subList(messages.size() - maxMessages, messages.size()))
+                : messages;
+    }
+    
+    @Override
+    public void clear(String conversationId) {
+        repository.deleteByConversationId(conversationId);
+    }
+}
@@ -0,0 +1,353 @@
+package com.vijay.memory;
+
+import com.vijay.config.ChatMemoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind decorator for the Redis chat memory repository.
+ *
+ * Appends are buffered per conversation and persisted by a background flusher in one pipeline per
+ * batch, when batchSize messages are waiting or every flushInterval. Reads merge the stored window
+ * with the conversation's unflushed messages; a per-conversation read/write lock held only across a
+ * flush keeps readers from seeing a batch both in Redis and in the buffer. Appends never wait on
+ * Redis: when the buffer is full (Redis is down or behind), the oldest buffered messages, taken
+ * from the conversations that have waited longest, are dropped to make room and counted in
+ * chat.memory.write_behind.overflows.
+ */
+public class WriteBehindChatMemoryRepository implements AppendableChatMemoryRepository, DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindChatMemoryRepository.class);
+    
+    private final RedisChatMemoryRepository delegate;
+    private final ChatMemoryProperties.WriteBehind settings;
+    private final int maxMessages;
+    
+    private final ConcurrentHashMap<String, Buffer> buffers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> dirty = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition batchReady = flushLock.newCondition();
+    private final Thread flusher;
+    private volatile boolean running = true;
+    
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private final Counter flushFailures;
+    private final Counter overflows;
+    
+    public WriteBehindChatMemoryRepository(RedisChatMemoryRepository delegate, ChatMemoryProperties properties,
+                                           MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.settings = properties.getWriteBehind();
+        this.maxMessages = properties.getMaxMessages();
+        
+        Gauge.builder("chat.memory.write_behind.queue.depth", queued, AtomicInteger::get)
+                .description("Chat messages buffered and not yet persisted")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("chat.memory.write_behind.batch.size")
+                .description("Messages persisted per write-behind flush")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.memory.write_behind.flush.time")
+                .description("Time to persist one write-behind batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushFailures = meterRegistry.counter("chat.memory.write_behind.flush.failures");
+        this.overflows = Counter.builder("chat.memory.write_behind.overflows")
+                .description("Buffered chat messages dropped unpersisted because the write-behind buffer was full")
+                .register(meterRegistry);
+        
+        this.flusher = Thread.ofPlatform().name("chat-memory-flusher").daemon(true).start(this::runFlusher);
+    }
+    
+    @Override
+    public void append(String conversationId, List<Message> messages) {
+        List<Message> storable = messages.stream().filter(MessageCodec::isStorable).toList();
+        if (storable.isEmpty()) {
+            return;
+        }
+        
+        int overflow = queued.get() + storable.size() - settings.getCapacity();
+        if (overflow > 0) {
+            // Buffer full (Redis is behind): shed the oldest messages rather than block or grow without bound
+            shed(overflow);
+        }
+        buffer(conversationId, storable);
+        if (queued.get() >= settings.getBatchSize()) {
+            signalFlusher();
+        }
+    }
+    
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        while (true) {
+            Buffer buffer = buffers.get(conversationId);
+            if (buffer == null) {
+                return delegate.findByConversationId(conversationId);
+            }
+            buffer.io.readLock().lock();
+            try {
+                if (buffers.get(conversationId) != buffer) {
+                    // Replaced while we waited, read again
+                    continue;
+                }
+                List<Message> stored = delegate.findByConversationId(conversationId);
+                List<Message> unflushed = unflushed(conversationId, buffer);
+                if (unflushed.isEmpty()) {
+                    return stored;
+                }
+                List<Message> merged = new ArrayList<>(stored.size() + unflushed.size());
+                merged.addAll(stored);
+                merged.addAll(unflushed);
+                return merged.size() > maxMessages
+                        ? List.copyOf(merged.subList(merged.size() - maxMessages, merged.size()))
+                        : merged;
+            } finally {
+                buffer.io.readLock().unlock();
+            }
+        }
+    }
+    
+    @Override
+    public List<String> findConversationIds() {
+        Set<String> ids = new LinkedHashSet<>(delegate.findConversationIds());
+        ids.addAll(buffers.keySet());
+        return List.copyOf(ids);
+    }
+    
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        withBufferDiscarded(conversationId, () -> delegate.saveAll(conversationId, messages));
+    }
+    
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        withBufferDiscarded(conversationId, () -> delegate.deleteByConversationId(conversationId));
+    }
+    
+    /**
+     * Persist everything buffered so far
+     */
+    public void flushAll() {
+        List<String> ids = new ArrayList<>();
+        String id;
+        while ((id = dirty.poll()) != null) {
+            ids.add(id);
+        }
+        if (!ids.isEmpty()) {
+            flush(ids);
+        }
+    }
+    
+    public int getQueuedMessages() {
+        return queued.get();
+    }
+    
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        signalFlusher();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        flushAll();
+        logger.info("Chat memory write-behind stopped, {} messages left unflushed", queued.get());
+    }
+    
+    private void buffer(String conversationId, List<Message> messages) {
+        buffers.compute(conversationId, (id, buffer) -> {
+            Buffer target = buffer != null ? buffer : new Buffer();
+            target.queued.addAll(messages);
+            if (!target.dirty) {
+                target.dirty = true;
+                dirty.add(id);
+            }
+            return target;
+        });
+        queued.addAndGet(messages.size());
+    }
+    
+    /**
+     * Drop up to this many of the oldest buffered messages, starting with the conversations that
+     * have been waiting longest. Batches being flushed right now are not touched.
+     */
+    private void shed(int count) {
+        int dropped = 0;
+        for (String id : dirty) {
+            if (dropped >= count) {
+                break;
+            }
+            int wanted = count - dropped;
+            int[] removed = new int[1];
+            buffers.computeIfPresent(id, (key, buffer) -> {
+                removed[0] = Math.min(wanted, buffer.queued.size());
+                buffer.queued.subList(0, removed[0]).clear();
+                return buffer;
+            });
+            dropped += removed[0];
+        }
+        if (dropped > 0) {
+            queued.addAndGet(-dropped);
+            overflows.increment(dropped);
+            logger.warn("Chat memory write-behind buffer full, dropped {} unpersisted messages", dropped);
+        }
+    }
+    
+    private void runFlusher() {
+        long intervalNanos = settings.getFlushInterval().toNanos();
+        while (running) {
+            flushLock.lock();
+            try {
+                if (queued.get() < settings.getBatchSize()) {
+                    batchReady.awaitNanos(intervalNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                flushLock.unlock();
+            }
+            try {
+                flushAll();
+            } catch (RuntimeException e) {
+                logger.warn("Chat memory flush failed: {}", e.getMessage());
+            }
+        }
+    }
+    
+    private void signalFlusher() {
+        flushLock.lock();
+        try {
+            batchReady.signal();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * Persist the buffered messages of these conversations in one pipeline
+     */
+    private void flush(List<String> conversationIds) {
+        List<Buffer> locked = new ArrayList<>(conversationIds.size());
+        Map<String, List<Message>> batch = new LinkedHashMap<>();
+        try {
+            for (String id : conversationIds) {
+                Buffer buffer = buffers.get(id);
+                if (buffer == null) {
+                    continue;
+                }
+                buffer.io.writeLock().lock();
+                locked.add(buffer);
+                List<Message> taken = takeQueued(id, buffer);
+                if (!taken.isEmpty()) {
+                    batch.computeIfAbsent(id, key -> new ArrayList<>()).addAll(taken);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            
+            int messages = batch.values().stream().mapToInt(List::size).sum();
+            long start = System.nanoTime();
+            try {
+                delegate.appendAll(batch);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                batchSize.record(messages);
+                queued.addAndGet(-messages);
+            } catch (RuntimeException e) {
+                flushFailures.increment();
+                batch.forEach(this::requeue);
+                throw e;
+            }
+        } finally {
+            locked.forEach(buffer -> buffer.io.writeLock().unlock());
+            conversationIds.forEach(id -> buffers.computeIfPresent(id,
+                    (key, buffer) -> buffer.queued.isEmpty() && !buffer.io.isWriteLocked() ? null : buffer));
+        }
+    }
+    
+    private List<Message> unflushed(String id, Buffer buffer) {
+        List<Message> copy = new ArrayList<>();
+        // Copy under the map's bin lock so concurrent appends are not torn
+        buffers.computeIfPresent(id, (key, current) -> {
+            if (current == buffer) {
+                copy.addAll(buffer.queued);
+            }
+            return current;
+        });
+        return copy;
+    }
+    
+    private List<Message> takeQueued(String id, Buffer buffer) {
+        List<Message> taken = new ArrayList<>();
+        buffers.computeIfPresent(id, (key, current) -> {
+            if (current == buffer) {
+                taken.addAll(buffer.queued);
+                buffer.queued.clear();
+                buffer.dirty = false;
+            }
+            return current;
+        });
+        return taken;
+    }
+    
+    /**
+     * Put a failed batch back in front of anything appended since, to retry on the next flush
+     */
+    private void requeue(String id, List<Message> messages) {
+        buffers.compute(id, (key, buffer) -> {
+            Buffer target = buffer != null ? buffer : new Buffer();
+            target.queued.addAll(0, messages);
+            if (!target.dirty) {
+                target.dirty = true;
+                dirty.add(key);
+            }
+            return target;
+        });
+    }
+    
+    private void withBufferDiscarded(String conversationId, Runnable write) {
+        Buffer buffer = buffers.get(conversationId);
+        if (buffer == null) {
+            write.run();
+            return;
+        }
+        buffer.io.writeLock().lock();
+        try {
+            List<Message> discarded = takeQueued(conversationId, buffer);
+            queued.addAndGet(-discarded.size());
+            write.run();
+        } finally {
+            buffer.io.writeLock().unlock();
+        }
+    }
+    
+    private static final class Buffer {
+        
+        // Guarded by the ConcurrentHashMap bin lock (compute/computeIfPresent)
+        private final List<Message> queued = new ArrayList<>();
+        private boolean dirty;
+        // Held for writing while a flush persists this conversation
+        private final ReentrantReadWriteLock io = new ReentrantReadWriteLock();
+    }
+}
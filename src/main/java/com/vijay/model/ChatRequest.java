@@ -28,4 +28,15 @@ public class ChatRequest {
     
     @Size(max = 100, message = "Conversation ID cannot exceed 100 characters")
     private String conversationId;
+    
+    // Skip the response cache for this request (also set by a "Cache-Control: no-cache" header)
+    private boolean noCache;
+    
+    // Scheduling lane: interactive, batch or background; endpoints may only lower it (see SchedulingProperties)
+    @Size(max = 20, message = "Lane cannot exceed 20 characters")
+    private String lane;
+    
+    // Tenant for fair scheduling; set from the tenant header, taken from the body only on requests forwarded by a cluster peer
+    @Size(max = 100, message = "Tenant cannot exceed 100 characters")
+    private String tenant;
 }
@@ -0,0 +1,45 @@
+package com.vijay.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Single Server-Sent Event emitted by the streaming chat endpoint
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChatStreamEvent {
+
+    public static final String TOKEN = "token";
+    public static final String TOOL_CALL = "tool_call";
+    public static final String TOOL_RESULT = "tool_result";
+    public static final String DONE = "done";
+    public static final String ERROR = "error";
+
+    private String type;
+    private String content;
+    private String toolName;
+
+    public static ChatStreamEvent token(String content) {
+        return new ChatStreamEvent(TOKEN, content, null);
+    }
+
+    public static ChatStreamEvent toolCall(String toolName, String input) {
+        return new ChatStreamEvent(TOOL_CALL, input, toolName);
+    }
+
+    public static ChatStreamEvent toolResult(String toolName, String result) {
+        return new ChatStreamEvent(TOOL_RESULT, result, toolName);
+    }
+
+    public static ChatStreamEvent done(String provider, String model) {
+        return new ChatStreamEvent(DONE, provider + (model.isEmpty() ? "" : "/" + model), null);
+    }
+
+    public static ChatStreamEvent error(String message) {
+        return new ChatStreamEvent(ERROR, message, null);
+    }
+}
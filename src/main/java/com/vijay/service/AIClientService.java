@@ -18,6 +18,14 @@ public interface AIClientService {
      */
     ChatClient getChatClient(String provider, String model, String apiKey, String baseUrl);
     
+    /**
+     * Reject request overrides that must not be honoured, e.g. a baseUrl without the caller's own apiKey
+     * 
+     * @param apiKey custom API key (optional)
+     * @param baseUrl custom base URL (optional)
+     */
+    void validateOverrides(String apiKey, String baseUrl);
+    
     /**
      * Check if a provider is supported
      * 
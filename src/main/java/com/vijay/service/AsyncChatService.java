@@ -1,7 +1,9 @@
 package com.vijay.service;
 
 import com.vijay.model.ChatRequest;
+import com.vijay.memory.EvictingChatMemoryRepository;
 import com.vijay.model.ChatResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.stereotype.Service;
@@ -20,15 +22,19 @@ public class AsyncChatService {
     private static final Logger logger = LoggerFactory.getLogger(AsyncChatService.class);
     
     private final ResilientChatService resilientChatService;
+    private final ObjectProvider<EvictingChatMemoryRepository> evictingChatMemoryRepository;
     
-    public AsyncChatService(ResilientChatService resilientChatService) {
+    public AsyncChatService(ResilientChatService resilientChatService,
+                            ObjectProvider<EvictingChatMemoryRepository> evictingChatMemoryRepository) {
         this.resilientChatService = resilientChatService;
+        this.evictingChatMemoryRepository = evictingChatMemoryRepository;
     }
     
     /**
-     * Process chat request asynchronously
+     * Process chat request asynchronously. Runs on virtual threads: provider concurrency is
+     * bounded by the adaptive limiter, not by the size of a thread pool.
      */
-    @Async("taskExecutor")
+    @Async("virtualThreadExecutor")
     public CompletableFuture<ChatResponse> processChatRequestAsync(ChatRequest request, String conversationId) {
         logger.info("Processing async chat request for conversation: {}", conversationId);
         
@@ -63,16 +69,21 @@ public class AsyncChatService {
     }
     
     /**
-     * Cleanup old chat memories asynchronously
+     * Evict idle and over-budget in-process chat memories now; Redis conversations expire by TTL
      */
     @Async("taskExecutor")
     public CompletableFuture<Void> cleanupOldChatMemoriesAsync() {
         logger.info("Cleaning up old chat memories asynchronously");
         
         try {
-            // In a real implementation, you would clean up old Redis keys
-            // For now, just log the operation
-            logger.info("Chat memory cleanup completed");
+            EvictingChatMemoryRepository repository = evictingChatMemoryRepository.getIfAvailable();
+            if (repository == null) {
+                logger.info("Chat memory eviction is disabled, nothing to clean up");
+                return CompletableFuture.completedFuture(null);
+            }
+            repository.evictExpired();
+            logger.info("Chat memory cleanup completed: {} live conversations, ~{} KB",
+                    repository.liveConversations(), repository.estimatedBytes() / 1024);
             return CompletableFuture.completedFuture(null);
             
         } catch (Exception e) {
@@ -1,8 +1,13 @@
 package com.vijay.service;
 
+import com.vijay.service.interceptor.ChatRequestKeys;
 import com.vijay.tool.ToolUtils;
 import org.springframework.ai.tool.ToolCallbackProvider;
+import com.vijay.mcp.McpToolRegistryRefreshedEvent;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,15 +63,7 @@ public class CachedToolService {
         logger.info("Generating tool list for system prompt (cache miss)");
         long startTime = System.currentTimeMillis();
         
-        String result = Arrays.stream(toolProvider.getToolCallbacks())
-                .map(cb -> {
-                    var def = cb.getToolDefinition();
-                    String name = ToolUtils.cleanToolName(def.name());
-                    String desc = def.description();
-                    String example = ToolUtils.generateExample(name, def.inputSchema());
-                    return "- " + name + " → " + desc + "\n   Example: " + example;
-                })
-                .collect(Collectors.joining("\n\n"));
+        String result = ToolUtils.toolListForPrompt(toolProvider.getToolCallbacks());
         
         long endTime = System.currentTimeMillis();
         lastGenerationTime.set(endTime - startTime);
@@ -83,6 +80,20 @@ public class CachedToolService {
         return toolProvider.getToolCallbacks().length;
     }
     
+    /**
+     * Get a version fingerprint of the current tool set (names and input schemas) with caching
+     */
+    @Cacheable(value = "toolDefinitions", key = "'version'")
+    public String getToolSetVersion() {
+        logger.info("Computing tool set version from MCP servers (cache miss)");
+        
+        String signature = Arrays.stream(toolProvider.getToolCallbacks())
+                .map(cb -> cb.getToolDefinition().name() + "=" + cb.getToolDefinition().inputSchema())
+                .sorted()
+                .collect(Collectors.joining("\n"));
+        return ChatRequestKeys.sha256Hex(signature).substring(0, 16);
+    }
+    
     /**
      * Get tools by category (if we implement categorization later)
      */
@@ -95,6 +106,18 @@ public class CachedToolService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Drop cached tool data when the MCP tool registry publishes a new snapshot
+     */
+    @EventListener
+    @Caching(evict = {
+        @CacheEvict(value = "toolDefinitions", allEntries = true),
+        @CacheEvict(value = "systemPrompts", allEntries = true)
+    })
+    public void onToolRegistryRefreshed(McpToolRegistryRefreshedEvent event) {
+        logger.info("Tool registry refreshed to version {}, evicting cached tool data", event.version());
+    }
+    
     /**
      * Get the last generation time in milliseconds
      */
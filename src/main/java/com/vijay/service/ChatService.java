@@ -2,6 +2,8 @@ package com.vijay.service;
 
 import com.vijay.model.ChatRequest;
 import com.vijay.model.ChatResponse;
+import com.vijay.model.ChatStreamEvent;
+import reactor.core.publisher.Flux;
 
 /**
  * Service interface for chat operations
@@ -17,6 +19,16 @@ public interface ChatService {
      */
     ChatResponse processChatRequest(ChatRequest request, String conversationId);
     
+    /**
+     * Stream a chat response as tokens and tool progress events.
+     * Cancelling the subscription cancels the upstream provider call.
+     * 
+     * @param request the chat request containing message, provider, model, etc.
+     * @param conversationId the conversation ID for maintaining context
+     * @return a cold stream of events, ending with a done or error event
+     */
+    Flux<ChatStreamEvent> streamChatRequest(ChatRequest request, String conversationId);
+    
     /**
      * Get available AI providers
      * 
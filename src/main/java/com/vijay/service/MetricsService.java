@@ -5,6 +5,7 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -17,6 +18,7 @@ public class MetricsService {
     private final MeterRegistry meterRegistry;
     private final Map<String, Counter> providerCounters = new ConcurrentHashMap<>();
     private final Map<String, Timer> providerTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> firstTokenTimers = new ConcurrentHashMap<>();
     
     public MetricsService(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -77,6 +79,31 @@ public class MetricsService {
         sample.stop(timer);
     }
     
+    /**
+     * Record time until the first streamed token reached the client
+     */
+    public void recordTimeToFirstToken(String provider, String model, Duration duration) {
+        Timer timer = firstTokenTimers.computeIfAbsent(
+            provider + "_" + model,
+            key -> Timer.builder("chat.time_to_first_token.by_provider")
+                    .description("Time to first streamed token by provider and model")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+        );
+        timer.record(duration);
+    }
+    
+    /**
+     * Record a streaming chat cancelled by the client before completion
+     */
+    public void recordChatStreamCancelled(String provider, String model) {
+        Counter counter = meterRegistry.counter("chat.stream.cancelled.by_provider",
+                "provider", provider, "model", model);
+        counter.increment();
+    }
+    
     /**
      * Record MCP tool call
      */
@@ -102,6 +129,7 @@ public class MetricsService {
         Counter counter = meterRegistry.counter("cache.hits.by_name",
                 "cache_name", cacheName);
         counter.increment();
+        meterRegistry.counter("cache.hits", "type", "hit").increment();
     }
     
     /**
@@ -111,6 +139,7 @@ public class MetricsService {
         Counter counter = meterRegistry.counter("cache.misses.by_name",
                 "cache_name", cacheName);
         counter.increment();
+        meterRegistry.counter("cache.misses", "type", "miss").increment();
     }
     
     /**
@@ -1,18 +1,18 @@
 package com.vijay.service;
 
+import com.vijay.memory.RedisChatMemoryRepository;
 import org.springframework.ai.chat.memory.ChatMemory;
-import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Redis-based chat memory service for distributed systems
@@ -23,37 +23,26 @@ public class RedisChatMemoryService {
     
     private static final Logger logger = LoggerFactory.getLogger(RedisChatMemoryService.class);
     
-    private final RedisTemplate<String, Object> redisTemplate;
-    private static final String CHAT_MEMORY_PREFIX = "chat:memory:";
-    private static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    private final RedisChatMemoryRepository repository;
+    private final ChatMemory chatMemory;
     
-    public RedisChatMemoryService(RedisTemplate<String, Object> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    public RedisChatMemoryService(RedisChatMemoryRepository repository, ChatMemory chatMemory) {
+        this.repository = repository;
+        this.chatMemory = chatMemory;
     }
     
     /**
-     * Get or create chat memory for a conversation
+     * The application chat memory (windowed, compacted when enabled); conversations are addressed by id on every call
      */
-    @Cacheable(value = "chatMemory", key = "#conversationId")
     public ChatMemory getChatMemory(String conversationId) {
-        logger.info("Creating new chat memory for conversation: {}", conversationId);
-        
-        // Create in-memory chat memory as fallback
-        // In a full implementation, you might want to store/retrieve from Redis
-        return MessageWindowChatMemory.builder()
-                .maxMessages(20)
-                .build();
+        return chatMemory;
     }
     
     /**
      * Store chat message in Redis
      */
     public void storeMessage(String conversationId, String role, String content) {
-        String key = CHAT_MEMORY_PREFIX + conversationId + ":" + System.currentTimeMillis();
-        
-        ChatMessage message = new ChatMessage(role, content, System.currentTimeMillis());
-        redisTemplate.opsForValue().set(key, message, DEFAULT_TTL);
-        
+        repository.append(conversationId, List.of(toMessage(role, content)));
         logger.debug("Stored message for conversation: {}", conversationId);
     }
     
@@ -61,22 +50,19 @@ public class RedisChatMemoryService {
      * Get recent messages for a conversation
      */
     public List<ChatMessage> getRecentMessages(String conversationId, int limit) {
-        String pattern = CHAT_MEMORY_PREFIX + conversationId + ":*";
-        
-        // In a real implementation, you'd use Redis sorted sets or lists
-        // For now, we'll return empty list as this is a simplified version
         logger.debug("Retrieving recent messages for conversation: {}", conversationId);
-        return List.of();
+        List<RedisChatMemoryRepository.StoredMessage> messages = repository.findWithTimestamps(conversationId);
+        return messages.subList(Math.max(0, messages.size() - limit), messages.size()).stream()
+                .map(stored -> new ChatMessage(stored.message().getMessageType().getValue(),
+                        stored.message().getText(), stored.timestamp()))
+                .toList();
     }
     
     /**
      * Clear chat memory for a conversation
      */
-    @CacheEvict(value = "chatMemory", key = "#conversationId")
     public void clearChatMemory(String conversationId) {
-        String pattern = CHAT_MEMORY_PREFIX + conversationId + ":*";
-        
-        // In a real implementation, you'd delete all keys matching the pattern
+        repository.deleteByConversationId(conversationId);
         logger.info("Cleared chat memory for conversation: {}", conversationId);
     }
     
@@ -84,8 +70,15 @@ public class RedisChatMemoryService {
      * Get conversation statistics
      */
     public ConversationStats getConversationStats(String conversationId) {
-        // In a real implementation, you'd count messages in Redis
-        return new ConversationStats(conversationId, 0, System.currentTimeMillis());
+        return new ConversationStats(conversationId, (int) repository.size(conversationId), System.currentTimeMillis());
+    }
+    
+    private static Message toMessage(String role, String content) {
+        return switch (role.toLowerCase()) {
+            case "assistant" -> new AssistantMessage(content);
+            case "system" -> new SystemMessage(content);
+            default -> new UserMessage(content);
+        };
     }
     
     /**
@@ -1,24 +1,51 @@
 package com.vijay.service;
 
+import com.vijay.client.ProviderErrors;
+import com.vijay.client.ProviderHttpTransport;
 import com.vijay.exception.AIProviderException;
 import com.vijay.exception.ChatServiceException;
+import com.vijay.exception.ConversationBusyException;
+import com.vijay.exception.LaneSaturatedException;
+import com.vijay.exception.ProviderOverloadedException;
 import com.vijay.model.ChatRequest;
 import com.vijay.model.ChatResponse;
+import com.vijay.service.interceptor.ChatRequestKeys;
+import com.vijay.service.resilience.BudgetedRetry;
+import com.vijay.service.resilience.ResilienceRegistry;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryRegistry;
-import io.github.resilience4j.timelimiter.TimeLimiter;
-import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
- * Resilient wrapper for ChatService with circuit breaker, retry, and timeout patterns
+ * Resilient wrapper for ChatService with circuit breaker, retry, timeout and bulkhead patterns,
+ * taken per provider/model from the {@link ResilienceRegistry}. Retries also draw on the provider's
+ * retry budget, so a provider that is failing broadly is not hit with a multiple of its traffic.
+ * Requests with the caller's own API key or baseUrl get policies of their own ("caller/model",
+ * "custom/model"), and the provider rejecting such a request (4xx, e.g. a bad key) is not counted
+ * as a failure, so one caller's credentials cannot open a circuit breaker other callers depend on.
+ *
+ * Each call runs on its own virtual thread from resilientChatExecutor. When the time limiter
+ * fires it cancels that thread's future with interruption, which aborts the pending provider HTTP
+ * exchange and any MCP tool calls the thread is waiting on, so timed-out calls do not keep holding
+ * threads and connections.
  */
 @Service
 public class ResilientChatService {
@@ -26,28 +53,35 @@ public class ResilientChatService {
     private static final Logger logger = LoggerFactory.getLogger(ResilientChatService.class);
     
     private final ChatService chatService;
-    private final CircuitBreaker aiProviderCircuitBreaker;
-    private final CircuitBreaker mcpServerCircuitBreaker;
-    private final Retry aiProviderRetry;
-    private final Retry mcpServerRetry;
-    private final TimeLimiter aiProviderTimeLimiter;
-    private final TimeLimiter mcpServerTimeLimiter;
+    private final AIClientService aiClientService;
+    private final ResilienceRegistry resilienceRegistry;
+    private final ExecutorService executor;
+    private final ProviderHttpTransport providerHttpTransport;
+    private final AtomicInteger activeCalls = new AtomicInteger();
+    private final Counter timeouts;
+    private final Timer cancelTimer;
     
     public ResilientChatService(ChatService chatService,
-                               CircuitBreakerRegistry circuitBreakerRegistry,
-                               RetryRegistry retryRegistry,
-                               TimeLimiterRegistry timeLimiterRegistry) {
+                               AIClientService aiClientService,
+                               ResilienceRegistry resilienceRegistry,
+                               @Qualifier("resilientChatExecutor") ExecutorService executor,
+                               ProviderHttpTransport providerHttpTransport,
+                               MeterRegistry meterRegistry) {
         this.chatService = chatService;
-        this.aiProviderCircuitBreaker = circuitBreakerRegistry.circuitBreaker("ai-provider");
-        this.mcpServerCircuitBreaker = circuitBreakerRegistry.circuitBreaker("mcp-server");
-        this.aiProviderRetry = retryRegistry.retry("ai-provider");
-        this.mcpServerRetry = retryRegistry.retry("mcp-server");
-        this.aiProviderTimeLimiter = timeLimiterRegistry.timeLimiter("ai-provider");
-        this.mcpServerTimeLimiter = timeLimiterRegistry.timeLimiter("mcp-server");
+        this.aiClientService = aiClientService;
+        this.resilienceRegistry = resilienceRegistry;
+        this.executor = executor;
+        this.providerHttpTransport = providerHttpTransport;
         
-        // Add event listeners for monitoring
-        setupCircuitBreakerEventListeners();
-        setupRetryEventListeners();
+        this.timeouts = Counter.builder("chat.resilient.timeouts")
+                .description("Resilient chat calls cancelled by the time limiter")
+                .register(meterRegistry);
+        this.cancelTimer = Timer.builder("chat.resilient.cancel.time")
+                .description("Time from cancelling a timed-out call until its thread was released")
+                .register(meterRegistry);
+        Gauge.builder("chat.resilient.calls.active", activeCalls, AtomicInteger::get)
+                .description("Resilient chat calls currently occupying a thread, including cancelled ones still unwinding")
+                .register(meterRegistry);
     }
     
     /**
@@ -56,98 +90,147 @@ public class ResilientChatService {
     public ChatResponse processChatRequest(ChatRequest request, String conversationId) {
         logger.info("Processing resilient chat request for conversation: {}", conversationId);
         
-        // Determine which circuit breaker to use based on provider
-        CircuitBreaker circuitBreaker = getCircuitBreakerForProvider(request.getProvider());
-        Retry retry = getRetryForProvider(request.getProvider());
-        TimeLimiter timeLimiter = getTimeLimiterForProvider(request.getProvider());
+        // Policies of this provider/model only, so one failing model does not shed the others
+        String provider = ChatRequestKeys.backendOf(request, aiClientService.getDefaultProvider());
+        ResilienceRegistry.Policies policies = resilienceRegistry.forProvider(provider, request.getModel());
+        CircuitBreaker circuitBreaker = policies.circuitBreaker();
+        Bulkhead bulkhead = policies.bulkhead();
         
         // Create the supplier with resilience patterns
         Supplier<ChatResponse> supplier = () -> {
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelled by the time limiter between retry attempts
+                throw new CancellationException("Chat request timed out");
+            }
             try {
                 return chatService.processChatRequest(request, conversationId);
+            } catch (ConversationBusyException | ProviderOverloadedException | LaneSaturatedException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error in chat service call: {}", e.getMessage(), e);
                 throw new ChatServiceException("Failed to process chat request", e);
             }
         };
         
-        // Apply resilience patterns
-        Supplier<ChatResponse> resilientSupplier = Retry.decorateSupplier(retry, supplier);
-        resilientSupplier = CircuitBreaker.decorateSupplier(circuitBreaker, resilientSupplier);
+        // Rejections fail fast on the calling thread, before a thread is started for the call
+        acquire(policies, provider);
         
+        ResilientCall call = new ResilientCall(
+                BudgetedRetry.decorateSupplier(policies.retry(), resilienceRegistry.retryBudget(provider), supplier),
+                conversationId, bulkhead);
+        long start = System.nanoTime();
         try {
-            // Execute with timeout
-            CompletableFuture<ChatResponse> future = CompletableFuture.supplyAsync(resilientSupplier);
-            return timeLimiter.executeFutureSupplier(() -> future);
+            // Execute with timeout; on timeout the limiter cancels the call with interruption
+            try {
+                executor.execute(call);
+            } catch (RejectedExecutionException e) {
+                bulkhead.onComplete();
+                throw e;
+            }
+            ChatResponse response = policies.timeLimiter().executeFutureSupplier(() -> call);
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return response;
             
         } catch (Exception e) {
+            if (callerCredentials(request) && ProviderErrors.isClientError(e)) {
+                circuitBreaker.releasePermission();
+            } else {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            }
+            if (e instanceof TimeoutException) {
+                timeouts.increment();
+            }
             logger.error("Resilient chat request failed for conversation {}: {}", conversationId, e.getMessage(), e);
             
+            // The time limiter rethrows the call's own exception; older versions wrapped it
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            
             // Determine the type of exception and throw appropriate custom exception
-            if (e.getCause() instanceof AIProviderException) {
-                throw (AIProviderException) e.getCause();
-            } else if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
-                throw new AIProviderException(
-                    request.getProvider() != null ? request.getProvider() : "unknown",
-                    "AI Provider circuit breaker is OPEN - service temporarily unavailable",
-                    "CIRCUIT_BREAKER_OPEN",
-                    503,
-                    e
-                );
+            if (cause instanceof ConversationBusyException busy) {
+                throw busy;
+            } else if (cause instanceof ProviderOverloadedException overloaded) {
+                throw overloaded;
+            } else if (cause instanceof LaneSaturatedException saturated) {
+                throw saturated;
+            } else if (cause.getCause() instanceof AIProviderException providerException) {
+                throw providerException;
             } else {
                 throw new ChatServiceException("Failed to process chat request with resilience patterns", e);
             }
         }
     }
     
-    private CircuitBreaker getCircuitBreakerForProvider(String provider) {
-        if ("ollama".equals(provider)) {
-            return mcpServerCircuitBreaker; // Ollama is local, use MCP circuit breaker
-        } else {
-            return aiProviderCircuitBreaker; // External AI providers
-        }
+    private static boolean callerCredentials(ChatRequest request) {
+        return (request.getApiKey() != null && !request.getApiKey().isBlank())
+                || (request.getBaseUrl() != null && !request.getBaseUrl().isBlank());
     }
     
-    private Retry getRetryForProvider(String provider) {
-        if ("ollama".equals(provider)) {
-            return mcpServerRetry;
-        } else {
-            return aiProviderRetry;
+    private void acquire(ResilienceRegistry.Policies policies, String provider) {
+        CircuitBreaker circuitBreaker = policies.circuitBreaker();
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            throw new AIProviderException(
+                provider,
+                "CIRCUIT_BREAKER_OPEN",
+                "AI Provider circuit breaker '" + policies.name() + "' is OPEN - service temporarily unavailable",
+                503,
+                e
+            );
         }
-    }
-    
-    private TimeLimiter getTimeLimiterForProvider(String provider) {
-        if ("ollama".equals(provider)) {
-            return mcpServerTimeLimiter;
-        } else {
-            return aiProviderTimeLimiter;
+        if (!policies.bulkhead().tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            throw new ProviderOverloadedException(provider,
+                    "Too many concurrent calls to " + policies.name() + ", try again later");
         }
     }
     
-    private void setupCircuitBreakerEventListeners() {
-        aiProviderCircuitBreaker.getEventPublisher()
-                .onStateTransition(event -> 
-                    logger.info("AI Provider Circuit Breaker state transition: {} -> {}", 
-                        event.getStateTransition().getFromState(), 
-                        event.getStateTransition().getToState()));
+    /**
+     * A call on its own thread that reports how long it took to unwind after being cancelled
+     */
+    private final class ResilientCall extends FutureTask<ChatResponse> {
         
-        mcpServerCircuitBreaker.getEventPublisher()
-                .onStateTransition(event -> 
-                    logger.info("MCP Server Circuit Breaker state transition: {} -> {}", 
-                        event.getStateTransition().getFromState(), 
-                        event.getStateTransition().getToState()));
-    }
-    
-    private void setupRetryEventListeners() {
-        aiProviderRetry.getEventPublisher()
-                .onRetry(event -> 
-                    logger.warn("AI Provider retry attempt {} failed: {}", 
-                        event.getNumberOfRetryAttempts(), event.getLastThrowable().getMessage()));
+        private final String conversationId;
+        private final Bulkhead bulkhead;
+        private volatile long cancelledAtNanos;
+        
+        ResilientCall(Supplier<ChatResponse> supplier, String conversationId, Bulkhead bulkhead) {
+            super(supplier::get);
+            this.conversationId = conversationId;
+            this.bulkhead = bulkhead;
+        }
+        
+        @Override
+        public void run() {
+            activeCalls.incrementAndGet();
+            try {
+                super.run();
+            } finally {
+                // The bulkhead slot is held until the thread is really free, not just until the timeout
+                bulkhead.onComplete();
+                activeCalls.decrementAndGet();
+                reportIfCancelled();
+            }
+        }
+        
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelledAtNanos = System.nanoTime();
+            return super.cancel(mayInterruptIfRunning);
+        }
         
-        mcpServerRetry.getEventPublisher()
-                .onRetry(event -> 
-                    logger.warn("MCP Server retry attempt {} failed: {}", 
-                        event.getNumberOfRetryAttempts(), event.getLastThrowable().getMessage()));
+        private void reportIfCancelled() {
+            long cancelledAt = cancelledAtNanos;
+            if (cancelledAt == 0) {
+                return;
+            }
+            long unwind = System.nanoTime() - cancelledAt;
+            cancelTimer.record(unwind, TimeUnit.NANOSECONDS);
+            logger.info("Timed-out chat call for conversation {} released its thread {} ms after cancellation; "
+                            + "{} resilient calls and {} provider connections still active",
+                    conversationId, TimeUnit.NANOSECONDS.toMillis(unwind), activeCalls.get(),
+                    providerHttpTransport.activeRequests());
+        }
     }
     
     /**
@@ -0,0 +1,135 @@
+package com.vijay.service;
+
+import com.vijay.config.ToolSelectionProperties;
+import com.vijay.mcp.McpToolRegistry;
+import com.vijay.tool.Bm25ToolIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Picks the tools relevant to a user message so only they are attached to the prompt.
+ *
+ * Tools are ranked with a BM25 index built once per registry snapshot. The top-K tools above the
+ * relative cutoff are attached; when the best score is below minScore the request keeps the full
+ * tool set.
+ */
+@Service
+public class ToolSelectionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ToolSelectionService.class);
+    
+    private final ToolSelectionProperties properties;
+    private final McpToolRegistry toolRegistry;
+    
+    private final Counter selectedCounter;
+    private final Counter fallbackCounter;
+    private final Counter tokensSaved;
+    private final DistributionSummary toolsAttached;
+    
+    private volatile Catalog catalog = new Catalog(-1, new Bm25ToolIndex(new ToolCallback[0]), 0);
+    
+    public ToolSelectionService(ToolSelectionProperties properties, McpToolRegistry toolRegistry,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.toolRegistry = toolRegistry;
+        this.selectedCounter = Counter.builder("chat.tools.selection.requests")
+                .description("Requests seen by tool selection")
+                .tag("outcome", "selected")
+                .register(meterRegistry);
+        this.fallbackCounter = Counter.builder("chat.tools.selection.requests")
+                .description("Requests seen by tool selection")
+                .tag("outcome", "fallback")
+                .register(meterRegistry);
+        this.tokensSaved = Counter.builder("chat.tools.selection.tokens.saved")
+                .description("Estimated prompt tokens saved by attaching a tool subset")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.toolsAttached = DistributionSummary.builder("chat.tools.selection.attached")
+                .description("Tools attached to a request after selection")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Tools for this message, or {@link ToolSelection#FULL} to keep the full set
+     */
+    public ToolSelection select(String message) {
+        if (!properties.isEnabled()) {
+            return ToolSelection.FULL;
+        }
+        
+        Catalog current = currentCatalog();
+        if (current.index().size() <= properties.getTopK()) {
+            return ToolSelection.FULL;
+        }
+        
+        List<Bm25ToolIndex.Scored> ranked = current.index().search(message);
+        if (ranked.isEmpty() || ranked.get(0).score() < properties.getMinScore()) {
+            // Low confidence - let the model see every tool
+            fallbackCounter.increment();
+            toolsAttached.record(current.index().size());
+            return ToolSelection.FULL;
+        }
+        
+        double cutoff = ranked.get(0).score() * properties.getRelativeCutoff();
+        ToolCallback[] selected = ranked.stream()
+                .filter(scored -> scored.score() >= cutoff)
+                .limit(properties.getTopK())
+                .map(Bm25ToolIndex.Scored::tool)
+                .toArray(ToolCallback[]::new);
+        
+        selectedCounter.increment();
+        toolsAttached.record(selected.length);
+        tokensSaved.increment(Math.max(0, current.fullTokens() - estimateTokens(selected)));
+        logger.debug("Selected tools {} for message", toolNames(selected));
+        return new ToolSelection(selected, true);
+    }
+    
+    private Catalog currentCatalog() {
+        McpToolRegistry.Snapshot snapshot = toolRegistry.getSnapshot();
+        Catalog current = catalog;
+        if (current.version() != snapshot.version()) {
+            ToolCallback[] all = snapshot.callbacks();
+            current = new Catalog(snapshot.version(), new Bm25ToolIndex(all), estimateTokens(all));
+            catalog = current;
+        }
+        return current;
+    }
+    
+    /**
+     * Rough token count (4 characters per token) of the tool definitions sent to the model
+     */
+    static long estimateTokens(ToolCallback[] tools) {
+        long characters = 0;
+        for (ToolCallback tool : tools) {
+            var definition = tool.getToolDefinition();
+            characters += definition.name().length() + definition.description().length()
+                    + definition.inputSchema().length();
+        }
+        return characters / 4;
+    }
+    
+    private static String toolNames(ToolCallback[] tools) {
+        return String.join(",", Arrays.stream(tools).map(tool -> tool.getToolDefinition().name()).toList());
+    }
+    
+    /**
+     * Tools for one request
+     *
+     * @param trimmed false when the caller should use the full tool set
+     */
+    public record ToolSelection(ToolCallback[] toolCallbacks, boolean trimmed) {
+        
+        public static final ToolSelection FULL = new ToolSelection(null, false);
+    }
+    
+    private record Catalog(long version, Bm25ToolIndex index, long fullTokens) {
+    }
+}
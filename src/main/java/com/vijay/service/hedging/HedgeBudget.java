@@ -0,0 +1,41 @@
+package com.vijay.service.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket bounding hedges to a fraction of primary requests.
+ * Every primary request deposits ratio tokens, up to burst; a hedge spends one.
+ */
+final class HedgeBudget {
+    
+    private static final long SCALE = 1_000_000;
+    
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance = new AtomicLong();
+    
+    HedgeBudget(double ratio, double burst) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = Math.max(SCALE, Math.round(burst * SCALE));
+    }
+    
+    void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+    }
+    
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+    
+    double available() {
+        return (double) balance.get() / SCALE;
+    }
+}
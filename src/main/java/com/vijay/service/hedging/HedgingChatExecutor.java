@@ -0,0 +1,347 @@
+package com.vijay.service.hedging;
+
+import com.vijay.config.HedgingProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.service.limit.AdaptiveConcurrencyLimiter;
+import com.vijay.tool.ToolProgressListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hedged chat calls: when the primary provider/model has not answered within its recent
+ * latency quantile, the same prompt is sent to a configured backup and the first success wins.
+ *
+ * Both branches run on ChatClients without a memory advisor: the history is read once and only
+ * the winning turn is written back. The first branch to call a tool owns the request and the
+ * other branch is cancelled, so a tool with side effects never runs twice. Hedges are limited by
+ * a token bucket to budgetRatio of the primary requests. Each branch holds a concurrency permit of
+ * its own provider/model and reports its own latency and outcome to it; a branch cancelled because
+ * the other one won releases its permit without adjusting the limit.
+ */
+public class HedgingChatExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HedgingChatExecutor.class);
+    
+    private static final int PRIMARY = 0;
+    private static final int BACKUP = 1;
+    
+    private final HedgingProperties properties;
+    private final Map<String, ChatClient> statelessClients;
+    private final ChatMemory chatMemory;
+    private final Executor executor;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final LatencyTracker latencies;
+    private final HedgeBudget budget;
+    
+    private final Counter notNeeded;
+    private final Counter noEstimate;
+    private final Counter hedged;
+    private final Counter budgetExhausted;
+    private final Counter toolsInProgress;
+    private final Counter primaryWins;
+    private final Counter backupWins;
+    
+    /**
+     * Builds the prompt of one branch; the request carries that branch's provider and model
+     */
+    @FunctionalInterface
+    public interface PromptFactory {
+        ChatClient.ChatClientRequestSpec prompt(ChatClient client, ChatRequest request);
+    }
+    
+    /**
+     * @param backup whether the backup branch produced the answer
+     */
+    public record HedgedAnswer(String provider, String model, String text, boolean backup) {
+    }
+    
+    /**
+     * @param statelessClients ChatClients without a memory advisor, by provider name
+     */
+    public HedgingChatExecutor(HedgingProperties properties, Map<String, ChatClient> statelessClients,
+                               ChatMemory chatMemory, Executor executor, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.statelessClients = statelessClients;
+        this.chatMemory = chatMemory;
+        this.executor = executor;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.latencies = new LatencyTracker(properties.getWindow(), properties.getMinSamples(), properties.getQuantile());
+        this.budget = new HedgeBudget(properties.getBudgetRatio(), properties.getBudgetBurst());
+        
+        this.notNeeded = outcomeCounter(meterRegistry, "not_needed");
+        this.noEstimate = outcomeCounter(meterRegistry, "no_estimate");
+        this.hedged = outcomeCounter(meterRegistry, "hedged");
+        this.budgetExhausted = outcomeCounter(meterRegistry, "budget_exhausted");
+        this.toolsInProgress = outcomeCounter(meterRegistry, "tools_in_progress");
+        this.primaryWins = winnerCounter(meterRegistry, "primary");
+        this.backupWins = winnerCounter(meterRegistry, "backup");
+        Gauge.builder("chat.hedging.rate", this, HedgingChatExecutor::hedgeRate)
+                .description("Fraction of hedgeable requests that sent a backup request")
+                .register(meterRegistry);
+        Gauge.builder("chat.hedging.win.rate", this, HedgingChatExecutor::winRate)
+                .description("Fraction of hedged requests answered by the backup")
+                .register(meterRegistry);
+        Gauge.builder("chat.hedging.budget", budget, HedgeBudget::available)
+                .description("Hedges currently allowed by the budget")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Whether this request can be hedged: a backup is configured for its provider and it uses
+     * the configured credentials
+     */
+    public boolean applies(ChatRequest request, String defaultProvider) {
+        if (!properties.isEnabled() || hasText(request.getApiKey()) || hasText(request.getBaseUrl())) {
+            return false;
+        }
+        String provider = providerOf(request, defaultProvider);
+        HedgingProperties.Target target = properties.getTargets().get(provider);
+        return target != null && statelessClients.containsKey(provider)
+                && statelessClients.containsKey(target.getProvider());
+    }
+    
+    public HedgedAnswer call(ChatRequest request, String conversationId, String defaultProvider,
+                             PromptFactory promptFactory) {
+        String provider = providerOf(request, defaultProvider);
+        HedgingProperties.Target target = properties.getTargets().get(provider);
+        ChatRequest backupRequest = copyFor(request, target.getProvider(), target.getModel());
+        String latencyKey = provider + ":" + (request.getModel() != null ? request.getModel() : "");
+        
+        List<Message> history = chatMemory.get(conversationId);
+        // Rejected on the calling thread when the primary is at its limit, before anything is sent
+        AdaptiveConcurrencyLimiter.Permit primaryPermit = concurrencyLimiter.acquire(provider, request.getModel());
+        ToolGate gate = new ToolGate();
+        CompletionService<HedgedAnswer> branches = new ExecutorCompletionService<>(executor);
+        budget.deposit();
+        long delay = hedgeDelayNanos(latencyKey);
+        
+        long start = System.nanoTime();
+        gate.register(PRIMARY, branches.submit(
+                () -> branch(promptFactory, request, provider, history, gate, PRIMARY, primaryPermit)));
+        Future<HedgedAnswer> first;
+        try {
+            if (delay < 0) {
+                noEstimate.increment();
+                first = branches.take();
+            } else {
+                first = branches.poll(delay, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    if (startHedge(gate)) {
+                        logger.info("Primary {} slower than {} ms for conversation {}, hedging to {}",
+                                latencyKey, TimeUnit.NANOSECONDS.toMillis(delay), conversationId, target.getProvider());
+                        gate.register(BACKUP, branches.submit(() -> branch(promptFactory, backupRequest,
+                                target.getProvider(), history, gate, BACKUP,
+                                concurrencyLimiter.acquire(target.getProvider(), target.getModel()))));
+                    }
+                    first = branches.take();
+                } else {
+                    notNeeded.increment();
+                }
+            }
+            HedgedAnswer answer = firstSuccess(first, branches, gate.isHedged());
+            // When the backup wins, the primary's latency is at least the time elapsed so far; recording
+            // that lower bound keeps the slow tail in the window instead of only the fast primaries
+            latencies.record(latencyKey, System.nanoTime() - start);
+            if (gate.isHedged()) {
+                (answer.backup() ? backupWins : primaryWins).increment();
+            }
+            chatMemory.add(conversationId, List.of(new UserMessage(request.getMessage()),
+                    new AssistantMessage(answer.text())));
+            return answer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the chat response", e);
+        } finally {
+            gate.cancelAll();
+            // No-op unless the primary was cancelled before it started
+            primaryPermit.close();
+        }
+    }
+    
+    private boolean startHedge(ToolGate gate) {
+        if (gate.isClaimed()) {
+            // The primary is already executing tools; a second branch could repeat their side effects
+            toolsInProgress.increment();
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            budgetExhausted.increment();
+            return false;
+        }
+        hedged.increment();
+        return true;
+    }
+    
+    private HedgedAnswer branch(PromptFactory promptFactory, ChatRequest request, String provider,
+                                List<Message> history, ToolGate gate, int branch,
+                                AdaptiveConcurrencyLimiter.Permit permit) {
+        try {
+            String text = promptFactory.prompt(statelessClients.get(provider), request)
+                    .messages(history)
+                    .toolContext(Map.of(ToolProgressListener.CONTEXT_KEY, gate.listener(branch)))
+                    .call()
+                    .content();
+            permit.onSuccess();
+            return new HedgedAnswer(provider, request.getModel() != null ? request.getModel() : "", text,
+                    branch == BACKUP);
+        } catch (RuntimeException e) {
+            // A losing branch fails with an interrupt or the tool gate's CancellationException: not overload
+            permit.onFailure(e);
+            throw e;
+        }
+    }
+    
+    private static HedgedAnswer firstSuccess(Future<HedgedAnswer> first, CompletionService<HedgedAnswer> branches,
+                                             boolean hedged) throws InterruptedException {
+        try {
+            return first.get();
+        } catch (ExecutionException | CancellationException e) {
+            if (!hedged) {
+                throw unwrap(e);
+            }
+            logger.debug("Hedge branch failed, waiting for the other: {}", e.getMessage());
+        }
+        try {
+            return branches.take().get();
+        } catch (ExecutionException | CancellationException e) {
+            throw unwrap(e);
+        }
+    }
+    
+    /**
+     * Wait before hedging a call to this provider:model, or -1 while there are too few samples
+     */
+    long hedgeDelayNanos(String latencyKey) {
+        long quantile = latencies.quantileNanos(latencyKey);
+        if (quantile < 0) {
+            return -1;
+        }
+        return Math.max(properties.getMinDelay().toNanos(), Math.min(properties.getMaxDelay().toNanos(), quantile));
+    }
+    
+    private static RuntimeException unwrap(Exception e) {
+        if (e instanceof ExecutionException && e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException("Chat request failed", e instanceof ExecutionException ? e.getCause() : e);
+    }
+    
+    private static ChatRequest copyFor(ChatRequest request, String provider, String model) {
+        ChatRequest copy = new ChatRequest();
+        copy.setMessage(request.getMessage());
+        copy.setProvider(provider);
+        copy.setModel(model);
+        copy.setConversationId(request.getConversationId());
+        copy.setNoCache(request.isNoCache());
+        return copy;
+    }
+    
+    private static String providerOf(ChatRequest request, String defaultProvider) {
+        return hasText(request.getProvider()) ? request.getProvider().toLowerCase() : defaultProvider;
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+    
+    private double hedgeRate() {
+        double total = notNeeded.count() + hedged.count() + budgetExhausted.count() + toolsInProgress.count();
+        return total > 0 ? hedged.count() / total : 0;
+    }
+    
+    private double winRate() {
+        double decided = primaryWins.count() + backupWins.count();
+        return decided > 0 ? backupWins.count() / decided : 0;
+    }
+    
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("chat.hedging.requests")
+                .description("Hedgeable chat requests by what the hedging policy did")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
+    private static Counter winnerCounter(MeterRegistry meterRegistry, String winner) {
+        return Counter.builder("chat.hedging.wins")
+                .description("Hedged chat requests by the branch that answered first")
+                .tag("winner", winner)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Lets only one branch execute tools and cancels the other once it does
+     */
+    private static final class ToolGate {
+        
+        private final Future<?>[] futures = new Future<?>[2];
+        private int owner = -1;
+        
+        synchronized void register(int branch, Future<?> future) {
+            futures[branch] = future;
+            if (owner >= 0 && owner != branch) {
+                future.cancel(true);
+            }
+        }
+        
+        synchronized boolean claim(int branch) {
+            if (owner < 0) {
+                owner = branch;
+                Future<?> other = futures[1 - branch];
+                if (other != null) {
+                    other.cancel(true);
+                }
+            }
+            return owner == branch;
+        }
+        
+        synchronized boolean isClaimed() {
+            return owner >= 0;
+        }
+        
+        synchronized boolean isHedged() {
+            return futures[BACKUP] != null;
+        }
+        
+        synchronized void cancelAll() {
+            for (Future<?> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+        
+        ToolProgressListener listener(int branch) {
+            return new ToolProgressListener() {
+                @Override
+                public void onToolCall(String toolName, String toolInput) {
+                    if (!claim(branch)) {
+                        throw new CancellationException("Other hedge branch owns tool execution");
+                    }
+                }
+                
+                @Override
+                public void onToolResult(String toolName, String toolResult) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.vijay.service.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sliding window of recent latencies per key, with an exact quantile over the window
+ */
+final class LatencyTracker {
+    
+    private final int window;
+    private final int minSamples;
+    private final double quantile;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    
+    LatencyTracker(int window, int minSamples, double quantile) {
+        this.window = Math.max(1, window);
+        this.minSamples = Math.max(1, Math.min(minSamples, this.window));
+        this.quantile = quantile;
+    }
+    
+    void record(String key, long nanos) {
+        windows.computeIfAbsent(key, k -> new Window(window)).record(nanos);
+    }
+    
+    /**
+     * Quantile of the recent latencies, or -1 while fewer than minSamples were seen
+     */
+    long quantileNanos(String key) {
+        Window samples = windows.get(key);
+        return samples == null ? -1 : samples.quantile(minSamples, quantile);
+    }
+    
+    private static final class Window {
+        
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] samples;
+        private int next;
+        private int count;
+        private long cached = -1;
+        private boolean stale;
+        
+        Window(int size) {
+            this.samples = new long[size];
+        }
+        
+        void record(long nanos) {
+            lock.lock();
+            try {
+                samples[next] = nanos;
+                next = (next + 1) % samples.length;
+                count = Math.min(count + 1, samples.length);
+                stale = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        long quantile(int minSamples, double quantile) {
+            lock.lock();
+            try {
+                if (count < minSamples) {
+                    return -1;
+                }
+                if (stale) {
+                    long[] sorted = Arrays.copyOf(samples, count);
+                    Arrays.sort(sorted);
+                    int rank = (int) Math.ceil(quantile * count) - 1;
+                    cached = sorted[Math.max(0, Math.min(count - 1, rank))];
+                    stale = false;
+                }
+                return cached;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.vijay.service.impl;
 
+import com.vijay.client.DynamicChatClientCache;
+import com.vijay.config.DynamicClientProperties;
 import com.vijay.service.AIClientService;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -19,37 +21,40 @@ public class AIClientServiceImpl implements AIClientService {
     
     private final ChatClient geminiClient;
     private final ChatClient ollamaClient;
+    private final DynamicChatClientCache dynamicClients;
+    private final DynamicClientProperties dynamicClientProperties;
     private final Set<String> supportedProviders = Set.of("gemini", "ollama");
     private final String defaultProvider = "gemini";
     
     public AIClientServiceImpl(@Qualifier("geminiClient") ChatClient geminiClient,
-                              @Qualifier("ollamaClient") ChatClient ollamaClient) {
+                              @Qualifier("ollamaClient") ChatClient ollamaClient,
+                              DynamicChatClientCache dynamicClients,
+                              DynamicClientProperties dynamicClientProperties) {
         this.geminiClient = geminiClient;
         this.ollamaClient = ollamaClient;
+        this.dynamicClients = dynamicClients;
+        this.dynamicClientProperties = dynamicClientProperties;
     }
     
     @Override
     public ChatClient getChatClient(String provider, String model, String apiKey, String baseUrl) {
         String normalizedProvider = (provider == null) ? defaultProvider : provider.toLowerCase();
         
-        logger.info("Getting ChatClient for provider: {}, model: {}, hasCustomApiKey: {}, hasCustomBaseUrl: {}", 
-                   normalizedProvider, model, apiKey != null && !apiKey.isBlank(), baseUrl != null && !baseUrl.isBlank());
+        boolean hasApiKey = apiKey != null && !apiKey.isBlank();
+        boolean hasBaseUrl = baseUrl != null && !baseUrl.isBlank();
+        logger.debug("Getting ChatClient for provider: {}, model: {}, hasCustomApiKey: {}, hasCustomBaseUrl: {}", 
+                   normalizedProvider, model, hasApiKey, hasBaseUrl);
         
         switch (normalizedProvider) {
             case "ollama":
-                logger.info("Using Ollama client");
                 return ollamaClient;
                 
             case "gemini":
-                if (apiKey != null && !apiKey.isBlank()) {
-                    logger.info("Dynamically building OpenAI client with custom API key and base URL: {}", baseUrl);
-                    // For now, we'll use the default gemini client
-                    // TODO: Implement dynamic client creation with custom API key and base URL
-                    return geminiClient;
-                } else {
-                    logger.info("Using default Gemini client");
-                    return geminiClient;
+                if (dynamicClientProperties.isEnabled() && (hasApiKey || hasBaseUrl)) {
+                    // Built once per (provider, baseUrl, apiKey) and reused until evicted
+                    return dynamicClients.getClient(normalizedProvider, baseUrl, apiKey);
                 }
+                return geminiClient;
                 
             default:
                 logger.warn("Unsupported provider '{}', falling back to default provider '{}'", 
@@ -58,6 +63,13 @@ public class AIClientServiceImpl implements AIClientService {
         }
     }
     
+    @Override
+    public void validateOverrides(String apiKey, String baseUrl) {
+        if (dynamicClientProperties.isEnabled()) {
+            dynamicClients.checkOverrides(baseUrl, apiKey);
+        }
+    }
+    
     @Override
     public boolean isProviderSupported(String provider) {
         return provider != null && supportedProviders.contains(provider.toLowerCase());
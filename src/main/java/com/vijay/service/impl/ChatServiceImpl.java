@@ -1,19 +1,46 @@
 package com.vijay.service.impl;
 
 import com.vijay.exception.AIProviderException;
+import com.vijay.config.ConversationOrderingProperties;
+import com.vijay.config.SchedulingProperties.Lane;
 import com.vijay.exception.ChatServiceException;
+import com.vijay.exception.ConversationBusyException;
+import com.vijay.exception.LaneSaturatedException;
+import com.vijay.exception.ProviderOverloadedException;
 import com.vijay.exception.ValidationException;
 import com.vijay.model.ChatRequest;
 import com.vijay.model.ChatResponse;
+import com.vijay.model.ChatStreamEvent;
 import com.vijay.service.AIClientService;
 import com.vijay.service.ChatService;
 import com.vijay.service.MetricsService;
+import com.vijay.service.ToolSelectionService;
+import com.vijay.service.hedging.HedgingChatExecutor;
+import com.vijay.service.limit.AdaptiveConcurrencyLimiter;
+import com.vijay.service.interceptor.ChatInterceptor;
+import com.vijay.service.interceptor.ChatInvocation;
+import com.vijay.service.interceptor.ChatRequestKeys;
+import com.vijay.service.interceptor.ConversationLocks;
+import com.vijay.service.scheduling.WeightedFairScheduler;
+import com.vijay.tool.ToolProgressListener;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of ChatService for processing chat requests
@@ -22,15 +49,40 @@ import org.slf4j.LoggerFactory;
 public class ChatServiceImpl implements ChatService {
     
     private static final Logger logger = LoggerFactory.getLogger(ChatServiceImpl.class);
+    private static final Sinks.EmitFailureHandler TOOL_EVENT_RETRY =
+            Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
     
     private final AIClientService aiClientService;
     private final String systemPrompt;
     private final MetricsService metricsService;
+    private final List<ChatInterceptor> interceptors;
+    private final ToolCallbackProvider toolCallbackProvider;
+    private final ToolSelectionService toolSelectionService;
+    private final ConversationOrderingProperties orderingProperties;
+    private final ConversationLocks conversationLocks;
+    private final HedgingChatExecutor hedgingChatExecutor;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final WeightedFairScheduler scheduler;
     
-    public ChatServiceImpl(AIClientService aiClientService, String systemPrompt, MetricsService metricsService) {
+    public ChatServiceImpl(AIClientService aiClientService, String systemPrompt, MetricsService metricsService,
+                           List<ChatInterceptor> interceptors, ToolCallbackProvider toolCallbackProvider,
+                           ToolSelectionService toolSelectionService,
+                           ConversationOrderingProperties orderingProperties, ConversationLocks conversationLocks,
+                           HedgingChatExecutor hedgingChatExecutor, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           WeightedFairScheduler scheduler) {
         this.aiClientService = aiClientService;
+        this.scheduler = scheduler;
+        this.hedgingChatExecutor = hedgingChatExecutor;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.orderingProperties = orderingProperties;
+        this.conversationLocks = conversationLocks;
+        this.toolCallbackProvider = toolCallbackProvider;
+        this.toolSelectionService = toolSelectionService;
         this.systemPrompt = systemPrompt;
         this.metricsService = metricsService;
+        this.interceptors = interceptors.stream()
+                .sorted(Comparator.comparingInt(ChatInterceptor::getOrder))
+                .toList();
     }
     
     @Override
@@ -47,41 +99,16 @@ public class ChatServiceImpl implements ChatService {
         validateChatRequest(request);
         
         try {
-            // Get the appropriate ChatClient
-            ChatClient client = aiClientService.getChatClient(
-                request.getProvider(), 
-                request.getModel(), 
-                request.getApiKey(), 
-                request.getBaseUrl()
-            );
-            
-            // Build the prompt with system message and user input
-            var promptBuilder = client.prompt()
-                    .system(systemPrompt)
-                    .user(request.getMessage())
-                    .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, conversationId));
-            
-            // Apply model-specific options if needed
-            if (request.getModel() != null && !request.getModel().isBlank() && 
-                !"ollama".equals(request.getProvider())) {
-                promptBuilder = promptBuilder.options(OpenAiChatOptions.builder()
-                        .model(request.getModel())
-                        .build());
-            }
-            
-            // Execute the chat request
-            String answer = promptBuilder.call().content();
+            // Run the interceptor chain around the provider call
+            ChatResponse response = proceed(request, conversationId, 0,
+                    () -> callProvider(request, conversationId));
             logger.info("Successfully generated response for conversation: {}", conversationId);
             
             // Record success metrics
             metricsService.recordChatSuccess(provider, model);
             metricsService.recordChatResponseTime(timerSample, provider, model);
             
-            return new ChatResponse(
-                request.getProvider() != null ? request.getProvider() : aiClientService.getDefaultProvider(),
-                request.getModel() != null ? request.getModel() : "",
-                answer
-            );
+            return response;
             
         } catch (Exception e) {
             logger.error("Error processing chat request for conversation {}: {}", conversationId, e.getMessage(), e);
@@ -92,7 +119,13 @@ public class ChatServiceImpl implements ChatService {
             metricsService.recordChatResponseTime(timerSample, provider, model);
             
             // Determine the type of exception and throw appropriate custom exception
-            if (e.getMessage() != null && e.getMessage().contains("provider")) {
+            if (e instanceof ConversationBusyException busy) {
+                throw busy;
+            } else if (e instanceof ProviderOverloadedException overloaded) {
+                throw overloaded;
+            } else if (e instanceof LaneSaturatedException saturated) {
+                throw saturated;
+            } else if (e.getMessage() != null && e.getMessage().contains("provider")) {
                 throw new AIProviderException(
                     request.getProvider() != null ? request.getProvider() : "unknown",
                     "Failed to process request with AI provider: " + e.getMessage(),
@@ -107,6 +140,195 @@ public class ChatServiceImpl implements ChatService {
         }
     }
     
+    private ChatResponse proceed(ChatRequest request, String conversationId, int index, ChatInvocation provider) {
+        if (index == interceptors.size()) {
+            return provider.proceed();
+        }
+        return interceptors.get(index).intercept(request, conversationId,
+                () -> proceed(request, conversationId, index + 1, provider));
+    }
+    
+    private ChatResponse callProvider(ChatRequest request, String conversationId) {
+        if (hedgingChatExecutor.applies(request, aiClientService.getDefaultProvider())) {
+            // Backup provider/model if the primary is slower than usual; the winner's turn is stored once.
+            // Each branch holds a concurrency permit of its own provider/model.
+            HedgingChatExecutor.HedgedAnswer answer = hedgingChatExecutor.call(request, conversationId,
+                    aiClientService.getDefaultProvider(), (client, branch) -> buildPrompt(client, branch, conversationId));
+            return new ChatResponse(answer.provider(), answer.model(), answer.text());
+        }
+        
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(
+                ChatRequestKeys.backendOf(request, aiClientService.getDefaultProvider()), request.getModel());
+        try {
+            ChatResponse response = callProviderWithinLimit(request, conversationId);
+            permit.onSuccess();
+            return response;
+        } catch (RuntimeException e) {
+            permit.onFailure(e);
+            throw e;
+        }
+    }
+    
+    private ChatResponse callProviderWithinLimit(ChatRequest request, String conversationId) {
+        // Get the appropriate ChatClient
+        ChatClient client = aiClientService.getChatClient(
+            request.getProvider(), 
+            request.getModel(), 
+            request.getApiKey(), 
+            request.getBaseUrl()
+        );
+        
+        // Execute the chat request
+        String answer = buildPrompt(client, request, conversationId).call().content();
+        
+        return new ChatResponse(
+            request.getProvider() != null ? request.getProvider() : aiClientService.getDefaultProvider(),
+            request.getModel() != null ? request.getModel() : "",
+            answer
+        );
+    }
+    
+    @Override
+    public Flux<ChatStreamEvent> streamChatRequest(ChatRequest request, String conversationId) {
+        logger.info("Processing streaming chat request for conversation: {}", conversationId);
+        
+        String provider = request.getProvider() != null ? request.getProvider() : aiClientService.getDefaultProvider();
+        String model = request.getModel() != null ? request.getModel() : "";
+        
+        // Validate eagerly so bad requests fail before the SSE response is committed
+        validateChatRequest(request);
+        
+        if (!orderingProperties.isEnabled()) {
+            return scheduled(request, conversationId, provider, model);
+        }
+        // Hold the conversation until the stream completes, errors or is cancelled
+        boolean wait = orderingProperties.getPolicy() != ConversationOrderingProperties.Policy.REJECT;
+        return Flux.using(() -> conversationLocks.acquire(conversationId, wait),
+                        handle -> scheduled(request, conversationId, provider, model),
+                        ConversationLocks.Handle::close)
+                .onErrorResume(ConversationBusyException.class,
+                        e -> Flux.just(ChatStreamEvent.error(e.getMessage())));
+    }
+    
+    /**
+     * Stream within a scheduler slot, held until the stream completes, errors or is cancelled
+     */
+    private Flux<ChatStreamEvent> scheduled(ChatRequest request, String conversationId, String provider, String model) {
+        Lane lane = Lane.of(request.getLane(), Lane.INTERACTIVE);
+        return Flux.using(() -> scheduler.acquire(lane, ChatRequestKeys.tenantOf(request)),
+                        slot -> stream(request, conversationId, provider, model),
+                        WeightedFairScheduler.Slot::close)
+                .onErrorResume(LaneSaturatedException.class, e -> {
+                    logger.warn("Rejected streaming request for conversation {}: {}", conversationId, e.getMessage());
+                    return Flux.just(ChatStreamEvent.error(e.getMessage()));
+                });
+    }
+    
+    private Flux<ChatStreamEvent> stream(ChatRequest request, String conversationId, String provider, String model) {
+        return Flux.defer(() -> {
+            metricsService.recordChatRequest(provider, model);
+            var timerSample = metricsService.startChatTimer();
+            long startNanos = System.nanoTime();
+            AtomicBoolean firstToken = new AtomicBoolean(true);
+            
+            AdaptiveConcurrencyLimiter.Permit permit;
+            try {
+                permit = concurrencyLimiter.acquire(
+                        ChatRequestKeys.backendOf(request, aiClientService.getDefaultProvider()), request.getModel());
+            } catch (ProviderOverloadedException e) {
+                logger.warn("Rejected streaming request for conversation {}: {}", conversationId, e.getMessage());
+                metricsService.recordChatError(provider, model, e.getClass().getSimpleName());
+                metricsService.recordChatResponseTime(timerSample, provider, model);
+                return Flux.just(ChatStreamEvent.error(e.getMessage()));
+            }
+            // Time to first token is the congestion signal for streams; total time depends on answer length
+            AtomicLong firstTokenNanos = new AtomicLong(-1);
+            
+            // Tool callbacks run on the model's worker threads, so progress is bridged through a sink
+            Sinks.Many<ChatStreamEvent> toolEvents = Sinks.many().unicast().onBackpressureBuffer();
+            ToolProgressListener progressListener = new ToolProgressListener() {
+                @Override
+                public void onToolCall(String toolName, String toolInput) {
+                    toolEvents.emitNext(ChatStreamEvent.toolCall(toolName, toolInput), TOOL_EVENT_RETRY);
+                }
+                
+                @Override
+                public void onToolResult(String toolName, String toolResult) {
+                    toolEvents.emitNext(ChatStreamEvent.toolResult(toolName, toolResult), TOOL_EVENT_RETRY);
+                }
+            };
+            
+            ChatClient client = aiClientService.getChatClient(
+                request.getProvider(),
+                request.getModel(),
+                request.getApiKey(),
+                request.getBaseUrl()
+            );
+            
+            Flux<ChatStreamEvent> tokens = buildPrompt(client, request, conversationId)
+                    .toolContext(Map.of(ToolProgressListener.CONTEXT_KEY, progressListener))
+                    .stream()
+                    .content()
+                    .filter(StringUtils::hasLength)
+                    .doOnNext(token -> {
+                        if (firstToken.compareAndSet(true, false)) {
+                            firstTokenNanos.set(System.nanoTime() - startNanos);
+                            metricsService.recordTimeToFirstToken(provider, model,
+                                    Duration.ofNanos(firstTokenNanos.get()));
+                        }
+                    })
+                    .map(ChatStreamEvent::token)
+                    .doOnComplete(() -> permit.onSuccess(firstTokenNanos.get() >= 0
+                            ? firstTokenNanos.get() : System.nanoTime() - startNanos))
+                    .doOnError(permit::onFailure)
+                    .doFinally(signal -> {
+                        // Cancelled streams release the slot without adjusting the limit
+                        permit.close();
+                        toolEvents.tryEmitComplete();
+                    });
+            
+            return Flux.merge(tokens, toolEvents.asFlux())
+                    .concatWith(Flux.just(ChatStreamEvent.done(provider, model)))
+                    .doOnComplete(() -> {
+                        logger.info("Successfully streamed response for conversation: {}", conversationId);
+                        metricsService.recordChatSuccess(provider, model);
+                    })
+                    .onErrorResume(e -> {
+                        logger.error("Error streaming chat request for conversation {}: {}", conversationId, e.getMessage(), e);
+                        metricsService.recordChatError(provider, model, e.getClass().getSimpleName());
+                        return Flux.just(ChatStreamEvent.error("Failed to process chat request: " + e.getMessage()));
+                    })
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            logger.info("Client disconnected from stream for conversation: {}", conversationId);
+                            metricsService.recordChatStreamCancelled(provider, model);
+                        }
+                        metricsService.recordChatResponseTime(timerSample, provider, model);
+                    });
+        });
+    }
+    
+    /**
+     * Build the prompt with system message, user input, the tools relevant to it and conversation memory
+     */
+    private ChatClient.ChatClientRequestSpec buildPrompt(ChatClient client, ChatRequest request, String conversationId) {
+        ToolSelectionService.ToolSelection selection = toolSelectionService.select(request.getMessage());
+        var promptBuilder = client.prompt()
+                .system(systemPrompt)
+                .user(request.getMessage())
+                .toolCallbacks(selection.trimmed() ? selection.toolCallbacks() : toolCallbackProvider.getToolCallbacks())
+                .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, conversationId));
+        
+        // Apply model-specific options if needed
+        if (request.getModel() != null && !request.getModel().isBlank() && 
+            !"ollama".equals(request.getProvider())) {
+            promptBuilder = promptBuilder.options(OpenAiChatOptions.builder()
+                    .model(request.getModel())
+                    .build());
+        }
+        return promptBuilder;
+    }
+    
     private void validateChatRequest(ChatRequest request) {
         if (request == null) {
             throw new ValidationException("Chat request cannot be null");
@@ -125,6 +347,8 @@ public class ChatServiceImpl implements ChatService {
                 String.format("Unsupported provider '%s'. Supported providers: %s", 
                     request.getProvider(), String.join(", ", aiClientService.getSupportedProviders())));
         }
+        
+        aiClientService.validateOverrides(request.getApiKey(), request.getBaseUrl());
     }
     
     @Override
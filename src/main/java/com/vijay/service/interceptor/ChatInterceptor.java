@@ -0,0 +1,22 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import org.springframework.core.Ordered;
+
+/**
+ * Interceptor applied by ChatServiceImpl around the upstream provider call.
+ * Interceptors run in {@link Ordered} order; lower values run first (outermost).
+ */
+public interface ChatInterceptor extends Ordered {
+    
+    /**
+     * Intercept a chat request
+     * 
+     * @param request the validated chat request
+     * @param conversationId the conversation ID for maintaining context
+     * @param next the rest of the chain, ending with the provider call
+     * @return the chat response
+     */
+    ChatResponse intercept(ChatRequest request, String conversationId, ChatInvocation next);
+}
@@ -0,0 +1,12 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.model.ChatResponse;
+
+/**
+ * Remaining part of the chat interceptor chain
+ */
+@FunctionalInterface
+public interface ChatInvocation {
+    
+    ChatResponse proceed();
+}
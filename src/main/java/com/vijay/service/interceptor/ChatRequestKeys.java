@@ -0,0 +1,95 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.model.ChatRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for building stable keys from chat requests
+ */
+public final class ChatRequestKeys {
+    
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    private ChatRequestKeys() {
+    }
+    
+    /**
+     * Normalize a user message so that whitespace-only differences map to the same key
+     */
+    public static String normalizeMessage(String message) {
+        return message == null ? "" : WHITESPACE.matcher(message.strip()).replaceAll(" ");
+    }
+    
+    /**
+     * Key identifying everything that influences the upstream answer except conversation memory
+     */
+    public static String requestKey(ChatRequest request, String defaultProvider, String systemPrompt) {
+        return requestKey(request, defaultProvider, systemPrompt, "");
+    }
+    
+    /**
+     * Key identifying everything that influences the upstream answer, including the tool set version
+     */
+    public static String requestKey(ChatRequest request, String defaultProvider, String systemPrompt,
+                                    String toolSetVersion) {
+        return sha256Hex(String.join("\u0000",
+                providerOf(request, defaultProvider),
+                toolSetVersion,
+                nullToEmpty(request.getModel()),
+                nullToEmpty(request.getBaseUrl()),
+                sha256Hex(nullToEmpty(request.getApiKey())),
+                sha256Hex(nullToEmpty(systemPrompt)),
+                normalizeMessage(request.getMessage())));
+    }
+    
+    public static String providerOf(ChatRequest request, String defaultProvider) {
+        return request.getProvider() != null ? request.getProvider().toLowerCase() : defaultProvider;
+    }
+    
+    /**
+     * Backend a request is sent to: its provider, "custom" when it brings its own baseUrl, or
+     * "caller" when it brings its own API key, so callers' own credentials and endpoints do not
+     * share limits or failure counts with the configured ones
+     */
+    public static String backendOf(ChatRequest request, String defaultProvider) {
+        if (request.getBaseUrl() != null && !request.getBaseUrl().isBlank()) {
+            return "custom";
+        }
+        if (request.getApiKey() != null && !request.getApiKey().isBlank()) {
+            return "caller";
+        }
+        return providerOf(request, defaultProvider);
+    }
+    
+    /**
+     * Tenant a request is scheduled under: its tenant, else a digest of its API key, else "anonymous".
+     * The controllers only leave a tenant on the request when it came from the tenant header or a cluster peer.
+     */
+    public static String tenantOf(ChatRequest request) {
+        if (request.getTenant() != null && !request.getTenant().isBlank()) {
+            return request.getTenant().strip();
+        }
+        if (request.getApiKey() != null && !request.getApiKey().isBlank()) {
+            return "key:" + sha256Hex(request.getApiKey()).substring(0, 16);
+        }
+        return "anonymous";
+    }
+    
+    public static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,152 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.config.ResponseCacheProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.service.AIClientService;
+import com.vijay.service.CachedToolService;
+import com.vijay.service.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exact-match response cache for stateless chat completions.
+ *
+ * Keys are "provider:hash" where the hash covers provider, model, credentials, system prompt,
+ * tool set version and the normalized message. The provider prefix lets CacheConfig apply a
+ * per-provider TTL. Only requests on conversations without history are served from the cache.
+ */
+@Component
+public class ChatResponseCache implements ChatInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatResponseCache.class);
+
+    public static final String CACHE_NAME = "chatResponses";
+    public static final int ORDER = 50;
+
+    private final ResponseCacheProperties properties;
+    private final CacheManager cacheManager;
+    private final CachedToolService cachedToolService;
+    private final AIClientService aiClientService;
+    private final MetricsService metricsService;
+    private final ChatMemory chatMemory;
+    private final String systemPrompt;
+
+    // Keys written by this node in insertion order, used to bound the cache size
+    private final LinkedHashSet<String> trackedKeys = new LinkedHashSet<>();
+    private final ReentrantLock trackedKeysLock = new ReentrantLock();
+
+    public ChatResponseCache(ResponseCacheProperties properties,
+                             CacheManager cacheManager,
+                             CachedToolService cachedToolService,
+                             AIClientService aiClientService,
+                             MetricsService metricsService,
+                             ChatMemory chatMemory,
+                             String systemPrompt) {
+        this.properties = properties;
+        this.cacheManager = cacheManager;
+        this.cachedToolService = cachedToolService;
+        this.aiClientService = aiClientService;
+        this.metricsService = metricsService;
+        this.chatMemory = chatMemory;
+        this.systemPrompt = systemPrompt;
+    }
+
+    @Override
+    public ChatResponse intercept(ChatRequest request, String conversationId, ChatInvocation next) {
+        if (!properties.isEnabled() || request.isNoCache() || !chatMemory.get(conversationId).isEmpty()) {
+            return next.proceed();
+        }
+
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return next.proceed();
+        }
+
+        String key = cacheKey(request);
+        ChatResponse cached = getQuietly(cache, key);
+        if (cached != null) {
+            metricsService.recordCacheHit(CACHE_NAME);
+            logger.info("Serving cached response for conversation: {}", conversationId);
+            chatMemory.add(conversationId, List.of(
+                    new UserMessage(request.getMessage()),
+                    new AssistantMessage(cached.getAnswer())));
+            return cached;
+        }
+
+        metricsService.recordCacheMiss(CACHE_NAME);
+        ChatResponse response = next.proceed();
+        if (response != null && response.getAnswer() != null) {
+            putQuietly(cache, key, response);
+        }
+        return response;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Extract the provider from a cache key built by this class
+     */
+    public static String providerOf(String key) {
+        int separator = key.indexOf(':');
+        return separator > 0 ? key.substring(0, separator) : "";
+    }
+
+    private String cacheKey(ChatRequest request) {
+        String provider = ChatRequestKeys.providerOf(request, aiClientService.getDefaultProvider());
+        return provider + ":" + ChatRequestKeys.requestKey(request, aiClientService.getDefaultProvider(),
+                systemPrompt, cachedToolService.getToolSetVersion());
+    }
+
+    private ChatResponse getQuietly(Cache cache, String key) {
+        try {
+            return cache.get(key, ChatResponse.class);
+        } catch (RuntimeException e) {
+            // A cache outage must never fail the chat request
+            logger.warn("Response cache lookup failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putQuietly(Cache cache, String key, ChatResponse response) {
+        try {
+            cache.put(key, response);
+            trackAndEvict(cache, key);
+        } catch (RuntimeException e) {
+            logger.warn("Response cache store failed: {}", e.getMessage());
+        }
+    }
+
+    private void trackAndEvict(Cache cache, String key) {
+        String eldest = null;
+        trackedKeysLock.lock();
+        try {
+            trackedKeys.remove(key);
+            trackedKeys.add(key);
+            if (trackedKeys.size() > properties.getMaxEntries()) {
+                Iterator<String> iterator = trackedKeys.iterator();
+                eldest = iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            trackedKeysLock.unlock();
+        }
+        if (eldest != null) {
+            cache.evict(eldest);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.config.CoalescingProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.service.AIClientService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight coalescing of identical in-flight chat requests.
+ *
+ * Concurrent requests with the same provider, model, credentials, system prompt and normalized
+ * message share one upstream call. Only requests whose conversation has no history are merged,
+ * because their answer cannot depend on per-conversation memory; followers still get the turn
+ * written into their own conversation so later turns see it.
+ */
+@Component
+public class CoalescingChatInterceptor implements ChatInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingChatInterceptor.class);
+
+    public static final int ORDER = 100;
+
+    private final CoalescingProperties properties;
+    private final AIClientService aiClientService;
+    private final ChatMemory chatMemory;
+    private final String systemPrompt;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaderCounter;
+    private final Counter followerCounter;
+    private final Counter bypassCounter;
+
+    public CoalescingChatInterceptor(CoalescingProperties properties,
+                                     AIClientService aiClientService,
+                                     ChatMemory chatMemory,
+                                     String systemPrompt,
+                                     MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.aiClientService = aiClientService;
+        this.chatMemory = chatMemory;
+        this.systemPrompt = systemPrompt;
+
+        this.leaderCounter = Counter.builder("chat.coalescing.requests")
+                .description("Chat requests seen by the coalescing layer")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followerCounter = Counter.builder("chat.coalescing.requests")
+                .description("Chat requests seen by the coalescing layer")
+                .tag("role", "follower")
+                .register(meterRegistry);
+        this.bypassCounter = Counter.builder("chat.coalescing.requests")
+                .description("Chat requests seen by the coalescing layer")
+                .tag("role", "bypass")
+                .register(meterRegistry);
+        Gauge.builder("chat.coalescing.ratio", this, CoalescingChatInterceptor::coalesceRatio)
+                .description("Fraction of coalescable requests served by another request's upstream call")
+                .register(meterRegistry);
+        Gauge.builder("chat.coalescing.in_flight", inFlight, ConcurrentHashMap::size)
+                .description("Distinct upstream calls currently shared by the coalescing layer")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatResponse intercept(ChatRequest request, String conversationId, ChatInvocation next) {
+        if (!properties.isEnabled()) {
+            return next.proceed();
+        }
+
+        if (!chatMemory.get(conversationId).isEmpty()) {
+            // Answer depends on this conversation's history - never share it
+            bypassCounter.increment();
+            return next.proceed();
+        }
+
+        String key = ChatRequestKeys.requestKey(request, aiClientService.getDefaultProvider(), systemPrompt);
+        InFlight mine = new InFlight(new CompletableFuture<>(), conversationId);
+        InFlight existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing == null) {
+            leaderCounter.increment();
+            try {
+                ChatResponse response = next.proceed();
+                mine.result().complete(response);
+                return response;
+            } catch (RuntimeException e) {
+                mine.result().completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+
+        followerCounter.increment();
+        logger.info("Coalescing request for conversation {} onto in-flight call of conversation {}",
+                conversationId, existing.conversationId());
+
+        ChatResponse shared = await(existing.result());
+        if (!conversationId.equals(existing.conversationId())) {
+            chatMemory.add(conversationId, List.of(
+                    new UserMessage(request.getMessage()),
+                    new AssistantMessage(shared.getAnswer())));
+        }
+        return new ChatResponse(shared.getProvider(), shared.getModel(), shared.getAnswer());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private static ChatResponse await(CompletableFuture<ChatResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private double coalesceRatio() {
+        double followers = followerCounter.count();
+        double total = leaderCounter.count() + followers;
+        return total > 0 ? followers / total : 0;
+    }
+
+    private record InFlight(CompletableFuture<ChatResponse> result, String conversationId) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.config.ConversationOrderingProperties;
+import com.vijay.exception.ConversationBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One-at-a-time access per conversation.
+ *
+ * Each active conversation gets its own fair single-permit semaphore, created on first use and
+ * dropped when the last holder or waiter leaves, so different conversations never contend. A
+ * semaphore (not a lock) can be released from another thread, which the streaming path needs, and
+ * parks virtual threads without pinning.
+ */
+@Component
+public class ConversationLocks {
+    
+    private final ConversationOrderingProperties properties;
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+    
+    private final Counter immediate;
+    private final Counter waited;
+    private final Counter rejected;
+    private final Timer waitTimer;
+    
+    public ConversationLocks(ConversationOrderingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.immediate = outcomeCounter(meterRegistry, "immediate");
+        this.waited = outcomeCounter(meterRegistry, "waited");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+        this.waitTimer = Timer.builder("chat.conversation.ordering.wait")
+                .description("Time a request waited for an earlier request on the same conversation")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("chat.conversation.ordering.active", slots, ConcurrentHashMap::size)
+                .description("Conversations with a request in progress")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Wait for the conversation (or fail fast under REJECT); the returned handle must be released once
+     *
+     * @throws ConversationBusyException when rejected or the wait exceeds maxWait
+     */
+    public Handle acquire(String conversationId, boolean wait) {
+        Slot slot = slots.compute(conversationId, (id, current) -> {
+            Slot target = current != null ? current : new Slot();
+            target.users++;
+            return target;
+        });
+        
+        try {
+            if (slot.permit.tryAcquire()) {
+                immediate.increment();
+                return new Handle(conversationId, slot);
+            }
+            if (!wait) {
+                rejected.increment();
+                throw new ConversationBusyException(conversationId,
+                        "Another request for this conversation is still in progress");
+            }
+            
+            long start = System.nanoTime();
+            boolean acquired = slot.permit.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejected.increment();
+                throw new ConversationBusyException(conversationId,
+                        "Timed out waiting for the previous request of this conversation");
+            }
+            waited.increment();
+            return new Handle(conversationId, slot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            leave(conversationId, slot);
+            throw new ConversationBusyException(conversationId, "Interrupted while waiting for the conversation");
+        } catch (RuntimeException e) {
+            leave(conversationId, slot);
+            throw e;
+        }
+    }
+    
+    int activeConversations() {
+        return slots.size();
+    }
+    
+    private void leave(String conversationId, Slot slot) {
+        slots.computeIfPresent(conversationId, (id, current) -> {
+            if (current != slot) {
+                return current;
+            }
+            return --current.users == 0 ? null : current;
+        });
+    }
+    
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("chat.conversation.ordering.requests")
+                .description("Requests by how they got access to their conversation")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
+    private static final class Slot {
+        
+        private final Semaphore permit = new Semaphore(1, true);
+        // Holders and waiters; guarded by the map's bin lock
+        private int users;
+    }
+    
+    /**
+     * Exclusive access to one conversation
+     */
+    public final class Handle implements AutoCloseable {
+        
+        private final String conversationId;
+        private final Slot slot;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private Handle(String conversationId, Slot slot) {
+            this.conversationId = conversationId;
+            this.slot = slot;
+        }
+        
+        @Override
+        public void close() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            slot.permit.release();
+            leave(conversationId, slot);
+        }
+    }
+}
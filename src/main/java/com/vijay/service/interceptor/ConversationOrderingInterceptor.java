@@ -0,0 +1,101 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.config.ConversationOrderingProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.service.AIClientService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs requests of one conversation one at a time, so memory reads and writes of consecutive turns
+ * never interleave. Outermost interceptor: the response cache and coalescing layers read and write
+ * conversation memory too. Requests for different conversations are not serialized.
+ */
+@Component
+public class ConversationOrderingInterceptor implements ChatInterceptor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConversationOrderingInterceptor.class);
+    
+    public static final int ORDER = 10;
+    
+    private final ConversationOrderingProperties properties;
+    private final ConversationLocks conversationLocks;
+    private final AIClientService aiClientService;
+    private final String systemPrompt;
+    private final ConcurrentHashMap<String, CompletableFuture<ChatResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+    
+    public ConversationOrderingInterceptor(ConversationOrderingProperties properties,
+                                           ConversationLocks conversationLocks,
+                                           AIClientService aiClientService,
+                                           String systemPrompt,
+                                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.conversationLocks = conversationLocks;
+        this.aiClientService = aiClientService;
+        this.systemPrompt = systemPrompt;
+        this.coalesced = Counter.builder("chat.conversation.ordering.requests")
+                .description("Requests by how they got access to their conversation")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public ChatResponse intercept(ChatRequest request, String conversationId, ChatInvocation next) {
+        if (!properties.isEnabled()) {
+            return next.proceed();
+        }
+        if (properties.getPolicy() != ConversationOrderingProperties.Policy.COALESCE) {
+            boolean wait = properties.getPolicy() == ConversationOrderingProperties.Policy.QUEUE;
+            try (ConversationLocks.Handle ignored = conversationLocks.acquire(conversationId, wait)) {
+                return next.proceed();
+            }
+        }
+        
+        // A resubmitted turn (double click, client retry) shares the answer instead of running twice
+        String key = conversationId + ":"
+                + ChatRequestKeys.requestKey(request, aiClientService.getDefaultProvider(), systemPrompt);
+        CompletableFuture<ChatResponse> mine = new CompletableFuture<>();
+        CompletableFuture<ChatResponse> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            logger.info("Sharing in-flight answer for repeated request on conversation {}", conversationId);
+            return await(existing);
+        }
+        
+        try (ConversationLocks.Handle ignored = conversationLocks.acquire(conversationId, true)) {
+            ChatResponse response = next.proceed();
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+    
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+    
+    private static ChatResponse await(CompletableFuture<ChatResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
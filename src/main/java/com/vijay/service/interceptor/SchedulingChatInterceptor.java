@@ -0,0 +1,38 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.config.SchedulingProperties.Lane;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.service.scheduling.WeightedFairScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds each provider call to a slot of the {@link WeightedFairScheduler}.
+ *
+ * Runs after the response cache and coalescing, so cache hits and coalesced followers never wait
+ * for or occupy a slot.
+ */
+@Component
+public class SchedulingChatInterceptor implements ChatInterceptor {
+
+    public static final int ORDER = 150;
+
+    private final WeightedFairScheduler scheduler;
+
+    public SchedulingChatInterceptor(WeightedFairScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public ChatResponse intercept(ChatRequest request, String conversationId, ChatInvocation next) {
+        try (WeightedFairScheduler.Slot slot = scheduler.acquire(Lane.of(request.getLane(), Lane.INTERACTIVE),
+                ChatRequestKeys.tenantOf(request))) {
+            return next.proceed();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,301 @@
+package com.vijay.service.limit;
+
+import com.vijay.client.ProviderErrors;
+import com.vijay.config.ConcurrencyLimitProperties;
+import com.vijay.exception.ProviderOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit on in-flight calls per provider/model (AIMD).
+ *
+ * Every successful call made while at least half the limit is in use raises the limit by 1/limit,
+ * i.e. by about one per round of calls; an overload error (429, 5xx, timeout, I/O) or a response
+ * slower than latencyThreshold multiplies it by backoffRatio. Other failures, such as a rejected
+ * API key, release the slot without adjusting the limit. Calls that
+ * started before the last decrease do not decrease it again, so one overload episode backs off
+ * once instead of once per in-flight call. Requests over the limit wait in a short FIFO queue
+ * (maxQueue, maxWait) and are otherwise rejected with {@link ProviderOverloadedException}.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    
+    private static final String ANY_MODEL = "*";
+    
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Limit> limits = new ConcurrentHashMap<>();
+    
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Wait for a slot for this provider/model; the permit must be completed or closed exactly once
+     *
+     * @throws ProviderOverloadedException when the queue is full or the wait exceeds maxWait
+     */
+    public Permit acquire(String provider, String model) {
+        if (!properties.isEnabled()) {
+            return new Permit(null);
+        }
+        Limit limit = limitFor(provider, model != null && !model.isBlank() ? model : "default");
+        limit.acquire();
+        return new Permit(limit);
+    }
+    
+    /**
+     * Current limit, for tests and diagnostics; -1 when this provider/model has not been used
+     */
+    public double currentLimit(String provider, String model) {
+        Limit limit = limits.get(provider + ":" + model);
+        return limit != null ? limit.limit() : -1;
+    }
+    
+    private Limit limitFor(String provider, String model) {
+        Limit limit = limits.get(provider + ":" + model);
+        if (limit != null) {
+            return limit;
+        }
+        // Models are client-supplied; bound the number of limits (and meters) they can create
+        String key = limits.size() < properties.getMaxModels() ? provider + ":" + model : provider + ":" + ANY_MODEL;
+        return limits.computeIfAbsent(key, k -> new Limit(provider, k.substring(provider.length() + 1),
+                properties.forProvider(provider)));
+    }
+    
+    /**
+     * One slot; report the outcome with {@link #onSuccess()} or {@link #onDropped()}. Closing a
+     * permit without an outcome releases the slot without adjusting the limit, e.g. on cancellation.
+     */
+    public static final class Permit implements AutoCloseable {
+        
+        private final Limit limit;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private Permit(Limit limit) {
+            this.limit = limit;
+        }
+        
+        /**
+         * The call succeeded; its latency is the time since acquire
+         */
+        public void onSuccess() {
+            onSuccess(System.nanoTime() - startNanos);
+        }
+        
+        /**
+         * The call succeeded with the given latency, e.g. time to first token for a stream
+         */
+        public void onSuccess(long latencyNanos) {
+            if (limit != null && released.compareAndSet(false, true)) {
+                limit.release(startNanos, latencyNanos, false);
+            }
+        }
+        
+        /**
+         * The call failed: back off if the error suggests overload, otherwise just release the slot
+         */
+        public void onFailure(Throwable error) {
+            if (ProviderErrors.isOverload(error)) {
+                onDropped();
+            } else {
+                close();
+            }
+        }
+        
+        /**
+         * The call failed in a way that suggests overload
+         */
+        public void onDropped() {
+            if (limit != null && released.compareAndSet(false, true)) {
+                limit.release(startNanos, 0, true);
+            }
+        }
+        
+        @Override
+        public void close() {
+            if (limit != null && released.compareAndSet(false, true)) {
+                limit.releaseIgnored();
+            }
+        }
+    }
+    
+    private final class Limit {
+        
+        private final String provider;
+        private final String model;
+        private final ConcurrencyLimitProperties.Limits settings;
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final Condition slotFreed = lock.newCondition();
+        
+        private final Counter immediate;
+        private final Counter waited;
+        private final Counter rejected;
+        private final Timer waitTimer;
+        
+        // Guarded by lock
+        private double limit;
+        private int inFlight;
+        private int queued;
+        private long lastDecreaseNanos = System.nanoTime();
+        
+        Limit(String provider, String model, ConcurrencyLimitProperties.Limits settings) {
+            this.provider = provider;
+            this.model = model;
+            this.settings = settings;
+            this.limit = Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), settings.getInitialLimit()));
+            
+            this.immediate = outcomeCounter("immediate");
+            this.waited = outcomeCounter("waited");
+            this.rejected = outcomeCounter("rejected");
+            this.waitTimer = Timer.builder("chat.limiter.queue.wait")
+                    .description("Time a request waited for a provider concurrency slot")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("chat.limiter.limit", this, Limit::limit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .register(meterRegistry);
+            Gauge.builder("chat.limiter.in_flight", this, Limit::inFlight)
+                    .description("Provider calls currently holding a concurrency slot")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .register(meterRegistry);
+            Gauge.builder("chat.limiter.queued", this, Limit::queued)
+                    .description("Requests waiting for a provider concurrency slot")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .register(meterRegistry);
+        }
+        
+        void acquire() {
+            lock.lock();
+            try {
+                if (queued == 0 && inFlight < (int) limit) {
+                    inFlight++;
+                    immediate.increment();
+                    return;
+                }
+                if (queued >= settings.getMaxQueue()) {
+                    rejected.increment();
+                    throw new ProviderOverloadedException(provider,
+                            "Provider " + provider + " is at its concurrency limit, try again later");
+                }
+                
+                long start = System.nanoTime();
+                long remaining = settings.getMaxWait().toNanos();
+                queued++;
+                try {
+                    while (inFlight >= (int) limit && remaining > 0) {
+                        remaining = slotFreed.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejected.increment();
+                    throw new ProviderOverloadedException(provider, "Interrupted while waiting for provider " + provider);
+                } finally {
+                    queued--;
+                    waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+                if (inFlight >= (int) limit) {
+                    rejected.increment();
+                    // Let the next waiter re-check rather than sleep out its own timeout
+                    slotFreed.signal();
+                    throw new ProviderOverloadedException(provider,
+                            "Timed out waiting for a free slot on provider " + provider);
+                }
+                inFlight++;
+                waited.increment();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void release(long startNanos, long latencyNanos, boolean dropped) {
+            lock.lock();
+            try {
+                boolean overloaded = dropped || latencyNanos > settings.getLatencyThreshold().toNanos();
+                if (overloaded) {
+                    if (startNanos - lastDecreaseNanos > 0) {
+                        double previous = limit;
+                        limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+                        lastDecreaseNanos = System.nanoTime();
+                        logger.debug("Concurrency limit for {}:{} decreased {} -> {}", provider, model,
+                                (int) previous, (int) limit);
+                    }
+                } else if (inFlight * 2 >= limit) {
+                    // About +1 per limit's worth of successes; only while the limit is actually being used
+                    limit = Math.min(settings.getMaxLimit(), limit + 1 / limit);
+                }
+                inFlight--;
+                slotFreed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void releaseIgnored() {
+            lock.lock();
+            try {
+                inFlight--;
+                slotFreed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        double limit() {
+            lock.lock();
+            try {
+                return limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        int inFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        int queued() {
+            lock.lock();
+            try {
+                return queued;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private Counter outcomeCounter(String outcome) {
+            return Counter.builder("chat.limiter.requests")
+                    .description("Provider calls by how they got a concurrency slot")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.vijay.service.resilience;
+
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.event.RetryEvent;
+import io.github.resilience4j.retry.event.RetryOnErrorEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * Drives a resilience4j {@link Retry} and asks a {@link RetryBudget} before every retry it would
+ * make. When the budget is spent the last failure is rethrown at once instead of waiting for
+ * and sending another attempt, so a degraded provider sees at most ratio extra load from retries.
+ *
+ * Giving up early bypasses {@link Retry.Context}, so the failure is reported here instead: as a
+ * {@link RetryOnErrorEvent} to the retry's event consumers, and on the budget's failed-call counter
+ * in place of resilience4j's failed_with_retry / failed_without_retry counts.
+ */
+public final class BudgetedRetry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BudgetedRetry.class);
+    
+    private BudgetedRetry() {
+    }
+    
+    public static <T> Supplier<T> decorateSupplier(Retry retry, RetryBudget budget, Supplier<T> supplier) {
+        RetryConfig config = retry.getRetryConfig();
+        return () -> {
+            Retry.Context<T> context = retry.context();
+            int attempt = 1;
+            while (true) {
+                try {
+                    T result = supplier.get();
+                    budget.recordSuccess();
+                    context.onComplete();
+                    return result;
+                } catch (RuntimeException e) {
+                    // Only charge the budget for retries the policy would actually make
+                    boolean retryable = attempt < config.getMaxAttempts() && config.getExceptionPredicate().test(e);
+                    if (retryable && !budget.tryRetry()) {
+                        logger.warn("Retry budget of '{}' exhausted, failing fast after attempt {}: {}",
+                                retry.getName(), attempt, e.getMessage());
+                        budget.recordFailure(attempt > 1);
+                        publishError(retry, attempt, e);
+                        throw e;
+                    }
+                    // Waits before the next attempt, or rethrows when the policy gives up
+                    context.onRuntimeError(e);
+                    attempt++;
+                }
+            }
+        };
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void publishError(Retry retry, int attempts, Throwable e) {
+        // resilience4j's own publisher is also the consumer that dispatches to registered handlers
+        if (retry.getEventPublisher() instanceof EventConsumer<?> consumer) {
+            ((EventConsumer<RetryEvent>) consumer).consumeEvent(new RetryOnErrorEvent(retry.getName(), attempts, e));
+        }
+    }
+}
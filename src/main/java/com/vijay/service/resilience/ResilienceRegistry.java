@@ -0,0 +1,128 @@
+package com.vijay.service.resilience;
+
+import com.vijay.config.ResilienceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Circuit breaker, retry, time limiter and bulkhead per (provider, model) and per MCP server,
+ * created on first use so a failing model or tool server only sheds its own traffic.
+ *
+ * Instances are named "provider/model" and "mcp/server". Each takes the most specific named
+ * resilience4j config that exists: "provider/model", then "provider" (or the server name, then
+ * "mcp"), then "default".
+ *
+ * Retry budgets are kept per provider rather than per model: retries of any of its models add
+ * load to the same backend.
+ */
+@Component
+public class ResilienceRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceRegistry.class);
+    
+    private static final String DEFAULT_CONFIG = "default";
+    private static final String MCP_CONFIG = "mcp";
+    
+    private final ResilienceProperties properties;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Policies> policies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
+    
+    public ResilienceRegistry(ResilienceProperties properties,
+                              CircuitBreakerRegistry circuitBreakerRegistry,
+                              RetryRegistry retryRegistry,
+                              TimeLimiterRegistry timeLimiterRegistry,
+                              BulkheadRegistry bulkheadRegistry,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Policies for calls to one model of a provider
+     */
+    public Policies forProvider(String provider, String model) {
+        String modelName = model != null && !model.isBlank() ? model : "default";
+        String name = provider + "/" + modelName;
+        Policies existing = policies.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        // Models are client-supplied; bound the number of instances (and meters) they can create
+        String instance = policies.size() < properties.getMaxModels() ? name : provider + "/*";
+        return policies.computeIfAbsent(instance, key -> create(key, List.of(name, provider)));
+    }
+    
+    /**
+     * Policies for tool calls to one MCP server
+     */
+    public Policies forMcpServer(String serverName) {
+        return policies.computeIfAbsent("mcp/" + serverName, key -> create(key, List.of(key, serverName, MCP_CONFIG)));
+    }
+    
+    /**
+     * Retry budget shared by all models of a provider
+     */
+    public RetryBudget retryBudget(String provider) {
+        return retryBudgets.computeIfAbsent(provider,
+                key -> new RetryBudget(key, properties.getRetryBudget(), meterRegistry));
+    }
+    
+    private Policies create(String name, List<String> configCandidates) {
+        String circuitBreakerConfig = configName(configCandidates, circuitBreakerRegistry::getConfiguration);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name, circuitBreakerConfig);
+        Retry retry = retryRegistry.retry(name, configName(configCandidates, retryRegistry::getConfiguration));
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(name,
+                configName(configCandidates, timeLimiterRegistry::getConfiguration));
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(name, configName(configCandidates, bulkheadRegistry::getConfiguration));
+        
+        circuitBreaker.getEventPublisher()
+                .onStateTransition(event -> logger.info("Circuit breaker '{}' state transition: {} -> {}", name,
+                        event.getStateTransition().getFromState(), event.getStateTransition().getToState()));
+        retry.getEventPublisher()
+                .onRetry(event -> logger.warn("Retry '{}' attempt {} failed: {}", name,
+                        event.getNumberOfRetryAttempts(), event.getLastThrowable().getMessage()));
+        logger.info("Created resilience policies '{}' (circuit breaker config '{}')", name, circuitBreakerConfig);
+        return new Policies(name, circuitBreaker, retry, timeLimiter, bulkhead);
+    }
+    
+    private static String configName(List<String> candidates, Function<String, Optional<?>> lookup) {
+        return candidates.stream()
+                .filter(candidate -> lookup.apply(candidate).isPresent())
+                .findFirst()
+                .orElse(DEFAULT_CONFIG);
+    }
+    
+    /**
+     * Resilience policies of one provider/model or MCP server, all sharing the same instance name
+     */
+    public record Policies(String name,
+                           CircuitBreaker circuitBreaker,
+                           Retry retry,
+                           TimeLimiter timeLimiter,
+                           Bulkhead bulkhead) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.vijay.service.resilience;
+
+import com.vijay.config.ResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Retry budget of one provider: a retry is granted only while the retries in the sliding window
+ * stay below ratio * successes + minRetriesPerSecond * window seconds.
+ *
+ * Successes and retries are counted in one-second buckets. Each bucket packs its second (high
+ * bits) and its count (low bits) into one long, so recording is a single CAS loop and a bucket
+ * left over from an earlier lap of the ring is reset by the first writer that sees it. Concurrent
+ * grants may overshoot the budget by a few retries; no lock is ever taken.
+ */
+public final class RetryBudget {
+    
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long NANOS_PER_BUCKET = 1_000_000_000L;
+    
+    private final ResilienceProperties.RetryBudget settings;
+    private final LongSupplier nanoTime;
+    private final long origin;
+    private final int buckets;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray retries;
+    private final Counter granted;
+    private final Counter denied;
+    private final Counter failedWithRetry;
+    private final Counter failedWithoutRetry;
+    
+    public RetryBudget(String provider, ResilienceProperties.RetryBudget settings, MeterRegistry meterRegistry) {
+        this(provider, settings, meterRegistry, System::nanoTime);
+    }
+    
+    RetryBudget(String provider, ResilienceProperties.RetryBudget settings, MeterRegistry meterRegistry,
+                LongSupplier nanoTime) {
+        this.settings = settings;
+        this.nanoTime = nanoTime;
+        this.origin = nanoTime.getAsLong();
+        this.buckets = (int) Math.max(1, settings.getWindow().toSeconds());
+        this.successes = new AtomicLongArray(buckets);
+        this.retries = new AtomicLongArray(buckets);
+        this.granted = outcomeCounter(meterRegistry, provider, "granted");
+        this.denied = outcomeCounter(meterRegistry, provider, "denied");
+        this.failedWithRetry = failureCounter(meterRegistry, provider, "failed_with_retry");
+        this.failedWithoutRetry = failureCounter(meterRegistry, provider, "failed_without_retry");
+        Gauge.builder("chat.retry.budget.available", this, RetryBudget::available)
+                .description("Retries the provider's budget would grant right now")
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+    
+    public void recordSuccess() {
+        increment(successes, currentSecond());
+    }
+    
+    /**
+     * Record a call that failed because a retry was denied
+     *
+     * @param retried whether the call had already been retried before the denial
+     */
+    public void recordFailure(boolean retried) {
+        (retried ? failedWithRetry : failedWithoutRetry).increment();
+    }
+    
+    /**
+     * Take one retry from the budget
+     *
+     * @return false when the retry must not be attempted
+     */
+    public boolean tryRetry() {
+        if (!settings.isEnabled()) {
+            granted.increment();
+            return true;
+        }
+        long second = currentSecond();
+        if (allowed(second) - sum(retries, second) < 1) {
+            denied.increment();
+            return false;
+        }
+        increment(retries, second);
+        granted.increment();
+        return true;
+    }
+    
+    double available() {
+        long second = currentSecond();
+        return Math.max(0, allowed(second) - sum(retries, second));
+    }
+    
+    private double allowed(long second) {
+        return settings.getRatio() * sum(successes, second) + settings.getMinRetriesPerSecond() * buckets;
+    }
+    
+    private long currentSecond() {
+        return (nanoTime.getAsLong() - origin) / NANOS_PER_BUCKET;
+    }
+    
+    private void increment(AtomicLongArray counts, long second) {
+        int index = (int) (second % buckets);
+        while (true) {
+            long current = counts.get(index);
+            long next = secondOf(current) == second && current != 0
+                    ? current + 1
+                    : (second << COUNT_BITS) | 1;
+            if ((current & COUNT_MASK) == COUNT_MASK && secondOf(current) == second) {
+                // Saturated for this second; more precision would not change any decision
+                return;
+            }
+            if (counts.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+    
+    private long sum(AtomicLongArray counts, long second) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long packed = counts.get(i);
+            if (packed != 0 && second - secondOf(packed) < buckets) {
+                total += packed & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+    
+    private static long secondOf(long packed) {
+        return packed >>> COUNT_BITS;
+    }
+    
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String provider, String result) {
+        return Counter.builder("chat.retry.budget.retries")
+                .description("Retries requested from the provider's retry budget")
+                .tag("provider", provider)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    private static Counter failureCounter(MeterRegistry meterRegistry, String provider, String kind) {
+        return Counter.builder("chat.retry.budget.calls")
+                .description("Calls that failed because the provider's retry budget denied a retry")
+                .tag("provider", provider)
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,291 @@
+package com.vijay.service.scheduling;
+
+import com.vijay.config.SchedulingProperties;
+import com.vijay.config.SchedulingProperties.Lane;
+import com.vijay.exception.LaneSaturatedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission of chat requests by priority lane and, within a lane, by weighted fair queuing
+ * between tenants.
+ *
+ * At most maxConcurrency requests run at once, and at most the lane's own cap per lane. A freed
+ * slot goes to the highest-priority lane that has a waiting request and room under its cap, so a
+ * saturating batch job delays interactive requests by at most one slot turnover. Within a lane
+ * each waiter gets a virtual finish time of max(lane time, tenant's last finish) + 1/weight and
+ * the smallest finish time runs next: a tenant with a thousand queued requests does not delay a
+ * tenant that just arrived, and weights split the lane's slots proportionally. Tenants are only
+ * tracked while they have requests waiting.
+ */
+@Component
+public class WeightedFairScheduler {
+    
+    private final SchedulingProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Lane, LaneQueue> lanes = new EnumMap<>(Lane.class);
+    
+    // Guarded by lock
+    private int running;
+    
+    public WeightedFairScheduler(SchedulingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneQueue(lane, properties.forLane(lane), meterRegistry));
+        }
+    }
+    
+    /**
+     * Wait for a slot in this lane; the slot must be closed exactly once
+     *
+     * @throws LaneSaturatedException when the lane's queue is full or the wait exceeds maxWait
+     */
+    public Slot acquire(Lane lane, String tenant) {
+        if (!properties.isEnabled()) {
+            return new Slot(null);
+        }
+        LaneQueue queue = lanes.get(lane);
+        lock.lock();
+        try {
+            if (queue.waiting.isEmpty() && hasRoom(queue)) {
+                start(queue);
+                queue.immediate.increment();
+                return new Slot(queue);
+            }
+            if (queue.waiting.size() >= queue.settings.getMaxQueue()) {
+                queue.rejected.increment();
+                throw new LaneSaturatedException(lane.tag(),
+                        "The " + lane.tag() + " lane is full, try again later");
+            }
+            
+            Waiter waiter = queue.enqueue(tenant, properties.weightOf(tenant), lock.newCondition());
+            long start = System.nanoTime();
+            long remaining = queue.settings.getMaxWait().toNanos();
+            boolean interrupted = false;
+            try {
+                while (!waiter.granted && remaining > 0) {
+                    remaining = waiter.turn.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } finally {
+                queue.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (waiter.granted) {
+                if (interrupted) {
+                    // Keep the slot; the caller sees the interrupt on its next blocking call
+                    Thread.currentThread().interrupt();
+                }
+                queue.waited.increment();
+                return new Slot(queue);
+            }
+            queue.remove(waiter);
+            queue.timedOut.increment();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+                throw new LaneSaturatedException(lane.tag(), "Interrupted while waiting in the " + lane.tag() + " lane");
+            }
+            throw new LaneSaturatedException(lane.tag(),
+                    "Timed out waiting for a free slot in the " + lane.tag() + " lane");
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private boolean hasRoom(LaneQueue queue) {
+        return running < properties.getMaxConcurrency() && queue.running < queue.settings.getMaxConcurrency();
+    }
+    
+    private void start(LaneQueue queue) {
+        running++;
+        queue.running++;
+    }
+    
+    private void release(LaneQueue queue) {
+        lock.lock();
+        try {
+            running--;
+            queue.running--;
+            queue.completed.increment();
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Hand free slots to waiters, highest lane first
+     */
+    private void dispatch() {
+        for (Lane lane : Lane.values()) {
+            LaneQueue queue = lanes.get(lane);
+            while (!queue.waiting.isEmpty() && hasRoom(queue)) {
+                Waiter next = queue.next();
+                next.granted = true;
+                start(queue);
+                next.turn.signal();
+            }
+        }
+    }
+    
+    private int running(LaneQueue queue) {
+        lock.lock();
+        try {
+            return queue.running;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private int queued(LaneQueue queue) {
+        lock.lock();
+        try {
+            return queue.waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * One running request; closing it hands the slot to the next waiter
+     */
+    public final class Slot implements AutoCloseable {
+        
+        private final LaneQueue queue;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private Slot(LaneQueue queue) {
+            this.queue = queue;
+        }
+        
+        @Override
+        public void close() {
+            if (queue != null && released.compareAndSet(false, true)) {
+                release(queue);
+            }
+        }
+    }
+    
+    private static final class Waiter {
+        
+        private final String tenant;
+        private final double startTag;
+        private final double finishTag;
+        private final long sequence;
+        private final Condition turn;
+        private boolean granted;
+        
+        Waiter(String tenant, double startTag, double finishTag, long sequence, Condition turn) {
+            this.tenant = tenant;
+            this.startTag = startTag;
+            this.finishTag = finishTag;
+            this.sequence = sequence;
+            this.turn = turn;
+        }
+    }
+    
+    private static final class Tenant {
+        
+        private double lastFinish;
+        private int waiting;
+    }
+    
+    /**
+     * Waiters and running count of one lane; all fields guarded by the scheduler's lock
+     */
+    private final class LaneQueue {
+        
+        private final SchedulingProperties.LaneLimits settings;
+        private final PriorityQueue<Waiter> waiting = new PriorityQueue<>(
+                Comparator.comparingDouble((Waiter waiter) -> waiter.finishTag).thenComparingLong(waiter -> waiter.sequence));
+        private final Map<String, Tenant> tenants = new HashMap<>();
+        private double virtualTime;
+        private long sequence;
+        private int running;
+        
+        private final Counter immediate;
+        private final Counter waited;
+        private final Counter rejected;
+        private final Counter timedOut;
+        private final Counter completed;
+        private final Timer waitTimer;
+        
+        LaneQueue(Lane lane, SchedulingProperties.LaneLimits settings, MeterRegistry meterRegistry) {
+            this.settings = settings;
+            this.immediate = outcomeCounter(meterRegistry, lane, "immediate");
+            this.waited = outcomeCounter(meterRegistry, lane, "waited");
+            this.rejected = outcomeCounter(meterRegistry, lane, "rejected");
+            this.timedOut = outcomeCounter(meterRegistry, lane, "timeout");
+            this.completed = Counter.builder("chat.scheduler.completed")
+                    .description("Chat requests that finished after holding a scheduler slot")
+                    .tag("lane", lane.tag())
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("chat.scheduler.queue.wait")
+                    .description("Time a chat request waited for a slot in its lane")
+                    .tag("lane", lane.tag())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("chat.scheduler.in_flight", this, WeightedFairScheduler.this::running)
+                    .description("Chat requests currently holding a slot in the lane")
+                    .tag("lane", lane.tag())
+                    .register(meterRegistry);
+            Gauge.builder("chat.scheduler.queued", this, WeightedFairScheduler.this::queued)
+                    .description("Chat requests waiting for a slot in the lane")
+                    .tag("lane", lane.tag())
+                    .register(meterRegistry);
+        }
+        
+        Waiter enqueue(String tenant, int weight, Condition turn) {
+            Tenant state = tenants.computeIfAbsent(tenant, key -> new Tenant());
+            double startTag = Math.max(virtualTime, state.lastFinish);
+            double finishTag = startTag + 1.0 / weight;
+            state.lastFinish = finishTag;
+            state.waiting++;
+            Waiter waiter = new Waiter(tenant, startTag, finishTag, sequence++, turn);
+            waiting.add(waiter);
+            return waiter;
+        }
+        
+        Waiter next() {
+            Waiter waiter = waiting.poll();
+            virtualTime = Math.max(virtualTime, waiter.startTag);
+            leave(waiter);
+            return waiter;
+        }
+        
+        void remove(Waiter waiter) {
+            if (waiting.remove(waiter)) {
+                leave(waiter);
+            }
+        }
+        
+        private void leave(Waiter waiter) {
+            Tenant state = tenants.get(waiter.tenant);
+            if (state != null && --state.waiting == 0) {
+                // An idle tenant earns no credit; it restarts from the lane's virtual time
+                tenants.remove(waiter.tenant);
+            }
+        }
+        
+        private Counter outcomeCounter(MeterRegistry meterRegistry, Lane lane, String outcome) {
+            return Counter.builder("chat.scheduler.requests")
+                    .description("Chat requests by how they got a scheduler slot")
+                    .tag("lane", lane.tag())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.vijay.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process BM25 index over tool names, descriptions and input schema fields.
+ * Name terms are counted several times since a name match is the strongest signal.
+ */
+public class Bm25ToolIndex {
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_BOOST = 3;
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "for", "from", "how", "i", "in", "is",
+            "it", "me", "my", "of", "on", "or", "please", "the", "this", "to", "use", "what", "with", "you", "your");
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final List<ToolCallback> tools;
+    private final List<Map<String, Integer>> termFrequencies;
+    private final int[] lengths;
+    private final Map<String, Integer> documentFrequencies = new HashMap<>();
+    private final double averageLength;
+    
+    public Bm25ToolIndex(ToolCallback[] callbacks) {
+        this.tools = List.of(callbacks);
+        this.termFrequencies = new ArrayList<>(callbacks.length);
+        this.lengths = new int[callbacks.length];
+        
+        long totalLength = 0;
+        for (int i = 0; i < callbacks.length; i++) {
+            List<String> terms = documentTerms(callbacks[i].getToolDefinition());
+            Map<String, Integer> frequencies = new HashMap<>();
+            terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+            frequencies.keySet().forEach(term -> documentFrequencies.merge(term, 1, Integer::sum));
+            termFrequencies.add(frequencies);
+            lengths[i] = terms.size();
+            totalLength += terms.size();
+        }
+        this.averageLength = callbacks.length > 0 ? (double) totalLength / callbacks.length : 0;
+    }
+    
+    /**
+     * Tools with a positive score for the query, best first
+     */
+    public List<Scored> search(String query) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        List<Scored> results = new ArrayList<>();
+        for (int i = 0; i < tools.size(); i++) {
+            double score = score(queryTerms, i);
+            if (score > 0) {
+                results.add(new Scored(tools.get(i), score));
+            }
+        }
+        results.sort(Comparator.comparingDouble(Scored::score).reversed());
+        return results;
+    }
+    
+    public int size() {
+        return tools.size();
+    }
+    
+    private double score(Set<String> queryTerms, int document) {
+        Map<String, Integer> frequencies = termFrequencies.get(document);
+        double normalization = K1 * (1 - B + B * lengths[document] / Math.max(averageLength, 1));
+        double score = 0;
+        for (String term : queryTerms) {
+            Integer tf = frequencies.get(term);
+            if (tf == null) {
+                continue;
+            }
+            int df = documentFrequencies.get(term);
+            double idf = Math.log(1 + (tools.size() - df + 0.5) / (df + 0.5));
+            score += idf * tf * (K1 + 1) / (tf + normalization);
+        }
+        return score;
+    }
+    
+    private static List<String> documentTerms(ToolDefinition definition) {
+        List<String> terms = new ArrayList<>();
+        List<String> nameTerms = tokenize(ToolUtils.cleanToolName(definition.name()));
+        for (int i = 0; i < NAME_BOOST; i++) {
+            terms.addAll(nameTerms);
+        }
+        terms.addAll(tokenize(definition.description()));
+        terms.addAll(schemaTerms(definition.inputSchema()));
+        return terms;
+    }
+    
+    private static List<String> schemaTerms(String inputSchema) {
+        List<String> terms = new ArrayList<>();
+        try {
+            JsonNode properties = objectMapper.readTree(inputSchema).path("properties");
+            properties.fields().forEachRemaining(field -> {
+                terms.addAll(tokenize(field.getKey()));
+                terms.addAll(tokenize(field.getValue().path("description").asText("")));
+            });
+        } catch (Exception e) {
+            // Unparseable schema: index what we can from the raw text
+            terms.addAll(tokenize(inputSchema));
+        }
+        return terms;
+    }
+    
+    /**
+     * Lower-cased terms split on camelCase and non-alphanumerics, with stop words and plural/verb suffixes removed
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String spaced = text.replaceAll("([a-z0-9])([A-Z])", "$1 $2");
+        for (String token : spaced.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+    
+    private static String stem(String token) {
+        for (String suffix : new String[]{"ing", "ies", "es", "ed", "s"}) {
+            if (token.endsWith(suffix) && token.length() - suffix.length() >= 3) {
+                String stem = token.substring(0, token.length() - suffix.length());
+                return suffix.equals("ies") ? stem + "y" : stem;
+            }
+        }
+        return token;
+    }
+    
+    public record Scored(ToolCallback tool, double score) {
+    }
+}
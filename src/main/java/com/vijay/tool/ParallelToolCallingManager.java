@@ -0,0 +1,229 @@
+package com.vijay.tool;
+
+import com.vijay.config.ToolExecutionProperties;
+import com.vijay.mcp.LoggingToolCallback;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tool calling manager that runs the tool calls of one assistant turn concurrently on virtual threads.
+ *
+ * Resolution, tool context and conversation history follow Spring AI's DefaultToolCallingManager;
+ * only execution differs. At most maxParallelism calls of a turn run at once, every MCP server is
+ * bounded by its own semaphore shared across requests, and responses keep the order of the calls.
+ * When every tool of a turn is a {@link ReactiveToolCallback} the calls are composed without any
+ * per-call thread; async MCP sessions multiplex requests, so the server semaphores do not apply there.
+ */
+public class ParallelToolCallingManager implements ToolCallingManager {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ParallelToolCallingManager.class);
+    
+    static final String LOCAL_SERVER = "local";
+    
+    private final ToolCallingManager delegate;
+    private final ToolCallbackResolver toolCallbackResolver;
+    private final ToolExecutionExceptionProcessor exceptionProcessor;
+    private final ToolExecutionProperties properties;
+    private final Map<String, Semaphore> serverPermits = new ConcurrentHashMap<>();
+    
+    private final Timer turnTimer;
+    private final DistributionSummary callsPerTurn;
+    
+    public ParallelToolCallingManager(ToolCallingManager delegate,
+                                      ToolCallbackResolver toolCallbackResolver,
+                                      ToolExecutionExceptionProcessor exceptionProcessor,
+                                      ToolExecutionProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.toolCallbackResolver = toolCallbackResolver;
+        this.exceptionProcessor = exceptionProcessor;
+        this.properties = properties;
+        this.turnTimer = Timer.builder("mcp.tools.turn.time")
+                .description("Time to execute all tool calls of one assistant turn")
+                .tag("mode", "parallel")
+                .register(meterRegistry);
+        this.callsPerTurn = DistributionSummary.builder("mcp.tools.turn.calls")
+                .description("Tool calls requested in one assistant turn")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+    
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        AssistantMessage assistantMessage = chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(output -> !CollectionUtils.isEmpty(output.getToolCalls()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No tool call requested by the chat model"));
+        
+        List<AssistantMessage.ToolCall> toolCalls = assistantMessage.getToolCalls();
+        if (toolCalls.size() == 1) {
+            // Nothing to overlap
+            return delegate.executeToolCalls(prompt, chatResponse);
+        }
+        
+        long start = System.nanoTime();
+        ToolContext toolContext = buildToolContext(prompt, assistantMessage);
+        List<ToolCallback> callbacks = prompt.getOptions() instanceof ToolCallingChatOptions options
+                ? options.getToolCallbacks() : List.of();
+        
+        List<ResolvedCall> resolved = toolCalls.stream()
+                .map(toolCall -> new ResolvedCall(toolCall, resolve(toolCall.name(), callbacks)))
+                .toList();
+        boolean returnDirect = resolved.stream()
+                .allMatch(call -> call.callback().getToolMetadata().returnDirect());
+        
+        List<ToolResponseMessage.ToolResponse> responses =
+                resolved.stream().allMatch(call -> call.callback() instanceof ReactiveToolCallback)
+                        ? ReactiveToolCallback.await(executeReactive(resolved, toolContext))
+                        : execute(resolved, toolContext);
+        
+        callsPerTurn.record(toolCalls.size());
+        turnTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        
+        List<Message> conversationHistory = new ArrayList<>(prompt.copy().getInstructions());
+        conversationHistory.add(assistantMessage);
+        conversationHistory.add(new ToolResponseMessage(responses, Map.of()));
+        return ToolExecutionResult.builder()
+                .conversationHistory(conversationHistory)
+                .returnDirect(returnDirect)
+                .build();
+    }
+    
+    private List<ToolResponseMessage.ToolResponse> execute(List<ResolvedCall> calls, ToolContext toolContext) {
+        Semaphore turnPermits = new Semaphore(Math.max(1, properties.getMaxParallelism()));
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<String>> results = new ArrayList<>(calls.size());
+            for (ResolvedCall call : calls) {
+                turnPermits.acquire();
+                results.add(executor.submit(() -> {
+                    try {
+                        return callWithServerPermit(call, toolContext);
+                    } finally {
+                        turnPermits.release();
+                    }
+                }));
+            }
+            
+            // Collect in call order so the response message is deterministic
+            List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(calls.size());
+            for (int i = 0; i < calls.size(); i++) {
+                AssistantMessage.ToolCall toolCall = calls.get(i).toolCall();
+                String result = results.get(i).get();
+                responses.add(new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(),
+                        result != null ? result : ""));
+            }
+            return responses;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while executing tool calls", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Tool call failed", e.getCause());
+        } finally {
+            // Interrupts calls still running when another one failed
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * All calls are non-blocking: compose them instead of parking a thread per call.
+     * Only the calling thread waits, and interrupting it cancels every pending MCP request.
+     */
+    private Mono<List<ToolResponseMessage.ToolResponse>> executeReactive(List<ResolvedCall> calls, ToolContext toolContext) {
+        return Flux.fromIterable(calls)
+                .flatMapSequential(call -> {
+                    String arguments = StringUtils.hasText(call.toolCall().arguments()) ? call.toolCall().arguments() : "{}";
+                    return ((ReactiveToolCallback) call.callback()).callReactive(arguments, toolContext)
+                            .onErrorResume(ToolExecutionException.class, e -> Mono.just(exceptionProcessor.process(e)))
+                            .defaultIfEmpty("")
+                            .map(result -> new ToolResponseMessage.ToolResponse(call.toolCall().id(),
+                                    call.toolCall().name(), result));
+                }, Math.max(1, properties.getMaxParallelism()))
+                .collectList();
+    }
+    
+    private String callWithServerPermit(ResolvedCall call, ToolContext toolContext) throws InterruptedException {
+        String serverName = call.callback() instanceof LoggingToolCallback logging
+                ? logging.getServerName() : LOCAL_SERVER;
+        Semaphore permits = serverPermits.computeIfAbsent(serverName,
+                name -> new Semaphore(Math.max(1, properties.concurrencyFor(name))));
+        permits.acquire();
+        try {
+            String arguments = StringUtils.hasText(call.toolCall().arguments()) ? call.toolCall().arguments() : "{}";
+            return call.callback().call(arguments, toolContext);
+        } catch (ToolExecutionException e) {
+            return exceptionProcessor.process(e);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private ToolCallback resolve(String toolName, List<ToolCallback> callbacks) {
+        ToolCallback callback = callbacks.stream()
+                .filter(candidate -> toolName.equals(candidate.getToolDefinition().name()))
+                .findFirst()
+                .orElseGet(() -> toolCallbackResolver.resolve(toolName));
+        if (callback == null) {
+            throw new IllegalStateException("No ToolCallback found for tool name: " + toolName);
+        }
+        return callback;
+    }
+    
+    private static ToolContext buildToolContext(Prompt prompt, AssistantMessage assistantMessage) {
+        Map<String, Object> context = Map.of();
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options
+                && !CollectionUtils.isEmpty(options.getToolContext())) {
+            context = new HashMap<>(options.getToolContext());
+            List<Message> history = new ArrayList<>(prompt.copy().getInstructions());
+            history.add(new AssistantMessage(assistantMessage.getText(), assistantMessage.getMetadata(),
+                    assistantMessage.getToolCalls()));
+            context.put(ToolContext.TOOL_CALL_HISTORY, history);
+        }
+        return new ToolContext(context);
+    }
+    
+    private record ResolvedCall(AssistantMessage.ToolCall toolCall, ToolCallback callback) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.vijay.tool;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tool callback with a non-blocking execution path.
+ *
+ * Spring AI calls tools through the blocking {@link #call} methods; they wait for {@link #callReactive}
+ * and cancel it when the waiting thread is interrupted. Code that can compose publishers should use
+ * {@link #callReactive} directly so no thread is parked per call.
+ */
+public interface ReactiveToolCallback extends ToolCallback {
+    
+    Mono<String> callReactive(String toolInput, ToolContext toolContext);
+    
+    @Override
+    default String call(String toolInput) {
+        return call(toolInput, null);
+    }
+    
+    @Override
+    default String call(String toolInput, ToolContext toolContext) {
+        return await(callReactive(toolInput, toolContext));
+    }
+    
+    /**
+     * Block for the result; interrupting the caller cancels the subscription
+     */
+    static <T> T await(Mono<T> result) {
+        CompletableFuture<T> future = result.toFuture();
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tool result", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -1,25 +1,33 @@
 package com.vijay.tool;
 
+import com.vijay.mcp.McpToolRegistry;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tools")
 public class ToolController {
 
     private final ToolCallbackProvider toolProvider;
+    private final McpToolRegistry toolRegistry;
 
-    public ToolController(ToolCallbackProvider toolProvider) {
+    public ToolController(ToolCallbackProvider toolProvider, McpToolRegistry toolRegistry) {
         this.toolProvider = toolProvider;
+        this.toolRegistry = toolRegistry;
     }
 
     record ToolHelp(String name, String description, String example) {}
 
+    record RegistryInfo(long version, Instant refreshedAt, Map<String, Integer> toolsByServer) {}
+
     @GetMapping
     public List<ToolHelp> listToolsWithExamples() {
         return Arrays.stream(toolProvider.getToolCallbacks())
@@ -32,4 +40,18 @@ public class ToolController {
                 })
                 .toList();
     }
+
+    @GetMapping("/registry")
+    public RegistryInfo registryInfo() {
+        return toRegistryInfo(toolRegistry.getSnapshot());
+    }
+
+    @PostMapping("/refresh")
+    public RegistryInfo refreshRegistry() {
+        return toRegistryInfo(toolRegistry.refresh());
+    }
+
+    private static RegistryInfo toRegistryInfo(McpToolRegistry.Snapshot snapshot) {
+        return new RegistryInfo(snapshot.version(), snapshot.refreshedAt(), snapshot.toolCounts());
+    }
 }
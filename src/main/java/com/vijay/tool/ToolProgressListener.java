@@ -0,0 +1,14 @@
+package com.vijay.tool;
+
+/**
+ * Receives tool invocation progress for a single chat request.
+ * Passed to tool callbacks through the Spring AI ToolContext under {@link #CONTEXT_KEY}.
+ */
+public interface ToolProgressListener {
+
+    String CONTEXT_KEY = "toolProgressListener";
+
+    void onToolCall(String toolName, String toolInput);
+
+    void onToolResult(String toolName, String toolResult);
+}
@@ -1,5 +1,10 @@
 package com.vijay.tool;
 
+import org.springframework.ai.tool.ToolCallback;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
 public class ToolUtils {
 
     public static String cleanToolName(String fullName) {
@@ -18,4 +23,14 @@ public class ToolUtils {
             return "Try using tool: " + name;
         }
     }
+
+    public static String toolListForPrompt(ToolCallback[] callbacks) {
+        return Arrays.stream(callbacks)
+                .map(cb -> {
+                    var def = cb.getToolDefinition();
+                    String name = cleanToolName(def.name());
+                    return "- " + name + " → " + def.description() + "\n   Example: " + generateExample(name, def.inputSchema());
+                })
+                .collect(Collectors.joining("\n\n"));
+    }
 }
@@ -0,0 +1,141 @@
+package com.vijay.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vijay.config.NearCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes sharing one in-memory L2 and an in-memory invalidation bus stand in for Redis
+ */
+class TwoTierCacheManagerTest {
+
+    private final ConcurrentMapCacheManager sharedL2 = new ConcurrentMapCacheManager("toolDefinitions");
+    private final InMemoryBus bus = new InMemoryBus();
+
+    private TwoTierCacheManager node() {
+        return new TwoTierCacheManager(sharedL2, new NearCacheProperties(), bus.endpoint(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void servesRepeatedReadsFromL1() {
+        TwoTierCacheManager node = node();
+        TwoTierCache cache = (TwoTierCache) node.getCache("toolDefinitions");
+
+        cache.put("count", 42);
+        sharedL2.getCache("toolDefinitions").clear(); // L1 must not need L2 anymore
+
+        assertEquals(42, cache.get("count", Integer.class));
+        assertEquals(1L, cache.getStats().get("l1Hits"));
+    }
+
+    @Test
+    void loadsFromL2AndInvalidatesOtherNodesOnWrite() {
+        TwoTierCacheManager nodeA = node();
+        TwoTierCacheManager nodeB = node();
+        Cache cacheA = nodeA.getCache("toolDefinitions");
+        TwoTierCache cacheB = (TwoTierCache) nodeB.getCache("toolDefinitions");
+
+        cacheA.put("version", "v1");
+        assertEquals("v1", cacheB.get("version", String.class));
+        assertEquals(1L, cacheB.getStats().get("l2Hits"));
+
+        cacheA.put("version", "v2");
+        assertEquals("v2", cacheB.get("version", String.class));
+
+        cacheA.evict("version");
+        assertNull(cacheB.get("version"));
+    }
+
+    @Test
+    void concurrentLoadsOfOneKeyCallTheLoaderOnce() throws Exception {
+        TwoTierCache cache = (TwoTierCache) node().getCache("toolDefinitions");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return "catalog";
+        };
+
+        ExecutorService pool = Executors.newCachedThreadPool();
+        try {
+            List<Future<String>> readers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                readers.add(pool.submit(() -> cache.get("tools", loader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> reader : readers) {
+                assertEquals("catalog", reader.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals("catalog", sharedL2.getCache("toolDefinitions").get("tools", String.class));
+    }
+
+    @Test
+    void invalidationDuringL2ReadDoesNotLeaveStaleL1Entry() {
+        Cache shared = sharedL2.getCache("toolDefinitions");
+        shared.put("version", "v1");
+        AtomicReference<TwoTierCache> cache = new AtomicReference<>();
+        // L2 that hands out v1 while another node's write of v2 and its invalidation land mid-read
+        Cache racingL2 = new ConcurrentMapCache("toolDefinitions") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper read = shared.get(key);
+                shared.put(key, "v2");
+                cache.get().invalidateLocal(key);
+                return read;
+            }
+        };
+        cache.set(new TwoTierCache("toolDefinitions", Caffeine.newBuilder().recordStats().build(), racingL2,
+                bus.endpoint(), new SimpleMeterRegistry()));
+
+        assertEquals("v1", cache.get().get("version", String.class));
+        assertEquals("v2", cache.get().get("version", String.class));
+    }
+
+    private static class InMemoryBus {
+        private final List<BiConsumer<String, Object>> handlers = new ArrayList<>();
+
+        CacheInvalidationBus endpoint() {
+            return new CacheInvalidationBus() {
+                private BiConsumer<String, Object> self;
+
+                @Override
+                public void publish(String cacheName, Object key) {
+                    handlers.stream()
+                            .filter(handler -> handler != self)
+                            .forEach(handler -> handler.accept(cacheName, key == null ? ALL_KEYS : key));
+                }
+
+                @Override
+                public void subscribe(BiConsumer<String, Object> handler) {
+                    self = handler;
+                    handlers.add(handler);
+                }
+            };
+        }
+    }
+}
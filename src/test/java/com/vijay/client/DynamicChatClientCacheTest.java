@@ -0,0 +1,211 @@
+package com.vijay.client;
+
+import com.vijay.config.DynamicClientProperties;
+import com.vijay.config.HttpTransportProperties;
+import com.vijay.exception.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.api.OpenAiApi;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+
+class DynamicChatClientCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger builds = new AtomicInteger();
+    private final List<String> builtWithKeys = new ArrayList<>();
+    private final List<HttpClient> httpClients = new ArrayList<>();
+    private DynamicClientProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DynamicClientProperties();
+        properties.setMaxSize(2);
+        properties.setIdleTimeout(Duration.ofMinutes(30));
+        properties.setAllowedBaseUrls(List.of("https://a.example", "https://b.example/openai/"));
+    }
+
+    @Test
+    void sameKeyReusesClient() {
+        DynamicChatClientCache cache = cache(fakeBuilder());
+
+        ChatClient first = cache.getClient("gemini", "https://a.example", "key-1");
+        ChatClient second = cache.getClient("gemini", "https://a.example", "key-1");
+        ChatClient otherKey = cache.getClient("gemini", "https://a.example", "key-2");
+
+        assertSame(first, second);
+        assertNotSame(first, otherKey);
+        assertEquals(2, builds.get());
+        assertEquals(List.of("key-1", "key-2"), builtWithKeys);
+        assertEquals(1.0, meterRegistry.get("chat.clients.dynamic.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void baseUrlOverrideRequiresCallerApiKey() {
+        DynamicChatClientCache cache = cache(fakeBuilder());
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> cache.getClient("gemini", "https://a.example", null));
+
+        assertEquals("apiKey", e.getField());
+        assertEquals(0, builds.get());
+    }
+
+    @Test
+    void baseUrlMustBeOnAllowList() {
+        DynamicChatClientCache cache = cache(fakeBuilder());
+
+        assertThrows(ValidationException.class, () -> cache.getClient("gemini", "http://169.254.169.254", "k"));
+        assertThrows(ValidationException.class, () -> cache.getClient("gemini", "https://a.example.evil.com", "k"));
+        assertThrows(ValidationException.class, () -> cache.getClient("gemini", "https://user@a.example", "k"));
+        assertThrows(ValidationException.class, () -> cache.getClient("gemini", "https://b.example/openaix", "k"));
+        assertThrows(ValidationException.class, () -> cache.getClient("gemini", "https://b.example/openai/../admin", "k"));
+        assertEquals(0, builds.get());
+
+        cache.getClient("gemini", "https://A.example:443/v1", "k");
+        cache.getClient("gemini", "https://b.example/openai/v1", "k");
+        cache.getClient("gemini", null, "k");
+        assertEquals(3, builds.get());
+    }
+
+    @Test
+    void keyNeverContainsRawApiKey() {
+        DynamicChatClientCache.Key key = DynamicChatClientCache.Key.of("gemini", null, "secret-key");
+
+        assertFalse(key.toString().contains("secret-key"));
+        assertEquals(key, DynamicChatClientCache.Key.of("gemini", null, "secret-key"));
+    }
+
+    @Test
+    void concurrentFirstRequestsBuildOnce() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DynamicChatClientCache cache = cache((key, apiKey) -> {
+            building.countDown();
+            await(release);
+            return fakeBuilder().build(key, apiKey);
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<ChatClient>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(CompletableFuture.supplyAsync(
+                        () -> cache.getClient("gemini", "https://a.example", "key-1"), executor));
+            }
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            ChatClient first = results.get(0).join();
+            results.forEach(result -> assertSame(first, result.join()));
+        }
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void sizeEvictionShutsDownConnectionPool() {
+        DynamicChatClientCache cache = cache(fakeBuilder());
+
+        for (int i = 0; i < 5; i++) {
+            cache.getClient("gemini", "https://a.example", "key-" + i);
+        }
+        cache.cleanUp();
+
+        assertEquals(2, cache.size());
+        assertEquals(3, httpClients.stream().filter(DynamicChatClientCacheTest::isShutdown).count());
+        assertEquals(3.0, meterRegistry.get("chat.clients.dynamic.evictions").tag("cause", "size").counter().count());
+    }
+
+    @Test
+    void idleClientsAreClosed() {
+        DynamicChatClientCache cache = cache(fakeBuilder());
+        cache.getClient("gemini", "https://a.example", "key-1");
+
+        nanos.addAndGet(Duration.ofMinutes(31).toNanos());
+        cache.cleanUp();
+
+        assertEquals(0, cache.size());
+        assertTrue(isShutdown(httpClients.get(0)));
+        assertEquals(1.0, meterRegistry.get("chat.clients.dynamic.evictions").tag("cause", "expired").counter().count());
+    }
+
+    @Test
+    void buildsRealOpenAiClientsAndServesRepeatsFromCache() {
+        OpenAiChatModel baseModel = OpenAiChatModel.builder()
+                .openAiApi(OpenAiApi.builder().apiKey("configured").build())
+                .build();
+        properties.setMaxSize(100);
+        DynamicChatClientCache cache = new DynamicChatClientCache(baseModel, "https://api.example",
+                "/v1/chat/completions",
+                MessageWindowChatMemory.builder().chatMemoryRepository(new InMemoryChatMemoryRepository()).build(),
+                new ProviderHttpTransport(new HttpTransportProperties(), Map.of(), meterRegistry),
+                properties, meterRegistry);
+
+        int tenants = 50;
+        List<ChatClient> built = new ArrayList<>();
+        for (int i = 0; i < tenants; i++) {
+            built.add(cache.getClient("gemini", null, "tenant-" + i));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertSame(built.get(i % tenants), cache.getClient("gemini", null, "tenant-" + (i % tenants)));
+        }
+
+        assertEquals(tenants, cache.size());
+        assertEquals(tenants, meterRegistry.get("chat.clients.dynamic.requests").tag("result", "miss").counter().count());
+        assertEquals(1_000, meterRegistry.get("chat.clients.dynamic.requests").tag("result", "hit").counter().count());
+        cache.destroy();
+    }
+
+    private DynamicChatClientCache cache(DynamicChatClientCache.ClientBuilder builder) {
+        return new DynamicChatClientCache(builder, properties, Runnable::run, nanos::get, meterRegistry);
+    }
+
+    private DynamicChatClientCache.ClientBuilder fakeBuilder() {
+        return (key, apiKey) -> {
+            builds.incrementAndGet();
+            HttpClient httpClient = mock(HttpClient.class);
+            synchronized (this) {
+                builtWithKeys.add(apiKey);
+                httpClients.add(httpClient);
+            }
+            return new DynamicChatClientCache.CachedClient(mock(ChatClient.class), httpClient);
+        };
+    }
+
+    private static boolean isShutdown(HttpClient httpClient) {
+        return mockingDetails(httpClient).getInvocations().stream()
+                .anyMatch(invocation -> invocation.getMethod().getName().equals("shutdown"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.vijay.client;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vijay.config.HttpTransportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderHttpTransportTest {
+
+    static {
+        // The JDK stub server otherwise waits on delayed ACKs between small writes
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final String COMPLETION = """
+            {"id":"c1","object":"chat.completion","created":1,"model":"stub",
+             "choices":[{"index":0,"message":{"role":"assistant","content":"hello from stub"},"finish_reason":"stop"}],
+             "usage":{"prompt_tokens":1,"completion_tokens":3,"total_tokens":4}}""";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile long responseDelayMillis;
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                sleep(responseDelayMillis);
+                boolean stream = request.contains("\"stream\":true");
+                byte[] body = (stream ? streamBody() : COMPLETION).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", stream ? "text/event-stream" : "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } finally {
+                concurrent.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void blockingCallsReuseOneKeepAliveConnection() {
+        ProviderHttpTransport transport = transport(new HttpTransportProperties());
+        OpenAiChatModel model = model(transport);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("hello from stub", model.call(new Prompt("hi")).getResult().getOutput().getText());
+        }
+
+        assertEquals(1, clientPorts.size(), "expected one pooled connection, saw ports " + clientPorts);
+        assertEquals(0.0, gauge("http.client.pool.active"));
+        assertEquals(20, meterRegistry.get("http.client.pool.acquire").tag("provider", "openai").timer().count());
+    }
+
+    @Test
+    void streamingHoldsSlotUntilBodyCompletes() {
+        ProviderHttpTransport transport = transport(new HttpTransportProperties());
+        OpenAiChatModel model = model(transport);
+
+        String text = model.stream(new Prompt("hi"))
+                .map(response -> response.getResult() == null ? ""
+                        : Objects.toString(response.getResult().getOutput().getText(), ""))
+                .collect(Collectors.joining())
+                .block(Duration.ofSeconds(10));
+
+        assertEquals("hello from stub", text);
+        assertEquals(0.0, gauge("http.client.pool.active"));
+    }
+
+    @Test
+    void slotsBoundConcurrentRequestsPerProvider() {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        properties.getProviders().get("openai").setMaxConnections(2);
+        ProviderHttpTransport transport = transport(properties);
+        OpenAiChatModel model = model(transport);
+        responseDelayMillis = 100;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<String>> calls = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(
+                            () -> model.call(new Prompt("hi")).getResult().getOutput().getText(), executor))
+                    .toList();
+            calls.forEach(call -> assertEquals("hello from stub", call.join()));
+        }
+
+        assertTrue(maxConcurrent.get() <= 2, "server saw " + maxConcurrent.get() + " concurrent requests");
+        assertTrue(meterRegistry.get("http.client.pool.acquire").tag("provider", "openai").timer()
+                .max(java.util.concurrent.TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    @Test
+    void failsWhenNoSlotFreesUpInTime() throws Exception {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        HttpTransportProperties.Provider openai = properties.getProviders().get("openai");
+        openai.setMaxConnections(1);
+        openai.setAcquireTimeout(Duration.ofMillis(50));
+        ProviderHttpTransport transport = transport(properties);
+        OpenAiChatModel model = model(transport);
+        responseDelayMillis = 500;
+
+        CompletableFuture<?> holder = CompletableFuture.runAsync(() -> model.call(new Prompt("slow")));
+        while (gauge("http.client.pool.active") < 1) {
+            Thread.sleep(5);
+        }
+        RuntimeException error = assertThrows(RuntimeException.class, () -> model.call(new Prompt("hi")));
+        assertTrue(String.valueOf(rootCause(error).getMessage()).contains("No free connection"), error.toString());
+        holder.join();
+    }
+
+    @Test
+    void routesByProviderHost() {
+        ProviderHttpTransport transport = transport(new HttpTransportProperties());
+
+        assertEquals("openai", transport.providerOf(URI.create(baseUrl + "/v1/chat/completions")));
+        assertEquals(ProviderHttpTransport.DEFAULT_PROVIDER,
+                transport.providerOf(URI.create("https://other.example/v1/chat/completions")));
+    }
+
+    @Test
+    void countsTlsHandshakes() {
+        Counter handshakes = meterRegistry.counter("handshakes");
+
+        var sslContext = ProviderHttpTransport.countingSslContext(handshakes);
+        sslContext.createSSLEngine("api.example", 443);
+        sslContext.createSSLEngine("api.example", 443);
+
+        assertEquals(2.0, handshakes.count());
+    }
+
+    private ProviderHttpTransport transport(HttpTransportProperties properties) {
+        return new ProviderHttpTransport(properties, Map.of("openai", baseUrl), meterRegistry);
+    }
+
+    private OpenAiChatModel model(ProviderHttpTransport transport) {
+        OpenAiApi api = OpenAiApi.builder()
+                .baseUrl(baseUrl)
+                .apiKey("test")
+                .restClientBuilder(RestClient.builder().requestFactory(transport.requestFactory()))
+                .webClientBuilder(WebClient.builder().clientConnector(transport.connector()))
+                .build();
+        return OpenAiChatModel.builder()
+                .openAiApi(api)
+                .defaultOptions(OpenAiChatOptions.builder().model("stub").build())
+                .retryTemplate(RetryTemplate.builder().maxAttempts(1).build())
+                .build();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("provider", "openai").gauge().value();
+    }
+
+    private static String streamBody() {
+        StringBuilder body = new StringBuilder();
+        for (String token : List.of("hello", " from", " stub")) {
+            body.append("data: {\"id\":\"c1\",\"object\":\"chat.completion.chunk\",\"created\":1,\"model\":\"stub\",")
+                    .append("\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\",\"content\":\"")
+                    .append(token).append("\"},\"finish_reason\":null}]}\n\n");
+        }
+        return body.append("data: [DONE]\n\n").toString();
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
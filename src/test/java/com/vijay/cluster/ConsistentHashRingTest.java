@@ -0,0 +1,93 @@
+package com.vijay.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> NODES = List.of("http://node-a:8080", "http://node-b:8080", "http://node-c:8080");
+    private static final int KEYS = 30_000;
+
+    @Test
+    void sameKeyAlwaysMapsToSameNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 160);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of(NODES.get(2), NODES.get(0), NODES.get(1)), 160);
+
+        IntStream.range(0, 1000).mapToObj(i -> "conv-" + i)
+                .forEach(key -> assertEquals(ring.ownerOf(key), reordered.ownerOf(key)));
+    }
+
+    @Test
+    void keysAreSpreadEvenlyAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 160);
+
+        Map<String, Integer> counts = new HashMap<>();
+        IntStream.range(0, KEYS).forEach(i -> counts.merge(ring.ownerOf("conv-" + i), 1, Integer::sum));
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(Math.abs(count - KEYS / 3.0) < KEYS / 3.0 * 0.15,
+                "unbalanced ring: " + counts));
+    }
+
+    @Test
+    void addingNodeOnlyMovesKeysToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 160);
+        ConsistentHashRing after = new ConsistentHashRing(
+                List.of(NODES.get(0), NODES.get(1), NODES.get(2), "http://node-d:8080"), 160);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "conv-" + i;
+            String owner = after.ownerOf(key);
+            if (!owner.equals(before.ownerOf(key))) {
+                assertEquals("http://node-d:8080", owner);
+                moved++;
+            }
+        }
+        // Ideal is a quarter of the keys
+        assertTrue(moved > KEYS * 0.18 && moved < KEYS * 0.32, "moved " + moved);
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertNull(new ConsistentHashRing(List.of(), 160).ownerOf("conv-1"));
+    }
+
+    @Test
+    void localityVersusLoadBalancer() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 160);
+        int conversations = 2_000;
+        int turns = 10;
+
+        // Without affinity a turn is local only if it lands where the conversation's memory was written
+        Random balancer = new Random(42);
+        Map<String, String> lastNode = new HashMap<>();
+        int balancedHits = 0;
+        int ringHits = 0;
+        for (int turn = 0; turn < turns; turn++) {
+            for (int c = 0; c < conversations; c++) {
+                String key = "conv-" + c;
+                String node = NODES.get(balancer.nextInt(NODES.size()));
+                if (node.equals(lastNode.put(key, node))) {
+                    balancedHits++;
+                }
+                String owner = ring.ownerOf(key);
+                if (turn > 0 && owner.equals(ring.ownerOf(key))) {
+                    ringHits++;
+                }
+            }
+        }
+        int followUps = conversations * (turns - 1);
+        assertEquals(followUps, ringHits);
+        assertTrue(balancedHits < followUps / 2);
+    }
+}
@@ -0,0 +1,288 @@
+package com.vijay.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.vijay.config.ClusterProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.model.ChatStreamEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConversationForwarderTest {
+
+    static {
+        // The JDK test server otherwise waits on delayed ACKs between small writes
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void forwardsToOwnerAndPassesResponseThrough() throws IOException {
+        AtomicReference<String> forwardedBy = new AtomicReference<>();
+        String peer = startPeer(forwardedBy);
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.FORWARD, "http://localhost:1", peer);
+        String conversationId = ownedBy(peer, "http://localhost:1", peer);
+
+        ResponseEntity<ChatResponse> response = forwarder
+                .route(request("hi"), conversationId, "/api/ai/chat", mock(HttpServletRequest.class))
+                .orElseThrow().join();
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("echo:" + conversationId, response.getBody().getAnswer());
+        assertEquals("http://localhost:1", forwardedBy.get());
+    }
+
+    @Test
+    void ownConversationsAndForwardedRequestsAreServedLocally() throws IOException {
+        String peer = startPeer(new AtomicReference<>());
+        String self = "http://localhost:1";
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.FORWARD, self, peer);
+
+        assertTrue(forwarder.route(request("hi"), ownedBy(self, self, peer), "/api/ai/chat",
+                mock(HttpServletRequest.class)).isEmpty());
+
+        HttpServletRequest forwarded = mock(HttpServletRequest.class);
+        when(forwarded.getHeader(ConversationForwarder.FORWARDED_HEADER)).thenReturn(peer);
+        assertTrue(forwarder.route(request("hi"), ownedBy(peer, self, peer), "/api/ai/chat", forwarded).isEmpty());
+    }
+
+    @Test
+    void onlyClusterMembersCountAsForwardingPeers() {
+        String self = "http://localhost:1";
+        String peer = "http://localhost:2";
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.FORWARD, self, peer);
+
+        assertTrue(forwarder.isForwardedByPeer(forwardedBy(peer)));
+        assertFalse(forwarder.isForwardedByPeer(forwardedBy("http://attacker:8080")));
+        assertFalse(forwarder.isForwardedByPeer(forwardedBy(self)));
+        assertFalse(forwarder.isForwardedByPeer(mock(HttpServletRequest.class)));
+    }
+
+    @Test
+    void redirectModePointsClientAtOwner() {
+        String self = "http://localhost:1";
+        String peer = "http://localhost:2";
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.REDIRECT, self, peer);
+        String conversationId = ownedBy(peer, self, peer);
+
+        ResponseEntity<ChatResponse> response = forwarder
+                .route(request("hi"), conversationId, "/api/ai/chat", mock(HttpServletRequest.class))
+                .orElseThrow().join();
+
+        assertEquals(307, response.getStatusCode().value());
+        assertEquals(peer + "/api/ai/chat?conversationId=" + conversationId,
+                response.getHeaders().getFirst(HttpHeaders.LOCATION));
+        assertEquals(conversationId, response.getHeaders().getFirst(ConversationForwarder.CONVERSATION_HEADER));
+    }
+
+    @Test
+    void unreachableOwnerFallsBackToLocal() {
+        String self = "http://localhost:1";
+        String deadPeer = "http://localhost:9";
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.FORWARD, self, deadPeer);
+
+        ResponseEntity<ChatResponse> response = forwarder
+                .route(request("hi"), ownedBy(deadPeer, self, deadPeer), "/api/ai/chat", mock(HttpServletRequest.class))
+                .orElseThrow().join();
+
+        assertNull(response);
+    }
+
+    @Test
+    void streamsAreRelayedFromOwner() throws IOException {
+        String self = "http://localhost:1";
+        String peer = startStreamPeer();
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.FORWARD, self, peer);
+        String conversationId = ownedBy(peer, self, peer);
+
+        ResponseEntity<Flux<ChatStreamEvent>> response = forwarder.routeStream(request("hi"), conversationId,
+                "/api/ai/chat/stream", mock(HttpServletRequest.class), () -> Flux.just(ChatStreamEvent.token("local")))
+                .orElseThrow();
+        List<ChatStreamEvent> events = response.getBody().collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(ChatStreamEvent.TOOL_CALL, ChatStreamEvent.TOKEN, ChatStreamEvent.DONE),
+                events.stream().map(ChatStreamEvent::getType).toList());
+        assertEquals("list_notes", events.get(0).getToolName());
+        assertEquals("echo:" + conversationId, events.get(1).getContent());
+    }
+
+    @Test
+    void streamsRedirectToOwnerInRedirectMode() {
+        String self = "http://localhost:1";
+        String peer = "http://localhost:2";
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.REDIRECT, self, peer);
+        String conversationId = ownedBy(peer, self, peer);
+
+        ResponseEntity<Flux<ChatStreamEvent>> response = forwarder.routeStream(request("hi"), conversationId,
+                "/api/ai/chat/stream", mock(HttpServletRequest.class), Flux::empty).orElseThrow();
+
+        assertEquals(307, response.getStatusCode().value());
+        assertNull(response.getBody());
+        assertEquals(peer + "/api/ai/chat/stream?conversationId=" + conversationId,
+                response.getHeaders().getFirst(HttpHeaders.LOCATION));
+    }
+
+    @Test
+    void unreachableOwnerStreamsLocally() {
+        String self = "http://localhost:1";
+        String deadPeer = "http://localhost:9";
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.FORWARD, self, deadPeer);
+
+        ResponseEntity<Flux<ChatStreamEvent>> response = forwarder.routeStream(request("hi"),
+                ownedBy(deadPeer, self, deadPeer), "/api/ai/chat/stream", mock(HttpServletRequest.class),
+                () -> Flux.just(ChatStreamEvent.token("local"))).orElseThrow();
+
+        assertEquals(List.of("local"), response.getBody().map(ChatStreamEvent::getContent).collectList()
+                .block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void ownConversationsAreStreamedLocally() {
+        String self = "http://localhost:1";
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.FORWARD, self, "http://localhost:2");
+
+        assertTrue(forwarder.routeStream(request("hi"), ownedBy(self, self, "http://localhost:2"),
+                "/api/ai/chat/stream", mock(HttpServletRequest.class), Flux::empty).isEmpty());
+    }
+
+    @Test
+    void ownerThatTimesOutAnswersGatewayTimeout() throws IOException {
+        String self = "http://localhost:1";
+        String slowPeer = startSlowPeer();
+        ConversationForwarder forwarder = forwarder(ClusterProperties.Mode.FORWARD, Duration.ofMillis(200), self, slowPeer);
+
+        ResponseEntity<ChatResponse> response = forwarder
+                .route(request("hi"), ownedBy(slowPeer, self, slowPeer), "/api/ai/chat", mock(HttpServletRequest.class))
+                .orElseThrow().join();
+
+        // The owner may still run the turn, so it must not be run here as well
+        assertNotNull(response);
+        assertEquals(504, response.getStatusCode().value());
+    }
+
+    private ConversationForwarder forwarder(ClusterProperties.Mode mode, String self, String... peers) {
+        return forwarder(mode, new ClusterProperties().getForwardTimeout(), self, peers);
+    }
+
+    private ConversationForwarder forwarder(ClusterProperties.Mode mode, Duration forwardTimeout, String self,
+                                            String... peers) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setForwardTimeout(forwardTimeout);
+        properties.setNodeUrl(self);
+        properties.setMode(mode);
+        properties.setNodes(List.of(peers));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new ConversationForwarder(properties, new ClusterMembership(properties, null, meterRegistry),
+                objectMapper, meterRegistry);
+    }
+
+    private static HttpServletRequest forwardedBy(String node) {
+        HttpServletRequest http = mock(HttpServletRequest.class);
+        when(http.getHeader(ConversationForwarder.FORWARDED_HEADER)).thenReturn(node);
+        return http;
+    }
+
+    private static String ownedBy(String owner, String... nodes) {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(nodes), 160);
+        return IntStream.range(0, 1000).mapToObj(i -> "conv-" + i)
+                .filter(id -> owner.equals(ring.ownerOf(id)))
+                .findFirst().orElseThrow();
+    }
+
+    private static ChatRequest request(String message) {
+        ChatRequest request = new ChatRequest();
+        request.setMessage(message);
+        return request;
+    }
+
+    // Stand-in for a peer node: echoes the conversation id it was asked to serve
+    private String startPeer(AtomicReference<String> forwardedBy) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/ai/chat", exchange -> {
+            forwardedBy.set(exchange.getRequestHeaders().getFirst(ConversationForwarder.FORWARDED_HEADER));
+            ChatRequest request = objectMapper.readValue(exchange.getRequestBody(), ChatRequest.class);
+            byte[] body = objectMapper.writeValueAsString(
+                    new ChatResponse("ollama", "test", "echo:" + request.getConversationId()))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        servers.add(server);
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    // Stand-in for a peer's streaming endpoint: a tool call, a token echoing the conversation id, done
+    private String startStreamPeer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/ai/chat/stream", exchange -> {
+            ChatRequest request = objectMapper.readValue(exchange.getRequestBody(), ChatRequest.class);
+            StringBuilder body = new StringBuilder(":keep-alive\n\n");
+            for (ChatStreamEvent event : List.of(ChatStreamEvent.toolCall("list_notes", "{}"),
+                    ChatStreamEvent.token("echo:" + request.getConversationId()), ChatStreamEvent.done("ollama", ""))) {
+                body.append("event:").append(event.getType()).append('\n')
+                        .append("data:").append(objectMapper.writeValueAsString(event)).append("\n\n");
+            }
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+        servers.add(server);
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    // Accepts the request but never answers within the test's forward timeout
+    private String startSlowPeer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/ai/chat", exchange -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+        servers.add(server);
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,113 @@
+package com.vijay.controller;
+
+import com.vijay.cluster.ConversationForwarder;
+import com.vijay.config.SchedulingProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.model.ChatStreamEvent;
+import com.vijay.service.ChatService;
+import com.vijay.service.ResilientChatService;
+import com.vijay.service.VirtualThreadChatService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatBoatControllerTest {
+
+    private final ResilientChatService resilientChatService = mock(ResilientChatService.class);
+    private final ChatService chatService = mock(ChatService.class);
+    private final HttpServletRequest http = mock(HttpServletRequest.class);
+
+    @SuppressWarnings("unchecked")
+    private ChatBoatController controller() {
+        return new ChatBoatController(resilientChatService, mock(VirtualThreadChatService.class),
+                chatService, new SchedulingProperties(), mock(ObjectProvider.class));
+    }
+
+    @Test
+    void cacheControlNoCacheBypassesResponseCache() {
+        when(http.getHeader(ConversationForwarder.CONVERSATION_HEADER)).thenReturn("c0");
+        when(http.getHeader(HttpHeaders.CACHE_CONTROL)).thenReturn("No-Cache");
+        ChatRequest request = request("hi");
+        when(resilientChatService.processChatRequest(request, "c0")).thenReturn(new ChatResponse("openai", "", "ok"));
+
+        assertEquals("ok", controller().chat(request, http).getBody().getAnswer());
+        assertTrue(request.isNoCache());
+    }
+
+    @Test
+    void streamEventsAreSentAsNamedServerSentEvents() {
+        when(http.getHeader(ConversationForwarder.CONVERSATION_HEADER)).thenReturn("c1");
+        when(chatService.streamChatRequest(any(), eq("c1"))).thenReturn(Flux.just(
+                ChatStreamEvent.toolCall("list_notes", "{}"),
+                ChatStreamEvent.token("Hi"),
+                ChatStreamEvent.error("boom")));
+
+        List<ServerSentEvent<ChatStreamEvent>> events = controller().chatStream(request("hi"), http).getBody()
+                .collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(ChatStreamEvent.TOOL_CALL, ChatStreamEvent.TOKEN, ChatStreamEvent.ERROR),
+                events.stream().map(ServerSentEvent::event).toList());
+        assertEquals("list_notes", events.get(0).data().getToolName());
+        assertEquals("boom", events.get(2).data().getContent());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamFollowsClusterRedirect() {
+        ConversationForwarder forwarder = mock(ConversationForwarder.class);
+        ObjectProvider<ConversationForwarder> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(forwarder);
+        when(http.getHeader(ConversationForwarder.CONVERSATION_HEADER)).thenReturn("c3");
+        when(forwarder.routeStream(any(), eq("c3"), eq("/api/ai/chat/stream"), eq(http), any()))
+                .thenReturn(Optional.of(ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                        .header(HttpHeaders.LOCATION, "http://owner/api/ai/chat/stream?conversationId=c3")
+                        .build()));
+
+        ResponseEntity<Flux<ServerSentEvent<ChatStreamEvent>>> response = new ChatBoatController(resilientChatService,
+                mock(VirtualThreadChatService.class), chatService, new SchedulingProperties(), provider)
+                .chatStream(request("hi"), http);
+
+        assertEquals(307, response.getStatusCode().value());
+        assertEquals("http://owner/api/ai/chat/stream?conversationId=c3",
+                response.getHeaders().getFirst(HttpHeaders.LOCATION));
+        verify(chatService, never()).streamChatRequest(any(), any());
+    }
+
+    @Test
+    void disconnectCancelsTheChatStream() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(http.getHeader(ConversationForwarder.CONVERSATION_HEADER)).thenReturn("c2");
+        when(chatService.streamChatRequest(any(), eq("c2")))
+                .thenReturn(Flux.<ChatStreamEvent>never().doOnCancel(() -> cancelled.set(true)));
+
+        controller().chatStream(request("hi"), http).getBody().subscribe().dispose();
+
+        assertTrue(cancelled.get());
+    }
+
+    private static ChatRequest request(String message) {
+        ChatRequest request = new ChatRequest();
+        request.setMessage(message);
+        return request;
+    }
+}
@@ -0,0 +1,202 @@
+package com.vijay.mcp;
+
+import com.vijay.config.McpPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.modelcontextprotocol.spec.McpError;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.definition.DefaultToolDefinition;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pool behaviour against a stand-in MCP server whose sessions handle one request at a time,
+ * like a single SSE session does for the host
+ */
+class McpSessionPoolTest {
+
+    private static final Duration SERVICE_TIME = Duration.ofMillis(10);
+    private static final int CALLERS = 64;
+    private static final int CALLS = 256;
+    private static final ToolDefinition TOOL = DefaultToolDefinition.builder()
+            .name("listNotes").description("stand-in").inputSchema("{}").build();
+
+    @Test
+    void spreadsConcurrentCallsOverAllSessions() throws Exception {
+        StandInFactory factory = new StandInFactory();
+        try (McpSessionPool<StandInSession> pool = new McpSessionPool<>("stand-in", factory, properties(4, 4),
+                new SimpleMeterRegistry())) {
+            run(pool);
+        }
+
+        assertEquals(4, factory.opened.size());
+        assertEquals(4, factory.peakInFlight.get());
+        assertEquals(CALLS, factory.opened.stream().mapToInt(session -> session.calls.get()).sum());
+        assertTrue(factory.opened.stream().allMatch(session -> session.calls.get() > 0));
+    }
+
+    @Test
+    void registersMetersPerServer() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (McpSessionPool<StandInSession> pool = new McpSessionPool<>("stand-in", new StandInFactory(),
+                properties(2, 2), meterRegistry)) {
+            assertEquals(2, meterRegistry.get("mcp.pool.sessions").tag("server_name", "stand-in").gauge().value());
+        }
+    }
+
+    @Test
+    void growsUnderLoadUpToMaxSessions() throws Exception {
+        McpPoolProperties properties = properties(1, 4);
+        properties.setGrowThreshold(2);
+        try (McpSessionPool<StandInSession> pool = new McpSessionPool<>("stand-in", new StandInFactory(), properties,
+                new SimpleMeterRegistry())) {
+            run(pool);
+            assertEquals(4, pool.size());
+        }
+    }
+
+    @Test
+    void replacesSessionsThatFailHealthCheck() {
+        StandInFactory factory = new StandInFactory();
+        try (McpSessionPool<StandInSession> pool = new McpSessionPool<>("stand-in", factory, properties(2, 2),
+                new SimpleMeterRegistry())) {
+            factory.opened.get(0).broken.set(true);
+
+            pool.maintain();
+
+            assertEquals(2, pool.size());
+            assertEquals(3, factory.opened.size());
+        }
+    }
+
+    @Test
+    void wrappedTransportFailureMarksSessionSuspectAndReconnects() {
+        StandInFactory factory = new StandInFactory();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (McpSessionPool<StandInSession> pool = new McpSessionPool<>("stand-in", factory, properties(2, 2),
+                meterRegistry)) {
+            StandInSession failing = factory.opened.get(0);
+            // How SyncMcpToolCallback reports a closed SSE stream
+            assertThrows(ToolExecutionException.class, () -> pool.execute(session -> {
+                throw new ToolExecutionException(TOOL, new McpError("SSE stream closed"));
+            }));
+
+            // New calls avoid the suspect session even though it is the first and idle
+            pool.execute(StandInSession::callTool);
+            assertEquals(0, failing.calls.get());
+
+            failing.broken.set(true);
+            pool.maintain();
+
+            assertEquals(2, pool.size());
+            assertEquals(3, factory.opened.size());
+            assertEquals(1, meterRegistry.get("mcp.pool.reconnects").counter().count());
+        }
+    }
+
+    @Test
+    void toolErrorResultKeepsSessionInUse() {
+        StandInFactory factory = new StandInFactory();
+        try (McpSessionPool<StandInSession> pool = new McpSessionPool<>("stand-in", factory, properties(2, 2),
+                new SimpleMeterRegistry())) {
+            // How SyncMcpToolCallback reports a result with isError set
+            assertThrows(ToolExecutionException.class, () -> pool.execute(session -> {
+                throw new ToolExecutionException(TOOL, new IllegalStateException("Error calling tool: [not found]"));
+            }));
+
+            pool.execute(StandInSession::callTool);
+            assertEquals(1, factory.opened.get(0).calls.get());
+        }
+    }
+
+    private static void run(McpSessionPool<StandInSession> pool) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(CALLS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                callers.add(executor.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        pool.execute(StandInSession::callTool);
+                    }
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get();
+            }
+        }
+    }
+
+    private static McpPoolProperties properties(int min, int max) {
+        McpPoolProperties properties = new McpPoolProperties();
+        properties.setMinSessions(min);
+        properties.setMaxSessions(max);
+        return properties;
+    }
+
+    private static final class StandInSession {
+
+        private final ReentrantLock lane = new ReentrantLock();
+        private final AtomicBoolean broken = new AtomicBoolean();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger inFlight;
+        private final AtomicInteger peakInFlight;
+
+        StandInSession(AtomicInteger inFlight, AtomicInteger peakInFlight) {
+            this.inFlight = inFlight;
+            this.peakInFlight = peakInFlight;
+        }
+
+        String callTool() {
+            lane.lock();
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                calls.incrementAndGet();
+                Thread.sleep(SERVICE_TIME);
+                return "ok";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+                lane.unlock();
+            }
+        }
+    }
+
+    private static final class StandInFactory implements McpSessionPool.SessionFactory<StandInSession> {
+
+        private final List<StandInSession> opened = new CopyOnWriteArrayList<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+
+        @Override
+        public StandInSession open() {
+            StandInSession session = new StandInSession(inFlight, peakInFlight);
+            opened.add(session);
+            return session;
+        }
+
+        @Override
+        public boolean ping(StandInSession session) {
+            return !session.broken.get();
+        }
+
+        @Override
+        public void close(StandInSession session) {
+        }
+    }
+}
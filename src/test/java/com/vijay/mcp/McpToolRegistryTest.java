@@ -0,0 +1,79 @@
+package com.vijay.mcp;
+
+import com.vijay.service.resilience.ResilienceRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class McpToolRegistryTest {
+
+    private static final String SCHEMA = "{\"type\":\"object\",\"properties\":{}}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ToolResultCache toolResultCache = mock(ToolResultCache.class);
+    private final AtomicReference<List<String>> serverTools = new AtomicReference<>(List.of("listNotes"));
+
+    @Test
+    void refreshSwapsInNewSnapshotWithNextVersion() {
+        McpToolRegistry registry = registry(client());
+        McpToolRegistry.Snapshot first = registry.getSnapshot();
+        assertEquals(1, first.version());
+        assertNotNull(first.find("listNotes"));
+
+        serverTools.set(List.of("listNotes", "createNote"));
+        McpToolRegistry.Snapshot second = registry.refresh();
+
+        assertEquals(2, second.version());
+        assertSame(second, registry.getSnapshot());
+        assertEquals(2, meterRegistry.get("mcp.tools.registry.version").gauge().value());
+        assertNotNull(second.find("createNote"));
+        // Callers holding the old snapshot keep a consistent view
+        assertEquals(1, first.callbacks().length);
+        assertNull(first.find("createNote"));
+        verify(toolResultCache, times(2)).invalidateAll();
+        verify(eventPublisher).publishEvent(new McpToolRegistryRefreshedEvent(2));
+    }
+
+    @Test
+    void failingServerKeepsPreviousTools() {
+        McpSyncClient client = client();
+        McpToolRegistry registry = registry(client);
+
+        when(client.listTools()).thenThrow(new IllegalStateException("session closed"));
+        McpToolRegistry.Snapshot next = registry.refresh();
+
+        assertEquals(2, next.version());
+        assertEquals(1, next.callbacks().length);
+        assertNotNull(next.find("listNotes"));
+    }
+
+    private McpToolRegistry registry(McpSyncClient client) {
+        return new McpToolRegistry(List.of(client), meterRegistry, eventPublisher, toolResultCache,
+                mock(McpClientPools.class), mock(McpAsyncClients.class), mock(ResilienceRegistry.class));
+    }
+
+    private McpSyncClient client() {
+        McpSyncClient client = mock(McpSyncClient.class);
+        when(client.getServerInfo()).thenReturn(new McpSchema.Implementation("notes", "1.0"));
+        when(client.getClientInfo()).thenReturn(new McpSchema.Implementation("notes-client", "1.0"));
+        when(client.listTools()).thenAnswer(invocation -> new McpSchema.ListToolsResult(serverTools.get().stream()
+                .map(name -> new McpSchema.Tool(name, "test tool", SCHEMA))
+                .toList(), null));
+        return client;
+    }
+}
@@ -0,0 +1,48 @@
+package com.vijay.mcp;
+
+import com.vijay.config.ToolResultCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ToolResultCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void equivalentInputsShareOneToolCall() {
+        ToolResultCache cache = new ToolResultCache(properties(), meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = cache.getOrCall("listFaqs", "{\"b\":1,\"a\":{\"y\":2,\"x\":1}}", () -> "result-" + calls.incrementAndGet());
+        String second = cache.getOrCall("listFaqs", " {\"a\":{\"x\":1,\"y\":2}, \"b\":1}", () -> "result-" + calls.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", second);
+        assertEquals(1, calls.get());
+        assertEquals(1, meterRegistry.counter("mcp.tool.cache.requests", "tool_name", "listFaqs", "result", "hit").count());
+    }
+
+    @Test
+    void toolsOutsideAllowListAreAlwaysCalled() {
+        ToolResultCache cache = new ToolResultCache(properties(), meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.getOrCall("sendEmail", "{}", () -> "sent-" + calls.incrementAndGet());
+        cache.getOrCall("sendEmail", "{}", () -> "sent-" + calls.incrementAndGet());
+
+        assertEquals(2, calls.get());
+    }
+
+    private static ToolResultCacheProperties properties() {
+        ToolResultCacheProperties properties = new ToolResultCacheProperties();
+        properties.setEnabled(true);
+        properties.setTools(Map.of("listFaqs", Duration.ofMinutes(5)));
+        return properties;
+    }
+}
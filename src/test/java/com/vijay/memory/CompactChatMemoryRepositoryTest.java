@@ -0,0 +1,123 @@
+package com.vijay.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactChatMemoryRepositoryTest {
+
+    @Test
+    void ringKeepsLastMessagesInOrder() {
+        CompactChatMemoryRepository repository = new CompactChatMemoryRepository(5);
+
+        IntStream.range(0, 12).forEach(i -> repository.append("c1", List.of(new UserMessage("m" + i))));
+
+        assertEquals(List.of("m7", "m8", "m9", "m10", "m11"),
+                repository.findByConversationId("c1").stream().map(Message::getText).toList());
+    }
+
+    @Test
+    void rolesAndUnicodeTextSurviveEncoding() {
+        CompactChatMemoryRepository repository = new CompactChatMemoryRepository(10);
+
+        repository.append("c1", List.of(
+                new SystemMessage("be brief"),
+                new UserMessage("नमस्ते, ça va? 👋"),
+                new AssistantMessage(""),
+                new ToolResponseMessage(List.of())));
+
+        List<Message> messages = repository.findByConversationId("c1");
+        assertEquals(List.of(MessageType.SYSTEM, MessageType.USER, MessageType.ASSISTANT),
+                messages.stream().map(Message::getMessageType).toList());
+        assertEquals("नमस्ते, ça va? 👋", messages.get(1).getText());
+        assertEquals("", messages.get(2).getText());
+    }
+
+    @Test
+    void timestampIsStoredWithEachEntry() {
+        long timestamp = 1_760_000_000_123L;
+        byte[] encoded = MessageCodec.encodeBytes(new UserMessage("hi"), timestamp);
+
+        assertEquals(timestamp, MessageCodec.timestampOf(encoded));
+        assertEquals("hi", MessageCodec.decode(encoded).getText());
+    }
+
+    @Test
+    void saveAllAndDeleteReplaceConversation() {
+        CompactChatMemoryRepository repository = new CompactChatMemoryRepository(3);
+        repository.append("c1", List.of(new UserMessage("old")));
+
+        repository.saveAll("c1", List.of(new UserMessage("a"), new UserMessage("b"),
+                new UserMessage("c"), new UserMessage("d")));
+        assertEquals(List.of("b", "c", "d"), repository.findByConversationId("c1").stream().map(Message::getText).toList());
+
+        repository.deleteByConversationId("c1");
+        assertTrue(repository.findByConversationId("c1").isEmpty());
+        assertEquals(0, repository.size());
+    }
+
+    /**
+     * Retained heap per live conversation, compared with the default MessageWindowChatMemory.
+     * Heap measurements depend on the collector, so this only runs on request, e.g.
+     * -Dchat.memory.benchmark.sizes=10000,100000,1000000 (with a large enough -Xmx).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "chat.memory.benchmark.sizes", matches = ".+")
+    void heapFootprintAgainstDefaultChatMemory() {
+        int[] sizes = Arrays.stream(System.getProperty("chat.memory.benchmark.sizes").split(","))
+                .mapToInt(size -> Integer.parseInt(size.strip()))
+                .toArray();
+
+        for (int conversations : sizes) {
+            long defaultBytes = retainedBytes(conversations,
+                    () -> MessageWindowChatMemory.builder().maxMessages(20).build());
+            long compactBytes = retainedBytes(conversations,
+                    () -> new WindowedChatMemory(new CompactChatMemoryRepository(20), 20));
+
+            assertTrue(compactBytes * 2 < defaultBytes, "compact store should need less than half the heap for "
+                    + conversations + " conversations: " + compactBytes + " vs " + defaultBytes + " bytes");
+        }
+    }
+
+    private static long retainedBytes(int conversations, Supplier<ChatMemory> factory) {
+        long before = usedHeap();
+        ChatMemory memory = factory.get();
+        for (int i = 0; i < conversations; i++) {
+            String conversationId = "3f1c2a9e-" + Integer.toHexString(i) + "-session";
+            // Two short turns, typical of idle web sessions
+            memory.add(conversationId, List.of(
+                    new UserMessage("Create a note titled Meeting " + i + " with body agenda for Monday"),
+                    new AssistantMessage("Done. I created the note 'Meeting " + i + "' with the agenda.")));
+            memory.add(conversationId, List.of(
+                    new UserMessage("List my notes"),
+                    new AssistantMessage("You have " + (i % 7 + 1) + " notes, the latest is 'Meeting " + i + "'.")));
+        }
+        long after = usedHeap();
+        // Keep the memory reachable until measured
+        assertEquals(4, memory.get("3f1c2a9e-0-session").size());
+        return Math.max(0, after - before);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
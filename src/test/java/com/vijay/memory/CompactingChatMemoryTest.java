@@ -0,0 +1,196 @@
+package com.vijay.memory;
+
+import com.vijay.config.ChatMemoryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactingChatMemoryTest {
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final List<String> previousSummaries = new ArrayList<>();
+
+    private ChatMemoryProperties.Compaction settings;
+    private ChatMemory delegate;
+
+    @BeforeEach
+    void setUp() {
+        settings = new ChatMemoryProperties.Compaction();
+        settings.setEnabled(true);
+        settings.setTokenThreshold(100);
+        settings.setKeepRecentMessages(2);
+        delegate = MessageWindowChatMemory.builder().maxMessages(20).build();
+    }
+
+    @Test
+    void smallConversationsAreLeftAlone() {
+        CompactingChatMemory memory = memory(this::summarize);
+        addTurns(memory, "c1", 1, 40);
+
+        assertEquals(2, memory.get("c1").size());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void olderTurnsAreReplacedBySummary() {
+        CompactingChatMemory memory = memory(this::summarize);
+        addTurns(memory, "c1", 4, 200);
+
+        assertEquals(8, memory.get("c1").size());
+        runScheduled();
+
+        List<Message> messages = memory.get("c1");
+        assertEquals(3, messages.size());
+        assertEquals(MessageType.SYSTEM, messages.get(0).getMessageType());
+        assertEquals(CompactingChatMemory.SUMMARY_PREFIX + "summary of 6", messages.get(0).getText());
+        assertTrue(messages.get(1).getText().startsWith("question 3"));
+
+        assertEquals("summary of 6", memory.getSummary("c1").orElseThrow().text());
+    }
+
+    @Test
+    void summaryIsStoredWithTheConversation() {
+        CompactingChatMemory memory = memory(this::summarize);
+        addTurns(memory, "c1", 4, 200);
+        memory.get("c1");
+        runScheduled();
+
+        // Another node or a restarted one reading the same store
+        CompactingChatMemory other = memory(this::summarize);
+        assertEquals(CompactingChatMemory.SUMMARY_PREFIX + "summary of 6", delegate.get("c1").get(0).getText());
+        assertEquals("summary of 6", other.getSummary("c1").orElseThrow().text());
+        assertEquals(3, other.get("c1").size());
+
+        other.clear("c1");
+        assertFalse(memory.getSummary("c1").isPresent());
+        assertTrue(memory.get("c1").isEmpty());
+    }
+
+    @Test
+    void laterCompactionsFoldInThePreviousSummary() {
+        CompactingChatMemory memory = memory(this::summarize);
+        addTurns(memory, "c1", 4, 200);
+        memory.get("c1");
+        runScheduled();
+
+        addTurns(memory, "c1", 2, 200);
+        memory.get("c1");
+        runScheduled();
+
+        assertEquals("summary of 6", previousSummaries.get(1));
+        assertEquals("summary of 4", memory.getSummary("c1").orElseThrow().text());
+        assertEquals(3, memory.get("c1").size());
+    }
+
+    @Test
+    void compactionIsAbandonedWhenConversationChanged() {
+        CompactingChatMemory memory = memory(this::summarize);
+        addTurns(memory, "c1", 4, 200);
+        memory.get("c1");
+
+        memory.clear("c1");
+        memory.add("c1", new UserMessage("fresh start"));
+        runScheduled();
+
+        assertFalse(memory.getSummary("c1").isPresent());
+        assertEquals(List.of("fresh start"), memory.get("c1").stream().map(Message::getText).toList());
+    }
+
+    @Test
+    void turnsAppendedDuringSummaryAreKept() {
+        CompactingChatMemory memory = memory(this::summarize);
+        addTurns(memory, "c1", 4, 200);
+        memory.get("c1");
+
+        memory.add("c1", new UserMessage("while summarizing"));
+        runScheduled();
+
+        List<Message> messages = memory.get("c1");
+        assertEquals(4, messages.size());
+        assertEquals("while summarizing", messages.get(3).getText());
+    }
+
+    @Test
+    void requestsDoNotWaitForTheSummarizer() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompactingChatMemory memory = new CompactingChatMemory(delegate, (previous, messages) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow summary";
+        }, settings, Executors.newVirtualThreadPerTaskExecutor(), new SimpleMeterRegistry());
+        addTurns(memory, "c1", 4, 200);
+
+        memory.get("c1");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        try {
+            // The summarizer is parked on the latch, so finishing at all proves requests did not wait for it
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                memory.add("c1", new UserMessage("next"));
+                assertEquals(9, memory.get("c1").size());
+            });
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void failedSummaryKeepsFullHistory() {
+        CompactingChatMemory memory = memory((previous, messages) -> {
+            throw new IllegalStateException("ollama unavailable");
+        });
+        addTurns(memory, "c1", 4, 200);
+        memory.get("c1");
+        runScheduled();
+
+        assertEquals(8, memory.get("c1").size());
+        assertNull(memory.getSummary("c1").orElse(null));
+    }
+
+    private CompactingChatMemory memory(ConversationSummarizer summarizer) {
+        return new CompactingChatMemory(delegate, summarizer, settings, scheduled::add, new SimpleMeterRegistry());
+    }
+
+    private String summarize(String previousSummary, List<Message> messages) {
+        previousSummaries.add(previousSummary);
+        return "summary of " + messages.size();
+    }
+
+    private void runScheduled() {
+        List<Runnable> tasks = new ArrayList<>(scheduled);
+        scheduled.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private static void addTurns(ChatMemory memory, String conversationId, int turns, int length) {
+        for (int turn = 0; turn < turns; turn++) {
+            String padding = "x".repeat(length);
+            memory.add(conversationId, List.of(
+                    new UserMessage("question " + turn + " " + padding),
+                    new AssistantMessage("answer " + turn + " " + padding)));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.vijay.memory;
+
+import com.vijay.config.ChatMemoryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvictingChatMemoryRepositoryTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ChatMemoryProperties.Eviction settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = new ChatMemoryProperties.Eviction();
+        settings.setIdleTimeout(Duration.ofMinutes(30));
+        settings.setMaxSize(DataSize.ofMegabytes(10));
+    }
+
+    @Test
+    void idleConversationsAreEvicted() {
+        EvictingChatMemoryRepository repository = repository(new CompactChatMemoryRepository(20), null);
+        repository.append("idle", List.of(new UserMessage("hello")));
+        advance(Duration.ofMinutes(20));
+        repository.append("active", List.of(new UserMessage("hello")));
+        advance(Duration.ofMinutes(15));
+
+        repository.evictExpired();
+
+        assertTrue(repository.findByConversationId("idle").isEmpty());
+        assertEquals(1, repository.findByConversationId("active").size());
+        assertEquals(1, repository.liveConversations());
+        assertEquals(1.0, meterRegistry.get("chat.memory.evictions").tag("cause", "idle").counter().count());
+    }
+
+    @Test
+    void readsKeepConversationsAlive() {
+        EvictingChatMemoryRepository repository = repository(new CompactChatMemoryRepository(20), null);
+        repository.append("c1", List.of(new UserMessage("hello")));
+        for (int i = 0; i < 5; i++) {
+            advance(Duration.ofMinutes(20));
+            repository.findByConversationId("c1");
+        }
+
+        repository.evictExpired();
+
+        assertEquals(1, repository.findByConversationId("c1").size());
+    }
+
+    @Test
+    void byteBudgetBoundsRetainedConversations() {
+        settings.setMaxSize(DataSize.ofKilobytes(64));
+        EvictingChatMemoryRepository repository = repository(new CompactChatMemoryRepository(20), null);
+        String text = "x".repeat(1000);
+
+        for (int i = 0; i < 200; i++) {
+            repository.append("c" + i, List.of(new UserMessage(text)));
+        }
+        repository.evictExpired();
+
+        assertTrue(repository.estimatedBytes() <= DataSize.ofKilobytes(64).toBytes());
+        assertTrue(repository.liveConversations() < 200);
+        assertEquals(200 - repository.liveConversations(),
+                (long) meterRegistry.get("chat.memory.evictions").tag("cause", "size").counter().count());
+        assertEquals(repository.liveConversations(), repository.findConversationIds().size());
+    }
+
+    @Test
+    void estimatedBytesFollowWindowTrimming() {
+        EvictingChatMemoryRepository repository = repository(new CompactChatMemoryRepository(2), null);
+        repository.append("c1", List.of(new UserMessage("x".repeat(500))));
+        repository.append("c1", List.of(new UserMessage("x".repeat(500))));
+        long full = repository.estimatedBytes();
+
+        repository.append("c1", List.of(new UserMessage("x".repeat(500))));
+
+        assertEquals(full, repository.estimatedBytes());
+    }
+
+    @Test
+    void evictedConversationsSpillAndComeBack() {
+        InMemoryChatMemoryRepository spillStore = new InMemoryChatMemoryRepository();
+        EvictingChatMemoryRepository repository = repository(new InMemoryChatMemoryRepository(), spillStore);
+        ChatMemory memory = MessageWindowChatMemory.builder().chatMemoryRepository(repository).maxMessages(10).build();
+        memory.add("c1", new UserMessage("remember me"));
+
+        advance(Duration.ofHours(1));
+        repository.evictExpired();
+        assertEquals(0, repository.liveConversations());
+        assertEquals(List.of("remember me"), texts(spillStore.findByConversationId("c1")));
+
+        memory.add("c1", new UserMessage("I'm back"));
+
+        assertEquals(List.of("remember me", "I'm back"), texts(memory.get("c1")));
+        assertEquals(1, repository.liveConversations());
+        assertEquals(1.0, meterRegistry.get("chat.memory.restores").counter().count());
+    }
+
+    @Test
+    void deleteAlsoRemovesSpilledCopy() {
+        InMemoryChatMemoryRepository spillStore = new InMemoryChatMemoryRepository();
+        EvictingChatMemoryRepository repository = repository(new CompactChatMemoryRepository(20), spillStore);
+        repository.append("c1", List.of(new UserMessage("secret")));
+        advance(Duration.ofHours(1));
+        repository.evictExpired();
+
+        repository.deleteByConversationId("c1");
+
+        assertTrue(repository.findByConversationId("c1").isEmpty());
+        assertTrue(spillStore.findByConversationId("c1").isEmpty());
+    }
+
+    private EvictingChatMemoryRepository repository(ChatMemoryRepository delegate,
+                                                    InMemoryChatMemoryRepository spillStore) {
+        return new EvictingChatMemoryRepository(delegate, settings, spillStore, Runnable::run, meterRegistry, nanos::get);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(duration.toMillis()));
+    }
+
+    private static List<String> texts(List<Message> messages) {
+        return messages.stream().map(Message::getText).toList();
+    }
+}
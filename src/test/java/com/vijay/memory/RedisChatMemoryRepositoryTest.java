@@ -0,0 +1,164 @@
+package com.vijay.memory;
+
+import com.vijay.config.ChatMemoryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs against an embedded Redis server; skipped where the bundled redis-server binary cannot start
+ */
+class RedisChatMemoryRepositoryTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RedisChatMemoryRepository repository;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        try {
+            redisServer = new RedisServer(port);
+            redisServer.start();
+        } catch (IOException | RuntimeException e) {
+            redisServer = null;
+        }
+        assumeTrue(redisServer != null, "embedded Redis not available");
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        ChatMemoryProperties properties = new ChatMemoryProperties();
+        properties.setMaxMessages(4);
+        repository = new RedisChatMemoryRepository(redisTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void appendKeepsOrderAndTrimsToWindow() {
+        IntStream.range(0, 3).forEach(turn -> repository.append("c1", List.of(
+                new UserMessage("question " + turn),
+                new AssistantMessage("answer " + turn))));
+
+        List<Message> messages = repository.findByConversationId("c1");
+
+        assertEquals(List.of("question 1", "answer 1", "question 2", "answer 2"),
+                messages.stream().map(Message::getText).toList());
+        assertEquals(MessageType.USER, messages.get(0).getMessageType());
+        assertEquals(MessageType.ASSISTANT, messages.get(1).getMessageType());
+        assertEquals(4, repository.size("c1"));
+    }
+
+    @Test
+    void appendAllWritesSeveralConversationsInOnePipeline() {
+        repository.append("c1", List.of(new UserMessage("before")));
+
+        repository.appendAll(Map.of(
+                "c1", List.of(new AssistantMessage("after")),
+                "c2", List.of(new UserMessage("first"))));
+
+        assertEquals(List.of("before", "after"),
+                repository.findByConversationId("c1").stream().map(Message::getText).toList());
+        assertEquals(List.of("first"),
+                repository.findByConversationId("c2").stream().map(Message::getText).toList());
+        assertEquals(2, repository.findConversationIds().size());
+    }
+
+    @Test
+    void saveAllReplacesConversation() {
+        repository.append("c1", List.of(new UserMessage("old")));
+
+        repository.saveAll("c1", List.of(new UserMessage("new"), new AssistantMessage("text with | separators")));
+
+        assertEquals(List.of("new", "text with | separators"),
+                repository.findByConversationId("c1").stream().map(Message::getText).toList());
+    }
+
+    @Test
+    void deleteRemovesConversationAndId() {
+        repository.append("c1", List.of(new UserMessage("hello")));
+        repository.append("c2", List.of(new UserMessage("hello")));
+
+        repository.deleteByConversationId("c1");
+
+        assertTrue(repository.findByConversationId("c1").isEmpty());
+        assertEquals(List.of("c2"), repository.findConversationIds());
+    }
+
+    @Test
+    void expiredConversationsLeaveTheIndex() throws InterruptedException {
+        ChatMemoryProperties properties = new ChatMemoryProperties();
+        properties.getRedis().setTtl(Duration.ofSeconds(1));
+        repository = new RedisChatMemoryRepository(redisTemplate, properties, new SimpleMeterRegistry());
+        repository.append("c1", List.of(new UserMessage("hello")));
+
+        Thread.sleep(1_100);
+        assertTrue(repository.findConversationIds().isEmpty());
+        repository.append("c2", List.of(new UserMessage("hello")));
+
+        assertEquals(List.of("c2"), repository.findConversationIds());
+        assertEquals(1, redisTemplate.opsForZSet().zCard(properties.getRedis().getKeyPrefix() + "index"));
+    }
+
+    @Test
+    void storedTimestampsAreReturned() {
+        long before = System.currentTimeMillis();
+        repository.append("c1", List.of(new UserMessage("hello")));
+
+        RedisChatMemoryRepository.StoredMessage stored = repository.findWithTimestamps("c1").get(0);
+        assertEquals("hello", stored.message().getText());
+        assertTrue(stored.timestamp() >= before && stored.timestamp() <= System.currentTimeMillis());
+    }
+
+    @Test
+    void windowedChatMemoryReadsWhatItAppends() {
+        ChatMemory chatMemory = new WindowedChatMemory(repository, 4);
+
+        chatMemory.add("c1", new UserMessage("hi"));
+        chatMemory.add("c1", new AssistantMessage("hello"));
+
+        assertEquals(List.of("hi", "hello"), chatMemory.get("c1").stream().map(Message::getText).toList());
+    }
+}
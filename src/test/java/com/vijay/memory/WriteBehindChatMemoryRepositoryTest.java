@@ -0,0 +1,238 @@
+package com.vijay.memory;
+
+import com.vijay.config.ChatMemoryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WriteBehindChatMemoryRepositoryTest {
+
+    private final Map<String, List<Message>> stored = new ConcurrentHashMap<>();
+    private final AtomicBoolean redisDown = new AtomicBoolean();
+    private volatile long redisLatencyMillis;
+    private volatile CountDownLatch redisGate;
+    private final CountDownLatch redisCalled = new CountDownLatch(1);
+
+    private RedisChatMemoryRepository redis;
+    private ChatMemoryProperties properties;
+    private WriteBehindChatMemoryRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(RedisChatMemoryRepository.class);
+        // Like the Redis list, reads return the last maxMessages entries
+        when(redis.findByConversationId(anyString())).thenAnswer(invocation -> {
+            List<Message> messages = List.copyOf(stored.getOrDefault(invocation.<String>getArgument(0), List.of()));
+            int window = properties.getMaxMessages();
+            return messages.size() > window ? messages.subList(messages.size() - window, messages.size()) : messages;
+        });
+        doAnswer(invocation -> {
+            redisCalled.countDown();
+            CountDownLatch gate = redisGate;
+            if (gate != null && !gate.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("redis gate never opened");
+            }
+            Thread.sleep(redisLatencyMillis);
+            if (redisDown.get()) {
+                throw new IllegalStateException("connection refused");
+            }
+            invocation.<Map<String, List<Message>>>getArgument(0).forEach((id, messages) ->
+                    stored.computeIfAbsent(id, key -> new ArrayList<>()).addAll(messages));
+            return null;
+        }).when(redis).appendAll(any(Map.class));
+
+        properties = new ChatMemoryProperties();
+        properties.setMaxMessages(10);
+        properties.getWriteBehind().setFlushInterval(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        repository.destroy();
+    }
+
+    @Test
+    void readsSeeUnflushedMessagesInOrder() {
+        repository = new WriteBehindChatMemoryRepository(redis, properties, new SimpleMeterRegistry());
+        stored.put("c1", new ArrayList<>(List.of(new UserMessage("stored"))));
+
+        repository.append("c1", List.of(new UserMessage("buffered 1")));
+        repository.append("c1", List.of(new UserMessage("buffered 2")));
+
+        verify(redis, never()).appendAll(any());
+        assertEquals(List.of("stored", "buffered 1", "buffered 2"), texts(repository.findByConversationId("c1")));
+
+        repository.flushAll();
+        assertEquals(0, repository.getQueuedMessages());
+        assertEquals(List.of("stored", "buffered 1", "buffered 2"), texts(stored.get("c1")));
+        assertEquals(List.of("stored", "buffered 1", "buffered 2"), texts(repository.findByConversationId("c1")));
+    }
+
+    @Test
+    void flushesWhenBatchSizeIsReached() throws InterruptedException {
+        properties.getWriteBehind().setBatchSize(3);
+        repository = new WriteBehindChatMemoryRepository(redis, properties, new SimpleMeterRegistry());
+
+        repository.append("c1", List.of(new UserMessage("1"), new UserMessage("2")));
+        repository.append("c2", List.of(new UserMessage("3")));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (repository.getQueuedMessages() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, repository.getQueuedMessages());
+        assertEquals(List.of("1", "2"), texts(stored.get("c1")));
+        assertEquals(List.of("3"), texts(stored.get("c2")));
+    }
+
+    @Test
+    void appendsDoNotWaitForSlowRedis() throws InterruptedException {
+        properties.getWriteBehind().setBatchSize(1);
+        repository = new WriteBehindChatMemoryRepository(redis, properties, new SimpleMeterRegistry());
+        redisGate = new CountDownLatch(1);
+
+        // The first append wakes the flusher, which then hangs in Redis until the gate opens
+        repository.append("c1", List.of(new UserMessage("m0")));
+        assertTrue(redisCalled.await(5, TimeUnit.SECONDS));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 1; i < 100; i++) {
+                repository.append("c1", List.of(new UserMessage("m" + i)));
+            }
+        });
+        assertTrue(stored.isEmpty());
+        assertEquals(100, repository.getQueuedMessages());
+
+        redisGate.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (repository.getQueuedMessages() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, repository.getQueuedMessages());
+        assertEquals(100, stored.get("c1").size());
+        assertEquals("m99", texts(stored.get("c1")).get(99));
+        assertEquals("m99", texts(repository.findByConversationId("c1")).get(9));
+    }
+
+    @Test
+    void failedFlushIsRetriedWithoutLosingOrder() {
+        repository = new WriteBehindChatMemoryRepository(redis, properties, new SimpleMeterRegistry());
+        redisDown.set(true);
+        repository.append("c1", List.of(new UserMessage("first")));
+        try {
+            repository.flushAll();
+        } catch (IllegalStateException expected) {
+            // requeued
+        }
+        repository.append("c1", List.of(new UserMessage("second")));
+        assertEquals(List.of("first", "second"), texts(repository.findByConversationId("c1")));
+
+        redisDown.set(false);
+        repository.flushAll();
+        assertEquals(List.of("first", "second"), texts(stored.get("c1")));
+    }
+
+    @Test
+    void fullBufferShedsOldestMessagesWithoutTouchingRedis() {
+        properties.getWriteBehind().setCapacity(4);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        repository = new WriteBehindChatMemoryRepository(redis, properties, meterRegistry);
+        redisDown.set(true);
+
+        repository.append("c1", List.of(new UserMessage("1"), new UserMessage("2")));
+        repository.append("c2", List.of(new UserMessage("3"), new UserMessage("4")));
+        repository.append("c2", List.of(new UserMessage("5")));
+        repository.append("c1", List.of(new UserMessage("6"), new UserMessage("7")));
+
+        verify(redis, never()).appendAll(any());
+        assertEquals(4, repository.getQueuedMessages());
+        assertEquals(3, meterRegistry.get("chat.memory.write_behind.overflows").counter().count());
+        assertEquals(List.of("6", "7"), texts(repository.findByConversationId("c1")));
+        assertEquals(List.of("4", "5"), texts(repository.findByConversationId("c2")));
+
+        redisDown.set(false);
+        repository.flushAll();
+        assertEquals(0, repository.getQueuedMessages());
+        assertEquals(List.of("4", "5"), texts(stored.get("c2")));
+    }
+
+    @Test
+    void shutdownFlushesBufferedMessages() throws InterruptedException {
+        repository = new WriteBehindChatMemoryRepository(redis, properties, new SimpleMeterRegistry());
+        repository.append("c1", List.of(new UserMessage("last words")));
+
+        repository.destroy();
+
+        assertEquals(List.of("last words"), texts(stored.get("c1")));
+    }
+
+    @Test
+    void deleteDiscardsBufferedMessages() {
+        repository = new WriteBehindChatMemoryRepository(redis, properties, new SimpleMeterRegistry());
+        doAnswer(invocation -> stored.remove(invocation.<String>getArgument(0)))
+                .when(redis).deleteByConversationId(anyString());
+        repository.append("c1", List.of(new UserMessage("gone")));
+
+        repository.deleteByConversationId("c1");
+        repository.flushAll();
+
+        assertEquals(0, repository.getQueuedMessages());
+        assertTrue(repository.findByConversationId("c1").isEmpty());
+    }
+
+    @Test
+    void concurrentReadsNeverSeeDuplicatesDuringFlush() throws InterruptedException {
+        properties.setMaxMessages(1000);
+        properties.getWriteBehind().setFlushInterval(Duration.ofMillis(1));
+        repository = new WriteBehindChatMemoryRepository(redis, properties, new SimpleMeterRegistry());
+        redisLatencyMillis = 1;
+
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean consistent = new AtomicBoolean(true);
+        Thread reader = Thread.ofPlatform().start(() -> {
+            while (done.getCount() > 0) {
+                List<String> seen = texts(repository.findByConversationId("c1"));
+                for (int i = 0; i < seen.size(); i++) {
+                    if (!seen.get(i).equals("m" + i)) {
+                        consistent.set(false);
+                    }
+                }
+            }
+        });
+        for (int i = 0; i < 300; i++) {
+            repository.append("c1", List.of(new UserMessage("m" + i)));
+            Thread.sleep(0, 200_000);
+        }
+        done.countDown();
+        reader.join();
+
+        assertTrue(consistent.get());
+    }
+
+    private static List<String> texts(List<Message> messages) {
+        return messages.stream().map(Message::getText).toList();
+    }
+}
@@ -0,0 +1,221 @@
+package com.vijay.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vijay.client.ProviderHttpTransport;
+import com.vijay.config.HttpTransportProperties;
+import com.vijay.config.ResilienceProperties;
+import com.vijay.exception.AIProviderException;
+import com.vijay.exception.ChatServiceException;
+import com.vijay.exception.ProviderOverloadedException;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.service.resilience.ResilienceRegistry;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResilientChatServiceTest {
+
+    static {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch releaseStub = new CountDownLatch(1);
+    private final ChatService chatService = mock(ChatService.class);
+    private ExecutorService executor;
+    private HttpServer server;
+    private ProviderHttpTransport transport;
+    private ResilienceRegistry resilienceRegistry;
+    private ResilientChatService resilientChatService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", exchange -> {
+            try {
+                // A provider that never answers within the test
+                releaseStub.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        transport = new ProviderHttpTransport(new HttpTransportProperties(), Map.of("openai", baseUrl), meterRegistry);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("resilient-chat-", 0).factory());
+        resilienceRegistry = new ResilienceRegistry(new ResilienceProperties(),
+                CircuitBreakerRegistry.ofDefaults(),
+                RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(300)).build()),
+                BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(2).maxWaitDuration(Duration.ZERO).build()),
+                meterRegistry);
+        AIClientService aiClientService = mock(AIClientService.class);
+        when(aiClientService.getDefaultProvider()).thenReturn("gemini");
+        resilientChatService = new ResilientChatService(chatService, aiClientService, resilienceRegistry,
+                executor, transport, meterRegistry);
+
+        RestClient restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(transport.requestFactory())
+                .build();
+        when(chatService.processChatRequest(any(), anyString())).thenAnswer(invocation -> restClient.post()
+                .uri("/v1/chat/completions")
+                .body("{}")
+                .retrieve()
+                .body(String.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseStub.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+        transport.destroy();
+    }
+
+    @Test
+    void timeoutCancelsProviderCallAndReleasesConnection() throws InterruptedException {
+        long start = System.nanoTime();
+        assertThrows(ChatServiceException.class,
+                () -> resilientChatService.processChatRequest(request(), "c1"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < 5_000, "took " + elapsedMillis + " ms");
+
+        // The interrupted call gives back its thread and its connection slot
+        assertTrue(awaitZero(() -> meterRegistry.get("chat.resilient.calls.active").gauge().value()));
+        assertTrue(awaitZero(() -> (double) transport.activeRequests()));
+        assertEquals(1, meterRegistry.get("chat.resilient.timeouts").counter().count());
+        assertEquals(1, meterRegistry.get("chat.resilient.cancel.time").timer().count());
+    }
+
+    @Test
+    void callsRunOnDedicatedExecutor() {
+        AtomicReference<String> threadName = new AtomicReference<>();
+        doAnswer(invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            return new ChatResponse("gemini", "", "ok");
+        }).when(chatService).processChatRequest(any(), anyString());
+
+        ChatResponse response = resilientChatService.processChatRequest(request(), "c2");
+
+        assertEquals("ok", response.getAnswer());
+        assertTrue(threadName.get().startsWith("resilient-chat-"), threadName.get());
+        assertEquals(0, meterRegistry.get("chat.resilient.timeouts").counter().count());
+    }
+
+    @Test
+    void openBreakerOfOneModelDoesNotShedOthers() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return new ChatResponse("gemini", "", "ok");
+        }).when(chatService).processChatRequest(any(), anyString());
+        resilienceRegistry.forProvider("gemini", "broken").circuitBreaker().transitionToOpenState();
+
+        AIProviderException rejected = assertThrows(AIProviderException.class,
+                () -> resilientChatService.processChatRequest(request("broken"), "c3"));
+        assertEquals("CIRCUIT_BREAKER_OPEN", rejected.getErrorCode());
+        // Rejected on the caller thread: the chat service never ran
+        assertTrue(threads.isEmpty());
+
+        assertEquals("ok", resilientChatService.processChatRequest(request("healthy"), "c4").getAnswer());
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutStartingThread() {
+        Bulkhead bulkhead = resilienceRegistry.forProvider("gemini", "flash").bulkhead();
+        assertTrue(bulkhead.tryAcquirePermission());
+        assertTrue(bulkhead.tryAcquirePermission());
+
+        assertThrows(ProviderOverloadedException.class,
+                () -> resilientChatService.processChatRequest(request("flash"), "c5"));
+        assertEquals(0, meterRegistry.get("chat.resilient.calls.active").gauge().value());
+        // The rejected call gave its circuit breaker permission back and did not count as a failure
+        assertEquals(0, resilienceRegistry.forProvider("gemini", "flash").circuitBreaker().getMetrics()
+                .getNumberOfFailedCalls());
+    }
+
+    @Test
+    void callerKeyRejectionsDoNotCountAgainstAnyBreaker() {
+        doAnswer(invocation -> {
+            throw new NonTransientAiException("401 - invalid api key");
+        }).when(chatService).processChatRequest(any(), anyString());
+        ChatRequest ownKey = request("flash");
+        ownKey.setApiKey("sk-caller");
+
+        assertThrows(ChatServiceException.class, () -> resilientChatService.processChatRequest(ownKey, "c6"));
+
+        assertEquals(0, resilienceRegistry.forProvider("caller", "flash").circuitBreaker().getMetrics()
+                .getNumberOfFailedCalls());
+        assertEquals(0, resilienceRegistry.forProvider("gemini", "flash").circuitBreaker().getMetrics()
+                .getNumberOfBufferedCalls());
+
+        // The configured credentials failing is a provider fault
+        assertThrows(ChatServiceException.class,
+                () -> resilientChatService.processChatRequest(request("flash"), "c7"));
+        assertEquals(1, resilienceRegistry.forProvider("gemini", "flash").circuitBreaker().getMetrics()
+                .getNumberOfFailedCalls());
+    }
+
+    private static boolean awaitZero(DoubleSupplier value) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (value.getAsDouble() == 0) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    private static ChatRequest request() {
+        return request(null);
+    }
+
+    private static ChatRequest request(String model) {
+        ChatRequest request = new ChatRequest();
+        request.setMessage("hi");
+        request.setProvider("gemini");
+        request.setModel(model);
+        return request;
+    }
+}
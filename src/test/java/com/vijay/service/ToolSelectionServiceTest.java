@@ -0,0 +1,150 @@
+package com.vijay.service;
+
+import com.vijay.config.ToolSelectionProperties;
+import com.vijay.mcp.McpToolRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.DefaultToolDefinition;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Selection accuracy and token savings on a labelled set of coding-assistant requests
+ */
+class ToolSelectionServiceTest {
+
+    private static final ToolCallback[] TOOLS = {
+            tool("analyzeCode", "Analyze source code for complexity, code smells and maintainability issues",
+                    "code", "Source code to analyze"),
+            tool("detectBugs", "Find likely bugs such as null dereferences, resource leaks and off-by-one errors",
+                    "code", "Source code to inspect"),
+            tool("generateTests", "Generate JUnit unit tests for a class or method",
+                    "code", "Class under test"),
+            tool("formatCode", "Format and indent source code according to a style guide",
+                    "code", "Source code to format"),
+            tool("explainCode", "Explain what a piece of code does in plain language",
+                    "code", "Code snippet to explain"),
+            tool("listFiles", "List files and directories in a project folder",
+                    "path", "Directory path"),
+            tool("readFile", "Read the contents of a file from disk",
+                    "path", "File path"),
+            tool("searchCode", "Search the project for a symbol, class name or text pattern",
+                    "query", "Text or regex to search for"),
+            tool("createNote", "Create a note with a title and body",
+                    "title", "Note title"),
+            tool("listNotes", "List saved notes",
+                    "limit", "Maximum number of notes"),
+            tool("generateDocs", "Generate Javadoc documentation comments for methods and classes",
+                    "code", "Source code to document"),
+            tool("dependencyReport", "Report outdated Maven or Gradle dependencies and known vulnerabilities",
+                    "path", "Project root with pom.xml or build.gradle"),
+    };
+
+    private static final Map<String, String> LABELLED = Map.ofEntries(
+            Map.entry("Can you find bugs in this method?", "detectBugs"),
+            Map.entry("write unit tests for my UserService class", "generateTests"),
+            Map.entry("please format this code, the indentation is a mess", "formatCode"),
+            Map.entry("explain what this code does", "explainCode"),
+            Map.entry("list the files in E:/demo", "listFiles"),
+            Map.entry("read the file src/Main.java", "readFile"),
+            Map.entry("search the project for OrderRepository", "searchCode"),
+            Map.entry("create a note titled Sprint with body retro items", "createNote"),
+            Map.entry("show my saved notes", "listNotes"),
+            Map.entry("add javadoc documentation to these methods", "generateDocs"),
+            Map.entry("are any of my maven dependencies outdated or vulnerable?", "dependencyReport"),
+            Map.entry("how complex is this code, any code smells?", "analyzeCode"),
+            Map.entry("is there a resource leak in this snippet", "detectBugs"),
+            Map.entry("generate tests for the parser", "generateTests"));
+
+    private ToolSelectionProperties properties;
+    private ToolSelectionService service;
+
+    @BeforeEach
+    void setUp() {
+        McpToolRegistry registry = mock(McpToolRegistry.class);
+        when(registry.getSnapshot()).thenReturn(new McpToolRegistry.Snapshot(1, TOOLS,
+                Map.of("stand-in", List.of(TOOLS)), Map.of(), Instant.now()));
+        properties = new ToolSelectionProperties();
+        properties.setEnabled(true);
+        properties.setTopK(3);
+        service = new ToolSelectionService(properties, registry, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void selectsExpectedToolForLabelledRequests() {
+        int top1 = 0;
+        int recalled = 0;
+        long selectedTokens = 0;
+        long fullTokens = ToolSelectionService.estimateTokens(TOOLS) * LABELLED.size();
+
+        for (Map.Entry<String, String> example : LABELLED.entrySet()) {
+            ToolSelectionService.ToolSelection selection = service.select(example.getKey());
+            assertTrue(selection.trimmed(), "fell back for: " + example.getKey());
+            List<String> names = Arrays.stream(selection.toolCallbacks())
+                    .map(tool -> tool.getToolDefinition().name())
+                    .toList();
+            if (names.get(0).equals(example.getValue())) {
+                top1++;
+            }
+            if (names.contains(example.getValue())) {
+                recalled++;
+            }
+            selectedTokens += ToolSelectionService.estimateTokens(selection.toolCallbacks());
+        }
+
+        double recall = (double) recalled / LABELLED.size();
+        assertTrue(top1 >= LABELLED.size() * 0.8, "top-1 " + top1 + "/" + LABELLED.size());
+        assertTrue(recall >= 0.9, "recall@K " + recall);
+        assertTrue(selectedTokens < fullTokens / 2);
+    }
+
+    @Test
+    void fallsBackToFullSetOnLowConfidence() {
+        ToolSelectionService.ToolSelection selection = service.select("hello there, how are you today?");
+
+        assertFalse(selection.trimmed());
+    }
+
+    @Test
+    void attachesOnlySelectedTools() {
+        ToolSelectionService.ToolSelection selection = service.select("create a note titled Hello");
+
+        List<String> names = Arrays.stream(selection.toolCallbacks())
+                .map(tool -> tool.getToolDefinition().name())
+                .toList();
+        assertEquals("createNote", names.get(0));
+        assertFalse(names.contains("dependencyReport"));
+    }
+
+    private static ToolCallback tool(String name, String description, String field, String fieldDescription) {
+        ToolDefinition definition = DefaultToolDefinition.builder()
+                .name(name)
+                .description(description)
+                .inputSchema("{\"type\":\"object\",\"properties\":{\"" + field + "\":{\"type\":\"string\",\"description\":\""
+                        + fieldDescription + "\"}}}")
+                .build();
+        return new ToolCallback() {
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return definition;
+            }
+
+            @Override
+            public String call(String toolInput) {
+                return "";
+            }
+        };
+    }
+}
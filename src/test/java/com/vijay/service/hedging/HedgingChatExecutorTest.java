@@ -0,0 +1,304 @@
+package com.vijay.service.hedging;
+
+import com.vijay.config.ConcurrencyLimitProperties;
+import com.vijay.config.HedgingProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.service.limit.AdaptiveConcurrencyLimiter;
+import com.vijay.tool.ToolProgressListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.Message;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgingChatExecutorTest {
+
+    private static final int WARM_UP = 5;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChatMemory chatMemory = MessageWindowChatMemory.builder()
+            .chatMemoryRepository(new InMemoryChatMemoryRepository())
+            .maxMessages(100)
+            .build();
+    private final Map<String, Function<ToolProgressListener, String>> behaviours = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final List<String> toolsExecutedBy = new CopyOnWriteArrayList<>();
+    private ExecutorService executor;
+    private HedgingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        // Platform threads: virtual threads blocked in sleep would starve a single-CPU runner
+        executor = Executors.newCachedThreadPool();
+        properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setMinSamples(WARM_UP);
+        properties.setMinDelay(Duration.ofMillis(20));
+        properties.setBudgetRatio(1);
+        HedgingProperties.Target target = new HedgingProperties.Target();
+        target.setProvider("ollama");
+        target.setModel("llama3.2");
+        properties.getTargets().put("gemini", target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void appliesOnlyToConfiguredProvidersWithDefaultCredentials() {
+        HedgingChatExecutor hedging = executor();
+
+        assertTrue(hedging.applies(request("hi"), "gemini"));
+        assertFalse(hedging.applies(request("hi"), "ollama"));
+        ChatRequest ownKey = request("hi");
+        ownKey.setApiKey("sk-user");
+        assertFalse(hedging.applies(ownKey, "gemini"));
+        properties.setEnabled(false);
+        assertFalse(hedging.applies(request("hi"), "gemini"));
+    }
+
+    @Test
+    void doesNotHedgeWithoutLatencyEstimate() {
+        HedgingChatExecutor hedging = executor();
+        behaviours.put("gemini", listener -> sleepThen(100, "primary"));
+        behaviours.put("ollama", listener -> "backup");
+
+        HedgingChatExecutor.HedgedAnswer answer = hedging.call(request("hi"), "c1", "gemini", this::prompt);
+
+        assertEquals("primary", answer.text());
+        assertFalse(answer.backup());
+        assertEquals(0, calls("ollama"));
+        assertEquals(1, outcome("no_estimate"));
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndCancelled() throws InterruptedException {
+        HedgingChatExecutor hedging = warmedUp();
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+        behaviours.put("gemini", listener -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                primaryInterrupted.countDown();
+            }
+            return "primary";
+        });
+        behaviours.put("ollama", listener -> "backup");
+
+        long start = System.nanoTime();
+        HedgingChatExecutor.HedgedAnswer answer = hedging.call(request("slow one"), "c2", "gemini", this::prompt);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("backup", answer.text());
+        assertEquals("ollama", answer.provider());
+        assertEquals("llama3.2", answer.model());
+        assertTrue(answer.backup());
+        assertTrue(elapsedMillis < 5_000, "took " + elapsedMillis + " ms");
+        assertTrue(primaryInterrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, outcome("hedged"));
+        assertEquals(1, meterRegistry.get("chat.hedging.wins").tag("winner", "backup").counter().count());
+
+        // Only the winning turn is written, once
+        List<Message> history = chatMemory.get("c2");
+        assertEquals(2, history.size());
+        assertEquals("slow one", history.get(0).getText());
+        assertEquals("backup", history.get(1).getText());
+    }
+
+    @Test
+    void backupWinsStillRecordPrimaryLatency() {
+        HedgingChatExecutor hedging = warmedUp();
+        long minDelay = properties.getMinDelay().toNanos();
+        assertEquals(minDelay, hedging.hedgeDelayNanos("gemini:"));
+        behaviours.put("gemini", listener -> sleepThen(10_000, "primary"));
+        behaviours.put("ollama", listener -> sleepThen(100, "backup"));
+
+        assertTrue(hedging.call(request("slow one"), "c2", "gemini", this::prompt).backup());
+
+        // The primary took at least minDelay + 100 ms; the estimate must not stay at the fast warm-up
+        assertTrue(hedging.hedgeDelayNanos("gemini:") >= minDelay + TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void eachBranchHoldsItsOwnPermit() {
+        HedgingChatExecutor hedging = warmedUp();
+        AtomicReference<Double> primaryInFlight = new AtomicReference<>();
+        AtomicReference<Double> backupInFlight = new AtomicReference<>();
+        behaviours.put("gemini", listener -> sleepThen(10_000, "primary"));
+        behaviours.put("ollama", listener -> {
+            primaryInFlight.set(inFlight("gemini"));
+            backupInFlight.set(inFlight("ollama"));
+            return "backup";
+        });
+
+        HedgingChatExecutor.HedgedAnswer answer = hedging.call(request("hi"), "c7", "gemini", this::prompt);
+
+        assertTrue(answer.backup());
+        assertEquals(1, primaryInFlight.get());
+        assertEquals(1, backupInFlight.get());
+        assertEquals(0, inFlight("gemini"));
+        // The cancelled primary does not count as overload
+        assertEquals(20, meterRegistry.get("chat.limiter.limit").tag("provider", "gemini").gauge().value());
+    }
+
+    @Test
+    void hedgesAreCappedByBudget() {
+        properties.setBudgetRatio(0);
+        HedgingChatExecutor hedging = warmedUp();
+        behaviours.put("gemini", listener -> sleepThen(150, "primary"));
+
+        HedgingChatExecutor.HedgedAnswer answer = hedging.call(request("hi"), "c3", "gemini", this::prompt);
+
+        assertEquals("primary", answer.text());
+        assertEquals(0, calls("ollama"));
+        assertEquals(1, outcome("budget_exhausted"));
+    }
+
+    @Test
+    void primaryRunningToolsIsNotHedged() {
+        HedgingChatExecutor hedging = warmedUp();
+        behaviours.put("gemini", listener -> {
+            useTool(listener, "gemini");
+            return sleepThen(150, "primary");
+        });
+
+        HedgingChatExecutor.HedgedAnswer answer = hedging.call(request("hi"), "c4", "gemini", this::prompt);
+
+        assertEquals("primary", answer.text());
+        assertEquals(0, calls("ollama"));
+        assertEquals(1, outcome("tools_in_progress"));
+        assertEquals(List.of("gemini"), toolsExecutedBy);
+    }
+
+    @Test
+    void onlyOneBranchExecutesTools() {
+        HedgingChatExecutor hedging = warmedUp();
+        behaviours.put("gemini", listener -> {
+            sleepThen(300, null);
+            // Reached only if the sleep was not interrupted
+            useTool(listener, "gemini");
+            return "primary";
+        });
+        behaviours.put("ollama", listener -> {
+            useTool(listener, "ollama");
+            return "backup";
+        });
+
+        HedgingChatExecutor.HedgedAnswer answer = hedging.call(request("hi"), "c5", "gemini", this::prompt);
+
+        assertEquals("backup", answer.text());
+        assertEquals(List.of("ollama"), toolsExecutedBy);
+    }
+
+    @Test
+    void primaryFailureWithoutHedgePropagates() {
+        HedgingChatExecutor hedging = executor();
+        behaviours.put("gemini", listener -> {
+            throw new IllegalArgumentException("provider down");
+        });
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> hedging.call(request("hi"), "c6", "gemini", this::prompt));
+        assertEquals("provider down", e.getMessage());
+        assertTrue(chatMemory.get("c6").isEmpty());
+    }
+
+    private HedgingChatExecutor executor() {
+        Map<String, ChatClient> clients = Map.of("gemini", mock(ChatClient.class), "ollama", mock(ChatClient.class));
+        return new HedgingChatExecutor(properties, clients, chatMemory, executor,
+                new AdaptiveConcurrencyLimiter(new ConcurrencyLimitProperties(), meterRegistry), meterRegistry);
+    }
+
+    private HedgingChatExecutor warmedUp() {
+        HedgingChatExecutor hedging = executor();
+        behaviours.put("gemini", listener -> "warm");
+        for (int i = 0; i < WARM_UP; i++) {
+            hedging.call(request("warm-up"), "warm-up-" + i, "gemini", this::prompt);
+        }
+        return hedging;
+    }
+
+    /**
+     * Prompt whose call() runs the behaviour registered for the branch's provider
+     */
+    private ChatClient.ChatClientRequestSpec prompt(ChatClient client, ChatRequest request) {
+        String provider = request.getProvider() != null ? request.getProvider() : "gemini";
+        AtomicReference<ToolProgressListener> listener = new AtomicReference<>();
+        ChatClient.ChatClientRequestSpec spec = mock(ChatClient.ChatClientRequestSpec.class, RETURNS_SELF);
+        ChatClient.CallResponseSpec response = mock(ChatClient.CallResponseSpec.class);
+        doAnswer(invocation -> {
+            Map<String, Object> context = invocation.getArgument(0);
+            listener.set((ToolProgressListener) context.get(ToolProgressListener.CONTEXT_KEY));
+            return spec;
+        }).when(spec).toolContext(any());
+        when(spec.call()).thenReturn(response);
+        when(response.content()).thenAnswer(invocation -> {
+            calls.computeIfAbsent(provider, p -> new AtomicInteger()).incrementAndGet();
+            return behaviours.get(provider).apply(listener.get());
+        });
+        return spec;
+    }
+
+    private void useTool(ToolProgressListener listener, String provider) {
+        listener.onToolCall("send_email", "{}");
+        toolsExecutedBy.add(provider);
+    }
+
+    private int calls(String provider) {
+        AtomicInteger count = calls.get(provider);
+        return count != null ? count.get() : 0;
+    }
+
+    private double inFlight(String provider) {
+        return meterRegistry.get("chat.limiter.in_flight").tag("provider", provider).gauge().value();
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("chat.hedging.requests").tag("outcome", outcome).counter().count();
+    }
+
+    private static String sleepThen(long millis, String result) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted");
+        }
+        return result;
+    }
+
+    private static ChatRequest request(String message) {
+        ChatRequest request = new ChatRequest();
+        request.setMessage(message);
+        return request;
+    }
+}
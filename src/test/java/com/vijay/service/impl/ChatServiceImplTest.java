@@ -0,0 +1,159 @@
+package com.vijay.service.impl;
+
+import com.vijay.config.ConcurrencyLimitProperties;
+import com.vijay.config.ConversationOrderingProperties;
+import com.vijay.config.SchedulingProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatStreamEvent;
+import com.vijay.service.AIClientService;
+import com.vijay.service.MetricsService;
+import com.vijay.service.ToolSelectionService;
+import com.vijay.service.hedging.HedgingChatExecutor;
+import com.vijay.service.interceptor.ConversationLocks;
+import com.vijay.service.limit.AdaptiveConcurrencyLimiter;
+import com.vijay.service.scheduling.WeightedFairScheduler;
+import com.vijay.tool.ToolProgressListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Streaming chat against a mocked ChatClient whose stream is scripted per test
+ */
+class ChatServiceImplTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AIClientService aiClientService = mock(AIClientService.class);
+    private final AtomicReference<Function<ToolProgressListener, Flux<String>>> model = new AtomicReference<>();
+    private ChatServiceImpl chatService;
+
+    @BeforeEach
+    void setUp() {
+        when(aiClientService.getDefaultProvider()).thenReturn("openai");
+        when(aiClientService.getChatClient(any(), any(), any(), any())).thenAnswer(invocation -> client());
+
+        ToolSelectionService toolSelectionService = mock(ToolSelectionService.class);
+        when(toolSelectionService.select(anyString()))
+                .thenReturn(new ToolSelectionService.ToolSelection(new ToolCallback[0], false));
+        ToolCallbackProvider toolCallbackProvider = mock(ToolCallbackProvider.class);
+        when(toolCallbackProvider.getToolCallbacks()).thenReturn(new ToolCallback[0]);
+        ConversationOrderingProperties orderingProperties = new ConversationOrderingProperties();
+
+        chatService = new ChatServiceImpl(aiClientService, "be brief", new MetricsService(meterRegistry), List.of(),
+                toolCallbackProvider, toolSelectionService, orderingProperties,
+                new ConversationLocks(orderingProperties, meterRegistry), mock(HedgingChatExecutor.class),
+                new AdaptiveConcurrencyLimiter(new ConcurrencyLimitProperties(), meterRegistry),
+                new WeightedFairScheduler(new SchedulingProperties(), meterRegistry));
+    }
+
+    @Test
+    void streamsTokensAndToolEventsThenDone() {
+        model.set(listener -> Flux.defer(() -> {
+            listener.onToolCall("list_notes", "{}");
+            listener.onToolResult("list_notes", "[\"Meeting\"]");
+            return Flux.just("You have ", "", "one note");
+        }));
+
+        List<ChatStreamEvent> events = chatService.streamChatRequest(request("list my notes"), "c1")
+                .collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("You have ", "one note"), contentsOf(events, ChatStreamEvent.TOKEN));
+        assertEquals(List.of("{}"), contentsOf(events, ChatStreamEvent.TOOL_CALL));
+        assertEquals(List.of("[\"Meeting\"]"), contentsOf(events, ChatStreamEvent.TOOL_RESULT));
+        ChatStreamEvent last = events.get(events.size() - 1);
+        assertEquals(ChatStreamEvent.DONE, last.getType());
+        assertEquals("openai", last.getContent());
+        assertEquals(0, inFlight());
+    }
+
+    @Test
+    void providerFailureEndsStreamWithErrorEvent() {
+        model.set(listener -> Flux.concat(Flux.just("partial"), Flux.error(new IllegalStateException("boom"))));
+
+        List<ChatStreamEvent> events = chatService.streamChatRequest(request("hi"), "c2")
+                .collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(ChatStreamEvent.TOKEN, ChatStreamEvent.ERROR),
+                events.stream().map(ChatStreamEvent::getType).toList());
+        assertTrue(events.get(1).getContent().contains("boom"));
+        assertEquals(1, meterRegistry.get("chat.responses.error.by_provider").tag("provider", "openai")
+                .counter().count());
+        assertEquals(0, inFlight());
+    }
+
+    @Test
+    void clientDisconnectCancelsProviderStreamAndReleasesSlots() throws InterruptedException {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CountDownLatch subscribed = new CountDownLatch(1);
+        model.set(listener -> Flux.<String>never()
+                .doOnSubscribe(subscription -> subscribed.countDown())
+                .doOnCancel(() -> cancelled.set(true)));
+
+        Disposable subscriber = chatService.streamChatRequest(request("hi"), "c3").subscribe();
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, inFlight());
+        subscriber.dispose();
+
+        assertTrue(cancelled.get());
+        assertEquals(0, inFlight());
+        assertEquals(0, meterRegistry.get("chat.scheduler.in_flight").tag("lane", "interactive").gauge().value());
+        assertEquals(1, meterRegistry.get("chat.stream.cancelled.by_provider").tag("provider", "openai")
+                .counter().count());
+    }
+
+    /**
+     * ChatClient whose stream runs the current model script with the request's tool listener
+     */
+    private ChatClient client() {
+        AtomicReference<ToolProgressListener> listener = new AtomicReference<>();
+        ChatClient client = mock(ChatClient.class);
+        ChatClient.ChatClientRequestSpec spec = mock(ChatClient.ChatClientRequestSpec.class, RETURNS_SELF);
+        ChatClient.StreamResponseSpec stream = mock(ChatClient.StreamResponseSpec.class);
+        when(client.prompt()).thenReturn(spec);
+        doAnswer(invocation -> {
+            Map<String, Object> context = invocation.getArgument(0);
+            listener.set((ToolProgressListener) context.get(ToolProgressListener.CONTEXT_KEY));
+            return spec;
+        }).when(spec).toolContext(any());
+        when(spec.stream()).thenReturn(stream);
+        when(stream.content()).thenAnswer(invocation -> model.get().apply(listener.get()));
+        return client;
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("chat.limiter.in_flight").tag("provider", "openai").gauge().value();
+    }
+
+    private static List<String> contentsOf(List<ChatStreamEvent> events, String type) {
+        return events.stream().filter(event -> type.equals(event.getType())).map(ChatStreamEvent::getContent).toList();
+    }
+
+    private static ChatRequest request(String message) {
+        ChatRequest request = new ChatRequest();
+        request.setMessage(message);
+        return request;
+    }
+}
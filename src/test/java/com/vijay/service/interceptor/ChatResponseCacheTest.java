@@ -0,0 +1,97 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.config.ResponseCacheProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.service.AIClientService;
+import com.vijay.service.CachedToolService;
+import com.vijay.service.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatResponseCacheTest {
+
+    private final ChatMemory chatMemory = MessageWindowChatMemory.builder()
+            .chatMemoryRepository(new InMemoryChatMemoryRepository())
+            .build();
+    private final CachedToolService cachedToolService = mock(CachedToolService.class);
+    private final AtomicInteger providerCalls = new AtomicInteger();
+    private ChatResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        AIClientService aiClientService = mock(AIClientService.class);
+        when(aiClientService.getDefaultProvider()).thenReturn("openai");
+        when(cachedToolService.getToolSetVersion()).thenReturn("tools-v1");
+        cache = new ChatResponseCache(properties, new ConcurrentMapCacheManager(ChatResponseCache.CACHE_NAME),
+                cachedToolService, aiClientService, new MetricsService(new SimpleMeterRegistry()), chatMemory,
+                "be brief");
+    }
+
+    @Test
+    void repeatedQuestionIsServedFromCache() {
+        assertEquals("answer-1", ask(request("What is MCP?"), "c1"));
+        assertEquals("answer-1", ask(request("What is MCP?"), "c2"));
+        assertEquals("answer-2", ask(request("What is SSE?"), "c3"));
+
+        assertEquals(2, providerCalls.get());
+        // The cached turn is still written to the new conversation's memory
+        assertEquals(2, chatMemory.get("c2").size());
+    }
+
+    @Test
+    void conversationsWithHistoryBypassCache() {
+        ask(request("What is MCP?"), "c1");
+        ask(request("What is MCP?"), "c1");
+
+        assertEquals(2, providerCalls.get());
+    }
+
+    @Test
+    void noCacheBypassesCache() {
+        // The controller maps "Cache-Control: no-cache" onto the same flag
+        ask(request("What is MCP?"), "c1");
+        ChatRequest noCache = request("What is MCP?");
+        noCache.setNoCache(true);
+
+        assertEquals("answer-2", ask(noCache, "c2"));
+        assertEquals(2, providerCalls.get());
+    }
+
+    @Test
+    void toolSetChangeInvalidatesCachedAnswers() {
+        ask(request("List my tools"), "c1");
+        when(cachedToolService.getToolSetVersion()).thenReturn("tools-v2");
+
+        assertEquals("answer-2", ask(request("List my tools"), "c2"));
+        assertEquals(2, providerCalls.get());
+    }
+
+    private String ask(ChatRequest request, String conversationId) {
+        return cache.intercept(request, conversationId, () -> {
+            ChatResponse response = new ChatResponse("openai", "", "answer-" + providerCalls.incrementAndGet());
+            chatMemory.add(conversationId, new UserMessage(request.getMessage()));
+            return response;
+        }).getAnswer();
+    }
+
+    private static ChatRequest request(String message) {
+        ChatRequest request = new ChatRequest();
+        request.setMessage(message);
+        return request;
+    }
+}
@@ -0,0 +1,100 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.config.CoalescingProperties;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.service.AIClientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CoalescingChatInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChatMemory chatMemory = MessageWindowChatMemory.builder().build();
+
+    private CoalescingChatInterceptor interceptor(boolean enabled) {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setEnabled(enabled);
+        AIClientService aiClientService = mock(AIClientService.class);
+        when(aiClientService.getDefaultProvider()).thenReturn("gemini");
+        return new CoalescingChatInterceptor(properties, aiClientService, chatMemory, "system", meterRegistry);
+    }
+
+    private static ChatRequest request(String message) {
+        ChatRequest request = new ChatRequest();
+        request.setMessage(message);
+        request.setProvider("gemini");
+        return request;
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() throws Exception {
+        CoalescingChatInterceptor interceptor = interceptor(true);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<?>[] futures = new CompletableFuture[callers];
+            for (int i = 0; i < callers; i++) {
+                String conversationId = "conv-" + i;
+                futures[i] = CompletableFuture.supplyAsync(() -> interceptor.intercept(
+                        request("List  sample FAQs "), conversationId, () -> {
+                            upstreamCalls.incrementAndGet();
+                            await(release);
+                            return new ChatResponse("gemini", "", "faqs");
+                        }), executor);
+            }
+            // Give followers time to attach to the leader before it completes
+            Thread.sleep(200);
+            release.countDown();
+            CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals((callers - 1) / (double) callers,
+                meterRegistry.get("chat.coalescing.ratio").gauge().value(), 0.001);
+        // Followers still get the turn in their own conversation memory
+        long followersWithTurn = IntStream.range(0, callers)
+                .filter(i -> chatMemory.get("conv-" + i).size() == 2)
+                .count();
+        assertEquals(callers - 1, followersWithTurn);
+    }
+
+    @Test
+    void requestsWithConversationHistoryAreNotCoalesced() {
+        CoalescingChatInterceptor interceptor = interceptor(true);
+        chatMemory.add("conv-1", new UserMessage("earlier turn"));
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        interceptor.intercept(request("hello"), "conv-1", () -> {
+            upstreamCalls.incrementAndGet();
+            return new ChatResponse("gemini", "", "hi");
+        });
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("chat.coalescing.requests").tag("role", "bypass").counter().count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
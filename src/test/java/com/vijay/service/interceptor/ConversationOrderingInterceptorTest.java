@@ -0,0 +1,215 @@
+package com.vijay.service.interceptor;
+
+import com.vijay.config.ConversationOrderingProperties;
+import com.vijay.exception.ConversationBusyException;
+import com.vijay.model.ChatRequest;
+import com.vijay.model.ChatResponse;
+import com.vijay.service.AIClientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConversationOrderingInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConversationOrderingProperties properties = new ConversationOrderingProperties();
+    private final ConversationLocks locks = new ConversationLocks(properties, meterRegistry);
+
+    private ConversationOrderingInterceptor interceptor(ConversationOrderingProperties.Policy policy) {
+        properties.setPolicy(policy);
+        AIClientService aiClientService = mock(AIClientService.class);
+        when(aiClientService.getDefaultProvider()).thenReturn("gemini");
+        return new ConversationOrderingInterceptor(properties, locks, aiClientService, "system", meterRegistry);
+    }
+
+    private static ChatRequest request(String message) {
+        ChatRequest request = new ChatRequest();
+        request.setMessage(message);
+        return request;
+    }
+
+    @Test
+    void sameConversationRunsOneAtATimeInArrivalOrder() throws Exception {
+        ConversationOrderingInterceptor interceptor = interceptor(ConversationOrderingProperties.Policy.QUEUE);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<ChatResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                int turn = i;
+                futures.add(CompletableFuture.supplyAsync(() -> interceptor.intercept(request("turn " + turn), "c1", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    order.add(turn);
+                    sleep(2);
+                    running.decrementAndGet();
+                    return new ChatResponse("gemini", "", "ok");
+                }), executor));
+                // Give each request time to queue behind the previous one
+                Thread.sleep(1);
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(20, order.size());
+        assertEquals(0, locks.activeConversations());
+        assertTrue(meterRegistry.get("chat.conversation.ordering.wait").timer().count() > 0);
+    }
+
+    @Test
+    void differentConversationsStayParallel() throws Exception {
+        ConversationOrderingInterceptor interceptor = interceptor(ConversationOrderingProperties.Policy.QUEUE);
+        int conversations = 10;
+        CountDownLatch allInside = new CountDownLatch(conversations);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<ChatResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < conversations; i++) {
+                String conversationId = "c" + i;
+                futures.add(CompletableFuture.supplyAsync(() -> interceptor.intercept(request("hi"), conversationId, () -> {
+                    allInside.countDown();
+                    try {
+                        // Only completes if every conversation is inside at the same time
+                        assertTrue(allInside.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new ChatResponse("gemini", "", "ok");
+                }), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(conversations, (long) meterRegistry.get("chat.conversation.ordering.requests")
+                .tag("outcome", "immediate").counter().count());
+    }
+
+    @Test
+    void rejectPolicyFailsFastWithConflict() throws Exception {
+        ConversationOrderingInterceptor interceptor = interceptor(ConversationOrderingProperties.Policy.REJECT);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<ChatResponse> first = CompletableFuture.supplyAsync(() ->
+                    interceptor.intercept(request("first"), "c1", () -> {
+                        inside.countDown();
+                        await(release);
+                        return new ChatResponse("gemini", "", "first");
+                    }), executor);
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+            ConversationBusyException busy = assertThrows(ConversationBusyException.class, () ->
+                    interceptor.intercept(request("second"), "c1", () -> new ChatResponse("gemini", "", "second")));
+            assertEquals(409, busy.getHttpStatus());
+            // Other conversations are unaffected
+            assertEquals("other", interceptor.intercept(request("x"), "c2",
+                    () -> new ChatResponse("gemini", "", "other")).getAnswer());
+
+            release.countDown();
+            assertEquals("first", first.get(5, TimeUnit.SECONDS).getAnswer());
+        }
+        assertEquals(0, locks.activeConversations());
+    }
+
+    @Test
+    void queuedRequestGivesUpAfterMaxWait() throws Exception {
+        properties.setMaxWait(Duration.ofMillis(50));
+        ConversationOrderingInterceptor interceptor = interceptor(ConversationOrderingProperties.Policy.QUEUE);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<ChatResponse> first = CompletableFuture.supplyAsync(() ->
+                    interceptor.intercept(request("first"), "c1", () -> {
+                        inside.countDown();
+                        await(release);
+                        return new ChatResponse("gemini", "", "first");
+                    }), executor);
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+            assertThrows(ConversationBusyException.class, () ->
+                    interceptor.intercept(request("second"), "c1", () -> new ChatResponse("gemini", "", "second")));
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void coalescePolicySharesRepeatedTurn() throws Exception {
+        ConversationOrderingInterceptor interceptor = interceptor(ConversationOrderingProperties.Policy.COALESCE);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<ChatResponse> first = CompletableFuture.supplyAsync(() ->
+                    interceptor.intercept(request("book a table"), "c1", () -> {
+                        upstreamCalls.incrementAndGet();
+                        inside.countDown();
+                        await(release);
+                        return new ChatResponse("gemini", "", "booked");
+                    }), executor);
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<ChatResponse> repeat = CompletableFuture.supplyAsync(() ->
+                    interceptor.intercept(request("book  a table"), "c1", () -> {
+                        upstreamCalls.incrementAndGet();
+                        return new ChatResponse("gemini", "", "booked twice");
+                    }), executor);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (meterRegistry.get("chat.conversation.ordering.requests").tag("outcome", "coalesced").counter().count() == 0
+                    && System.nanoTime() < deadline) {
+                sleep(1);
+            }
+            release.countDown();
+
+            assertEquals("booked", first.get(5, TimeUnit.SECONDS).getAnswer());
+            assertEquals("booked", repeat.get(5, TimeUnit.SECONDS).getAnswer());
+        }
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void failedRequestReleasesConversation() {
+        ConversationOrderingInterceptor interceptor = interceptor(ConversationOrderingProperties.Policy.REJECT);
+
+        assertThrows(IllegalStateException.class, () -> interceptor.intercept(request("boom"), "c1", () -> {
+            throw new IllegalStateException("upstream down");
+        }));
+
+        assertEquals("ok", interceptor.intercept(request("again"), "c1",
+                () -> new ChatResponse("gemini", "", "ok")).getAnswer());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
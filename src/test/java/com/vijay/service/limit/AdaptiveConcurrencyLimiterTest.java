@@ -0,0 +1,237 @@
+package com.vijay.service.limit;
+
+import com.vijay.config.ConcurrencyLimitProperties;
+import com.vijay.exception.ProviderOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConcurrencyLimitProperties properties;
+    private ConcurrencyLimitProperties.Limits limits;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        limits = new ConcurrencyLimitProperties.Limits();
+        limits.setInitialLimit(4);
+        limits.setMaxLimit(10);
+        limits.setMaxQueue(0);
+        properties.getProviders().put("gemini", limits);
+    }
+
+    @Test
+    void limitGrowsOnSuccessWhileInUse() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        limiter.acquire("gemini", "flash").close();
+        for (int round = 0; round < 20; round++) {
+            // Use the whole limit each round, like a saturated provider
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < (int) limiter.currentLimit("gemini", "flash"); i++) {
+                permits.add(limiter.acquire("gemini", "flash"));
+            }
+            permits.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+        }
+
+        assertEquals(10, limiter.currentLimit("gemini", "flash"));
+        assertEquals(10, meterRegistry.get("chat.limiter.limit").tag("provider", "gemini").tag("model", "flash")
+                .gauge().value());
+    }
+
+    @Test
+    void idleSuccessesDoNotGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire("gemini", "flash").onSuccess();
+        }
+
+        assertEquals(4, limiter.currentLimit("gemini", "flash"));
+    }
+
+    @Test
+    void concurrentFailuresBackOffOnce() {
+        limits.setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(limiter.acquire("gemini", "flash"));
+        }
+
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::onDropped);
+        assertEquals(2, limiter.currentLimit("gemini", "flash"));
+
+        // A call started after the decrease can back off again
+        limiter.acquire("gemini", "flash").onDropped();
+        assertEquals(1, limiter.currentLimit("gemini", "flash"));
+    }
+
+    @Test
+    void slowResponseCountsAsOverload() {
+        limits.setBackoffRatio(0.5);
+        limits.setLatencyThreshold(Duration.ofSeconds(1));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        limiter.acquire("gemini", "flash").onSuccess(TimeUnit.SECONDS.toNanos(2));
+
+        assertEquals(2, limiter.currentLimit("gemini", "flash"));
+    }
+
+    @Test
+    void onlyOverloadFailuresBackOff() {
+        limits.setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        limiter.acquire("gemini", "flash").onFailure(new NonTransientAiException("401 - invalid api key"));
+        limiter.acquire("gemini", "flash").onFailure(new IllegalArgumentException("bad request"));
+        assertEquals(4, limiter.currentLimit("gemini", "flash"));
+        assertEquals(0, meterRegistry.get("chat.limiter.in_flight").gauge().value());
+
+        limiter.acquire("gemini", "flash").onFailure(new NonTransientAiException("429 - rate limited"));
+        assertEquals(2, limiter.currentLimit("gemini", "flash"));
+        limiter.acquire("gemini", "flash").onFailure(new ResourceAccessException("I/O error",
+                new SocketTimeoutException("Read timed out")));
+        assertEquals(1, limiter.currentLimit("gemini", "flash"));
+    }
+
+    @Test
+    void overLimitIsRejectedWhenQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire("gemini", "flash");
+        }
+
+        assertThrows(ProviderOverloadedException.class, () -> limiter.acquire("gemini", "flash"));
+        assertEquals(1, meterRegistry.get("chat.limiter.requests").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void queuedRequestGetsFreedSlot() throws Exception {
+        limits.setInitialLimit(1);
+        limits.setMaxQueue(1);
+        limits.setMaxWait(Duration.ofSeconds(5));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire("gemini", "flash");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<AdaptiveConcurrencyLimiter.Permit> queued = executor.submit(() -> limiter.acquire("gemini", "flash"));
+            while (meterRegistry.get("chat.limiter.queued").gauge().value() < 1) {
+                Thread.sleep(5);
+            }
+            // Queue is full now
+            assertThrows(ProviderOverloadedException.class, () -> limiter.acquire("gemini", "flash"));
+
+            held.close();
+            queued.get(5, TimeUnit.SECONDS).close();
+            assertEquals(1, meterRegistry.get("chat.limiter.requests").tag("outcome", "waited").counter().count());
+            assertEquals(0, meterRegistry.get("chat.limiter.in_flight").gauge().value());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void queuedRequestTimesOut() {
+        limits.setInitialLimit(1);
+        limits.setMaxQueue(1);
+        limits.setMaxWait(Duration.ofMillis(50));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        limiter.acquire("gemini", "flash");
+
+        assertThrows(ProviderOverloadedException.class, () -> limiter.acquire("gemini", "flash"));
+        assertEquals(0, meterRegistry.get("chat.limiter.queued").gauge().value());
+    }
+
+    @Test
+    void modelsBeyondMaxShareProviderLimit() {
+        properties.setMaxModels(1);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        limiter.acquire("gemini", "flash").close();
+        limiter.acquire("gemini", "pro").close();
+        limiter.acquire("gemini", "ultra").close();
+
+        assertEquals(4, limiter.currentLimit("gemini", "flash"));
+        assertEquals(4, limiter.currentLimit("gemini", "*"));
+        assertEquals(-1, limiter.currentLimit("gemini", "pro"));
+    }
+
+    @Test
+    void limitConvergesToBackendCapacity() throws Exception {
+        int capacity = 6;
+        limits.setInitialLimit(1);
+        limits.setMaxLimit(50);
+        limits.setMaxQueue(100);
+        limits.setMaxWait(Duration.ofSeconds(5));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        AtomicInteger backendInFlight = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(16);
+        List<Double> observed = new ArrayList<>();
+
+        // Backend that fails calls beyond its capacity, like a throttling provider
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 16; i++) {
+            clients.execute(() -> {
+                try {
+                    while (running.get()) {
+                        AdaptiveConcurrencyLimiter.Permit permit;
+                        try {
+                            permit = limiter.acquire("gemini", "flash");
+                        } catch (ProviderOverloadedException e) {
+                            continue;
+                        }
+                        boolean overloaded = backendInFlight.incrementAndGet() > capacity;
+                        try {
+                            Thread.sleep(2);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } finally {
+                            backendInFlight.decrementAndGet();
+                        }
+                        if (overloaded) {
+                            permit.onDropped();
+                        } else {
+                            permit.onSuccess();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        for (int i = 0; i < 40; i++) {
+            Thread.sleep(25);
+            observed.add(limiter.currentLimit("gemini", "flash"));
+        }
+        running.set(false);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        clients.shutdownNow();
+
+        // Second half of the run: the limit oscillates around the capacity, far from 1 and 50
+        double mean = observed.subList(20, 40).stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        assertTrue(mean > capacity / 2.0 && mean < capacity * 2.0, "limit " + observed);
+    }
+}
@@ -0,0 +1,184 @@
+package com.vijay.service.resilience;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vijay.config.ResilienceProperties;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.event.RetryOnErrorEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test against a local stub provider that fails a configurable share of requests
+ */
+class BudgetedRetryTest {
+
+    static {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final int CALLS_PER_PHASE = 200;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamRequests = new AtomicInteger();
+    // Every n-th request succeeds; 1 means healthy
+    private volatile int successEvery = 1;
+    private HttpServer server;
+    private RestClient restClient;
+    private Retry retry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", exchange -> {
+            int request = upstreamRequests.incrementAndGet();
+            boolean fail = request % successEvery != 0;
+            byte[] body = (fail ? "{\"error\":\"overloaded\"}" : "{\"answer\":\"ok\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(fail ? 503 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        restClient = RestClient.builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort())
+                .build();
+        retry = Retry.of("gemini/flash", RetryConfig.custom()
+                .maxAttempts(3)
+                .waitDuration(Duration.ofMillis(1))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void budgetCapsRetryAmplificationDuringBrownOut() throws Exception {
+        RetryBudget budget = new RetryBudget("gemini", settings(true), meterRegistry);
+
+        double amplification = brownOutAmplification(budget);
+
+        // 80% failures with three attempts would send ~2.4x; the budget keeps retries near 10% of traffic
+        assertTrue(amplification < 1.35, "amplification " + amplification);
+        assertTrue(meterRegistry.get("chat.retry.budget.retries").tag("result", "denied").counter().count() > 0);
+    }
+
+    @Test
+    void withoutBudgetEveryFailureIsRetried() throws Exception {
+        RetryBudget budget = new RetryBudget("gemini", settings(false), meterRegistry);
+
+        double amplification = brownOutAmplification(budget);
+
+        assertTrue(amplification > 2.0, "amplification " + amplification);
+        assertEquals(0, meterRegistry.get("chat.retry.budget.retries").tag("result", "denied").counter().count());
+    }
+
+    @Test
+    void deniedRetryRethrowsLastFailure() {
+        ResilienceProperties.RetryBudget settings = settings(true);
+        settings.setMinRetriesPerSecond(0);
+        RetryBudget budget = new RetryBudget("gemini", settings, meterRegistry);
+        successEvery = Integer.MAX_VALUE;
+        List<RetryOnErrorEvent> errors = new ArrayList<>();
+        retry.getEventPublisher().onError(errors::add);
+
+        RestClientException thrown = assertThrows(RestClientException.class,
+                () -> BudgetedRetry.decorateSupplier(retry, budget, this::callProvider).get());
+
+        assertEquals(1, upstreamRequests.get());
+        assertEquals(1, errors.size());
+        assertEquals(1, errors.get(0).getNumberOfRetryAttempts());
+        assertSame(thrown, errors.get(0).getLastThrowable());
+        assertEquals(1, meterRegistry.get("chat.retry.budget.calls").tag("kind", "failed_without_retry")
+                .counter().count());
+        assertEquals(0, meterRegistry.get("chat.retry.budget.calls").tag("kind", "failed_with_retry")
+                .counter().count());
+    }
+
+    @Test
+    void retriesAfterFinalAttemptDoNotSpendBudget() {
+        RetryBudget budget = new RetryBudget("gemini", settings(true), meterRegistry);
+        successEvery = Integer.MAX_VALUE;
+
+        assertThrows(RestClientException.class, () -> BudgetedRetry.decorateSupplier(retry, budget, this::callProvider).get());
+
+        assertEquals(3, upstreamRequests.get());
+        assertEquals(2, meterRegistry.get("chat.retry.budget.retries").tag("result", "granted").counter().count());
+    }
+
+    /**
+     * Upstream requests per client call while the provider fails 80% of requests, after a healthy warm-up
+     */
+    private double brownOutAmplification(RetryBudget budget) throws Exception {
+        Supplier<String> call = BudgetedRetry.decorateSupplier(retry, budget, this::callProvider);
+
+        successEvery = 1;
+        runConcurrently(call);
+
+        successEvery = 5;
+        int before = upstreamRequests.get();
+        runConcurrently(call);
+        return (double) (upstreamRequests.get() - before) / CALLS_PER_PHASE;
+    }
+
+    private void runConcurrently(Supplier<String> call) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLS_PER_PHASE; i++) {
+                futures.add(clients.submit(() -> {
+                    try {
+                        call.get();
+                    } catch (RestClientException e) {
+                        // Failed calls are expected during the brown-out
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    private String callProvider() {
+        return restClient.post()
+                .uri("/v1/chat/completions")
+                .body("{}")
+                .retrieve()
+                .body(String.class);
+    }
+
+    private static ResilienceProperties.RetryBudget settings(boolean enabled) {
+        ResilienceProperties.RetryBudget settings = new ResilienceProperties.RetryBudget();
+        settings.setEnabled(enabled);
+        settings.setRatio(0.1);
+        settings.setMinRetriesPerSecond(1);
+        settings.setWindow(Duration.ofSeconds(10));
+        return settings;
+    }
+}
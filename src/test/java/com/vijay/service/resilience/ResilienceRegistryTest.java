@@ -0,0 +1,84 @@
+package com.vijay.service.resilience;
+
+import com.vijay.config.ResilienceProperties;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResilienceRegistryTest {
+
+    private final ResilienceProperties properties = new ResilienceProperties();
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+    private ResilienceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry.addConfiguration("ollama",
+                CircuitBreakerConfig.custom().failureRateThreshold(80).build());
+        circuitBreakerRegistry.addConfiguration("gemini/gemini-2.5-pro",
+                CircuitBreakerConfig.custom().failureRateThreshold(20).build());
+        timeLimiterRegistry.addConfiguration("ollama",
+                TimeLimiterConfig.custom().timeoutDuration(Duration.ofMinutes(2)).build());
+        bulkheadRegistry.addConfiguration("mcp", BulkheadConfig.custom().maxConcurrentCalls(4).build());
+        registry = new ResilienceRegistry(properties, circuitBreakerRegistry, RetryRegistry.ofDefaults(),
+                timeLimiterRegistry, bulkheadRegistry, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void policiesArePerProviderAndModel() {
+        ResilienceRegistry.Policies flash = registry.forProvider("gemini", "gemini-2.0-flash");
+
+        assertSame(flash, registry.forProvider("gemini", "gemini-2.0-flash"));
+        assertNotSame(flash.circuitBreaker(), registry.forProvider("gemini", "gemini-2.5-pro").circuitBreaker());
+        assertEquals("gemini/gemini-2.0-flash", flash.circuitBreaker().getName());
+        assertEquals("ollama/default", registry.forProvider("ollama", null).name());
+        assertEquals(3, circuitBreakerRegistry.getAllCircuitBreakers().size());
+    }
+
+    @Test
+    void mostSpecificNamedConfigWins() {
+        assertEquals(20, registry.forProvider("gemini", "gemini-2.5-pro").circuitBreaker()
+                .getCircuitBreakerConfig().getFailureRateThreshold());
+        assertEquals(80, registry.forProvider("ollama", "llama3.2").circuitBreaker()
+                .getCircuitBreakerConfig().getFailureRateThreshold());
+        assertEquals(Duration.ofMinutes(2), registry.forProvider("ollama", "llama3.2").timeLimiter()
+                .getTimeLimiterConfig().getTimeoutDuration());
+        assertEquals(50, registry.forProvider("gemini", "gemini-2.0-flash").circuitBreaker()
+                .getCircuitBreakerConfig().getFailureRateThreshold());
+    }
+
+    @Test
+    void mcpServersFallBackToMcpConfig() {
+        ResilienceRegistry.Policies weather = registry.forMcpServer("weather");
+
+        assertEquals("mcp/weather", weather.name());
+        assertEquals(4, weather.bulkhead().getBulkheadConfig().getMaxConcurrentCalls());
+        assertNotSame(weather.circuitBreaker(), registry.forMcpServer("files").circuitBreaker());
+    }
+
+    @Test
+    void modelsBeyondMaxShareProviderPolicies() {
+        properties.setMaxModels(1);
+
+        registry.forProvider("gemini", "a");
+        ResilienceRegistry.Policies b = registry.forProvider("gemini", "b");
+
+        assertEquals("gemini/*", b.name());
+        assertSame(b, registry.forProvider("gemini", "c"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.vijay.service.resilience;
+
+import com.vijay.config.ResilienceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private ResilienceProperties.RetryBudget settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = new ResilienceProperties.RetryBudget();
+        settings.setRatio(0.1);
+        settings.setMinRetriesPerSecond(0);
+        settings.setWindow(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void retriesAreLimitedToRatioOfSuccesses() {
+        RetryBudget budget = new RetryBudget("gemini", settings, meterRegistry, nanoTime::get);
+        for (int i = 0; i < 100; i++) {
+            budget.recordSuccess();
+        }
+
+        int granted = 0;
+        while (budget.tryRetry()) {
+            granted++;
+        }
+
+        assertEquals(10, granted);
+        assertEquals(10, meterRegistry.get("chat.retry.budget.retries").tag("provider", "gemini")
+                .tag("result", "granted").counter().count());
+        assertEquals(1, meterRegistry.get("chat.retry.budget.retries").tag("provider", "gemini")
+                .tag("result", "denied").counter().count());
+        assertEquals(0, meterRegistry.get("chat.retry.budget.available").tag("provider", "gemini").gauge().value());
+    }
+
+    @Test
+    void minimumRetriesAllowWithoutTraffic() {
+        settings.setMinRetriesPerSecond(0.5);
+        RetryBudget budget = new RetryBudget("ollama", settings, meterRegistry, nanoTime::get);
+
+        int granted = 0;
+        while (budget.tryRetry()) {
+            granted++;
+        }
+
+        assertEquals(5, granted);
+    }
+
+    @Test
+    void oldTrafficLeavesTheWindow() {
+        RetryBudget budget = new RetryBudget("gemini", settings, meterRegistry, nanoTime::get);
+        for (int i = 0; i < 50; i++) {
+            budget.recordSuccess();
+        }
+        assertTrue(budget.tryRetry());
+
+        // The buckets are reused a full window later; the successes no longer count
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertFalse(budget.tryRetry());
+
+        for (int i = 0; i < 10; i++) {
+            budget.recordSuccess();
+        }
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+    }
+
+    @Test
+    void spentRetriesExpireWithTheirBucket() {
+        RetryBudget budget = new RetryBudget("gemini", settings, meterRegistry, nanoTime::get);
+        for (int i = 0; i < 20; i++) {
+            budget.recordSuccess();
+        }
+        assertTrue(budget.tryRetry());
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+
+        // New successes in a later second; the old retries and successes stay inside the window
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        for (int i = 0; i < 10; i++) {
+            budget.recordSuccess();
+        }
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+    }
+
+    @Test
+    void disabledBudgetGrantsEveryRetry() {
+        settings.setEnabled(false);
+        RetryBudget budget = new RetryBudget("gemini", settings, meterRegistry, nanoTime::get);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(budget.tryRetry());
+        }
+    }
+
+    @Test
+    void concurrentRecordingLosesNoUpdates() throws InterruptedException {
+        RetryBudget budget = new RetryBudget("gemini", settings, meterRegistry, nanoTime::get);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 2_500; i++) {
+                    budget.recordSuccess();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        while (budget.tryRetry()) {
+            granted.incrementAndGet();
+        }
+        assertEquals(1_000, granted.get());
+    }
+}
@@ -0,0 +1,199 @@
+package com.vijay.service.scheduling;
+
+import com.vijay.config.SchedulingProperties;
+import com.vijay.config.SchedulingProperties.Lane;
+import com.vijay.exception.LaneSaturatedException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedFairSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> grants = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> waiters = new ArrayList<>();
+    private SchedulingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SchedulingProperties();
+        properties.setMaxConcurrency(2);
+        limits(Lane.INTERACTIVE).setMaxConcurrency(2);
+        limits(Lane.BATCH).setMaxConcurrency(1);
+        limits(Lane.BATCH).setMaxWait(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void laneCapQueuesThenRejects() {
+        limits(Lane.BATCH).setMaxQueue(0);
+        limits(Lane.BATCH).setMaxWait(Duration.ofMillis(50));
+        WeightedFairScheduler scheduler = new WeightedFairScheduler(properties, meterRegistry);
+
+        WeightedFairScheduler.Slot held = scheduler.acquire(Lane.BATCH, "a");
+        assertThrows(LaneSaturatedException.class, () -> scheduler.acquire(Lane.BATCH, "a"));
+
+        limits(Lane.BATCH).setMaxQueue(10);
+        assertThrows(LaneSaturatedException.class, () -> scheduler.acquire(Lane.BATCH, "a"));
+
+        held.close();
+        scheduler.acquire(Lane.BATCH, "a").close();
+        assertEquals(1, counter(Lane.BATCH, "rejected"));
+        assertEquals(1, counter(Lane.BATCH, "timeout"));
+        assertEquals(2, counter(Lane.BATCH, "immediate"));
+        assertEquals(2, meterRegistry.get("chat.scheduler.completed").tag("lane", "batch").counter().count());
+    }
+
+    @Test
+    void batchCapLeavesRoomForInteractive() {
+        WeightedFairScheduler scheduler = new WeightedFairScheduler(properties, meterRegistry);
+
+        WeightedFairScheduler.Slot batch = scheduler.acquire(Lane.BATCH, "bulk");
+        WeightedFairScheduler.Slot interactive = scheduler.acquire(Lane.INTERACTIVE, "ui");
+
+        assertEquals(1, gauge("chat.scheduler.in_flight", Lane.BATCH));
+        assertEquals(1, gauge("chat.scheduler.in_flight", Lane.INTERACTIVE));
+        batch.close();
+        interactive.close();
+    }
+
+    @Test
+    void freedSlotGoesToHigherLaneFirst() throws InterruptedException {
+        limits(Lane.BATCH).setMaxConcurrency(2);
+        WeightedFairScheduler scheduler = new WeightedFairScheduler(properties, meterRegistry);
+        WeightedFairScheduler.Slot first = scheduler.acquire(Lane.BATCH, "bulk");
+        WeightedFairScheduler.Slot second = scheduler.acquire(Lane.BATCH, "bulk");
+
+        enqueue(scheduler, Lane.BATCH, "bulk");
+        enqueue(scheduler, Lane.INTERACTIVE, "ui");
+        // The interactive waiter's release in turn admits the batch waiter
+        first.close();
+        awaitWaiters();
+        second.close();
+
+        assertEquals(List.of("interactive:ui", "batch:bulk"), grants);
+    }
+
+    @Test
+    void newTenantIsNotStuckBehindBacklog() throws InterruptedException {
+        WeightedFairScheduler scheduler = new WeightedFairScheduler(properties, meterRegistry);
+        WeightedFairScheduler.Slot held = scheduler.acquire(Lane.BATCH, "heavy");
+
+        for (int i = 0; i < 5; i++) {
+            enqueue(scheduler, Lane.BATCH, "heavy");
+        }
+        enqueue(scheduler, Lane.BATCH, "light");
+        held.close();
+        awaitWaiters();
+
+        assertEquals("batch:light", grants.get(1), grants.toString());
+    }
+
+    @Test
+    void weightsSplitSlotsProportionally() throws InterruptedException {
+        properties.getTenantWeights().put("gold", 3);
+        WeightedFairScheduler scheduler = new WeightedFairScheduler(properties, meterRegistry);
+        WeightedFairScheduler.Slot held = scheduler.acquire(Lane.BATCH, "gold");
+
+        for (int i = 0; i < 8; i++) {
+            enqueue(scheduler, Lane.BATCH, "gold");
+            enqueue(scheduler, Lane.BATCH, "bronze");
+        }
+        held.close();
+        awaitWaiters();
+
+        long gold = grants.subList(0, 8).stream().filter("batch:gold"::equals).count();
+        assertEquals(6, gold, grants.toString());
+    }
+
+    @Test
+    void interactiveWaitStaysFlatWhileBatchSaturates() throws Exception {
+        properties.setMaxConcurrency(8);
+        limits(Lane.INTERACTIVE).setMaxConcurrency(8);
+        limits(Lane.BATCH).setMaxConcurrency(6);
+        limits(Lane.BATCH).setMaxQueue(1000);
+        WeightedFairScheduler scheduler = new WeightedFairScheduler(properties, meterRegistry);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        List<Future<?>> batchClients = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            batchClients.add(pool.submit(() -> {
+                while (running.get()) {
+                    try (WeightedFairScheduler.Slot slot = scheduler.acquire(Lane.BATCH, "bulk")) {
+                        Thread.sleep(5);
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for (int i = 0; i < 50; i++) {
+                try (WeightedFairScheduler.Slot slot = scheduler.acquire(Lane.INTERACTIVE, "ui")) {
+                    Thread.sleep(2);
+                }
+            }
+            assertTrue(counter(Lane.BATCH, "waited") > 0, "batch lane was not saturated");
+        } finally {
+            running.set(false);
+            for (Future<?> client : batchClients) {
+                client.get(10, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+        }
+
+        Timer interactiveWait = meterRegistry.get("chat.scheduler.queue.wait").tag("lane", "interactive").timer();
+        assertEquals(50, counter(Lane.INTERACTIVE, "immediate"));
+        assertEquals(0, interactiveWait.count());
+    }
+
+    /**
+     * Start a thread that waits for a slot, records the grant and releases it at once
+     */
+    private void enqueue(WeightedFairScheduler scheduler, Lane lane, String tenant) throws InterruptedException {
+        double queued = gauge("chat.scheduler.queued", lane);
+        Thread waiter = Thread.ofPlatform().start(() -> {
+            try (WeightedFairScheduler.Slot slot = scheduler.acquire(lane, tenant)) {
+                grants.add(lane.tag() + ":" + tenant);
+            }
+        });
+        waiters.add(waiter);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge("chat.scheduler.queued", lane) == queued && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitWaiters() throws InterruptedException {
+        for (Thread waiter : waiters) {
+            waiter.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private SchedulingProperties.LaneLimits limits(Lane lane) {
+        return properties.forLane(lane);
+    }
+
+    private double gauge(String name, Lane lane) {
+        return meterRegistry.get(name).tag("lane", lane.tag()).gauge().value();
+    }
+
+    private double counter(Lane lane, String outcome) {
+        return meterRegistry.get("chat.scheduler.requests").tag("lane", lane.tag()).tag("outcome", outcome)
+                .counter().count();
+    }
+}
@@ -0,0 +1,115 @@
+package com.vijay.tool;
+
+import com.vijay.config.ToolExecutionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.DefaultToolDefinition;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.DefaultToolExecutionExceptionProcessor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ParallelToolCallingManagerTest {
+
+    private static final Duration TOOL_LATENCY = Duration.ofMillis(300);
+
+    @Test
+    void turnLatencyTracksSlowestToolAndKeepsCallOrder() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<ToolCallback> tools = List.of(
+                new SlowTool("alpha", running, maxRunning),
+                new SlowTool("beta", running, maxRunning),
+                new SlowTool("gamma", running, maxRunning));
+
+        ToolExecutionProperties properties = new ToolExecutionProperties();
+        properties.setMaxParallelism(3);
+
+        long start = System.nanoTime();
+        ToolExecutionResult result = manager(properties).executeToolCalls(prompt(tools), toolCalls("gamma", "alpha", "beta"));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(elapsed.compareTo(TOOL_LATENCY.multipliedBy(2)) < 0, "took " + elapsed);
+        assertEquals(3, maxRunning.get());
+        assertEquals(List.of("gamma", "alpha", "beta"), responseNames(result));
+    }
+
+    @Test
+    void perTurnCapLimitsConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<ToolCallback> tools = List.of(
+                new SlowTool("alpha", running, maxRunning),
+                new SlowTool("beta", running, maxRunning),
+                new SlowTool("gamma", running, maxRunning));
+
+        ToolExecutionProperties properties = new ToolExecutionProperties();
+        properties.setMaxParallelism(2);
+
+        manager(properties).executeToolCalls(prompt(tools), toolCalls("alpha", "beta", "gamma"));
+
+        assertEquals(2, maxRunning.get());
+    }
+
+    private static ParallelToolCallingManager manager(ToolExecutionProperties properties) {
+        return new ParallelToolCallingManager(mock(ToolCallingManager.class), toolName -> null,
+                DefaultToolExecutionExceptionProcessor.builder().build(), properties, new SimpleMeterRegistry());
+    }
+
+    private static Prompt prompt(List<ToolCallback> tools) {
+        return new Prompt(List.of(new UserMessage("run the tools")),
+                ToolCallingChatOptions.builder().toolCallbacks(tools).build());
+    }
+
+    private static ChatResponse toolCalls(String... names) {
+        List<AssistantMessage.ToolCall> calls = java.util.Arrays.stream(names)
+                .map(name -> new AssistantMessage.ToolCall("id-" + name, "function", name, "{}"))
+                .toList();
+        return new ChatResponse(List.of(new Generation(new AssistantMessage("", Map.of(), calls))));
+    }
+
+    private static List<String> responseNames(ToolExecutionResult result) {
+        List<Message> history = result.conversationHistory();
+        ToolResponseMessage responses = (ToolResponseMessage) history.get(history.size() - 1);
+        return responses.getResponses().stream().map(ToolResponseMessage.ToolResponse::responseData).toList();
+    }
+
+    private record SlowTool(String name, AtomicInteger running, AtomicInteger maxRunning) implements ToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return DefaultToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(TOOL_LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return name;
+        }
+    }
+}
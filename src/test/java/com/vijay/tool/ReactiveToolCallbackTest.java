@@ -0,0 +1,81 @@
+package com.vijay.tool;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.definition.DefaultToolDefinition;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The async tool path against a stand-in tool with fixed latency
+ */
+class ReactiveToolCallbackTest {
+
+    private static final int CONVERSATIONS = 1000;
+    private static final Duration TOOL_LATENCY = Duration.ofMillis(100);
+
+    @Test
+    void concurrentCallsComposeWithoutBlocking() {
+        StandInTool tool = new StandInTool(Mono.delay(TOOL_LATENCY).thenReturn("ok"));
+
+        List<String> results = Flux.range(0, CONVERSATIONS)
+                .flatMap(i -> tool.callReactive("{}", null), CONVERSATIONS)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(CONVERSATIONS, results.size());
+        assertTrue(results.stream().allMatch("ok"::equals));
+    }
+
+    @Test
+    void blockingCallReturnsTheReactiveResult() {
+        StandInTool tool = new StandInTool(Mono.delay(TOOL_LATENCY).thenReturn("ok"));
+
+        assertEquals("ok", tool.call("{}"));
+    }
+
+    @Test
+    void interruptingBlockedCallerCancelsToolCall() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CountDownLatch subscribed = new CountDownLatch(1);
+        StandInTool tool = new StandInTool(Mono.<String>never()
+                .doOnSubscribe(s -> subscribed.countDown())
+                .doOnCancel(() -> cancelled.set(true)));
+
+        Thread caller = Thread.startVirtualThread(() -> {
+            try {
+                tool.call("{}");
+            } catch (IllegalStateException expected) {
+                // interrupted
+            }
+        });
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(5000);
+
+        assertTrue(cancelled.get());
+    }
+
+    private record StandInTool(Mono<String> response) implements ReactiveToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return DefaultToolDefinition.builder().name("standIn").description("stand-in").inputSchema("{}").build();
+        }
+
+        @Override
+        public Mono<String> callReactive(String toolInput, ToolContext toolContext) {
+            return response;
+        }
+    }
+}